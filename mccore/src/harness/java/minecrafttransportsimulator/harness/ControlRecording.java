@@ -0,0 +1,104 @@
+package minecrafttransportsimulator.harness;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
+import minecrafttransportsimulator.entities.components.AEntityB_Existing;
+import minecrafttransportsimulator.entities.instances.APart;
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.harness.ControlScript.ControlFrame;
+import minecrafttransportsimulator.packloading.JSONParser;
+
+/**
+ * A recording of a harness run.  This holds what was run, the controls every vehicle had every tick,
+ * and a hash of the state of all vehicles after every tick.  Replaying a recording applies the same
+ * controls, and compares the state hashes, so any change to physics that changes how vehicles move
+ * shows up as the first tick where the hashes differ.
+ * <br><br>
+ * Hashes are of the exact bits of the positions, orientations, and motions of the vehicles and their parts,
+ * so they will only match on the same code and JVM.  Some things in the core are random, such as engine
+ * failures from wear, and some use the wall clock.  Vehicles in the harness are creative so they don't wear,
+ * but packs that use random or time-based variables in their animations won't replay the same.
+ *
+ * @author don_bruce
+ */
+public class ControlRecording {
+    public String vehicle;
+    public int count;
+    public String terrain;
+    public String script;
+    public List<RecordedTick> ticks = new ArrayList<>();
+
+    /**
+     * Loads the recording from the passed-in file.
+     */
+    public static ControlRecording load(File file) throws IOException {
+        try (FileInputStream stream = new FileInputStream(file)) {
+            return JSONParser.parseStream(stream, ControlRecording.class, null, null);
+        }
+    }
+
+    /**
+     * Saves this recording to the passed-in file.
+     */
+    public void save(File file) throws IOException {
+        JSONParser.exportStream(this, new FileOutputStream(file));
+    }
+
+    /**
+     * Returns the hash of the state of the passed-in vehicles, in hex.
+     */
+    public static String getStateHash(List<EntityVehicleF_Physics> vehicles) {
+        long hash = 0xCBF29CE484222325L;
+        for (EntityVehicleF_Physics vehicle : vehicles) {
+            hash = hashEntity(hash, vehicle);
+            for (APart part : vehicle.allParts) {
+                hash = hashEntity(hash, part);
+            }
+        }
+        return Long.toHexString(hash);
+    }
+
+    private static long hashEntity(long hash, AEntityB_Existing entity) {
+        hash = hashPoint(hash, entity.position);
+        hash = hashPoint(hash, entity.motion);
+        return hashRotation(hash, entity.orientation);
+    }
+
+    private static long hashPoint(long hash, Point3D point) {
+        hash = hashValue(hash, point.x);
+        hash = hashValue(hash, point.y);
+        return hashValue(hash, point.z);
+    }
+
+    private static long hashRotation(long hash, RotationMatrix rotation) {
+        hash = hashValue(hash, rotation.m00);
+        hash = hashValue(hash, rotation.m01);
+        hash = hashValue(hash, rotation.m02);
+        hash = hashValue(hash, rotation.m10);
+        hash = hashValue(hash, rotation.m11);
+        hash = hashValue(hash, rotation.m12);
+        hash = hashValue(hash, rotation.m20);
+        hash = hashValue(hash, rotation.m21);
+        return hashValue(hash, rotation.m22);
+    }
+
+    private static long hashValue(long hash, double value) {
+        //FNV-1a over the value's bits.
+        return (hash ^ Double.doubleToLongBits(value)) * 0x100000001B3L;
+    }
+
+    /**
+     * The controls for all vehicles for a single tick, and the state hash after that tick.
+     */
+    public static class RecordedTick {
+        public List<ControlFrame> frames = new ArrayList<>();
+        public String stateHash;
+    }
+}
@@ -0,0 +1,102 @@
+package minecrafttransportsimulator.harness;
+
+import minecrafttransportsimulator.entities.instances.AEntityVehicleE_Powered;
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.entities.instances.PartEngine;
+
+/**
+ * Scripted controls for harness vehicles.  Each script makes the controls for a vehicle for a tick
+ * from nothing but the vehicle's index and the tick, so the same script always drives the same way.
+ * Vehicles are offset in time by their index, so they aren't all doing the same thing at once.
+ * All scripts start the engines, and give them {@link #START_TICKS} to start before putting them in gear.
+ *
+ * @author don_bruce
+ */
+public enum ControlScript {
+    /**Engines on, parking brake on.  For timing vehicles that are sitting with their engines running.**/
+    IDLE,
+    /**Half throttle, with slow and gentle turns.**/
+    CRUISE,
+    /**Full throttle, with quick and hard turns.**/
+    SLALOM,
+    /**Accelerates, then brakes to a stop, over and over.**/
+    STOP_GO;
+
+    private static final int START_TICKS = 40;
+    private static final int VEHICLE_OFFSET_TICKS = 37;
+
+    /**
+     * Returns the controls for the passed-in vehicle index and tick.
+     */
+    public ControlFrame getFrame(int vehicleIndex, long tick) {
+        ControlFrame frame = new ControlFrame();
+        frame.engineOn = true;
+        if (tick < START_TICKS || this == IDLE) {
+            frame.parkingBrake = true;
+            return frame;
+        }
+        long time = tick - START_TICKS + vehicleIndex * VEHICLE_OFFSET_TICKS;
+        frame.gear = 1;
+        switch (this) {
+            case IDLE:
+                break;
+            case CRUISE: {
+                frame.throttle = 0.5;
+                frame.steering = 0.1 * Math.sin(2 * Math.PI * time / 400);
+                break;
+            }
+            case SLALOM: {
+                frame.throttle = 1.0;
+                frame.steering = 0.6 * Math.sin(2 * Math.PI * time / 120);
+                break;
+            }
+            case STOP_GO: {
+                if (time % 200 < 120) {
+                    frame.throttle = 0.8;
+                } else {
+                    frame.brake = 1.0;
+                }
+                break;
+            }
+        }
+        return frame;
+    }
+
+    /**
+     * The controls for a single vehicle for a single tick.  Throttle and brake are 0 to 1, and
+     * steering is -1 to 1, with positive being right.  Gear is the direction to drive in: 1 for
+     * forwards, -1 for reverse, and 0 for neutral; engines pick the actual gear as they would with
+     * automatic shifting.  This is also the recorded format, so fields are public for the JSON parser.
+     */
+    public static class ControlFrame {
+        public double throttle;
+        public double brake;
+        public double steering;
+        public boolean parkingBrake;
+        public boolean engineOn;
+        public int gear;
+
+        /**
+         * Applies these controls to the passed-in vehicle.  This sets the same variables the
+         * control packets from a player would, but without sending any packets.
+         */
+        public void apply(EntityVehicleF_Physics vehicle) {
+            vehicle.throttleVar.setTo(throttle * AEntityVehicleE_Powered.MAX_THROTTLE, false);
+            vehicle.brakeVar.setTo(brake, false);
+            vehicle.parkingBrakeVar.setActive(parkingBrake, false);
+            vehicle.rudderInputVar.setTo(steering * EntityVehicleF_Physics.MAX_RUDDER_ANGLE, false);
+            for (PartEngine engine : vehicle.engines) {
+                engine.magnetoVar.setActive(engineOn, false);
+                engine.electricStarterVar.setActive(engineOn && !engine.running, false);
+                //Shift the same way the control system does when not using the shifter.
+                if (gear > 0 && engine.currentGearVar.currentValue <= 0) {
+                    engine.shiftUpVar.setActive(true, false);
+                } else if (gear < 0 && engine.currentGearVar.currentValue >= 0) {
+                    engine.shiftDownVar.setActive(true, false);
+                } else if (gear == 0 && engine.currentGearVar.currentValue != 0) {
+                    engine.shiftNeutralVar.setActive(true, false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package minecrafttransportsimulator.harness;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.List;
+
+import minecrafttransportsimulator.items.components.AItemBase;
+import minecrafttransportsimulator.mcinterface.IInterfaceCore;
+import minecrafttransportsimulator.mcinterface.IWrapperItemStack;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+
+/**
+ * Core interface for the harness.  Pack resources are loaded from the pack jars the harness was
+ * given, and core resources from the core classpath.  There are no other mods, fluids, or
+ * ore dictionary entries, and all errors are logged to standard error.
+ *
+ * @author don_bruce
+ */
+public class HarnessCore implements IInterfaceCore {
+    private final URLClassLoader packLoader;
+    private int errorCount;
+
+    public HarnessCore(List<File> packDirectories) {
+        List<URL> packURLs = new ArrayList<>();
+        for (File directory : packDirectories) {
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    if (file.getName().endsWith(".jar")) {
+                        try {
+                            packURLs.add(file.toURI().toURL());
+                        } catch (MalformedURLException e) {
+                            logError("Could not add pack jar: " + file + ".  " + e.getMessage());
+                        }
+                    }
+                }
+            }
+        }
+        //No parent, so we only find resources in the packs themselves.
+        this.packLoader = new URLClassLoader(packURLs.toArray(new URL[0]), null);
+    }
+
+    /**
+     * Returns the number of errors logged so far.
+     */
+    public synchronized int getErrorCount() {
+        return errorCount;
+    }
+
+    @Override
+    public boolean isGameFlattened() {
+        return true;
+    }
+
+    @Override
+    public boolean isModPresent(String modID) {
+        return modID.equals(InterfaceManager.coreModID);
+    }
+
+    @Override
+    public boolean isFluidValid(String fluidID) {
+        return false;
+    }
+
+    @Override
+    public String getModName(String modID) {
+        return modID.equals(InterfaceManager.coreModID) ? "Immersive Vehicles" : modID;
+    }
+
+    @Override
+    public InputStream getPackResource(String resource) {
+        InputStream stream = packLoader.getResourceAsStream(resource.startsWith("/") ? resource.substring(1) : resource);
+        return stream != null ? stream : InterfaceManager.class.getResourceAsStream(resource);
+    }
+
+    @Override
+    public synchronized void logError(String message) {
+        ++errorCount;
+        System.err.println("[MTS] " + message);
+    }
+
+    @Override
+    public IWrapperNBT getNewNBTWrapper() {
+        return new HarnessNBT();
+    }
+
+    @Override
+    public IWrapperItemStack getAutoGeneratedStack(AItemBase item, IWrapperNBT data) {
+        return new HarnessItemStack(item, 1, data);
+    }
+
+    @Override
+    public IWrapperItemStack getStackForProperties(String name, int meta, int qty) {
+        return new HarnessItemStack(null, 0, null);
+    }
+
+    @Override
+    public String getStackItemName(IWrapperItemStack stack) {
+        return stack.isEmpty() ? "minecraft:air" : InterfaceManager.coreModID + ":" + stack.getItem().getRegistrationName();
+    }
+
+    @Override
+    public boolean isOredictMatch(IWrapperItemStack stackA, IWrapperItemStack stackB) {
+        return false;
+    }
+
+    @Override
+    public List<IWrapperItemStack> getOredictMaterials(String oreName, int stackSize) {
+        return new ArrayList<>();
+    }
+}
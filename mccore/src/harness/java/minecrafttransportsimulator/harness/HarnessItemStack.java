@@ -0,0 +1,146 @@
+package minecrafttransportsimulator.harness;
+
+import java.util.Objects;
+
+import minecrafttransportsimulator.entities.instances.EntityFluidTank;
+import minecrafttransportsimulator.items.components.AItemBase;
+import minecrafttransportsimulator.mcinterface.AWrapperWorld;
+import minecrafttransportsimulator.mcinterface.IWrapperItemStack;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+
+/**
+ * Item stack for the harness.  Only MTS items exist in the harness, so there's no smelting,
+ * brewing, or external fluid containers.  Stacks without an item are empty stacks.
+ *
+ * @author don_bruce
+ */
+public class HarnessItemStack implements IWrapperItemStack {
+    private AItemBase item;
+    private int size;
+    private IWrapperNBT data;
+
+    public HarnessItemStack(AItemBase item, int size, IWrapperNBT data) {
+        this.item = item;
+        this.size = item != null ? size : 0;
+        this.data = data;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof HarnessItemStack) {
+            HarnessItemStack other = (HarnessItemStack) obj;
+            return item == other.item && size == other.size && Objects.equals(data, other.data);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(item, size, data);
+    }
+
+    @Override
+    public boolean isCompleteMatch(IWrapperItemStack other) {
+        HarnessItemStack otherStack = (HarnessItemStack) other;
+        return item == otherStack.item && Objects.equals(data, otherStack.data);
+    }
+
+    @Override
+    public int getFurnaceFuelValue() {
+        return 0;
+    }
+
+    @Override
+    public IWrapperItemStack getSmeltedItem(AWrapperWorld world) {
+        return new HarnessItemStack(null, 0, null);
+    }
+
+    @Override
+    public int getSmeltingTime(AWrapperWorld world) {
+        return 0;
+    }
+
+    @Override
+    public boolean isBrewingFuel() {
+        return false;
+    }
+
+    @Override
+    public boolean isBrewingVessel() {
+        return false;
+    }
+
+    @Override
+    public boolean isBrewingModifier() {
+        return false;
+    }
+
+    @Override
+    public IWrapperItemStack getBrewedItem(IWrapperItemStack modifierStack) {
+        return new HarnessItemStack(null, 0, null);
+    }
+
+    @Override
+    public AItemBase getItem() {
+        return item;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return item == null || size <= 0;
+    }
+
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return item != null ? item.getStackSize() : 64;
+    }
+
+    @Override
+    public int add(int qty) {
+        if (item == null) {
+            return qty;
+        }
+        int newSize = Math.max(0, Math.min(size + qty, getMaxSize()));
+        qty -= newSize - size;
+        size = newSize;
+        if (size == 0) {
+            item = null;
+            data = null;
+        }
+        return qty;
+    }
+
+    @Override
+    public HarnessItemStack copy() {
+        return new HarnessItemStack(item, size, data != null ? ((HarnessNBT) data).copy() : null);
+    }
+
+    @Override
+    public IWrapperItemStack split(int qty) {
+        int splitSize = Math.min(qty, size);
+        HarnessItemStack splitStack = new HarnessItemStack(item, splitSize, data != null ? ((HarnessNBT) data).copy() : null);
+        add(-splitSize);
+        return splitStack;
+    }
+
+    @Override
+    public boolean interactWith(EntityFluidTank tank, IWrapperPlayer player) {
+        return false;
+    }
+
+    @Override
+    public IWrapperNBT getData() {
+        return data != null ? ((HarnessNBT) data).copy() : null;
+    }
+
+    @Override
+    public void setData(IWrapperNBT data) {
+        this.data = data;
+    }
+}
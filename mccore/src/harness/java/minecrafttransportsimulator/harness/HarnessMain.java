@@ -0,0 +1,320 @@
+package minecrafttransportsimulator.harness;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.harness.ControlRecording.RecordedTick;
+import minecrafttransportsimulator.harness.ControlScript.ControlFrame;
+import minecrafttransportsimulator.harness.VoxelTerrain.TerrainType;
+import minecrafttransportsimulator.items.components.AItemPack;
+import minecrafttransportsimulator.items.instances.ItemVehicle;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.packloading.PackParser;
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.MetricsSystem;
+import minecrafttransportsimulator.systems.MetricsSystem.Category;
+import minecrafttransportsimulator.systems.MetricsSystem.SectionSnapshot;
+
+/**
+ * Headless vehicle simulation harness.  This loads real packs, spawns vehicles on a {@link VoxelTerrain},
+ * drives them with a {@link ControlScript}, and ticks them through {@link HarnessWorld#tick()}, which is the same
+ * {@link minecrafttransportsimulator.baseclasses.EntityManager#tickAll(boolean)} the server uses.  After the run,
+ * it reports ticks per second, how much was allocated, and the timings from the {@link MetricsSystem}.
+ * <br><br>
+ * Runs may be recorded to a {@link ControlRecording}, and recordings replayed.  Replays use the recorded controls
+ * and settings rather than the script, and fail if the vehicles don't end up in exactly the same state every tick.
+ * This lets a change to physics be checked to be sure it didn't change how vehicles move, or, if it should have,
+ * by how much.  The first ticks of each run are warmup for the JIT and aren't counted in the timings.
+ * Run it with the runHarness Gradle task, see the usage for the arguments.
+ *
+ * @author don_bruce
+ */
+public class HarnessMain {
+    private static final String USAGE = String.join("\n",
+            "Usage: HarnessMain --packs <dir>[" + File.pathSeparator + "<dir>...] --vehicle <packID.systemNameSubName> [options]",
+            "  --count <n>        Number of vehicles to spawn.  Default 1.",
+            "  --ticks <n>        Number of ticks to run.  Default 1200.",
+            "  --warmup <n>       Number of ticks at the start that aren't timed.  Default 200.",
+            "  --terrain <type>   flat, ramps, or roads.  Default flat.",
+            "  --script <name>    idle, cruise, slalom, or stop_go.  Default cruise.",
+            "  --parallel         Tick vehicles in parallel, as with the parallelEntityTicking config.",
+            "  --record <file>    Records the controls and state hashes of the run to the file.",
+            "  --replay <file>    Replays the recording in the file, and fails if the state hashes differ.",
+            "  --dir <dir>        Directory for config and metrics files.  Default harness.");
+    private static final int VEHICLE_SPACING = 32;
+    private static final int TERRAIN_BASE_HEIGHT = 64;
+    private static final int TERRAIN_MIN_RADIUS = 256;
+    private static final int MAX_LANES = 16;
+
+    public static void main(String[] args) {
+        Map<String, String> options = parseOptions(args);
+        if (options == null) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        //Get the run settings.  Replays take theirs from the recording.
+        ControlRecording replay = null;
+        if (options.containsKey("replay")) {
+            try {
+                replay = ControlRecording.load(new File(options.get("replay")));
+            } catch (IOException e) {
+                System.err.println("Could not load recording: " + options.get("replay") + ".  " + e.getMessage());
+                System.exit(2);
+            }
+        }
+        String vehicleName = replay != null ? replay.vehicle : options.get("vehicle");
+        int count = replay != null ? replay.count : Integer.parseInt(options.getOrDefault("count", "1"));
+        int ticks = replay != null ? replay.ticks.size() : Integer.parseInt(options.getOrDefault("ticks", "1200"));
+        int warmup = Math.min(Integer.parseInt(options.getOrDefault("warmup", "200")), ticks - 1);
+        TerrainType terrainType = TerrainType.valueOf((replay != null ? replay.terrain : options.getOrDefault("terrain", "flat")).toUpperCase(Locale.ROOT));
+        ControlScript script = ControlScript.valueOf((replay != null ? replay.script : options.getOrDefault("script", "cruise")).toUpperCase(Locale.ROOT));
+        boolean parallel = options.containsKey("parallel");
+        if (options.get("packs") == null || vehicleName == null || count < 1 || ticks < 1) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+
+        //Set up the interfaces and load the packs, the same way a dedicated server does.
+        List<File> packDirectories = new ArrayList<>();
+        for (String directory : options.get("packs").split(File.pathSeparator)) {
+            packDirectories.add(new File(directory));
+        }
+        File gameDirectory = new File(options.getOrDefault("dir", "harness"));
+        new File(gameDirectory, "config").mkdirs();
+        HarnessCore core = new HarnessCore(packDirectories);
+        HarnessPacket packets = new HarnessPacket();
+        new InterfaceManager("mts", gameDirectory.getAbsolutePath(), core, packets, null, null, null, null);
+        APacketBase.initPackets((byte) 0);
+        ConfigSystem.loadFromDisk(false);
+        PackParser.addDefaultItems();
+        PackParser.parsePacks(packDirectories);
+        ConfigSystem.settings.general.tickMetrics.value = true;
+        ConfigSystem.settings.general.tickMetricsDumpInterval.value = 0;
+        ConfigSystem.settings.general.parallelEntityTicking.value = parallel;
+
+        ItemVehicle item = getVehicleItem(vehicleName);
+        if (item == null) {
+            System.err.println("Could not find vehicle: " + vehicleName + ".  Vehicles in the loaded packs are:");
+            for (AItemPack<?> packItem : PackParser.getAllPackItems()) {
+                if (packItem instanceof ItemVehicle) {
+                    System.err.println("  " + packItem.getRegistrationName());
+                }
+            }
+            System.exit(2);
+        }
+
+        //Make the world and spawn the vehicles.  Vehicles are in lanes, spaced out so they don't hit each other.
+        int lanes = Math.min(count, MAX_LANES);
+        int rows = (count + lanes - 1) / lanes;
+        int radius = Math.max(TERRAIN_MIN_RADIUS, Math.max(lanes * VoxelTerrain.LANE_SPACING, rows * VEHICLE_SPACING) + TERRAIN_MIN_RADIUS);
+        HarnessWorld world = new HarnessWorld(new VoxelTerrain(terrainType, TERRAIN_BASE_HEIGHT, radius), parallel);
+        List<EntityVehicleF_Physics> vehicles = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            int x = VoxelTerrain.getLaneCenter(i % lanes - lanes / 2);
+            int z = (i / lanes) * VEHICLE_SPACING - radius / 2;
+            EntityVehicleF_Physics vehicle = new EntityVehicleF_Physics(world, null, item, null);
+            vehicle.isCreative = true;
+            vehicle.position.set(x + 0.5, world.terrain.getGroundHeight(x, z), z + 0.5);
+            vehicle.prevPosition.set(vehicle.position);
+            vehicle.orientation.setToAngles(new Point3D(0, 0, 0));
+            vehicle.prevOrientation.set(vehicle.orientation);
+            world.spawnEntity(vehicle);
+            vehicle.addPartsPostAddition(null, null);
+            vehicles.add(vehicle);
+        }
+        System.out.format("Running %d x %s on %s terrain for %d ticks (%d warmup), %s controls%s.\n", count, vehicleName, terrainType.name().toLowerCase(Locale.ROOT), ticks, warmup, replay != null ? "replayed" : script.name().toLowerCase(Locale.ROOT), parallel ? ", parallel" : "");
+
+        //Run the ticks.
+        ControlRecording recording = null;
+        if (options.containsKey("record")) {
+            recording = new ControlRecording();
+            recording.vehicle = vehicleName;
+            recording.count = count;
+            recording.terrain = terrainType.name();
+            recording.script = script.name();
+        }
+        long[] tickTimes = new long[ticks - warmup];
+        long startNanos = 0;
+        long startAllocatedBytes = 0;
+        long startGCCount = 0;
+        long startGCMillis = 0;
+        int firstMismatchTick = -1;
+        int mismatchCount = 0;
+        for (int tick = 0; tick < ticks; ++tick) {
+            if (tick == warmup) {
+                MetricsSystem.endWindow(Long.MAX_VALUE);
+                packets.resetSentCounts();
+                startAllocatedBytes = getAllocatedBytes();
+                startGCCount = getGCCount();
+                startGCMillis = getGCMillis();
+                startNanos = System.nanoTime();
+            }
+
+            List<ControlFrame> frames;
+            if (replay != null) {
+                frames = replay.ticks.get(tick).frames;
+            } else {
+                frames = new ArrayList<>();
+                for (int i = 0; i < count; ++i) {
+                    frames.add(script.getFrame(i, tick));
+                }
+            }
+            for (int i = 0; i < count; ++i) {
+                frames.get(i).apply(vehicles.get(i));
+            }
+
+            long tickStart = System.nanoTime();
+            world.tick();
+            if (tick >= warmup) {
+                tickTimes[tick - warmup] = System.nanoTime() - tickStart;
+            }
+
+            String stateHash = ControlRecording.getStateHash(vehicles);
+            if (recording != null) {
+                RecordedTick recordedTick = new RecordedTick();
+                recordedTick.frames = frames;
+                recordedTick.stateHash = stateHash;
+                recording.ticks.add(recordedTick);
+            }
+            if (replay != null && !stateHash.equals(replay.ticks.get(tick).stateHash)) {
+                if (firstMismatchTick == -1) {
+                    firstMismatchTick = tick;
+                }
+                ++mismatchCount;
+            }
+        }
+        long runNanos = System.nanoTime() - startNanos;
+        long allocatedBytes = getAllocatedBytes() - startAllocatedBytes;
+        long gcCount = getGCCount() - startGCCount;
+        long gcMillis = getGCMillis() - startGCMillis;
+        MetricsSystem.endWindow(Long.MAX_VALUE);
+
+        //Report.
+        int timedTicks = tickTimes.length;
+        double runSeconds = runNanos / 1_000_000_000D;
+        Arrays.sort(tickTimes);
+        System.out.format("Ticks: %.1f ticks/s, mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms\n", timedTicks / runSeconds, runNanos / 1_000_000D / timedTicks, tickTimes[timedTicks / 2] / 1_000_000D, tickTimes[Math.min((int) Math.ceil(timedTicks * 0.99), timedTicks) - 1] / 1_000_000D, tickTimes[timedTicks - 1] / 1_000_000D);
+        if (allocatedBytes >= 0) {
+            System.out.format("Allocation: %.1f MB/s, %.1f KB/tick\n", allocatedBytes / 1_048_576D / runSeconds, allocatedBytes / 1024D / timedTicks);
+        } else {
+            System.out.println("Allocation: not supported by this JVM");
+        }
+        System.out.format("GC: %d collections, %d ms\n", gcCount, gcMillis);
+        for (Category category : Category.values()) {
+            System.out.println("Metrics, " + category.name + " (total ms | count | p50 us | p99 us):");
+            for (SectionSnapshot snapshot : MetricsSystem.getSnapshots()) {
+                if (snapshot.category.equals(category.name)) {
+                    System.out.format("  %s: %.2f | %d | %.1f | %.1f\n", snapshot.name, snapshot.totalMillis, snapshot.count, snapshot.p50Micros, snapshot.p99Micros);
+                }
+            }
+        }
+        System.out.println("Packets sent:");
+        for (Entry<String, Integer> packetCount : packets.getSentCounts().entrySet()) {
+            System.out.format("  %s: %d\n", packetCount.getKey(), packetCount.getValue());
+        }
+        if (core.getErrorCount() > 0) {
+            System.out.println("Errors logged: " + core.getErrorCount());
+        }
+
+        if (recording != null) {
+            try {
+                recording.save(new File(options.get("record")));
+                System.out.println("Recorded run to: " + options.get("record"));
+            } catch (IOException e) {
+                System.err.println("Could not save recording: " + options.get("record") + ".  " + e.getMessage());
+                System.exit(1);
+            }
+        }
+        if (replay != null) {
+            if (firstMismatchTick == -1) {
+                System.out.println("Replay matched the recording on all " + ticks + " ticks.");
+            } else {
+                System.out.println("Replay did not match the recording on " + mismatchCount + " of " + ticks + " ticks, starting at tick " + firstMismatchTick + ".");
+                System.exit(1);
+            }
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Parses the passed-in arguments into a map of option names to values.  Options without values map to "".
+     * Returns null if the arguments aren't valid.
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; ++i) {
+            if (!args[i].startsWith("--")) {
+                return null;
+            }
+            String name = args[i].substring(2);
+            if (name.equals("parallel")) {
+                options.put(name, "");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                return null;
+            }
+        }
+        return options;
+    }
+
+    private static ItemVehicle getVehicleItem(String registrationName) {
+        for (AItemPack<?> packItem : PackParser.getAllPackItems()) {
+            if (packItem instanceof ItemVehicle && packItem.getRegistrationName().equals(registrationName)) {
+                return (ItemVehicle) packItem;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the bytes allocated by all live threads, or -1 if the JVM can't tell us.  Threads that
+     * end during the run aren't counted, but the tick threads all live for the whole run.
+     */
+    private static long getAllocatedBytes() {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+            if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+                long total = 0;
+                for (long bytes : allocationBean.getThreadAllocatedBytes(threadBean.getAllThreadIds())) {
+                    if (bytes > 0) {
+                        total += bytes;
+                    }
+                }
+                return total;
+            }
+        }
+        return -1;
+    }
+
+    private static long getGCCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gcBean.getCollectionCount(), 0);
+        }
+        return total;
+    }
+
+    private static long getGCMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(gcBean.getCollectionTime(), 0);
+        }
+        return total;
+    }
+}
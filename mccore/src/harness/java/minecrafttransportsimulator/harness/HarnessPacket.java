@@ -0,0 +1,85 @@
+package minecrafttransportsimulator.harness;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.baseclasses.EntityTickScheduler;
+import minecrafttransportsimulator.mcinterface.IInterfacePacket;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.packets.components.APacketBase;
+
+/**
+ * Packet interface for the harness.  The harness is a server with no clients, so packets are never
+ * sent anywhere.  Instead, they are counted by type, as the number of packets sent is as much a part
+ * of how expensive a vehicle is as the time it takes to tick.
+ *
+ * @author don_bruce
+ */
+public class HarnessPacket implements IInterfacePacket {
+    private final Map<Byte, Class<? extends APacketBase>> packetMappings = new HashMap<>();
+    private final Map<Class<? extends APacketBase>, Byte> packetIndexes = new HashMap<>();
+    private final Map<String, Integer> sentCounts = new TreeMap<>();
+
+    /**
+     * Returns the number of packets sent of each type, by packet class name.
+     */
+    public synchronized Map<String, Integer> getSentCounts() {
+        return new TreeMap<>(sentCounts);
+    }
+
+    /**
+     * Resets the counts of sent packets.
+     */
+    public synchronized void resetSentCounts() {
+        sentCounts.clear();
+    }
+
+    private synchronized void countPacket(APacketBase packet) {
+        sentCounts.merge(packet.getClass().getSimpleName(), 1, Integer::sum);
+    }
+
+    @Override
+    public void registerPacket(byte packetIndex, Class<? extends APacketBase> packetClass) {
+        packetMappings.put(packetIndex, packetClass);
+        packetIndexes.put(packetClass, packetIndex);
+    }
+
+    @Override
+    public byte getPacketIndex(APacketBase packet) {
+        return packetIndexes.get(packet.getClass());
+    }
+
+    @Override
+    public void sendToServer(APacketBase packet) {
+        countPacket(packet);
+    }
+
+    @Override
+    public void sendToAllClients(APacketBase packet) {
+        if (EntityTickScheduler.deferIfParallel(() -> sendToAllClients(packet))) {
+            return;
+        }
+        countPacket(packet);
+    }
+
+    @Override
+    public void sendToPlayer(APacketBase packet, IWrapperPlayer player) {
+        if (EntityTickScheduler.deferIfParallel(() -> sendToPlayer(packet, player))) {
+            return;
+        }
+        countPacket(packet);
+    }
+
+    @Override
+    public void writeDataToBuffer(IWrapperNBT data, ByteBuf buf) {
+        throw new UnsupportedOperationException("Packets are never encoded in the harness.");
+    }
+
+    @Override
+    public IWrapperNBT readDataFromBuffer(ByteBuf buf) {
+        throw new UnsupportedOperationException("Packets are never decoded in the harness.");
+    }
+}
@@ -0,0 +1,538 @@
+package minecrafttransportsimulator.harness;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import minecrafttransportsimulator.baseclasses.BlockHitResult;
+import minecrafttransportsimulator.baseclasses.BoundingBox;
+import minecrafttransportsimulator.baseclasses.ColorRGB;
+import minecrafttransportsimulator.baseclasses.Damage;
+import minecrafttransportsimulator.baseclasses.EntityTickScheduler;
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.blocks.components.ABlockBase;
+import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
+import minecrafttransportsimulator.blocks.components.ABlockBase.BlockMaterial;
+import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
+import minecrafttransportsimulator.entities.components.AEntityB_Existing;
+import minecrafttransportsimulator.entities.components.AEntityE_Interactable;
+import minecrafttransportsimulator.harness.VoxelTerrain.Block;
+import minecrafttransportsimulator.jsondefs.AJSONMultiModelProvider;
+import minecrafttransportsimulator.mcinterface.AWrapperWorld;
+import minecrafttransportsimulator.mcinterface.IWrapperEntity;
+import minecrafttransportsimulator.mcinterface.IWrapperItemStack;
+import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+
+/**
+ * Server world for the harness, made of a {@link VoxelTerrain}.  There are no players, external entities,
+ * MTS blocks, or weather, and the terrain can't be changed, so the world only needs to answer questions
+ * about the terrain.  Collisions are done the same way as the real world's, so physics sees the same depths.
+ * <br><br>
+ * The world's clock starts at noon and only advances when {@link #tick()} is called, so runs with the same
+ * inputs see the same world.
+ *
+ * @author don_bruce
+ */
+public class HarnessWorld extends AWrapperWorld {
+    private static final long START_TIME = 6000;
+    private static final int MAX_HEIGHT = 320;
+    private static final double BORDER_DISTANCE = 29999984;
+    private static final double RAY_STEP = 0.05;
+
+    public final VoxelTerrain terrain;
+    private final boolean parallelTicking;
+    private final HarnessNBT savedData = new HarnessNBT();
+    private final ThreadLocal<double[]> mutableCollisionBounds = ThreadLocal.withInitial(() -> new double[6]);
+    private long ticks;
+
+    public HarnessWorld(VoxelTerrain terrain, boolean parallelTicking) {
+        this.terrain = terrain;
+        this.parallelTicking = parallelTicking;
+    }
+
+    /**
+     * Ticks all entities in the world once, the same way the server does every tick.
+     */
+    public void tick() {
+        ++ticks;
+        tickAll(true);
+        tickAll(false);
+    }
+
+    /**
+     * Returns the number of times this world has been ticked.
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    private Block getTerrainBlock(double x, double y, double z) {
+        return terrain.getBlock((int) Math.floor(x), (int) Math.floor(y), (int) Math.floor(z));
+    }
+
+    private Block getTerrainBlock(Point3D position) {
+        return getTerrainBlock(position.x, position.y, position.z);
+    }
+
+    @Override
+    public AWrapperWorld getWorld() {
+        return this;
+    }
+
+    @Override
+    public boolean isClient() {
+        return false;
+    }
+
+    @Override
+    public long getTime() {
+        return (START_TIME + ticks) % 24000;
+    }
+
+    @Override
+    public String getName() {
+        return "harness";
+    }
+
+    @Override
+    public long getMaxHeight() {
+        return MAX_HEIGHT;
+    }
+
+    @Override
+    public void beginProfiling(String name, boolean subProfile) {
+        //No profiler, timings come from the metrics system.
+    }
+
+    @Override
+    public void endProfiling() {
+        //No profiler, timings come from the metrics system.
+    }
+
+    @Override
+    public boolean supportsParallelTicking() {
+        return parallelTicking;
+    }
+
+    @Override
+    public IWrapperNBT getData(String name) {
+        return name.isEmpty() ? savedData : savedData.getData(name);
+    }
+
+    @Override
+    public void setData(String name, IWrapperNBT value) {
+        savedData.setData(name, value);
+    }
+
+    @Override
+    public File getDataFile() {
+        return new File(InterfaceManager.gameDirectory, "mtsdata.dat");
+    }
+
+    @Override
+    public IWrapperEntity getExternalEntity(UUID entityID) {
+        return null;
+    }
+
+    @Override
+    public List<IWrapperEntity> getEntitiesWithin(BoundingBox box) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<IWrapperPlayer> getPlayersWithin(BoundingBox box) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public List<IWrapperEntity> getEntitiesHostile(IWrapperEntity lookingEntity, double radius) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public void spawnEntity(AEntityB_Existing entity) {
+        if (EntityTickScheduler.deferIfParallel(() -> spawnEntity(entity))) {
+            return;
+        }
+        addEntity(entity);
+    }
+
+    @Override
+    public List<IWrapperEntity> attackEntities(Damage damage, Point3D motion, boolean generateList) {
+        return generateList ? new ArrayList<>() : null;
+    }
+
+    @Override
+    public void loadEntities(BoundingBox box, AEntityE_Interactable<?> entityToLoad) {
+        //No external entities to load.
+    }
+
+    @Override
+    public void populateItemStackEntities(Map<IWrapperEntity, IWrapperItemStack> map, BoundingBox b) {
+        //No item entities.
+    }
+
+    @Override
+    public void removeItemStackEntity(IWrapperEntity entity) {
+        //No item entities.
+    }
+
+    @Override
+    public boolean isInsideBorder(Point3D position) {
+        return Math.abs(position.x) < BORDER_DISTANCE && Math.abs(position.z) < BORDER_DISTANCE;
+    }
+
+    @Override
+    public boolean chunkLoaded(Point3D position) {
+        return true;
+    }
+
+    @Override
+    public ABlockBase getBlock(Point3D position) {
+        return null;
+    }
+
+    @Override
+    public String getBlockName(Point3D position) {
+        return getTerrainBlock(position).name;
+    }
+
+    @Override
+    public float getBlockHardness(Point3D position) {
+        return getTerrainBlock(position).hardness;
+    }
+
+    @Override
+    public float getBlockSlipperiness(Point3D position) {
+        return getTerrainBlock(position).slipperiness;
+    }
+
+    @Override
+    public BlockMaterial getBlockMaterial(Point3D position) {
+        return getTerrainBlock(position).material;
+    }
+
+    @Override
+    public ColorRGB getBlockColor(Point3D position) {
+        return new ColorRGB(getTerrainBlock(position).color);
+    }
+
+    @Override
+    public List<IWrapperItemStack> getBlockDrops(Point3D position) {
+        return new ArrayList<>();
+    }
+
+    @Override
+    public BlockHitResult getBlockHit(Point3D position, Point3D delta) {
+        //Step along the ray until we are inside a block's collision box.  The side is the face we crossed to get in.
+        int steps = (int) Math.ceil(delta.length() / RAY_STEP);
+        double lastX = position.x;
+        double lastY = position.y;
+        double lastZ = position.z;
+        for (int i = 1; i <= steps; ++i) {
+            double x = position.x + delta.x * i / steps;
+            double y = position.y + delta.y * i / steps;
+            double z = position.z + delta.z * i / steps;
+            Block block = getTerrainBlock(x, y, z);
+            if (y - Math.floor(y) < block.getCollisionHeight()) {
+                Point3D blockPosition = new Point3D(Math.floor(x), Math.floor(y), Math.floor(z));
+                Axis side;
+                if (Math.floor(lastY) != blockPosition.y || lastY - blockPosition.y >= block.getCollisionHeight()) {
+                    side = lastY > y ? Axis.UP : Axis.DOWN;
+                } else if (Math.floor(lastX) != blockPosition.x) {
+                    side = lastX > x ? Axis.EAST : Axis.WEST;
+                } else {
+                    side = lastZ > z ? Axis.SOUTH : Axis.NORTH;
+                }
+                return new BlockHitResult(blockPosition, new Point3D(x, y, z), side);
+            }
+            lastX = x;
+            lastY = y;
+            lastZ = z;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isBlockSolid(Point3D position, Axis axis) {
+        if (axis.blockBased) {
+            Block block = getTerrainBlock(position);
+            return block.isSlab() ? axis == Axis.DOWN : block != Block.AIR;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean isBlockLiquid(Point3D position) {
+        return false;
+    }
+
+    @Override
+    public boolean isBlockBelowBottomSlab(Point3D position) {
+        return getTerrainBlock(position.x, position.y - 1, position.z).isSlab();
+    }
+
+    @Override
+    public boolean isBlockAboveTopSlab(Point3D position) {
+        //Terrain only has bottom slabs.
+        return false;
+    }
+
+    @Override
+    public double getHeight(Point3D position) {
+        int x = (int) Math.floor(position.x);
+        int y = (int) Math.floor(position.y);
+        int z = (int) Math.floor(position.z);
+        int halfHeight = terrain.getHalfHeight(x, z);
+        //If we are in the solid part of the column, the ground is the top of the block we are in.
+        double groundTop = y >= halfHeight >> 1 ? halfHeight / 2D : y + 1;
+        return position.y - groundTop;
+    }
+
+    @Override
+    public void updateBoundingBoxCollisions(BoundingBox box, Point3D collisionMotion, boolean ignoreIfGreater) {
+        double[] bounds = setCollisionBounds(box, 0, 0, 0);
+        box.collidingBlockPositions.clear();
+        box.currentCollisionDepth.set(0D, 0D, 0D);
+        for (int i = (int) Math.floor(bounds[0]); i < Math.ceil(bounds[3]); ++i) {
+            for (int j = (int) Math.floor(bounds[1]); j < Math.ceil(bounds[4]); ++j) {
+                for (int k = (int) Math.floor(bounds[2]); k < Math.ceil(bounds[5]); ++k) {
+                    double collisionHeight = terrain.getBlock(i, j, k).getCollisionHeight();
+                    if (collisionHeight > 0 && intersects(bounds, i, j, k, i + 1, j + collisionHeight, k + 1)) {
+                        addCollisionDepth(box, collisionMotion, bounds, i, j, k, i + 1, j + collisionHeight, k + 1);
+                        box.addCollidingBlockPosition(i, j, k);
+                    }
+                }
+            }
+        }
+
+        if (ignoreIfGreater) {
+            if (collisionMotion.x > 0 && box.currentCollisionDepth.x > collisionMotion.x) {
+                box.currentCollisionDepth.x = collisionMotion.x;
+            } else if (collisionMotion.x < 0 && box.currentCollisionDepth.x < collisionMotion.x) {
+                box.currentCollisionDepth.x = collisionMotion.x;
+            }
+            if (collisionMotion.y > 0 && box.currentCollisionDepth.y > collisionMotion.y) {
+                box.currentCollisionDepth.y = collisionMotion.y;
+            } else if (collisionMotion.y < 0 && box.currentCollisionDepth.y < collisionMotion.y) {
+                box.currentCollisionDepth.y = collisionMotion.y;
+            }
+            if (collisionMotion.z > 0 && box.currentCollisionDepth.z > collisionMotion.z) {
+                box.currentCollisionDepth.z = collisionMotion.z;
+            } else if (collisionMotion.z < 0 && box.currentCollisionDepth.z < collisionMotion.z) {
+                box.currentCollisionDepth.z = collisionMotion.z;
+            }
+        }
+
+        if (box.currentCollisionDepth.isZero()) {
+            box.collidingBlockPositions.clear();
+        }
+    }
+
+    @Override
+    public boolean checkForCollisions(BoundingBox box, Point3D offset, boolean clearCache, boolean breakLeaves) {
+        //No leaves in the terrain, so nothing to break.
+        double[] bounds = setCollisionBounds(box, offset.x, offset.y, offset.z);
+        for (int i = (int) Math.floor(bounds[0]); i < Math.ceil(bounds[3]); ++i) {
+            for (int j = (int) Math.floor(bounds[1]); j < Math.ceil(bounds[4]); ++j) {
+                for (int k = (int) Math.floor(bounds[2]); k < Math.ceil(bounds[5]); ++k) {
+                    double collisionHeight = terrain.getBlock(i, j, k).getCollisionHeight();
+                    if (collisionHeight > 0 && intersects(bounds, i, j, k, i + 1, j + collisionHeight, k + 1)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sets the thread's collision bounds array to the passed-in box, with the passed-in offset.
+     * Bounds are in minX, minY, minZ, maxX, maxY, maxZ order.
+     */
+    private double[] setCollisionBounds(BoundingBox box, double x, double y, double z) {
+        double[] bounds = mutableCollisionBounds.get();
+        bounds[0] = x + box.globalCenter.x - box.widthRadius;
+        bounds[1] = y + box.globalCenter.y - box.heightRadius;
+        bounds[2] = z + box.globalCenter.z - box.depthRadius;
+        bounds[3] = x + box.globalCenter.x + box.widthRadius;
+        bounds[4] = y + box.globalCenter.y + box.heightRadius;
+        bounds[5] = z + box.globalCenter.z + box.depthRadius;
+        return bounds;
+    }
+
+    /**
+     * Returns true if the passed-in bounds overlap the passed-in box.  Boxes that only touch don't count.
+     */
+    private static boolean intersects(double[] bounds, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        return bounds[0] < maxX && bounds[3] > minX && bounds[1] < maxY && bounds[4] > minY && bounds[2] < maxZ && bounds[5] > minZ;
+    }
+
+    /**
+     * Adds the depth of the collision between the bounds and the passed-in box to the box's collision depth.
+     * If we are in the depth bounds for this collision, set it as the collision depth.
+     */
+    private static void addCollisionDepth(BoundingBox box, Point3D collisionMotion, double[] bounds, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        double boxCollisionDepth;
+        if (collisionMotion.x > 0) {
+            boxCollisionDepth = bounds[3] - minX;
+            if (box.currentCollisionDepth.x < boxCollisionDepth) {
+                box.currentCollisionDepth.x = boxCollisionDepth;
+            }
+        } else if (collisionMotion.x < 0) {
+            boxCollisionDepth = -(maxX - bounds[0]);
+            if (box.currentCollisionDepth.x > boxCollisionDepth) {
+                box.currentCollisionDepth.x = boxCollisionDepth;
+            }
+        }
+        if (collisionMotion.y > 0) {
+            boxCollisionDepth = bounds[4] - minY;
+            if (box.currentCollisionDepth.y < boxCollisionDepth) {
+                box.currentCollisionDepth.y = boxCollisionDepth;
+            }
+        } else if (collisionMotion.y < 0) {
+            boxCollisionDepth = -(maxY - bounds[1]);
+            if (box.currentCollisionDepth.y > boxCollisionDepth) {
+                box.currentCollisionDepth.y = boxCollisionDepth;
+            }
+        }
+        if (collisionMotion.z > 0) {
+            boxCollisionDepth = bounds[5] - minZ;
+            if (box.currentCollisionDepth.z < boxCollisionDepth) {
+                box.currentCollisionDepth.z = boxCollisionDepth;
+            }
+        } else if (collisionMotion.z < 0) {
+            boxCollisionDepth = -(maxZ - bounds[2]);
+            if (box.currentCollisionDepth.z > boxCollisionDepth) {
+                box.currentCollisionDepth.z = boxCollisionDepth;
+            }
+        }
+    }
+
+    @Override
+    public int getRedstonePower(Point3D position) {
+        return 0;
+    }
+
+    @Override
+    public float getRainStrength(Point3D position) {
+        return 0;
+    }
+
+    @Override
+    public float getTemperature(Point3D position) {
+        //Plains temperature.
+        return 0.8F;
+    }
+
+    @Override
+    public <TileEntityType extends ATileEntityBase<JSONDefinition>, JSONDefinition extends AJSONMultiModelProvider> boolean setBlock(ABlockBase block, Point3D position, IWrapperPlayer playerIWrapper, Axis axis) {
+        return false;
+    }
+
+    @Override
+    public <TileEntityType extends ATileEntityBase<?>> TileEntityType getTileEntity(Point3D position) {
+        return null;
+    }
+
+    @Override
+    public void markTileEntityChanged(Point3D position) {
+        //No tile entities.
+    }
+
+    @Override
+    public float getLightBrightness(Point3D position, boolean calculateBlock) {
+        //Always noon with a clear sky.
+        return getTerrainBlock(position) == Block.AIR ? 1.0F : 0.0F;
+    }
+
+    @Override
+    public void updateLightBrightness(Point3D position) {
+        //Lighting never changes.
+    }
+
+    @Override
+    public void destroyBlock(Point3D position, boolean spawnDrops) {
+        //Terrain can't be changed.
+    }
+
+    @Override
+    public boolean isAir(Point3D position) {
+        return getTerrainBlock(position) == Block.AIR;
+    }
+
+    @Override
+    public boolean isFire(Point3D position) {
+        return false;
+    }
+
+    @Override
+    public void setToFire(Point3D position, Axis side) {
+        //Terrain can't be changed.
+    }
+
+    @Override
+    public void extinguish(Point3D position) {
+        //Terrain can't be changed.
+    }
+
+    @Override
+    public boolean placeBlock(Point3D position, IWrapperItemStack stack) {
+        return false;
+    }
+
+    @Override
+    public boolean fertilizeBlock(Point3D position, IWrapperItemStack stack) {
+        return false;
+    }
+
+    @Override
+    public boolean harvestBlock(Point3D position, List<IWrapperItemStack> cropDrops) {
+        return false;
+    }
+
+    @Override
+    public boolean plantBlock(Point3D position, IWrapperItemStack stack) {
+        return false;
+    }
+
+    @Override
+    public boolean plowBlock(Point3D position) {
+        return false;
+    }
+
+    @Override
+    public boolean removeSnow(Point3D position) {
+        return false;
+    }
+
+    @Override
+    public boolean hydrateBlock(Point3D position) {
+        return false;
+    }
+
+    @Override
+    public boolean insertStack(Point3D position, Axis axis, IWrapperItemStack stack) {
+        return false;
+    }
+
+    @Override
+    public IWrapperItemStack extractStack(Point3D position, Axis axis) {
+        return null;
+    }
+
+    @Override
+    public void spawnItemStack(IWrapperItemStack stack, Point3D point, Point3D optionalMotion) {
+        //No item entities.
+    }
+
+    @Override
+    public void spawnExplosion(Point3D location, double strength, boolean flames, boolean damageBlocks) {
+        //Terrain can't be changed.
+    }
+}
@@ -0,0 +1,172 @@
+package minecrafttransportsimulator.harness;
+
+import minecrafttransportsimulator.blocks.components.ABlockBase.BlockMaterial;
+
+/**
+ * In-memory voxel terrain for the harness.  Terrain is a square of block columns centered on the origin.
+ * Each column is solid from the bottom of the world up to its height, which is in half-blocks so ramps
+ * can be made of slabs, and has a surface block on top.  Outside the square, terrain is flat at the base height.
+ * <br><br>
+ * All terrain types have lanes running along the +Z axis, spaced {@link #LANE_SPACING} blocks apart on the
+ * X axis, which is where vehicles are spawned.  Flat terrain is grass.  Ramp terrain is stone, with lanes that
+ * go up and down slab ramps.  Road terrain is grass, with a road down each lane and a road across them all
+ * every {@link #CROSS_ROAD_SPACING} blocks.
+ *
+ * @author don_bruce
+ */
+public class VoxelTerrain {
+    public static final int LANE_SPACING = 16;
+    public static final int CROSS_ROAD_SPACING = 128;
+    private static final int ROAD_WIDTH = 8;
+    private static final int RAMP_FLAT_LENGTH = 48;
+    /**Length of each ramp.  Ramps rise one half-block every two blocks.**/
+    private static final int RAMP_LENGTH = 16;
+    private static final int RAMP_TOP_LENGTH = 24;
+    private static final int RAMP_PERIOD = RAMP_FLAT_LENGTH + RAMP_LENGTH + RAMP_TOP_LENGTH + RAMP_LENGTH;
+
+    public final TerrainType type;
+    public final int baseHeight;
+    private final int radius;
+    private final int size;
+    private final short[] halfHeights;
+    private final Block[] surfaces;
+
+    public VoxelTerrain(TerrainType type, int baseHeight, int radius) {
+        this.type = type;
+        this.baseHeight = baseHeight;
+        this.radius = radius;
+        this.size = radius * 2;
+        this.halfHeights = new short[size * size];
+        this.surfaces = new Block[size * size];
+        for (int x = -radius; x < radius; ++x) {
+            for (int z = -radius; z < radius; ++z) {
+                int index = getIndex(x, z);
+                halfHeights[index] = (short) (baseHeight * 2);
+                surfaces[index] = Block.GRASS;
+                switch (type) {
+                    case FLAT: {
+                        break;
+                    }
+                    case RAMPS: {
+                        surfaces[index] = Block.STONE;
+                        halfHeights[index] += getRampHalfHeight(z);
+                        break;
+                    }
+                    case ROADS: {
+                        int laneOffset = Math.floorMod(x + LANE_SPACING / 2, LANE_SPACING) - LANE_SPACING / 2;
+                        int crossOffset = Math.floorMod(z + CROSS_ROAD_SPACING / 2, CROSS_ROAD_SPACING) - CROSS_ROAD_SPACING / 2;
+                        if ((laneOffset >= -ROAD_WIDTH / 2 && laneOffset < ROAD_WIDTH / 2) || (crossOffset >= -ROAD_WIDTH / 2 && crossOffset < ROAD_WIDTH / 2)) {
+                            surfaces[index] = Block.ROAD;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static int getRampHalfHeight(int z) {
+        int offset = Math.floorMod(z, RAMP_PERIOD) - RAMP_FLAT_LENGTH;
+        if (offset < 0) {
+            return 0;
+        } else if (offset < RAMP_LENGTH) {
+            return offset / 2;
+        } else if (offset < RAMP_LENGTH + RAMP_TOP_LENGTH) {
+            return RAMP_LENGTH / 2;
+        } else {
+            return (RAMP_LENGTH * 2 + RAMP_TOP_LENGTH - offset) / 2;
+        }
+    }
+
+    private int getIndex(int x, int z) {
+        return (x + radius) * size + z + radius;
+    }
+
+    private boolean isInside(int x, int z) {
+        return x >= -radius && x < radius && z >= -radius && z < radius;
+    }
+
+    /**
+     * Returns the height of the top of the column at the passed-in block X/Z, in half-blocks.
+     */
+    public int getHalfHeight(int x, int z) {
+        return isInside(x, z) ? halfHeights[getIndex(x, z)] : baseHeight * 2;
+    }
+
+    /**
+     * Returns the height of the top of the column at the passed-in block X/Z, in blocks.
+     */
+    public double getGroundHeight(int x, int z) {
+        return getHalfHeight(x, z) / 2D;
+    }
+
+    /**
+     * Returns the block at the passed-in block position.
+     */
+    public Block getBlock(int x, int y, int z) {
+        int halfHeight = getHalfHeight(x, z);
+        int topY = halfHeight >> 1;
+        if (y < topY - 1) {
+            return Block.DIRT;
+        } else if (y == topY - 1) {
+            return isInside(x, z) ? surfaces[getIndex(x, z)] : Block.GRASS;
+        } else if (y == topY && (halfHeight & 1) == 1) {
+            return Block.STONE_SLAB;
+        } else {
+            return Block.AIR;
+        }
+    }
+
+    /**
+     * Returns the X-coordinate of the center of the passed-in lane.
+     */
+    public static int getLaneCenter(int lane) {
+        return lane * LANE_SPACING;
+    }
+
+    /**
+     * Types of terrain that may be made.
+     */
+    public static enum TerrainType {
+        FLAT,
+        RAMPS,
+        ROADS;
+    }
+
+    /**
+     * Blocks that make up the terrain.  Slabs are bottom slabs, all others are full blocks.
+     */
+    public static enum Block {
+        AIR("minecraft:air", null, 0.6F, 0F, 0x000000),
+        DIRT("minecraft:dirt", BlockMaterial.DIRT, 0.6F, 0.5F, 0x866043),
+        GRASS("minecraft:grass_block", BlockMaterial.GRASS, 0.6F, 0.6F, 0x7FB238),
+        STONE("minecraft:stone", BlockMaterial.STONE, 0.6F, 1.5F, 0x707070),
+        STONE_SLAB("minecraft:stone_slab", BlockMaterial.STONE, 0.6F, 2.0F, 0x707070),
+        ROAD("minecraft:gray_concrete", BlockMaterial.STONE, 0.6F, 1.8F, 0x36393D);
+
+        public final String name;
+        public final BlockMaterial material;
+        public final float slipperiness;
+        public final float hardness;
+        public final int color;
+
+        private Block(String name, BlockMaterial material, float slipperiness, float hardness, int color) {
+            this.name = name;
+            this.material = material;
+            this.slipperiness = slipperiness;
+            this.hardness = hardness;
+            this.color = color;
+        }
+
+        public boolean isSlab() {
+            return this == STONE_SLAB;
+        }
+
+        /**
+         * Returns the height of the top of this block's collision box, relative to the bottom of the block.
+         */
+        public double getCollisionHeight() {
+            return this == AIR ? 0 : (isSlab() ? 0.5 : 1);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package minecrafttransportsimulator.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minecrafttransportsimulator.baseclasses.AnimationSwitchbox;
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.entities.instances.APart;
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.harness.HarnessCore;
+import minecrafttransportsimulator.harness.HarnessPacket;
+import minecrafttransportsimulator.harness.HarnessWorld;
+import minecrafttransportsimulator.harness.VoxelTerrain;
+import minecrafttransportsimulator.harness.VoxelTerrain.TerrainType;
+import minecrafttransportsimulator.items.components.AItemPack;
+import minecrafttransportsimulator.items.instances.ItemVehicle;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.packloading.PackParser;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**
+ * Benchmarks for animations.  Each call does the animation work of one rendered frame of a vehicle with
+ * {@link #PART_COUNT} parts: every animated object switchbox on the vehicle and its parts is run, as the
+ * renderer would for each object in the models.  The vehicle and part are made in setup as a pack with
+ * models that have one object per animated object, and loaded into the harness the same way real packs are.
+ * Animations are a mix of rotations, translations, and visibility checks, some with durations, on a mix of
+ * built-in, inverted, and pack-defined variables.  The vehicle is ticked a few times first, so the variables
+ * have been made and the benchmark only times the per-frame lookups and math.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnimationBenchmarks {
+    private static final int PART_COUNT = 40;
+    private static final int VEHICLE_OBJECT_COUNT = 30;
+    private static final int PART_OBJECT_COUNT = 6;
+    private static final int ANIMATIONS_PER_OBJECT = 3;
+    private static final int SETUP_TICKS = 10;
+    private static final String[] VARIABLES = { "door_%d", "!door_%d", "hood_%d", "speed", "brake", "p_brake", "throttle", "left_turn_signal", "headlight", "tick", "engine_rpm_1", "part_present_%d" };
+    private static final String[] ANIMATION_TYPES = { "rotation", "translation", "visibility" };
+
+    private final List<AnimationSwitchbox> switchboxes = new ArrayList<>();
+    private float partialTicks;
+
+    @Setup
+    public void setup() throws IOException {
+        File gameDirectory = Files.createTempDirectory("mtsbenchmark").toFile();
+        File packDirectory = new File(gameDirectory, "packs");
+        packDirectory.mkdirs();
+        new File(gameDirectory, "config").mkdirs();
+        writePackJar(new File(packDirectory, "benchpack.jar"), new Random(0));
+
+        List<File> packDirectories = Collections.singletonList(packDirectory);
+        new InterfaceManager("mts", gameDirectory.getAbsolutePath(), new HarnessCore(packDirectories), new HarnessPacket(), null, null, null, null);
+        APacketBase.initPackets((byte) 0);
+        ConfigSystem.loadFromDisk(false);
+        PackParser.addDefaultItems();
+        PackParser.parsePacks(packDirectories);
+
+        HarnessWorld world = new HarnessWorld(new VoxelTerrain(TerrainType.FLAT, 64, 64), false);
+        EntityVehicleF_Physics vehicle = new EntityVehicleF_Physics(world, null, getVehicleItem("benchpack.benchcar"), null);
+        vehicle.position.set(0.5, world.terrain.getGroundHeight(0, 0), 0.5);
+        vehicle.prevPosition.set(vehicle.position);
+        vehicle.orientation.setToAngles(new Point3D(0, 0, 0));
+        vehicle.prevOrientation.set(vehicle.orientation);
+        world.spawnEntity(vehicle);
+        vehicle.addPartsPostAddition(null, null);
+        for (int i = 0; i < SETUP_TICKS; ++i) {
+            world.tick();
+        }
+        if (vehicle.allParts.size() != PART_COUNT) {
+            throw new IllegalStateException("Benchmark vehicle has " + vehicle.allParts.size() + " parts, expected " + PART_COUNT);
+        }
+
+        switchboxes.addAll(vehicle.animatedObjectSwitchboxes.values());
+        for (APart part : vehicle.allParts) {
+            switchboxes.addAll(part.animatedObjectSwitchboxes.values());
+        }
+        //Run everything once, so any variables only made on first use exist before we time things.
+        frame();
+    }
+
+    @Benchmark
+    public double frame() {
+        //Step partial ticks like frames between ticks do, so switchboxes can't skip work.
+        partialTicks = partialTicks >= 0.75F ? 0 : partialTicks + 0.25F;
+        double total = 0;
+        for (AnimationSwitchbox switchbox : switchboxes) {
+            if (switchbox.runSwitchbox(partialTicks, true)) {
+                total += switchbox.translation.y + switchbox.rotation.angles.y;
+            }
+        }
+        return total;
+    }
+
+    private static ItemVehicle getVehicleItem(String registrationName) {
+        for (AItemPack<?> packItem : PackParser.getAllPackItems()) {
+            if (packItem instanceof ItemVehicle && packItem.getRegistrationName().equals(registrationName)) {
+                return (ItemVehicle) packItem;
+            }
+        }
+        throw new IllegalStateException("Benchmark vehicle " + registrationName + " didn't load.");
+    }
+
+    private static void writePackJar(File jarFile, Random random) throws IOException {
+        StringBuilder parts = new StringBuilder();
+        for (int i = 0; i < PART_COUNT; ++i) {
+            parts.append(i == 0 ? "" : ",\n").append(String.format("{\"pos\": [%d, 0.5, %d], \"types\": [\"seat\"], \"defaultPart\": \"benchpack:benchseat\"%s}", i % 4 - 2, i / 4 - 5, i == 0 ? ", \"isController\": true" : ""));
+        }
+        String vehicle = "{\n"
+                + "\"general\": {\"name\": \"Benchmark Car\", \"materials\": []},\n"
+                + "\"motorized\": {\"emptyMass\": 1200, \"fuelCapacity\": 10000, \"batteryCapacity\": 24, \"axleRatio\": 3.5, \"dragCoefficient\": 0.3, \"brakingFactor\": 1.0, \"steeringForceFactor\": 1.0, \"hasRunningLights\": true, \"hasHeadlights\": true},\n"
+                + "\"parts\": [" + parts + "],\n"
+                + "\"collisionGroups\": [{\"collisionTypes\": [\"block\", \"entity\", \"vehicle\"], \"collisions\": [{\"pos\": [0, 0.75, 0], \"width\": 1.8, \"height\": 1.0}]}],\n"
+                + "\"definitions\": [{\"subName\": \"\", \"extraMaterials\": [], \"modelName\": \"benchcar\", \"textureName\": \"benchcar\"}],\n"
+                + "\"rendering\": {\"animatedObjects\": [" + getAnimatedObjects(VEHICLE_OBJECT_COUNT, random) + "]}\n"
+                + "}";
+        String seat = "{\n"
+                + "\"general\": {\"name\": \"Benchmark Seat\", \"type\": \"seat\", \"materials\": []},\n"
+                + "\"definitions\": [{\"subName\": \"\", \"extraMaterials\": [], \"modelName\": \"benchseat\", \"textureName\": \"benchseat\"}],\n"
+                + "\"rendering\": {\"animatedObjects\": [" + getAnimatedObjects(PART_OBJECT_COUNT, random) + "]}\n"
+                + "}";
+
+        try (ZipOutputStream jarStream = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            writeJarEntry(jarStream, "packdefinition.json", "{\"packID\": \"benchpack\", \"packName\": \"Benchmark Pack\", \"fileStructure\": 0}");
+            writeJarEntry(jarStream, "jsondefs/vehicles/benchcar.json", vehicle);
+            writeJarEntry(jarStream, "jsondefs/parts/benchseat.json", seat);
+            writeJarEntry(jarStream, "objmodels/vehicles/benchcar.obj", getModel(VEHICLE_OBJECT_COUNT));
+            writeJarEntry(jarStream, "objmodels/parts/benchseat.obj", getModel(PART_OBJECT_COUNT));
+        }
+    }
+
+    private static String getAnimatedObjects(int count, Random random) {
+        StringBuilder objects = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            StringBuilder animations = new StringBuilder();
+            for (int j = 0; j < ANIMATIONS_PER_OBJECT; ++j) {
+                String variable = String.format(VARIABLES[random.nextInt(VARIABLES.length)], random.nextInt(8) + 1);
+                String type = ANIMATION_TYPES[random.nextInt(ANIMATION_TYPES.length)];
+                animations.append(j == 0 ? "" : ", ");
+                if (type.equals("visibility")) {
+                    animations.append(String.format("{\"animationType\": \"visibility\", \"variable\": \"%s\", \"clampMin\": -1, \"clampMax\": 1}", variable));
+                } else {
+                    animations.append(String.format("{\"animationType\": \"%s\", \"variable\": \"%s\", \"axis\": [0, 1, 0], \"centerPoint\": [0, 0.5, 0], \"clampMin\": 0, \"clampMax\": 90, \"duration\": %d}", type, variable, random.nextBoolean() ? 10 : 0));
+                }
+            }
+            objects.append(i == 0 ? "" : ", ").append(String.format("{\"objectName\": \"obj_%d\", \"animations\": [%s]}", i, animations));
+        }
+        return objects.toString();
+    }
+
+    /**
+     * Returns an OBJ model with one single-triangle object for each animated object.
+     */
+    private static String getModel(int count) {
+        StringBuilder model = new StringBuilder();
+        for (int i = 0; i < count; ++i) {
+            model.append(String.format("o obj_%d\nv 0 0 0\nv 1 0 0\nv 0 1 0\nvt 0 0\nvn 0 0 1\nf %d/1/1 %d/1/1 %d/1/1\n", i, i * 3 + 1, i * 3 + 2, i * 3 + 3));
+        }
+        return model.toString();
+    }
+
+    private static void writeJarEntry(ZipOutputStream jarStream, String path, String data) throws IOException {
+        jarStream.putNextEntry(new ZipEntry("assets/benchpack/" + path));
+        jarStream.write(data.getBytes(StandardCharsets.UTF_8));
+        jarStream.closeEntry();
+    }
+}
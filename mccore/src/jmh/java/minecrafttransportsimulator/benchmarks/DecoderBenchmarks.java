@@ -0,0 +1,193 @@
+package minecrafttransportsimulator.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javazoom.jl.decoder.Equalizer;
+import minecrafttransportsimulator.sound.CachedPCMDecoder;
+import minecrafttransportsimulator.sound.IStreamDecoder;
+import minecrafttransportsimulator.sound.MP3Decoder;
+import minecrafttransportsimulator.sound.OGGDecoder;
+
+/**
+ * Benchmarks for the radio decoders.  Each call decodes a whole file from memory, block by block, the same
+ * way a station's decoder thread does.  The OGG file is one of the bundled sounds.  There's no MP3 in the
+ * repo, and no encoder to make one, so setup builds a stereo MPEG-1 Layer III stream instead.  Its frames
+ * have random spectral lines in every granule, so the decoder does its full huffman, requantize, IMDCT, and
+ * synthesis work on each one, as it would for music.  The OGG is also decoded into the PCM cache once in
+ * setup, so reading it back can be compared to decoding it.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecoderBenchmarks {
+    private static final String OGG_FILE = "/assets/mts/sounds/pump_stop.ogg";
+    /**
+     * Frames in the MP3 stream.  Each frame is 1152 samples, so this is 10 seconds at 44.1KHz.
+     **/
+    private static final int MP3_FRAME_COUNT = 383;
+    /**
+     * Frame size for 128Kbps at 44.1KHz without padding.
+     **/
+    private static final int MP3_FRAME_SIZE = 417;
+    private static final int MP3_HEADER_SIZE = 4;
+    private static final int MP3_SIDE_INFO_SIZE = 32;
+
+    private final Equalizer equalizer = new Equalizer();
+    private byte[] mp3Data;
+    private byte[] oggData;
+    private File cacheDirectory;
+    private File cacheFile;
+
+    @Setup
+    public void setup() throws IOException {
+        mp3Data = createMP3Data(new Random(0));
+        try (InputStream stream = DecoderBenchmarks.class.getResourceAsStream(OGG_FILE)) {
+            ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[65536];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                dataStream.write(buffer, 0, read);
+            }
+            oggData = dataStream.toByteArray();
+        }
+        cacheDirectory = Files.createTempDirectory("mtsmusiccache").toFile();
+        cacheFile = new File(cacheDirectory, "benchmark.pcm");
+        decodeAll(CachedPCMDecoder.writeCache(cacheFile, new OGGDecoder(new ByteArrayInputStream(oggData))));
+    }
+
+    @TearDown
+    public void tearDown() {
+        cacheFile.delete();
+        cacheDirectory.delete();
+    }
+
+    @Benchmark
+    public int mp3Decode() {
+        return decodeAll(new MP3Decoder(new ByteArrayInputStream(mp3Data), equalizer));
+    }
+
+    @Benchmark
+    public int oggDecode() {
+        return decodeAll(new OGGDecoder(new ByteArrayInputStream(oggData)));
+    }
+
+    @Benchmark
+    public int oggFromCache() {
+        return decodeAll(CachedPCMDecoder.readCache(cacheFile));
+    }
+
+    /**
+     * Reads all blocks from the decoder, and returns the number of bytes it returned so the work isn't optimized out.
+     */
+    private static int decodeAll(IStreamDecoder decoder) {
+        int totalBytes = 0;
+        ByteBuffer block;
+        while ((block = decoder.readBlock()) != null) {
+            totalBytes += block.remaining();
+        }
+        decoder.stop();
+        return totalBytes;
+    }
+
+    /**
+     * Creates a stream of 128Kbps stereo MPEG-1 Layer III frames.  Each granule of each channel has its
+     * spectral lines stored with count1 table B, which is 4 bits for every four lines, plus a sign bit for each
+     * line that isn't 0.  Lines are set to +/-1 at random until the granule's share of the frame is full.
+     * Scale factors are all 0, and the global gain is random, so the volume changes from granule to granule.
+     */
+    private static byte[] createMP3Data(Random random) {
+        int mainDataBits = (MP3_FRAME_SIZE - MP3_HEADER_SIZE - MP3_SIDE_INFO_SIZE) * 8;
+        int granuleBits = mainDataBits / 4;
+        byte[] data = new byte[MP3_FRAME_COUNT * MP3_FRAME_SIZE];
+        for (int frame = 0; frame < MP3_FRAME_COUNT; ++frame) {
+            BitWriter mainData = new BitWriter(new byte[mainDataBits / 8]);
+            int[] granuleLengths = new int[4];
+            for (int granule = 0; granule < 4; ++granule) {
+                int granuleStart = mainData.bitPosition;
+                for (int line = 0; line < 576; line += 4) {
+                    int quad = random.nextInt(16);
+                    int signBits = Integer.bitCount(quad);
+                    if (mainData.bitPosition - granuleStart + 4 + signBits > granuleBits) {
+                        break;
+                    }
+                    mainData.write(15 - quad, 4);
+                    mainData.write(random.nextInt(1 << signBits), signBits);
+                }
+                granuleLengths[granule] = mainData.bitPosition - granuleStart;
+            }
+
+            BitWriter frameData = new BitWriter(data);
+            frameData.bitPosition = frame * MP3_FRAME_SIZE * 8;
+            //Sync, MPEG-1, Layer III, no CRC, 128Kbps, 44.1KHz, no padding, stereo.
+            frameData.write(0xFFFB9000, 32);
+            //Main data starts in this frame, no private bits, no scale factors shared between granules.
+            frameData.write(0, 9);
+            frameData.write(0, 3);
+            frameData.write(0, 8);
+            for (int granule = 0; granule < 4; ++granule) {
+                frameData.write(granuleLengths[granule], 12);
+                //No big values, and a random gain.
+                frameData.write(0, 9);
+                frameData.write(150 + random.nextInt(30), 8);
+                //No scale factor bits, normal long blocks, and table selects and region counts that aren't used without big values.
+                frameData.write(0, 4);
+                frameData.write(0, 1);
+                frameData.write(0, 15);
+                frameData.write(0, 4);
+                frameData.write(0, 3);
+                //No pre-emphasis, normal scale factor scaling, and count1 table B.
+                frameData.write(0, 1);
+                frameData.write(0, 1);
+                frameData.write(1, 1);
+            }
+            System.arraycopy(mainData.data, 0, data, frame * MP3_FRAME_SIZE + MP3_HEADER_SIZE + MP3_SIDE_INFO_SIZE, mainData.data.length);
+        }
+        return data;
+    }
+
+    private static class BitWriter {
+        private final byte[] data;
+        private int bitPosition;
+
+        private BitWriter(byte[] data) {
+            this.data = data;
+        }
+
+        /**
+         * Writes the low bits of the value, most significant bit first.
+         */
+        private void write(int value, int bits) {
+            for (int i = bits - 1; i >= 0; --i) {
+                if (((value >>> i) & 1) != 0) {
+                    data[bitPosition >> 3] |= (byte) (0x80 >> (bitPosition & 7));
+                }
+                ++bitPosition;
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package minecrafttransportsimulator.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minecrafttransportsimulator.baseclasses.BezierCurve;
+import minecrafttransportsimulator.baseclasses.BoundingBox;
+import minecrafttransportsimulator.baseclasses.BoundingBoxHitResult;
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
+
+/**
+ * Benchmarks for {@link BoundingBox} and {@link BezierCurve}.  Boxes are vehicle collision box sized and spread
+ * over a small area, so checks hit about as often as they would around a crowded vehicle.
+ * Rays are bullet length, and curves are road segments of a few to a few dozen blocks.  As with
+ * {@link MathBenchmarks}, inputs are made once from a fixed seed and each call steps to the next one.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryBenchmarks {
+    private static final int INPUT_COUNT = 1024;
+    private static final int CURVE_COUNT = 64;
+
+    private final BoundingBox[] boxes = new BoundingBox[INPUT_COUNT];
+    private final Point3D[] rayStarts = new Point3D[INPUT_COUNT];
+    private final Point3D[] rayEnds = new Point3D[INPUT_COUNT];
+    private final Point3D[] curveStarts = new Point3D[CURVE_COUNT];
+    private final Point3D[] curveEnds = new Point3D[CURVE_COUNT];
+    private final RotationMatrix[] curveStartRotations = new RotationMatrix[CURVE_COUNT];
+    private final RotationMatrix[] curveEndRotations = new RotationMatrix[CURVE_COUNT];
+    private final BezierCurve[] curves = new BezierCurve[CURVE_COUNT];
+    private final Point3D point = new Point3D();
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < INPUT_COUNT; ++i) {
+            Point3D center = new Point3D(random.nextDouble() * 8, random.nextDouble() * 4, random.nextDouble() * 8);
+            boxes[i] = new BoundingBox(center, 0.25 + random.nextDouble() * 1.5, 0.25 + random.nextDouble(), 0.25 + random.nextDouble() * 1.5);
+            rayStarts[i] = new Point3D(random.nextDouble() * 16 - 4, random.nextDouble() * 8 - 2, random.nextDouble() * 16 - 4);
+            rayEnds[i] = new Point3D(random.nextDouble() - 0.5, random.nextDouble() - 0.5, random.nextDouble() - 0.5).normalize().scale(10).add(rayStarts[i]);
+        }
+        for (int i = 0; i < CURVE_COUNT; ++i) {
+            double yaw = random.nextDouble() * 360;
+            curveStarts[i] = new Point3D(random.nextInt(64), 64, random.nextInt(64));
+            curveEnds[i] = new Point3D(0, random.nextInt(3) - 1, 4 + random.nextInt(32)).rotate(new RotationMatrix().rotateY(yaw + random.nextDouble() * 90 - 45)).add(curveStarts[i]);
+            curveStartRotations[i] = new RotationMatrix().rotateY(yaw);
+            curveEndRotations[i] = new RotationMatrix().rotateY(yaw + random.nextInt(4) * 45 - 90);
+            curves[i] = new BezierCurve(curveStarts[i], curveEnds[i], curveStartRotations[i], curveEndRotations[i]);
+        }
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (INPUT_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public boolean boxIntersects() {
+        int i = nextIndex();
+        return boxes[i].intersects(boxes[(i + 1) & (INPUT_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public BoundingBoxHitResult boxGetIntersection() {
+        int i = nextIndex();
+        return boxes[i].getIntersection(rayStarts[i], rayEnds[i]);
+    }
+
+    @Benchmark
+    public BezierCurve curveCreate() {
+        int i = nextIndex() & (CURVE_COUNT - 1);
+        return new BezierCurve(curveStarts[i], curveEnds[i], curveStartRotations[i], curveEndRotations[i]);
+    }
+
+    @Benchmark
+    public Point3D curveSamplePosition() {
+        int i = nextIndex();
+        BezierCurve curve = curves[i & (CURVE_COUNT - 1)];
+        curve.setPointToPositionAt(point, curve.pathLength * (i >> 6) / (INPUT_COUNT >> 6));
+        return point;
+    }
+
+    @Benchmark
+    public RotationMatrix curveSampleRotation() {
+        int i = nextIndex();
+        BezierCurve curve = curves[i & (CURVE_COUNT - 1)];
+        return curve.getRotationAt(curve.pathLength * (i >> 6) / (INPUT_COUNT >> 6));
+    }
+}
@@ -0,0 +1,128 @@
+package minecrafttransportsimulator.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
+import minecrafttransportsimulator.baseclasses.TransformationMatrix;
+
+/**
+ * Benchmarks for {@link Point3D}, {@link RotationMatrix}, and {@link TransformationMatrix}.  Inputs are made once
+ * from a fixed seed, and each call steps to the next one, so the JIT can't fold the maths away and runs are comparable.
+ * Angles are in the ranges vehicles see: any yaw, and pitch and roll that aren't upside down.
+ *
+ * @author don_bruce
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathBenchmarks {
+    private static final int INPUT_COUNT = 1024;
+
+    private final Point3D[] points = new Point3D[INPUT_COUNT];
+    private final Point3D[] angles = new Point3D[INPUT_COUNT];
+    private final RotationMatrix[] rotations = new RotationMatrix[INPUT_COUNT];
+    private final TransformationMatrix[] transforms = new TransformationMatrix[INPUT_COUNT];
+    private final Point3D point = new Point3D();
+    private final RotationMatrix rotation = new RotationMatrix();
+    private final TransformationMatrix transform = new TransformationMatrix();
+    private int index;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(0);
+        for (int i = 0; i < INPUT_COUNT; ++i) {
+            points[i] = new Point3D(random.nextDouble() * 64 - 32, random.nextDouble() * 16, random.nextDouble() * 64 - 32);
+            angles[i] = getAngles(random);
+            rotations[i] = new RotationMatrix().setToAngles(angles[i]);
+            transforms[i] = new TransformationMatrix().setTranslation(points[i]).applyRotation(rotations[i]).applyScaling(1, 1, 1);
+        }
+    }
+
+    private static Point3D getAngles(Random random) {
+        return new Point3D(random.nextDouble() * 90 - 45, random.nextDouble() * 360 - 180, random.nextDouble() * 90 - 45);
+    }
+
+    private int nextIndex() {
+        index = (index + 1) & (INPUT_COUNT - 1);
+        return index;
+    }
+
+    @Benchmark
+    public Point3D pointRotate() {
+        int i = nextIndex();
+        return point.set(points[i]).rotate(rotations[i]);
+    }
+
+    @Benchmark
+    public Point3D pointTransform() {
+        int i = nextIndex();
+        return point.set(points[i]).transform(transforms[i]);
+    }
+
+    @Benchmark
+    public double pointDistance() {
+        int i = nextIndex();
+        return points[i].distanceTo(points[(i + 1) & (INPUT_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public Point3D pointNormalize() {
+        return point.set(points[nextIndex()]).normalize();
+    }
+
+    @Benchmark
+    public Point3D pointGetAngles() {
+        return points[nextIndex()].getAngles(true);
+    }
+
+    @Benchmark
+    public RotationMatrix rotationMultiply() {
+        int i = nextIndex();
+        return rotation.set(rotations[i]).multiply(rotations[(i + 1) & (INPUT_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public RotationMatrix rotationSetToAngles() {
+        return rotation.setToAngles(angles[nextIndex()]);
+    }
+
+    @Benchmark
+    public Point3D rotationConvertToAngles() {
+        return rotation.set(rotations[nextIndex()]).convertToAngles();
+    }
+
+    @Benchmark
+    public RotationMatrix rotationInterpolate() {
+        int i = nextIndex();
+        rotation.interploate(rotations[i], rotations[(i + 1) & (INPUT_COUNT - 1)], 0.5);
+        return rotation;
+    }
+
+    @Benchmark
+    public TransformationMatrix transformMultiply() {
+        int i = nextIndex();
+        return transform.set(transforms[i]).multiply(transforms[(i + 1) & (INPUT_COUNT - 1)]);
+    }
+
+    @Benchmark
+    public TransformationMatrix transformApplyRotation() {
+        int i = nextIndex();
+        return transform.set(transforms[i]).applyRotation(rotations[(i + 1) & (INPUT_COUNT - 1)]);
+    }
+}
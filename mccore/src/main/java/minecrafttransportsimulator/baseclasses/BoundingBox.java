@@ -38,6 +38,7 @@ public class BoundingBox {
     public final Point3D globalCenter;
     public final Point3D currentCollisionDepth;
     public final List<Point3D> collidingBlockPositions = new ArrayList<>();
+    private final List<Point3D> collidingBlockPositionPool = new ArrayList<>();
     private RenderableData wireframeRenderable;
     private RenderableData holographicRenderable;
     private final Point3D tempGlobalCenter;
@@ -134,6 +135,18 @@ public class BoundingBox {
         return !collidingBlockPositions.isEmpty();
     }
 
+    /**
+     * Adds the passed-in block position to {@link #collidingBlockPositions}.  The points in that list
+     * are re-used between collision updates, so copy them if they need to be kept after the next update.
+     */
+    public void addCollidingBlockPosition(double x, double y, double z) {
+        int index = collidingBlockPositions.size();
+        if (index == collidingBlockPositionPool.size()) {
+            collidingBlockPositionPool.add(new Point3D());
+        }
+        collidingBlockPositions.add(collidingBlockPositionPool.get(index).set(x, y, z));
+    }
+
     /**
      * Sets the global center of this box to the position of the passed-in entity, rotated by the
      * entity's rotation and offset by the local center, or the passed-in offset if it is non-null.
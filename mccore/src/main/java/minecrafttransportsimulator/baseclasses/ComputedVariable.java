@@ -1,6 +1,9 @@
 package minecrafttransportsimulator.baseclasses;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import minecrafttransportsimulator.entities.components.AEntityD_Definable;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
@@ -22,6 +25,10 @@ public class ComputedVariable {
     public static final String INVERTED_PREFIX = "!";
     public static final String CONSTANT_PREFIX = "#";
 
+    /**Slot IDs for variable keys, handed out by {@link #getSlot(String)}.**/
+    private static final Map<String, Integer> variableSlots = new ConcurrentHashMap<>();
+    private static final AtomicInteger nextVariableSlot = new AtomicInteger();
+
 	/**The key of this variable, required to be unique to all variables on the entity.**/
     public final String variableKey;
     /**The entity this variable is defined on.**/
@@ -42,6 +49,15 @@ public class ComputedVariable {
      * Is null on the inverted variable itself.**/
     public final ComputedVariable invertedVariable;
 
+    /**
+     * Returns the slot ID for the passed-in variable key.  Every key gets its own ID the first time it is
+     * requested, and keeps it for the rest of the game.  IDs start at 0 and have no gaps, so they can be used
+     * to index arrays of variables, which is what {@link AEntityD_Definable#getVariable(int, String)} does.
+     */
+    public static int getSlot(String variableKey) {
+        return variableSlots.computeIfAbsent(variableKey, key -> nextVariableSlot.getAndIncrement());
+    }
+
     /**Constructor for variables with logic that can change each tick or frame.**/
     public ComputedVariable(AEntityD_Definable<?> entity, String variable, ComputedVariableOperator function, boolean changesOnPartialTicks) {
         this.function = function;
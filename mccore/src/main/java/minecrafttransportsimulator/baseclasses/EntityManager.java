@@ -22,12 +22,16 @@ import minecrafttransportsimulator.entities.instances.EntityPlacedPart;
 import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
 import minecrafttransportsimulator.entities.instances.PartGun;
 import minecrafttransportsimulator.items.instances.ItemVehicle;
+import minecrafttransportsimulator.jsondefs.JSONParticle;
 import minecrafttransportsimulator.jsondefs.JSONCollisionGroup.CollisionType;
 import minecrafttransportsimulator.mcinterface.AWrapperWorld;
 import minecrafttransportsimulator.mcinterface.IWrapperEntity;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import minecrafttransportsimulator.systems.CameraSystem;
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.MetricsSystem;
 
 /**
  * Class that manages entities in a world.
@@ -44,6 +48,15 @@ public abstract class EntityManager {
     private final ConcurrentHashMap<UUID, AEntityA_Base> trackedEntityMap = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<UUID, PartGun> gunMap = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<UUID, Map<Integer, EntityBullet>> bulletMap = new ConcurrentHashMap<>();
+    private final EntitySpatialIndex multipartIndex = new EntitySpatialIndex();
+    /**Shared vehicle lookups for radars and gun lock-ons.**/
+    public final VehicleTargetIndex vehicleTargetIndex = new VehicleTargetIndex(this);
+    /**Zones that track vehicle presence, such as signal controller lanes.**/
+    public final VehicleTriggerZones vehicleTriggerZones = new VehicleTriggerZones(this);
+    private EntityTickScheduler tickScheduler;
+    private volatile VehicleMovementBatcher movementBatcher;
+    private ParticleManager particleManager;
+    private volatile long tickCount;
     
     private static final byte hotloadCountdownPreset = 20;
     private static byte hotloadCountdown;
@@ -90,15 +103,14 @@ public abstract class EntityManager {
         }
 
         @SuppressWarnings("unchecked")
-        ConcurrentLinkedQueue<EntityType> classList = (ConcurrentLinkedQueue<EntityType>) entitiesByClass.get(entity.getClass());
-        if (classList == null) {
-            classList = new ConcurrentLinkedQueue<>();
-            entitiesByClass.put(entity.getClass(), classList);
-        }
+        ConcurrentLinkedQueue<EntityType> classList = (ConcurrentLinkedQueue<EntityType>) entitiesByClass.computeIfAbsent(entity.getClass(), k -> new ConcurrentLinkedQueue<>());
         classList.add(entity);
         if (entity.shouldSync()) {
             trackedEntityMap.put(entity.uniqueUUID, entity);
         }
+        if (entity instanceof EntityVehicleF_Physics || entity instanceof EntityPlacedPart) {
+            multipartIndex.update((AEntityF_Multipart<?>) entity);
+        }
     }
 
     /**
@@ -134,29 +146,82 @@ public abstract class EntityManager {
      * of checks for collision with specific boxes is left up to that operation.
      */
     public void populateWithEntitiesInBounds(List<AEntityF_Multipart<?>> list, BoundingBox bounds) {
-        for (EntityVehicleF_Physics entity : getEntitiesOfType(EntityVehicleF_Physics.class)) {
-            if (entity.encompassingBox.intersects(bounds)) {
-                list.add(entity);
+        int startIndex = list.size();
+        multipartIndex.populate(list, bounds);
+        for (int i = list.size() - 1; i >= startIndex; --i) {
+            if (!list.get(i).encompassingBox.intersects(bounds)) {
+                list.remove(i);
             }
         }
-        for (EntityPlacedPart entity : getEntitiesOfType(EntityPlacedPart.class)) {
-            if (entity.encompassingBox.intersects(bounds)) {
-                list.add(entity);
+    }
+
+    /**
+     * Updates the broad-phase index for the passed-in multipart.  This should be called any time
+     * the multipart's encompassing box changes.  Only top-level multiparts are indexed, so calls
+     * for parts and other multiparts are ignored.
+     */
+    public void updateMultipartBounds(AEntityF_Multipart<?> multipart) {
+        if ((multipart instanceof EntityVehicleF_Physics || multipart instanceof EntityPlacedPart) && multipart.isValid) {
+            multipartIndex.update(multipart);
+            if (multipart instanceof EntityVehicleF_Physics) {
+                vehicleTriggerZones.updateVehicle((EntityVehicleF_Physics) multipart);
             }
         }
     }
 
+    /**
+     * Queues movement for the passed-in vehicle to be sent to all players tracking it at the end of this tick.
+     * Only used on servers with batched movement syncing enabled.
+     */
+    public void queueVehicleMovement(EntityVehicleF_Physics vehicle, Point3D motion, Point3D rotation, double pathing) {
+        if (movementBatcher == null) {
+            synchronized (this) {
+                if (movementBatcher == null) {
+                    movementBatcher = new VehicleMovementBatcher(getWorld());
+                }
+            }
+        }
+        movementBatcher.queueMovement(vehicle, motion, rotation, pathing);
+    }
+
+    /**
+     * Drops any movement for the passed-in entity that is waiting to be sent to the passed-in player.
+     * Interfaces must call this when they save the entity's data to send to the player, as that data already
+     * has all movement up to now, and when the player stops tracking the entity, as they won't need it anymore.
+     */
+    public void clearPendingMovement(AEntityA_Base entity, IWrapperPlayer player) {
+        if (movementBatcher != null && entity instanceof EntityVehicleF_Physics) {
+            movementBatcher.clearMovement((EntityVehicleF_Physics) entity, player);
+        }
+    }
+
+    /**
+     * Spawns a particle from the passed-in entity.  Particles are client-side only and are not entities,
+     * so they won't show up in any entity lists.  The switchbox is optional, and if present will be
+     * used to offset the spawning position.
+     */
+    public void spawnParticle(AEntityC_Renderable entitySpawning, JSONParticle definition, Point3D spawningPosition, AnimationSwitchbox spawningSwitchbox) {
+        if (particleManager == null) {
+            particleManager = new ParticleManager(getWorld(), Math.max(1, ConfigSystem.client.renderingSettings.maxParticles.value));
+        }
+        particleManager.spawnParticle(entitySpawning, definition, spawningPosition, spawningSwitchbox);
+    }
+
+    /**
+     * Renders all particles in this world.  Position is relative to the passed-in camera offset.
+     */
+    public void renderParticles(boolean blendingEnabled, float partialTicks, Point3D cameraOffset) {
+        if (particleManager != null) {
+            particleManager.render(blendingEnabled, partialTicks, cameraOffset);
+        }
+    }
+
     /**
      * Gets the list of all entities of the specified class.
      */
     @SuppressWarnings("unchecked")
     public <EntityType extends AEntityA_Base> ConcurrentLinkedQueue<EntityType> getEntitiesOfType(Class<EntityType> entityClass) {
-        ConcurrentLinkedQueue<EntityType> classListing = (ConcurrentLinkedQueue<EntityType>) entitiesByClass.get(entityClass);
-        if (classListing == null) {
-            classListing = new ConcurrentLinkedQueue<>();
-            entitiesByClass.put(entityClass, classListing);
-        }
-        return classListing;
+        return (ConcurrentLinkedQueue<EntityType>) entitiesByClass.computeIfAbsent(entityClass, k -> new ConcurrentLinkedQueue<>());
     }
 
     /**
@@ -176,6 +241,14 @@ public abstract class EntityManager {
         return list;
     }
 
+    /**
+     * Returns the number of ticks this manager has run.  Unlike {@link AWrapperWorld#getTime()}, this
+     * always advances, even if the world's clock is stopped, so it should be used to key any per-tick caches.
+     */
+    public long getTickCount() {
+        return tickCount;
+    }
+
     /**
      * Ticks all entities that exist and need ticking.  These are any entities that
      * are not parts, since parts are ticked by their parents.
@@ -196,18 +269,38 @@ public abstract class EntityManager {
             }
         }
         if (beforePlayer) {
+            ++tickCount;
+            vehicleTargetIndex.clear();
             //Need to do this before updating since defaults have to be set on all entities to ensure VMs run properly.
             for (AEntityA_Base entity : allNormalTickableEntities) {
-                if (entity instanceof AEntityD_Definable) {
+                if (entity instanceof AEntityD_Definable && !isDormant(entity)) {
                     ((AEntityD_Definable<?>) entity).setVariableDefaults();
                 }
             }
-            for (AEntityA_Base entity : allNormalTickableEntities) {
-                if (!(entity instanceof AEntityG_Towable) || !(((AEntityG_Towable<?>) entity).blockMainUpdateCall())) {
-                    doTick(entity);
+            if (!world.isClient() && ConfigSystem.settings.general.parallelEntityTicking.value && world.supportsParallelTicking()) {
+                //Tick independent entities in parallel.  Scheduler handles the ordering and the serial fallbacks.
+                if (tickScheduler == null) {
+                    tickScheduler = new EntityTickScheduler(world);
+                }
+                tickScheduler.tickAll(allNormalTickableEntities);
+            } else {
+                for (AEntityA_Base entity : allNormalTickableEntities) {
+                    if ((!(entity instanceof AEntityG_Towable) || !(((AEntityG_Towable<?>) entity).blockMainUpdateCall())) && !isDormant(entity)) {
+                        doTick(entity);
+                    }
                 }
             }
 
+            //Update particles that follow normal entities.
+            if (particleManager != null) {
+                particleManager.update(true);
+            }
+
+            //Send out any movement vehicles queued this tick.
+            if (movementBatcher != null) {
+                movementBatcher.sendMovements();
+            }
+
             //Do hotload operations.
             //This operates on all threads concurrently as long as we're counting down.
             if (hotloadStep > 0) {
@@ -320,26 +413,57 @@ public abstract class EntityManager {
         } else {
             //Need to do this before updating since defaults have to be set on all entities to ensure VMs run properly.
             for (AEntityA_Base entity : allPlayerTickableEntities) {
-                if (entity instanceof AEntityD_Definable) {
+                if (entity instanceof AEntityD_Definable && !isDormant(entity)) {
                     ((AEntityD_Definable<?>) entity).setVariableDefaults();
                 }
             }
             for (AEntityA_Base entity : allPlayerTickableEntities) {
-                if (!(entity instanceof AEntityG_Towable) || !(((AEntityG_Towable<?>) entity).blockMainUpdateCall())) {
+                if ((!(entity instanceof AEntityG_Towable) || !(((AEntityG_Towable<?>) entity).blockMainUpdateCall())) && !isDormant(entity)) {
                     doTick(entity);
                 }
             }
+            if (particleManager != null) {
+                particleManager.update(false);
+            }
         }
+        MetricsSystem.update();
         world.endProfiling();
     }
 
+    /**
+     * Returns true if the passed-in entity is dormant, and should not be ticked or have its variables reset this tick.
+     */
+    static boolean isDormant(AEntityA_Base entity) {
+        return entity instanceof EntityVehicleF_Physics && ((EntityVehicleF_Physics) entity).isSkippingTick();
+    }
+
+    /**
+     * Wakes any vehicles whose bounds are near the passed-in block.  Call when a block changes,
+     * as a dormant vehicle could be resting on it, or be inside it.
+     */
+    public void wakeVehiclesNearBlock(int x, int y, int z) {
+        List<AEntityF_Multipart<?>> multiparts = new ArrayList<>();
+        multipartIndex.populate(multiparts, x - 1, z - 1, x + 2, z + 2);
+        for (AEntityF_Multipart<?> multipart : multiparts) {
+            BoundingBox box = multipart.encompassingBox;
+            if (multipart instanceof EntityVehicleF_Physics && Math.abs(box.globalCenter.y - (y + 0.5)) <= box.heightRadius + 1.5 && Math.abs(box.globalCenter.x - (x + 0.5)) <= box.widthRadius + 1.5 && Math.abs(box.globalCenter.z - (z + 0.5)) <= box.depthRadius + 1.5) {
+                multipart.wakeFromDormancy();
+            }
+        }
+    }
+
     public static void doTick(AEntityA_Base entity) {
-        entity.world.beginProfiling("MTSEntity_" + entity.uniqueUUID, true);
+        //Profile by definition, not entity, as that's what's useful to know, and it saves building a name every tick.
+        MetricsSystem.Section section = entity instanceof AEntityD_Definable ? ((AEntityD_Definable<?>) entity).metricsSection : MetricsSystem.OTHER_ENTITIES;
+        entity.world.beginProfiling(section.profilerName, true);
+        long startTime = MetricsSystem.startTimer();
         if (entity instanceof AEntityD_Definable) {
             AEntityD_Definable<?> definable = (AEntityD_Definable<?>) entity;
             //Need to do this before updating as these require knowledge of prior states.
             entity.world.beginProfiling("VariableModifiers", true);
+            long switchboxStartTime = MetricsSystem.startTimer();
             definable.updateVariableModifiers();
+            MetricsSystem.SWITCHBOXES.record(switchboxStartTime);
             entity.world.beginProfiling("MainUpdate", false);
             entity.update();
             entity.world.beginProfiling("PostUpdate", false);
@@ -348,6 +472,7 @@ public abstract class EntityManager {
         } else {
             entity.update();
         }
+        section.record(startTime);
         entity.world.endProfiling();
     }
 
@@ -359,8 +484,7 @@ public abstract class EntityManager {
         EntityInteractResult closestResult = null;
         BoundingBox vectorBounds = new BoundingBox(startPoint, endPoint);
         List<AEntityF_Multipart<?>> multiparts = new ArrayList<>();
-        multiparts.addAll(getEntitiesOfType(EntityVehicleF_Physics.class));
-        multiparts.addAll(getEntitiesOfType(EntityPlacedPart.class));
+        multipartIndex.populate(multiparts, vectorBounds);
 
         for (AEntityF_Multipart<?> multipart : multiparts) {
             if (multipart.encompassingBox.intersects(vectorBounds) && multipart.canBeClicked()) {
@@ -405,11 +529,19 @@ public abstract class EntityManager {
             EntityBullet bullet = (EntityBullet) entity;
             bulletMap.get(bullet.gun.uniqueUUID).remove(bullet.bulletNumber);
         }
+        if (entity instanceof EntityVehicleF_Physics || entity instanceof EntityPlacedPart) {
+            multipartIndex.remove((AEntityF_Multipart<?>) entity);
+            if (entity instanceof EntityVehicleF_Physics) {
+                vehicleTriggerZones.removeVehicle((EntityVehicleF_Physics) entity);
+            }
+        }
     }
     
     public void adjustHeightForRain(Point3D position) {
-        for (EntityVehicleF_Physics vehicle : getEntitiesOfType(EntityVehicleF_Physics.class)) {
-            if (vehicle.encompassingBox.isPointInsideAndBelow(position)) {
+        List<AEntityF_Multipart<?>> multiparts = new ArrayList<>();
+        multipartIndex.populate(multiparts, position.x, position.z, position.x, position.z);
+        for (AEntityF_Multipart<?> vehicle : multiparts) {
+            if (vehicle instanceof EntityVehicleF_Physics && vehicle.encompassingBox.isPointInsideAndBelow(position)) {
                 //Point is inside the box, but we might not be blocked by a collision box.  If we are, we need to block rain.
                 for (BoundingBox box : vehicle.allCollisionBoxes) {
                     if (box.collisionTypes.contains(CollisionType.ENTITY)) {
@@ -451,6 +583,9 @@ public abstract class EntityManager {
 
     public void onUnload() {
         allEntities.forEach(entity -> entity.remove());
+        if (particleManager != null) {
+            particleManager.clear();
+        }
         if (getWorld().isClient()) {
             CameraSystem.resetCameraProperties();
         }
@@ -0,0 +1,131 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import minecrafttransportsimulator.entities.components.AEntityF_Multipart;
+
+/**
+ * Broad-phase index for top-level multiparts.  This splits the world into columns the size
+ * of a chunk, and keeps a list of all multiparts whose {@link AEntityF_Multipart#encompassingBox}
+ * overlaps each column.  Entities are re-bucketed whenever their box is updated, but only if
+ * the set of columns they cover changed, so most updates are just a few integer compares.
+ * Queries return every multipart in the columns the bounds touch.  They may not actually intersect
+ * the bounds, so callers still need to do their own box checks.
+ * <br><br>
+ * All methods are synchronized, as entities may update their boxes on multiple threads.
+ */
+public class EntitySpatialIndex {
+    private static final int CELL_BITS = 4;
+
+    private final Map<Long, List<AEntityF_Multipart<?>>> cells = new HashMap<>();
+    private final Map<AEntityF_Multipart<?>, int[]> entityCells = new IdentityHashMap<>();
+
+    /**
+     * Updates the cells the passed-in entity is in to match its current encompassing box.
+     * Adds the entity to the index if it isn't in it already.
+     */
+    public synchronized void update(AEntityF_Multipart<?> entity) {
+        BoundingBox box = entity.encompassingBox;
+        int minX = toCell(box.globalCenter.x - box.widthRadius);
+        int maxX = toCell(box.globalCenter.x + box.widthRadius);
+        int minZ = toCell(box.globalCenter.z - box.depthRadius);
+        int maxZ = toCell(box.globalCenter.z + box.depthRadius);
+        int[] bounds = entityCells.get(entity);
+        if (bounds == null) {
+            bounds = new int[4];
+            entityCells.put(entity, bounds);
+        } else if (bounds[0] == minX && bounds[1] == maxX && bounds[2] == minZ && bounds[3] == maxZ) {
+            return;
+        } else {
+            removeFromCells(entity, bounds);
+        }
+        bounds[0] = minX;
+        bounds[1] = maxX;
+        bounds[2] = minZ;
+        bounds[3] = maxZ;
+        for (int x = minX; x <= maxX; ++x) {
+            for (int z = minZ; z <= maxZ; ++z) {
+                cells.computeIfAbsent(getKey(x, z), k -> new ArrayList<>()).add(entity);
+            }
+        }
+    }
+
+    /**
+     * Removes the passed-in entity from the index.
+     */
+    public synchronized void remove(AEntityF_Multipart<?> entity) {
+        int[] bounds = entityCells.remove(entity);
+        if (bounds != null) {
+            removeFromCells(entity, bounds);
+        }
+    }
+
+    /**
+     * Adds all entities in the cells covered by the passed-in bounds to the list.
+     * Entities are only added once, even if they span multiple cells.
+     */
+    public void populate(List<AEntityF_Multipart<?>> list, BoundingBox bounds) {
+        populate(list, bounds.globalCenter.x - bounds.widthRadius, bounds.globalCenter.z - bounds.depthRadius, bounds.globalCenter.x + bounds.widthRadius, bounds.globalCenter.z + bounds.depthRadius);
+    }
+
+    /**
+     * Like {@link #populate(List, BoundingBox)}, but takes raw X/Z bounds.
+     */
+    public synchronized void populate(List<AEntityF_Multipart<?>> list, double minX, double minZ, double maxX, double maxZ) {
+        int cellMinX = toCell(minX);
+        int cellMaxX = toCell(maxX);
+        int cellMinZ = toCell(minZ);
+        int cellMaxZ = toCell(maxZ);
+        int startIndex = list.size();
+        for (int x = cellMinX; x <= cellMaxX; ++x) {
+            for (int z = cellMinZ; z <= cellMaxZ; ++z) {
+                List<AEntityF_Multipart<?>> cell = cells.get(getKey(x, z));
+                if (cell != null) {
+                    for (AEntityF_Multipart<?> entity : cell) {
+                        int[] bounds = entityCells.get(entity);
+                        //Only need to check for duplicates if the entity is in more than one cell.
+                        if ((bounds[0] == bounds[1] && bounds[2] == bounds[3]) || !isInList(list, startIndex, entity)) {
+                            list.add(entity);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void removeFromCells(AEntityF_Multipart<?> entity, int[] bounds) {
+        for (int x = bounds[0]; x <= bounds[1]; ++x) {
+            for (int z = bounds[2]; z <= bounds[3]; ++z) {
+                Long key = getKey(x, z);
+                List<AEntityF_Multipart<?>> cell = cells.get(key);
+                if (cell != null) {
+                    cell.remove(entity);
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isInList(List<AEntityF_Multipart<?>> list, int startIndex, AEntityF_Multipart<?> entity) {
+        for (int i = startIndex; i < list.size(); ++i) {
+            if (list.get(i) == entity) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int toCell(double coord) {
+        return ((int) Math.floor(coord)) >> CELL_BITS;
+    }
+
+    private static long getKey(int cellX, int cellZ) {
+        return (((long) cellX) << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+}
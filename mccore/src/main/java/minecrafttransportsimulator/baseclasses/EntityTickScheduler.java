@@ -0,0 +1,339 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.locks.LockSupport;
+
+import minecrafttransportsimulator.entities.components.AEntityA_Base;
+import minecrafttransportsimulator.entities.components.AEntityF_Multipart;
+import minecrafttransportsimulator.entities.components.AEntityG_Towable;
+import minecrafttransportsimulator.entities.instances.APart;
+import minecrafttransportsimulator.entities.instances.EntityPlacedPart;
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.entities.instances.PartEffector;
+import minecrafttransportsimulator.entities.instances.PartGun;
+import minecrafttransportsimulator.mcinterface.AWrapperWorld;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**
+ * Opt-in scheduler that ticks groups of independent top-level multiparts in parallel.
+ * Multiparts are grouped into islands: a multipart, everything it tows, and every other
+ * multipart whose (motion-grown) encompassing box overlaps any of those.  Since nothing in an
+ * island can touch anything in another island during a tick, islands can be ticked on separate
+ * threads while each island still ticks its members in the same order as {@link EntityManager#tickAll(boolean)}.
+ * <br><br>
+ * Entities that can't be put into an island (bullets, tile entities, entities with guns, radars or
+ * effectors that look at or modify the world outside of their own box, entities with riders,
+ * which move game entities that may only be moved on the world thread, and vehicles looking for
+ * a road, which need road tile entities) are ticked on the world thread in their spot in the list.
+ * Only runs of island-capable entities between them are ticked in parallel, so every entity sees
+ * the world just as it would if everything was ticked serially, and the results are the same.
+ * This does mean the more of these entities are spread through the list, the less gets ticked in parallel.
+ * <br><br>
+ * World mutations and packet sends made during the parallel phase are not applied directly.
+ * Instead, they are handed to {@link #deferIfParallel(Runnable)}, which queues them on the entity
+ * doing the tick.  Once all islands finish, the queues are run on the world thread in tick list order,
+ * which is the order they would have been run in if everything was ticked serially.
+ */
+public class EntityTickScheduler {
+    /**
+     * Extra distance, in blocks, to grow boxes by when checking for island overlap.  This is added to
+     * each entity's current velocity so two vehicles that could touch this tick end up in the same island.
+     **/
+    private static final double ISLAND_OVERLAP_GROWTH = 2.0;
+    private static final ThreadLocal<List<Runnable>> deferredMutations = new ThreadLocal<>();
+    private static ForkJoinPool tickPool;
+    private static int tickPoolThreads;
+
+    private final AWrapperWorld world;
+    private final List<AEntityF_Multipart<?>> segment = new ArrayList<>();
+    private final List<Island> islands = new ArrayList<>();
+    private final Map<AEntityA_Base, Integer> tickOrder = new IdentityHashMap<>();
+    private final List<List<Runnable>> segmentMutations = new ArrayList<>();
+    private final BoundingBox growthBoxA = new BoundingBox(new Point3D(), 0, 0, 0);
+    private final BoundingBox growthBoxB = new BoundingBox(new Point3D(), 0, 0, 0);
+
+    public EntityTickScheduler(AWrapperWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Returns true if the calling thread is currently ticking an island.
+     * Systems that are not thread-safe, such as the game profiler, should be bypassed when this is true.
+     */
+    public static boolean isParallelTickThread() {
+        return deferredMutations.get() != null;
+    }
+
+    /**
+     * Queues the passed-in mutation for the commit phase if the calling thread is ticking an island,
+     * and returns true.  If we are not in the parallel phase, false is returned and the caller
+     * should perform the mutation itself as normal.
+     */
+    public static boolean deferIfParallel(Runnable mutation) {
+        List<Runnable> mutations = deferredMutations.get();
+        if (mutations != null) {
+            mutations.add(mutation);
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Ticks all entities in the passed-in list.  Runs of island-capable entities are collected into segments,
+     * which have their islands ticked in parallel, then their deferred mutations committed.  All other entities are
+     * ticked serially in their spot in the list, after the segment before them and before the segment after them.
+     */
+    public void tickAll(Iterable<AEntityA_Base> tickableEntities) {
+        try {
+            //Anything spawned during a segment is appended to the list at commit, so we'll still get to it here.
+            for (AEntityA_Base entity : tickableEntities) {
+                if ((entity instanceof AEntityG_Towable && ((AEntityG_Towable<?>) entity).blockMainUpdateCall()) || EntityManager.isDormant(entity)) {
+                    //Towed entities are ticked by what is towing them, and dormant entities aren't ticked.
+                    continue;
+                }
+                if ((entity instanceof EntityVehicleF_Physics || entity instanceof EntityPlacedPart) && entity.isValid && canTickInIsland((AEntityF_Multipart<?>) entity)) {
+                    segment.add((AEntityF_Multipart<?>) entity);
+                } else {
+                    tickSegment();
+                    EntityManager.doTick(entity);
+                }
+            }
+            tickSegment();
+        } finally {
+            segment.clear();
+            islands.clear();
+            tickOrder.clear();
+        }
+    }
+
+    /**
+     * Ticks all entities in the current segment, then clears it.  If the segment only makes one island,
+     * there's nothing to gain from another thread, so it is just ticked serially.
+     */
+    private void tickSegment() {
+        if (segment.isEmpty()) {
+            return;
+        }
+        buildIslands();
+
+        if (islands.size() > 1) {
+            //Each entity gets its own mutation queue, so we can commit them in tick order.
+            while (segmentMutations.size() < segment.size()) {
+                segmentMutations.add(new ArrayList<>());
+            }
+            ForkJoinPool pool = getPool();
+            List<CompletableFuture<Void>> futures = new ArrayList<>(islands.size());
+            for (Island island : islands) {
+                futures.add(CompletableFuture.runAsync(island, pool));
+            }
+
+            //Wait for all islands.  While we wait, let the world run any tasks that islands are blocked on.
+            //If we don't do this, a worker that needs the world thread (say for a chunk query) would deadlock us.
+            CompletableFuture<Void> allIslands = CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]));
+            while (!allIslands.isDone()) {
+                if (!world.runPendingWorldTask()) {
+                    LockSupport.parkNanos(50000);
+                }
+            }
+            try {
+                allIslands.get();
+            } catch (InterruptedException | ExecutionException e) {
+                for (List<Runnable> mutations : segmentMutations) {
+                    mutations.clear();
+                }
+                throw new IllegalStateException("Exception while ticking entities in parallel.", e.getCause());
+            }
+
+            //Commit all mutations in tick order.
+            world.beginProfiling("MTS_ParallelCommit", true);
+            for (int i = 0; i < segment.size(); ++i) {
+                List<Runnable> mutations = segmentMutations.get(i);
+                for (Runnable mutation : mutations) {
+                    mutation.run();
+                }
+                mutations.clear();
+            }
+            world.endProfiling();
+        } else {
+            for (AEntityF_Multipart<?> member : segment) {
+                if (member.isValid) {
+                    EntityManager.doTick(member);
+                }
+            }
+        }
+
+        segment.clear();
+        islands.clear();
+        tickOrder.clear();
+    }
+
+    /**
+     * Groups all entities in the current segment into islands.  Union is done in list order
+     * so that the island list, and the members in each island, keep the tick order.
+     */
+    private void buildIslands() {
+        for (int i = 0; i < segment.size(); ++i) {
+            tickOrder.put(segment.get(i), i);
+        }
+
+        //Union overlapping candidates.  Islands are merged into the one found first to keep ordering.
+        for (AEntityF_Multipart<?> candidate : segment) {
+            Island candidateIsland = null;
+            for (int i = 0; i < islands.size(); ++i) {
+                Island island = islands.get(i);
+                if (island.overlaps(candidate)) {
+                    if (candidateIsland == null) {
+                        candidateIsland = island;
+                    } else {
+                        candidateIsland.merge(island);
+                        islands.remove(i--);
+                    }
+                }
+            }
+            if (candidateIsland == null) {
+                candidateIsland = new Island();
+                islands.add(candidateIsland);
+            }
+            candidateIsland.add(candidate);
+        }
+    }
+
+    /**
+     * Returns true if this multipart, and everything it tows, only modifies itself during its tick.
+     * Entities that scan the world for other entities or modify blocks directly can't be islanded.
+     * Neither can entities with riders, as syncing a rider sets the position of a game entity,
+     * nor vehicles looking for a road this tick, as roads are tile entities.
+     */
+    private static boolean canTickInIsland(AEntityF_Multipart<?> multipart) {
+        if (multipart.definition.general.radarRange > 0 || multipart.rider != null) {
+            return false;
+        }
+        if (multipart instanceof EntityVehicleF_Physics && ((EntityVehicleF_Physics) multipart).willSearchForRoad()) {
+            return false;
+        }
+        if (multipart instanceof AEntityG_Towable) {
+            AEntityG_Towable<?> towable = (AEntityG_Towable<?>) multipart;
+            if (towable.isLinkingConnections()) {
+                return false;
+            }
+            for (TowingConnection connection : towable.towingConnections) {
+                if (!canTickInIsland(connection.towedVehicle)) {
+                    return false;
+                }
+            }
+        }
+        for (APart part : multipart.allParts) {
+            if (part instanceof PartGun || part instanceof PartEffector || part.definition.general.radarRange > 0 || part.rider != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static synchronized ForkJoinPool getPool() {
+        int threads = ConfigSystem.settings.general.parallelEntityTickThreads.value;
+        if (threads <= 0) {
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        }
+        if (tickPool == null || tickPoolThreads != threads) {
+            if (tickPool != null) {
+                tickPool.shutdown();
+            }
+            tickPoolThreads = threads;
+            tickPool = new ForkJoinPool(threads, pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("MTS-EntityTick-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return tickPool;
+    }
+
+    /**
+     * A set of entities that must be ticked together, in order, on one thread.
+     */
+    private class Island implements Runnable {
+        private final List<AEntityF_Multipart<?>> members = new ArrayList<>();
+        private final List<AEntityF_Multipart<?>> footprint = new ArrayList<>();
+
+        private void add(AEntityF_Multipart<?> multipart) {
+            members.add(multipart);
+            addToFootprint(multipart);
+        }
+
+        private void addToFootprint(AEntityF_Multipart<?> multipart) {
+            footprint.add(multipart);
+            if (multipart instanceof AEntityG_Towable) {
+                for (TowingConnection connection : ((AEntityG_Towable<?>) multipart).towingConnections) {
+                    addToFootprint(connection.towedVehicle);
+                }
+            }
+        }
+
+        private void merge(Island other) {
+            //Keep tick order when merging by re-sorting on the original order.
+            List<AEntityF_Multipart<?>> merged = new ArrayList<>(members.size() + other.members.size());
+            int i = 0;
+            int j = 0;
+            while (i < members.size() || j < other.members.size()) {
+                if (j == other.members.size() || (i < members.size() && tickOrder.get(members.get(i)) < tickOrder.get(other.members.get(j)))) {
+                    merged.add(members.get(i++));
+                } else {
+                    merged.add(other.members.get(j++));
+                }
+            }
+            members.clear();
+            members.addAll(merged);
+            footprint.addAll(other.footprint);
+        }
+
+        private boolean overlaps(AEntityF_Multipart<?> multipart) {
+            setGrownBox(growthBoxA, multipart);
+            for (AEntityF_Multipart<?> footprintEntity : footprint) {
+                setGrownBox(growthBoxB, footprintEntity);
+                if (growthBoxA.intersects(growthBoxB)) {
+                    return true;
+                }
+            }
+            if (multipart instanceof AEntityG_Towable) {
+                for (TowingConnection connection : ((AEntityG_Towable<?>) multipart).towingConnections) {
+                    if (overlaps(connection.towedVehicle)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        private void setGrownBox(BoundingBox box, AEntityF_Multipart<?> multipart) {
+            double growth = multipart.motion.length() + ISLAND_OVERLAP_GROWTH;
+            box.globalCenter.set(multipart.encompassingBox.globalCenter);
+            box.widthRadius = multipart.encompassingBox.widthRadius + growth;
+            box.heightRadius = multipart.encompassingBox.heightRadius + growth;
+            box.depthRadius = multipart.encompassingBox.depthRadius + growth;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (AEntityF_Multipart<?> member : members) {
+                    if (member.isValid) {
+                        deferredMutations.set(segmentMutations.get(tickOrder.get(member)));
+                        EntityManager.doTick(member);
+                    }
+                }
+            } finally {
+                deferredMutations.remove();
+            }
+        }
+    }
+}
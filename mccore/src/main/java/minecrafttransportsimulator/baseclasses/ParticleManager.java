@@ -0,0 +1,919 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
+import minecrafttransportsimulator.entities.components.AEntityA_Base.EntityAutoUpdateTime;
+import minecrafttransportsimulator.entities.components.AEntityB_Existing;
+import minecrafttransportsimulator.entities.components.AEntityC_Renderable;
+import minecrafttransportsimulator.entities.instances.APart;
+import minecrafttransportsimulator.entities.instances.EntityBullet;
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.entities.instances.PartGun;
+import minecrafttransportsimulator.items.instances.ItemBullet;
+import minecrafttransportsimulator.jsondefs.JSONParticle;
+import minecrafttransportsimulator.jsondefs.JSONParticle.JSONSubParticle;
+import minecrafttransportsimulator.jsondefs.JSONParticle.ParticleSpawningOrientation;
+import minecrafttransportsimulator.jsondefs.JSONParticle.ParticleType;
+import minecrafttransportsimulator.mcinterface.AWrapperWorld;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.rendering.AModelParser;
+import minecrafttransportsimulator.rendering.RenderableData;
+import minecrafttransportsimulator.rendering.RenderableData.LightingMode;
+import minecrafttransportsimulator.rendering.RenderableVertices;
+import minecrafttransportsimulator.sound.SoundInstance;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**
+ * Client-side particle system.  This mimic's MC's particle logic, except we can manually set
+ * movement logic.  Unlike entities, particles are not objects: they are slots in a fixed-size pool,
+ * with each property held in its own array.  Spawning takes a free slot and removal puts it back,
+ * so particles never allocate or touch the entity lists in {@link EntityManager}.  All particles
+ * are updated in one loop per tick, and rendered in one loop per frame by a shared set of
+ * {@link RenderableData}s, one per vertex object, which batch up by texture in the render interface.
+ * If the pool is full, new particles are dropped until old ones die off.
+ * <br><br>
+ * Particles are spawned either by an entity, or by another particle as a sub-particle.  Sub-particles
+ * use their parent particle for orientation, motion and position just like they would an entity.
+ *
+ * @author don_bruce
+ */
+public class ParticleManager {
+    private static final RenderableVertices STANDARD_PARTICLE_SPRITE = RenderableVertices.createSprite(1, null, null);
+    private static final List<String> SMOKE_TEXTURES = new ArrayList<>();
+    private static final Map<ParticleType, String> TYPE_TEXTURES = new EnumMap<>(ParticleType.class);
+    private static final Map<String, RenderableVertices> parsedParticleModels = new HashMap<>();
+    private static final Random particleRandom = new Random();
+    private static final Point3D ONE_SCALE = new Point3D(1, 1, 1);
+    private static final int NO_PARENT = -1;
+
+    static {
+        for (int i = 0; i <= 11; ++i) {
+            SMOKE_TEXTURES.add("mts:textures/particles/big_smoke_" + i + ".png");
+        }
+        for (ParticleType type : ParticleType.values()) {
+            TYPE_TEXTURES.put(type, "mts:textures/particles/" + type.name().toLowerCase(Locale.ROOT) + ".png");
+        }
+    }
+
+    private final AWrapperWorld world;
+    private final int capacity;
+
+    //Pool bookkeeping.
+    private final int[] activeSlots;
+    private int activeCount;
+    private final int[] freeSlots;
+    private int freeCount;
+    private final int[] generations;
+
+    //Constant properties.
+    private final JSONParticle[] definitions;
+    private final AEntityC_Renderable[] spawners;
+    private final int[] parents;
+    private final int[] parentGenerations;
+    private final AnimationSwitchbox[] switchboxes;
+    private final boolean[] afterPlayer;
+    private final int[] maxAges;
+    private final double[] initialVelocities;
+    private final double[] spawnerScales;
+    private final ColorRGB[] staticColors;
+    private final RenderableVertices[] vertexObjects;
+    private final RenderableVertices[] breakSprites;
+    private final LightingMode[] lightingModes;
+    private final boolean[] translucentOverrides;
+    private final boolean[] blended;
+
+    //Runtime variables.
+    private final int[] ages;
+    private final double[] positions;
+    private final double[] prevPositions;
+    private final double[] motions;
+    private final RotationMatrix[] orientations;
+    private final RotationMatrix[] prevOrientations;
+    private final boolean[] touchingBlocks;
+    private final int[] lightValues;
+    private final String[] textures;
+    private final List<List<String>> textureLists;
+    private final float[] timeOfNextTexture;
+    private final int[] textureIndices;
+    private final int[] textureDelayIndices;
+    private final ColorRGB[] startColors;
+    private final ColorRGB[] endColors;
+    private final int[] timeOfCurrentColor;
+    private final int[] timeOfNextColor;
+    private final int[] colorIndices;
+    private final int[] colorDelayIndices;
+
+    //Helpers.  Particles only exist on the client thread, so these are safe to share.
+    private final Map<RenderableVertices, RenderableData> renderables = new IdentityHashMap<>();
+    private final TransformationMatrix helperTransform = new TransformationMatrix();
+    private final TransformationMatrix renderTransform = new TransformationMatrix();
+    private final RotationMatrix helperRotation = new RotationMatrix();
+    private final RotationMatrix helperOrientation = new RotationMatrix();
+    private final RotationMatrix sourceOrientation = new RotationMatrix();
+    private final Point3D helperPoint = new Point3D();
+    private final Point3D helperPosition = new Point3D();
+    private final Point3D helperMotion = new Point3D();
+    private final Point3D sourcePosition = new Point3D();
+    private final Point3D sourceMotion = new Point3D();
+    private final Point3D sourceScale = new Point3D();
+    private final ColorRGB helperColor = new ColorRGB();
+    private final BoundingBox collisionBox = new BoundingBox(new Point3D(), 0, 0, 0);
+
+    public ParticleManager(AWrapperWorld world, int capacity) {
+        this.world = world;
+        this.capacity = capacity;
+        this.activeSlots = new int[capacity];
+        this.freeSlots = new int[capacity];
+        this.generations = new int[capacity];
+        for (int i = 0; i < capacity; ++i) {
+            freeSlots[i] = capacity - 1 - i;
+        }
+        this.freeCount = capacity;
+
+        this.definitions = new JSONParticle[capacity];
+        this.spawners = new AEntityC_Renderable[capacity];
+        this.parents = new int[capacity];
+        this.parentGenerations = new int[capacity];
+        this.switchboxes = new AnimationSwitchbox[capacity];
+        this.afterPlayer = new boolean[capacity];
+        this.maxAges = new int[capacity];
+        this.initialVelocities = new double[capacity * 3];
+        this.spawnerScales = new double[capacity * 3];
+        this.staticColors = new ColorRGB[capacity];
+        this.vertexObjects = new RenderableVertices[capacity];
+        this.breakSprites = new RenderableVertices[capacity];
+        this.lightingModes = new LightingMode[capacity];
+        this.translucentOverrides = new boolean[capacity];
+        this.blended = new boolean[capacity];
+
+        this.ages = new int[capacity];
+        this.positions = new double[capacity * 3];
+        this.prevPositions = new double[capacity * 3];
+        this.motions = new double[capacity * 3];
+        this.orientations = new RotationMatrix[capacity];
+        this.prevOrientations = new RotationMatrix[capacity];
+        for (int i = 0; i < capacity; ++i) {
+            orientations[i] = new RotationMatrix();
+            prevOrientations[i] = new RotationMatrix();
+        }
+        this.touchingBlocks = new boolean[capacity];
+        this.lightValues = new int[capacity];
+        this.textures = new String[capacity];
+        this.textureLists = new ArrayList<>(Collections.nCopies(capacity, (List<String>) null));
+        this.timeOfNextTexture = new float[capacity];
+        this.textureIndices = new int[capacity];
+        this.textureDelayIndices = new int[capacity];
+        this.startColors = new ColorRGB[capacity];
+        this.endColors = new ColorRGB[capacity];
+        this.timeOfCurrentColor = new int[capacity];
+        this.timeOfNextColor = new int[capacity];
+        this.colorIndices = new int[capacity];
+        this.colorDelayIndices = new int[capacity];
+    }
+
+    /**
+     * Returns the number of particles currently alive.
+     */
+    public int getParticleCount() {
+        return activeCount;
+    }
+
+    /**
+     * Spawns a new particle from the passed-in entity.  The switchbox is optional, and if present
+     * will be used to offset the spawning position.  If the pool is full, the particle is dropped.
+     */
+    public void spawnParticle(AEntityC_Renderable entitySpawning, JSONParticle definition, Point3D spawningPosition, AnimationSwitchbox spawningSwitchbox) {
+        if (freeCount > 0) {
+            spawnParticle(entitySpawning, NO_PARENT, definition, spawningPosition, spawningSwitchbox);
+        }
+    }
+
+    private void spawnParticle(AEntityC_Renderable entitySpawning, int parent, JSONParticle definition, Point3D spawningPosition, AnimationSwitchbox spawningSwitchbox) {
+        int slot = freeSlots[freeCount - 1];
+        int index = slot * 3;
+
+        definitions[slot] = definition;
+        spawners[slot] = entitySpawning;
+        parents[slot] = parent;
+        parentGenerations[slot] = parent != NO_PARENT ? generations[parent] : 0;
+        switchboxes[slot] = spawningSwitchbox;
+        if (parent != NO_PARENT) {
+            afterPlayer[slot] = afterPlayer[parent];
+        } else if (entitySpawning instanceof APart) {
+            afterPlayer[slot] = ((APart) entitySpawning).masterEntity.getUpdateTime() == EntityAutoUpdateTime.AFTER_PLAYER;
+        } else {
+            afterPlayer[slot] = entitySpawning.getUpdateTime() == EntityAutoUpdateTime.AFTER_PLAYER;
+        }
+        int maxAge = generateMaxAge(definition);
+        maxAges[slot] = maxAge;
+        ages[slot] = 0;
+        touchingBlocks[slot] = false;
+        loadSource(slot);
+        setPoint(spawnerScales, index, sourceScale);
+
+        //Set transforms based on type.
+        RotationMatrix orientation = orientations[slot];
+        orientation.setToZero();
+        helperTransform.resetTransforms();
+        switch (definition.spawningOrientation) {
+            case ENTITY:
+            case ATTACHED: {
+                orientation.set(sourceOrientation);
+                helperTransform.set(orientation);
+                break;
+            }
+            case FACING: {
+                if (parent == NO_PARENT && entitySpawning instanceof EntityBullet) {
+                    EntityBullet bullet = (EntityBullet) entitySpawning;
+                    if (bullet.sideHit != Axis.NONE) {
+                        helperRotation.setToZero().rotateX(-90);
+                        orientation.set(bullet.sideHit.facingRotation).multiplyTranspose(helperRotation);
+                        helperTransform.set(orientation);
+                    } else {
+                        //Nothing for bullet to hit, block spawning.
+                        return;
+                    }
+                }
+                break;
+            }
+            case WORLD: {
+                //Do nothing, world doesn't touch position/orientation.
+                break;
+            }
+        }
+
+        //Set position.
+        setPositionToSpawn(slot, spawningPosition);
+        System.arraycopy(positions, index, prevPositions, index, 3);
+
+        //Get block position for particle properties.  This changes from our actual position to calculated depending on properties.
+        Point3D blockCheckPosition;
+        if (definition.getBlockPropertiesFromGround) {
+            //Center of block for safety of FPEs.
+            getPoint(positions, index, helperPosition);
+            blockCheckPosition = helperPosition.add(0, -world.getHeight(helperPosition) - 0.5, 0);
+        } else {
+            //Use spawning position here since block properties for particles are usually from bullets, which are slightly in the block.
+            blockCheckPosition = spawningPosition;
+        }
+
+        //Now that position is set, check to make sure we aren't an invalid particle.
+        if (definition.type == ParticleType.BREAK) {
+            if (world.isAir(blockCheckPosition)) {
+                //Don't spawn break particles in the air, they're null textures.
+                return;
+            }
+        }
+
+        //Set orientation.
+        setOrientationToSpawn(slot);
+        prevOrientations[slot].set(orientation);
+
+        //Get initial motion.
+        helperMotion.set(0, 0, 0);
+        if (definition.initialVelocity != null) {
+            if (definition.spreadRandomness != null) {
+                helperMotion.x = 2 * definition.spreadRandomness.x * Math.random() - definition.spreadRandomness.x;
+                helperMotion.y = 2 * definition.spreadRandomness.y * Math.random() - definition.spreadRandomness.y;
+                helperMotion.z = 2 * definition.spreadRandomness.z * Math.random() - definition.spreadRandomness.z;
+                helperMotion.add(definition.initialVelocity);
+            } else {
+                //Add some basic randomness so particles don't all go in a line.
+                helperMotion.x = definition.initialVelocity.x + 0.2 - Math.random() * 0.4;
+                helperMotion.y = definition.initialVelocity.y + 0.2 - Math.random() * 0.4;
+                helperMotion.z = definition.initialVelocity.z + 0.2 - Math.random() * 0.4;
+            }
+            //Scale down by 10 since most of the time we go too fast.
+            helperMotion.scale(1D / 10D);
+            helperMotion.rotate(helperTransform);
+        }
+        if (definition.relativeInheritedVelocityFactor != null) {
+            helperRotation.setToVector(sourceMotion, true);
+            helperPoint.set(sourceMotion).reOrigin(helperRotation).multiply(definition.relativeInheritedVelocityFactor).rotate(helperRotation);
+            helperMotion.add(helperPoint);
+        }
+        setPoint(motions, index, helperMotion);
+        setPoint(initialVelocities, index, helperMotion);
+        updateOrientation(slot);
+
+        //Set model and texture.
+        String model = definition.model;
+        String texture;
+        List<String> textureList = null;
+        textureIndices[slot] = 0;
+        textureDelayIndices[slot] = 0;
+        if (definition.texture != null) {
+            texture = definition.texture;
+        } else if (definition.type == ParticleType.BREAK) {
+            texture = RenderableData.GLOBAL_TEXTURE_NAME;
+        } else if (definition.type == ParticleType.CASING) {
+            if (parent == NO_PARENT && entitySpawning instanceof PartGun && !((PartGun) entitySpawning).firedBullets.isEmpty()) {
+                PartGun gun = (PartGun) entitySpawning;
+                ItemBullet bullet = gun.firedBullets.get(0);
+                gun.firedBullets.remove(0);
+                texture = bullet.definition.bullet.casingTexture;
+                model = bullet.definition.bullet.casingModel;
+            } else {
+                //Invalid particle since we haven't fired anything yet to have a casing for.
+                texture = null;
+            }
+            if (texture == null) {
+                //Not supposed to be spawning any casings for this bullet.
+                return;
+            }
+        } else if (definition.type == ParticleType.SMOKE) {
+            textureList = SMOKE_TEXTURES;
+            texture = textureList.get(0);
+            timeOfNextTexture[slot] = (int) (maxAge / 12F);
+        } else if (definition.textureList != null) {
+            //Set initial texture delay and texture.
+            textureList = definition.textureList;
+            if (definition.randomTexture) {
+                textureIndices[slot] = particleRandom.nextInt(textureList.size());
+            }
+            texture = textureList.get(textureIndices[slot]);
+            if (definition.textureDelays != null) {
+                timeOfNextTexture[slot] = definition.textureDelays.get(0);
+            } else {
+                timeOfNextTexture[slot] = maxAge;
+            }
+        } else {
+            texture = TYPE_TEXTURES.get(definition.type);
+        }
+        textures[slot] = texture;
+        textureLists.set(slot, textureList);
+
+        if (model != null) {
+            final String modelName = model;
+            vertexObjects[slot] = parsedParticleModels.computeIfAbsent(modelName, k -> {
+                String modelDomain = modelName.substring(0, modelName.indexOf(':'));
+                String modelPath = modelName.substring(modelDomain.length() + 1);
+                List<RenderableVertices> parsedObjects = AModelParser.parseModel("/assets/" + modelDomain + "/" + modelPath, true);
+                int totalVertices = 0;
+                for (RenderableVertices parsedObject : parsedObjects) {
+                    totalVertices += parsedObject.vertices.capacity();
+                }
+                FloatBuffer totalBuffer = FloatBuffer.allocate(totalVertices);
+                for (RenderableVertices parsedObject : parsedObjects) {
+                    totalBuffer.put(parsedObject.vertices);
+                }
+                totalBuffer.flip();
+                return new RenderableVertices("PARTICLE_3D", totalBuffer, false);
+            });
+        } else if (definition.type == ParticleType.BREAK) {
+            //Break particles have varying UVs, so each slot gets its own sprite that we re-use.
+            if (breakSprites[slot] == null) {
+                breakSprites[slot] = RenderableVertices.createSprite(1, null, null);
+            }
+            float[] uvPoints = InterfaceManager.renderingInterface.getBlockBreakTexture(world, blockCheckPosition);
+            breakSprites[slot].setTextureBounds(uvPoints[0], uvPoints[1], uvPoints[2], uvPoints[3]);
+            vertexObjects[slot] = breakSprites[slot];
+        } else {
+            //Basic particle, use standard buffer.
+            vertexObjects[slot] = STANDARD_PARTICLE_SPRITE;
+        }
+
+        //Set color.
+        staticColors[slot] = null;
+        startColors[slot] = null;
+        endColors[slot] = null;
+        timeOfCurrentColor[slot] = 0;
+        timeOfNextColor[slot] = 0;
+        colorIndices[slot] = 0;
+        colorDelayIndices[slot] = 0;
+        if (definition.useBlockColor) {
+            staticColors[slot] = world.getBlockColor(blockCheckPosition);
+        } else if (definition.color != null) {
+            if (definition.toColor != null) {
+                startColors[slot] = definition.color;
+                endColors[slot] = definition.toColor;
+                timeOfNextColor[slot] = maxAge;
+            } else {
+                staticColors[slot] = definition.color;
+            }
+        } else if (definition.colorList != null) {
+            if (definition.randomColor) {
+                colorIndices[slot] = particleRandom.nextInt(definition.colorList.size());
+            }
+            setListColors(slot);
+            if (definition.colorDelays != null) {
+                timeOfNextColor[slot] = definition.colorDelays.get(0);
+            } else {
+                timeOfNextColor[slot] = maxAge;
+            }
+        } else {
+            staticColors[slot] = ColorRGB.WHITE;
+        }
+
+        //Set lighting mode.
+        if (definition.type.equals(ParticleType.FLAME) || definition.isBright) {
+            lightingModes[slot] = LightingMode.IGNORE_ALL_LIGHTING;
+            translucentOverrides[slot] = true;
+        } else {
+            lightingModes[slot] = model == null ? LightingMode.IGNORE_ORIENTATION_LIGHTING : LightingMode.NORMAL;
+            translucentOverrides[slot] = false;
+        }
+        blended[slot] = definition.isBlended && ConfigSystem.client.renderingSettings.blendedLights.value;
+
+        //All good, take the slot.
+        --freeCount;
+        activeSlots[activeCount++] = slot;
+    }
+
+    /**
+     * Updates all particles for the passed-in update time.  Particles use the update time of
+     * the entity that spawned them, in case they depend on that entity's variables.
+     */
+    public void update(boolean beforePlayer) {
+        for (int i = 0; i < activeCount;) {
+            int slot = activeSlots[i];
+            if (afterPlayer[slot] == beforePlayer || !updateParticle(slot)) {
+                ++i;
+            } else {
+                //Swap the last active particle into this spot and check it next.
+                activeSlots[i] = activeSlots[--activeCount];
+                freeParticle(slot);
+            }
+        }
+    }
+
+    /**
+     * Updates the particle in the slot.  Returns true if it should be removed.
+     */
+    private boolean updateParticle(int slot) {
+        JSONParticle definition = definitions[slot];
+        int index = slot * 3;
+        int age = ++ages[slot];
+        System.arraycopy(positions, index, prevPositions, index, 3);
+        RotationMatrix orientation = orientations[slot];
+        prevOrientations[slot].set(orientation);
+        getPoint(positions, index, helperPosition);
+        lightValues[slot] = InterfaceManager.renderingInterface.getLightingAtPosition(helperPosition);
+
+        //Check age to see if we are on our last tick.
+        if (age == maxAges[slot]) {
+            return true;
+        }
+
+        //Set movement.
+        boolean removeAfterUpdate = false;
+        if (!definition.stopsOnGround || !touchingBlocks[slot]) {
+            if (definition.spawningOrientation == ParticleSpawningOrientation.ATTACHED && isSourceValid(slot)) {
+                loadSource(slot);
+                setPoint(spawnerScales, index, sourceScale);
+                orientation.set(sourceOrientation);
+                helperTransform.resetTransforms();
+                helperTransform.set(orientation);
+                setPositionToSpawn(slot, sourcePosition);
+                setOrientationToSpawn(slot);
+                getPoint(positions, index, helperPosition);
+            }
+
+            getPoint(motions, index, helperMotion);
+            if (definition.movementDuration != 0) {
+                if (age <= definition.movementDuration) {
+                    float durationFactor = (definition.movementDuration - age) / (float) definition.movementDuration;
+                    double absX = Math.abs(initialVelocities[index] * durationFactor);
+                    double absY = Math.abs(initialVelocities[index + 1] * durationFactor);
+                    double absZ = Math.abs(initialVelocities[index + 2] * durationFactor);
+                    if (Math.abs(helperMotion.x) > absX) {
+                        helperMotion.x = Math.signum(helperMotion.x) * absX;
+                    }
+                    if (Math.abs(helperMotion.y) > absY) {
+                        helperMotion.y = Math.signum(helperMotion.y) * absY;
+                    }
+                    if (Math.abs(helperMotion.z) > absZ) {
+                        helperMotion.z = Math.signum(helperMotion.z) * absZ;
+                    }
+                }
+            }
+
+            if (definition.movementVelocity != null) {
+                helperMotion.add(definition.movementVelocity);
+            }
+            if (definition.relativeMovementVelocity != null) {
+                helperRotation.setToVector(helperMotion, true);
+                helperPoint.set(definition.relativeMovementVelocity).rotate(helperRotation);
+                helperMotion.add(helperPoint);
+            }
+            if (definition.movementVelocity == null && definition.relativeMovementVelocity == null) {
+                switch (definition.type) {
+                    case SMOKE: {
+                        //Update the motions to make the smoke float up.
+                        helperMotion.x *= 0.9;
+                        helperMotion.y += 0.004;
+                        helperMotion.z *= 0.9;
+                        break;
+                    }
+                    case FLAME: {
+                        //Flame just slowly drifts in the direction it was going.
+                        helperMotion.scale(0.96);
+                        break;
+                    }
+                    case BUBBLE: {
+                        //Bubbles float up until they break the surface of the water, then they pop.
+                        if (!world.isBlockLiquid(helperPosition)) {
+                            removeAfterUpdate = true;
+                        } else {
+                            helperMotion.scale(0.85).add(0, 0.002D, 0);
+                        }
+                        break;
+                    }
+                    case BREAK: {
+                        //Breaking just fall down quickly.
+                        if (!touchingBlocks[slot]) {
+                            helperMotion.scale(0.98).add(0D, -0.04D, 0D);
+                        } else {
+                            helperMotion.scale(0.0);
+                        }
+                        break;
+                    }
+                    default: {
+                        //No default movement for generic particles.
+                        break;
+                    }
+                }
+            }
+
+            if (definition.terminalVelocity != null) {
+                if (helperMotion.x > definition.terminalVelocity.x) {
+                    helperMotion.x = definition.terminalVelocity.x;
+                }
+                if (helperMotion.x < -definition.terminalVelocity.x) {
+                    helperMotion.x = -definition.terminalVelocity.x;
+                }
+                if (helperMotion.y > definition.terminalVelocity.y) {
+                    helperMotion.y = definition.terminalVelocity.y;
+                }
+                if (helperMotion.y < -definition.terminalVelocity.y) {
+                    helperMotion.y = -definition.terminalVelocity.y;
+                }
+                if (helperMotion.z > definition.terminalVelocity.z) {
+                    helperMotion.z = definition.terminalVelocity.z;
+                }
+                if (helperMotion.z < -definition.terminalVelocity.z) {
+                    helperMotion.z = -definition.terminalVelocity.z;
+                }
+            }
+
+            //Check collision movement.  If we hit a block, don't move.
+            if (!definition.ignoreCollision) {
+                collisionBox.globalCenter.set(helperPosition);
+                collisionBox.widthRadius = definition.hitboxSize / 2D;
+                collisionBox.heightRadius = collisionBox.widthRadius;
+                collisionBox.depthRadius = collisionBox.widthRadius;
+                touchingBlocks[slot] = collisionBox.updateCollisions(world, helperMotion, true);
+                if (touchingBlocks[slot]) {
+                    helperMotion.subtract(collisionBox.currentCollisionDepth);
+                    if (definition.stopsOnGround && definition.groundSounds != null) {
+                        double distance = helperPosition.distanceTo(InterfaceManager.clientInterface.getClientPlayer().getPosition());
+                        if (distance < SoundInstance.DEFAULT_MAX_DISTANCE) {
+                            SoundInstance sound = new SoundInstance(new SoundAnchor(world, helperPosition), definition.groundSounds.get(particleRandom.nextInt(definition.groundSounds.size())));
+                            sound.volume = (float) (1 - distance / SoundInstance.DEFAULT_MAX_DISTANCE);
+                            InterfaceManager.soundInterface.playQuickSound(sound);
+                        }
+                    }
+                }
+            }
+            helperPosition.add(helperMotion);
+            setPoint(positions, index, helperPosition);
+            setPoint(motions, index, helperMotion);
+
+            //Update orientation.
+            updateOrientation(slot);
+            if (definition.rotationVelocity != null) {
+                helperRotation.setToAngles(definition.rotationVelocity);
+                orientation.multiply(helperRotation);
+            }
+        }
+
+        //Check if we need to change textures or colors.
+        List<String> textureList = textureLists.get(slot);
+        if (textureList != null && timeOfNextTexture[slot] <= age) {
+            if (++textureIndices[slot] == textureList.size()) {
+                textureIndices[slot] = 0;
+            }
+            textures[slot] = textureList.get(textureIndices[slot]);
+            if (definition.textureDelays != null) {
+                if (++textureDelayIndices[slot] == definition.textureDelays.size()) {
+                    textureDelayIndices[slot] = 0;
+                }
+                timeOfNextTexture[slot] += definition.textureDelays.get(textureDelayIndices[slot]);
+            } else {
+                //Assume internal smoke, so use constant delay.
+                timeOfNextTexture[slot] += maxAges[slot] / 12F;
+            }
+        }
+        if (definition.colorDelays != null && timeOfNextColor[slot] == age) {
+            if (++colorIndices[slot] == definition.colorList.size()) {
+                colorIndices[slot] = 0;
+            }
+            setListColors(slot);
+            if (++colorDelayIndices[slot] == definition.colorDelays.size()) {
+                colorDelayIndices[slot] = 0;
+            }
+            timeOfCurrentColor[slot] = timeOfNextColor[slot];
+            timeOfNextColor[slot] += definition.colorDelays.get(colorDelayIndices[slot]);
+        }
+
+        //Check for sub particles.
+        if (definition.subParticles != null) {
+            for (JSONSubParticle subDef : definition.subParticles) {
+                if ((subDef.particle.spawnEveryTick ? subDef.time >= age : subDef.time == age) && freeCount > 0) {
+                    getPoint(positions, index, helperPosition);
+                    spawnParticle(spawners[slot], slot, subDef.particle, helperPosition, null);
+                }
+            }
+        }
+        return removeAfterUpdate;
+    }
+
+    /**
+     * Renders all particles.  The camera offset is subtracted from the particle positions, as
+     * rendering is done relative to the camera.  Only particles whose translucency matches
+     * the blending state are rendered.
+     */
+    public void render(boolean blendingEnabled, float partialTicks, Point3D cameraOffset) {
+        for (int i = 0; i < activeCount; ++i) {
+            int slot = activeSlots[i];
+            int age = ages[slot];
+            if (age == 0) {
+                //Don't render on the first tick, as we haven't set our prev values yet.
+                continue;
+            }
+            JSONParticle definition = definitions[slot];
+            int maxAge = maxAges[slot];
+            RenderableData renderable = renderables.computeIfAbsent(vertexObjects[slot], k -> new RenderableData(k, RenderableData.GLOBAL_TEXTURE_NAME));
+            renderable.setTexture(textures[slot]);
+            renderable.setLightMode(lightingModes[slot]);
+            if (translucentOverrides[slot]) {
+                renderable.setTransucentOverride();
+            } else {
+                renderable.clearTranslucentOverride();
+            }
+            renderable.setBlending(blended[slot]);
+
+            //First set alpha, then check translucent.
+            float alpha;
+            if (definition.toTransparency != 0) {
+                alpha = interpolate(definition.transparency, definition.toTransparency, (age + partialTicks) / maxAge, true);
+            } else {
+                alpha = definition.transparency != 0 ? definition.transparency : 1.0F;
+            }
+            if (definition.fadeInTransparencyTime >= age) {
+                alpha = alpha * age / definition.fadeInTransparencyTime;
+            }
+            if (definition.fadeOutTransparencyTime > maxAge - age) {
+                alpha = alpha * (maxAge - age) / definition.fadeOutTransparencyTime;
+            }
+            if (definition.daytimeReductionFactor != 0) {
+                //Get world light and factor this into the alpha value.
+                getPoint(positions, slot * 3, helperPosition);
+                alpha = alpha * (1 - (definition.daytimeReductionFactor * world.getLightBrightness(helperPosition, true)));
+            }
+            renderable.setAlpha(alpha);
+
+            if (renderable.isTranslucent == blendingEnabled) {
+                if (staticColors[slot] == null) {
+                    ColorRGB startColor = startColors[slot];
+                    ColorRGB endColor = endColors[slot];
+                    float colorDelta = (age + partialTicks - timeOfCurrentColor[slot]) / (timeOfNextColor[slot] - timeOfCurrentColor[slot]);
+                    helperColor.red = interpolate(startColor.red, endColor.red, colorDelta, true);
+                    helperColor.green = interpolate(startColor.green, endColor.green, colorDelta, true);
+                    helperColor.blue = interpolate(startColor.blue, endColor.blue, colorDelta, true);
+                    renderable.setColor(helperColor);
+                } else {
+                    renderable.setColor(staticColors[slot]);
+                }
+
+                //Set up matrixes.
+                int index = slot * 3;
+                helperPosition.set(prevPositions[index], prevPositions[index + 1], prevPositions[index + 2]);
+                getPoint(positions, index, helperPoint);
+                helperPosition.interpolate(helperPoint, partialTicks).subtract(cameraOffset);
+                helperOrientation.interploate(prevOrientations[slot], orientations[slot], partialTicks);
+                renderTransform.resetTransforms();
+                renderTransform.setTranslation(helperPosition);
+                renderTransform.applyRotation(helperOrientation);
+
+                double totalScale;
+                if (definition.type == ParticleType.FLAME && definition.scale == 0 && definition.toScale == 0) {
+                    totalScale = 1.0F - Math.pow((age + partialTicks) / maxAge, 2) / 2F;
+                } else if (definition.toScale != 0) {
+                    totalScale = interpolate(definition.scale, definition.toScale, (age + partialTicks) / maxAge, false);
+                } else if (definition.scale != 0) {
+                    totalScale = definition.scale;
+                } else {
+                    totalScale = 1.0;
+                }
+                if (definition.fadeInScaleTime >= age) {
+                    totalScale *= (1 - ((definition.fadeInScaleTime - age) / (float) definition.fadeInScaleTime));
+                }
+                if (definition.fadeOutScaleTime > maxAge - age) {
+                    totalScale *= (maxAge - age) / (float) definition.fadeOutScaleTime;
+                }
+                renderTransform.applyScaling(totalScale * spawnerScales[index], totalScale * spawnerScales[index + 1], totalScale * spawnerScales[index + 2]);
+                renderable.transform.set(renderTransform);
+                renderable.setLightValue(lightValues[slot]);
+                renderable.render();
+            }
+        }
+    }
+
+    /**
+     * Removes all particles.  Used when the world is unloaded or packs are reloaded.
+     */
+    public void clear() {
+        while (activeCount > 0) {
+            freeParticle(activeSlots[--activeCount]);
+        }
+    }
+
+    private void freeParticle(int slot) {
+        //Bump generation so sub-particles know this slot isn't their parent anymore.
+        ++generations[slot];
+        definitions[slot] = null;
+        spawners[slot] = null;
+        switchboxes[slot] = null;
+        textureLists.set(slot, null);
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Returns true if whatever spawned the particle in the slot still exists to follow.
+     */
+    private boolean isSourceValid(int slot) {
+        int parent = parents[slot];
+        return parent == NO_PARENT || generations[parent] == parentGenerations[slot];
+    }
+
+    /**
+     * Loads the position, orientation, motion and scale of whatever spawned the particle in the slot into the source helpers.
+     * For entities, motion is scaled by the speed factor, as this is how far they actually move each tick.
+     */
+    private void loadSource(int slot) {
+        int parent = parents[slot];
+        if (parent != NO_PARENT) {
+            int parentIndex = parent * 3;
+            getPoint(positions, parentIndex, sourcePosition);
+            sourceOrientation.set(orientations[parent]);
+            getPoint(motions, parentIndex, sourceMotion);
+            sourceScale.set(ONE_SCALE);
+        } else {
+            AEntityC_Renderable entitySpawning = spawners[slot];
+            sourcePosition.set(entitySpawning.position);
+            sourceOrientation.set(entitySpawning.orientation);
+            sourceMotion.set(entitySpawning.motion);
+            if (entitySpawning instanceof EntityVehicleF_Physics) {
+                sourceMotion.scale(((EntityVehicleF_Physics) entitySpawning).speedFactor);
+            } else if (entitySpawning instanceof APart) {
+                APart partSpawning = (APart) entitySpawning;
+                if (partSpawning.vehicleOn != null) {
+                    sourceMotion.scale(partSpawning.vehicleOn.speedFactor);
+                }
+            }
+            sourceScale.set(entitySpawning.scale);
+        }
+    }
+
+    /**Make sure helperTransform is set to the orientation, and the source is loaded, before calling this.**/
+    private void setPositionToSpawn(int slot, Point3D origin) {
+        //Apply transforms to get position.
+        JSONParticle definition = definitions[slot];
+        if (definition.pos != null) {
+            helperPoint.set(definition.pos).multiply(sourceScale);
+        } else {
+            helperPoint.set(0, 0, 0);
+        }
+        AnimationSwitchbox spawningSwitchbox = switchboxes[slot];
+        if (spawningSwitchbox != null) {
+            spawningSwitchbox.runSwitchbox(0, false);
+            helperTransform.multiply(spawningSwitchbox.netMatrix);
+        }
+        helperPoint.transform(helperTransform);
+        helperPoint.add(origin);
+        setPoint(positions, slot * 3, helperPoint);
+    }
+
+    private void setOrientationToSpawn(int slot) {
+        //Apply transforms to get orientation.
+        JSONParticle definition = definitions[slot];
+        if (definition.rot != null) {
+            orientations[slot].multiply(definition.rot);
+        }
+        if (definition.rotationRandomness != null) {
+            helperPoint.set(definition.rotationRandomness);
+            helperPoint.x = (2 * Math.random() - 1) * helperPoint.x;
+            helperPoint.y = (2 * Math.random() - 1) * helperPoint.y;
+            helperPoint.z = (2 * Math.random() - 1) * helperPoint.z;
+            helperRotation.setToAngles(helperPoint);
+            orientations[slot].multiply(helperRotation);
+        }
+    }
+
+    private void updateOrientation(int slot) {
+        int index = slot * 3;
+        switch (definitions[slot].renderingOrientation) {
+            case FIXED: {
+                //No update since we never change.
+                break;
+            }
+            case PLAYER: {
+                helperPoint.set(InterfaceManager.clientInterface.getCameraPosition()).add(-positions[index], -positions[index + 1], -positions[index + 2]);
+                orientations[slot].setToVector(helperPoint, true);
+                break;
+            }
+            case YAXIS: {
+                helperPoint.set(InterfaceManager.clientInterface.getCameraPosition()).add(-positions[index], -positions[index + 1], -positions[index + 2]);
+                helperPoint.y = 0;
+                orientations[slot].setToVector(helperPoint, true);
+                break;
+            }
+            case MOTION: {
+                getPoint(motions, index, helperPoint);
+                orientations[slot].setToVector(helperPoint, true);
+                break;
+            }
+        }
+    }
+
+    private void setListColors(int slot) {
+        List<ColorRGB> colorList = definitions[slot].colorList;
+        int colorIndex = colorIndices[slot];
+        startColors[slot] = colorList.get(colorIndex);
+        if (colorIndex + 1 < colorList.size()) {
+            endColors[slot] = colorList.get(colorIndex + 1);
+        } else {
+            endColors[slot] = colorList.get(0);
+        }
+    }
+
+    /**
+     * Gets the max age of the particle.  This tries to use the definition's
+     * maxAge, but will use Vanilla values if not set.  This should only be
+     * called once per particle, as the Vanilla values have a random element that means
+     * this function will return different values on each call for them.
+     */
+    private static int generateMaxAge(JSONParticle definition) {
+        if (definition.duration != 0) {
+            return definition.duration;
+        } else {
+            switch (definition.type) {
+                case SMOKE:
+                    return 33;
+                case BUBBLE:
+                case FLAME:
+                    return (int) (8.0D / (Math.random() * 0.8D + 0.2D)) + 4;
+                case BREAK:
+                    return (int) (4.0D / (Math.random() * 0.9D + 0.1D));
+                default://Generic
+                    return (int) (8.0D / (Math.random() * 0.8D + 0.2D));
+            }
+        }
+    }
+
+    private static float interpolate(float start, float end, float factor, boolean clamp) {
+        float value = start + (end - start) * factor;
+        return clamp ? value > 1.0F ? 1.0F : (value < 0.0F ? 0.0F : value) : value;
+    }
+
+    private static void getPoint(double[] array, int index, Point3D store) {
+        store.set(array[index], array[index + 1], array[index + 2]);
+    }
+
+    private static void setPoint(double[] array, int index, Point3D point) {
+        array[index] = point.x;
+        array[index + 1] = point.y;
+        array[index + 2] = point.z;
+    }
+
+    /**
+     * Entity used to anchor ground sounds, since particles aren't entities themselves.
+     * These are never added to the world, they just give the sound system a position.
+     */
+    private static class SoundAnchor extends AEntityB_Existing {
+        private SoundAnchor(AWrapperWorld world, Point3D position) {
+            super(world, position, ZERO_FOR_CONSTRUCTOR, ZERO_FOR_CONSTRUCTOR);
+        }
+
+        @Override
+        public boolean shouldSync() {
+            return false;
+        }
+
+        @Override
+        public boolean shouldSavePosition() {
+            return false;
+        }
+    }
+}
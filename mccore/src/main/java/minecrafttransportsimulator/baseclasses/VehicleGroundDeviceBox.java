@@ -6,6 +6,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import minecrafttransportsimulator.entities.components.AEntityF_Multipart;
 import minecrafttransportsimulator.entities.instances.APart;
 import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
 import minecrafttransportsimulator.entities.instances.PartGroundDevice;
@@ -35,6 +36,7 @@ public class VehicleGroundDeviceBox {
     private final List<BoundingBox> liquidCollisionBoxes = new ArrayList<>();
     private final List<PartGroundDevice> groundDevices = new ArrayList<>();
     private final List<PartGroundDevice> liquidDevices = new ArrayList<>();
+    private final List<AEntityF_Multipart<?>> nearbyMultiparts = new ArrayList<>();
     private final Point3D solidBoxNormalPos = new Point3D();
 
     public boolean isBlockedVertically;
@@ -50,7 +52,7 @@ public class VehicleGroundDeviceBox {
      **/
     public final Point3D contactPoint = new Point3D();
 
-    private static final Point3D testOffset = new Point3D();
+    private final Point3D testOffset = new Point3D();
     private static final double MAX_DELTA_FROM_ZERO = 0.00001;
 
     public VehicleGroundDeviceBox(EntityVehicleF_Physics vehicle, boolean isFront, boolean isLeft) {
@@ -426,8 +428,14 @@ public class VehicleGroundDeviceBox {
      */
     private boolean checkEntityCollisions(Point3D collisionMotion) {
         boolean didCollision = false;
-        for (EntityVehicleF_Physics otherVehicle : vehicle.world.getEntitiesOfType(EntityVehicleF_Physics.class)) {
-            if (!otherVehicle.equals(vehicle) && vehicle.canCollideWith(otherVehicle) && !otherVehicle.collidedEntities.contains(vehicle) && otherVehicle.encompassingBox.intersects(solidBox)) {
+        nearbyMultiparts.clear();
+        vehicle.world.populateWithEntitiesInBounds(nearbyMultiparts, solidBox);
+        for (AEntityF_Multipart<?> multipart : nearbyMultiparts) {
+            if (!(multipart instanceof EntityVehicleF_Physics)) {
+                continue;
+            }
+            EntityVehicleF_Physics otherVehicle = (EntityVehicleF_Physics) multipart;
+            if (!otherVehicle.equals(vehicle) && vehicle.canCollideWith(otherVehicle) && !otherVehicle.collidedEntities.contains(vehicle)) {
                 //We know we could have hit this entity.  Check if we actually did.
                 BoundingBox collidingBox = null;
                 double boxCollisionDepth;
@@ -451,6 +459,7 @@ public class VehicleGroundDeviceBox {
                 }
                 if (collidingBox != null) {
                     vehicle.collidedEntities.add(otherVehicle);
+                    otherVehicle.wakeFromDormancy();
                     didCollision = true;
                 }
             }
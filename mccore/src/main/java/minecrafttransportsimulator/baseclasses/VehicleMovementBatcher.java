@@ -0,0 +1,172 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.mcinterface.AWrapperWorld;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packets.instances.PacketVehicleServerMovementBatch;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**
+ * Server-side collector for vehicle movement when batched movement syncing is on.
+ * Vehicles queue their per-tick deltas here instead of sending a packet to every client.
+ * At the end of the tick, each delta is added to a per-player accumulator for every player
+ * tracking that vehicle.  Accumulators are then sent to each player in a single
+ * {@link PacketVehicleServerMovementBatch}, with far-away vehicles only being sent every
+ * few ticks.  Since clients sum all deltas they get, nothing is lost by sending less often.
+ * Any rounding from the fixed-point conversion is left in the accumulator for the next send,
+ * so clients never drift from the server by more than one fixed-point step.
+ * <br><br>
+ * Accumulators are cleared when a player is sent the vehicle's full data, as that data already has
+ * all movement up to that point, and when the player stops tracking the vehicle.  This keeps clients
+ * from applying movement twice, or getting old movement when they start tracking the vehicle again.
+ */
+public class VehicleMovementBatcher {
+    private final AWrapperWorld world;
+    private final Map<EntityVehicleF_Physics, PendingMovement> tickMovements = new LinkedHashMap<>();
+    private final Map<IWrapperPlayer, Map<EntityVehicleF_Physics, PendingMovement>> playerMovements = new HashMap<>();
+    private long ticks;
+
+    public VehicleMovementBatcher(AWrapperWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Queues movement for the vehicle for this tick.  May be called from multiple threads.
+     */
+    public synchronized void queueMovement(EntityVehicleF_Physics vehicle, Point3D motion, Point3D rotation, double pathing) {
+        tickMovements.computeIfAbsent(vehicle, k -> new PendingMovement()).add(motion.x, motion.y, motion.z, rotation.x, rotation.y, rotation.z, pathing);
+    }
+
+    /**
+     * Drops any movement for the vehicle that has not yet been sent to the player.
+     * Call this on the server thread, outside of entity ticking, so there is no movement
+     * queued for this tick that hasn't been handed out yet.
+     */
+    public synchronized void clearMovement(EntityVehicleF_Physics vehicle, IWrapperPlayer player) {
+        Map<EntityVehicleF_Physics, PendingMovement> movements = playerMovements.get(player);
+        if (movements != null) {
+            movements.remove(vehicle);
+            if (movements.isEmpty()) {
+                playerMovements.remove(player);
+            }
+        }
+    }
+
+    /**
+     * Hands out all movement queued this tick to tracking players, and sends
+     * batches to any players that have movement that is due to be sent.
+     * Call this once per tick on the server thread, after all vehicles have ticked.
+     */
+    public void sendMovements() {
+        ++ticks;
+        synchronized (this) {
+            for (Entry<EntityVehicleF_Physics, PendingMovement> vehicleEntry : tickMovements.entrySet()) {
+                EntityVehicleF_Physics vehicle = vehicleEntry.getKey();
+                PendingMovement movement = vehicleEntry.getValue();
+                for (IWrapperPlayer player : world.getPlayersTracking(vehicle.position)) {
+                    playerMovements.computeIfAbsent(player, k -> new LinkedHashMap<>()).computeIfAbsent(vehicle, k -> new PendingMovement()).add(movement.values);
+                }
+            }
+            tickMovements.clear();
+        }
+
+        double falloffDistance = Math.max(1, ConfigSystem.settings.general.movementSyncFalloffDistance.value);
+        int maxInterval = Math.max(1, ConfigSystem.settings.general.movementSyncMaxInterval.value);
+        Iterator<Entry<IWrapperPlayer, Map<EntityVehicleF_Physics, PendingMovement>>> playerIterator = playerMovements.entrySet().iterator();
+        while (playerIterator.hasNext()) {
+            Entry<IWrapperPlayer, Map<EntityVehicleF_Physics, PendingMovement>> playerEntry = playerIterator.next();
+            IWrapperPlayer player = playerEntry.getKey();
+            if (!player.isValid()) {
+                playerIterator.remove();
+                continue;
+            }
+
+            Point3D playerPosition = player.getPosition();
+            PacketVehicleServerMovementBatch packet = null;
+            Iterator<Entry<EntityVehicleF_Physics, PendingMovement>> vehicleIterator = playerEntry.getValue().entrySet().iterator();
+            while (vehicleIterator.hasNext()) {
+                Entry<EntityVehicleF_Physics, PendingMovement> vehicleEntry = vehicleIterator.next();
+                EntityVehicleF_Physics vehicle = vehicleEntry.getKey();
+                PendingMovement movement = vehicleEntry.getValue();
+                if (!vehicle.isValid) {
+                    vehicleIterator.remove();
+                    continue;
+                }
+                int interval = Math.min(maxInterval, 1 + (int) (playerPosition.distanceTo(vehicle.position) / falloffDistance));
+                if (ticks - movement.lastSentTick >= interval) {
+                    int[] delta = movement.drain();
+                    if (delta != null) {
+                        if (packet == null) {
+                            packet = new PacketVehicleServerMovementBatch();
+                        }
+                        packet.addVehicle(vehicle, delta);
+                        movement.lastSentTick = ticks;
+                        if (packet.getVehicleCount() == PacketVehicleServerMovementBatch.MAX_VEHICLES) {
+                            InterfaceManager.packetInterface.sendToPlayer(packet, player);
+                            packet = null;
+                        }
+                    } else {
+                        //Nothing left to send, so we don't need to track this vehicle until it moves again.
+                        vehicleIterator.remove();
+                    }
+                }
+            }
+            if (packet != null) {
+                InterfaceManager.packetInterface.sendToPlayer(packet, player);
+            }
+            if (playerEntry.getValue().isEmpty()) {
+                playerIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Movement that has been added but not yet sent.
+     */
+    private static class PendingMovement {
+        private final double[] values = new double[PacketVehicleServerMovementBatch.DELTA_LENGTH];
+        private long lastSentTick;
+
+        private void add(double motionX, double motionY, double motionZ, double rotationX, double rotationY, double rotationZ, double pathing) {
+            values[0] += motionX;
+            values[1] += motionY;
+            values[2] += motionZ;
+            values[3] += rotationX;
+            values[4] += rotationY;
+            values[5] += rotationZ;
+            values[6] += pathing;
+        }
+
+        private void add(double[] addedValues) {
+            for (int i = 0; i < values.length; ++i) {
+                values[i] += addedValues[i];
+            }
+        }
+
+        /**
+         * Converts the movement to fixed-point and removes the converted amount.
+         * Returns null if there is nothing to send.
+         */
+        private int[] drain() {
+            int[] delta = null;
+            for (int i = 0; i < values.length; ++i) {
+                int fixedValue = (int) Math.round(values[i] * PacketVehicleServerMovementBatch.FIXED_POINT_SCALE);
+                if (fixedValue != 0) {
+                    if (delta == null) {
+                        delta = new int[values.length];
+                    }
+                    delta[i] = fixedValue;
+                    values[i] -= fixedValue / PacketVehicleServerMovementBatch.FIXED_POINT_SCALE;
+                }
+            }
+            return delta;
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+
+/**
+ * Shared index of vehicle positions for radars and gun lock-ons.  Rather than every radar and gun looping over all
+ * vehicles in the world, the first query each tick takes a snapshot of all vehicle positions, sorted on the X-axis.
+ * Queries then only look at vehicles whose X is within range, and do their cone check with a single
+ * dot product rather than an arc-cosine per vehicle.  Results are cached for the rest of the tick, so
+ * multiple guns looking down the same line, such as all guns controlled by one player, only do the work once.
+ * The {@link EntityManager} calls {@link #clear()} at the start of every tick to drop the snapshot and results.
+ * <br><br>
+ * All positions are as of the first query in the tick, so vehicles that move after that
+ * won't be seen at their new spot until the next tick.  All methods are synchronized, as
+ * entities may query on multiple threads.
+ *
+ * @author don_bruce
+ */
+public class VehicleTargetIndex {
+    private final EntityManager manager;
+    private boolean snapshotValid;
+    private int vehicleCount;
+    private EntityVehicleF_Physics[] vehicles = new EntityVehicleF_Physics[16];
+    private double[] xPositions = new double[16];
+    private double[] yPositions = new double[16];
+    private double[] zPositions = new double[16];
+    private final List<EntityVehicleF_Physics> sortingList = new ArrayList<>();
+    private final Map<ConeQuery, List<EntityVehicleF_Physics>> cachedResults = new HashMap<>();
+    private final ConeQuery lookupQuery = new ConeQuery();
+
+    public VehicleTargetIndex(EntityManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Returns all vehicles within the passed-in range of the origin, whose direction from the origin is within
+     * the passed-in angle, in degrees, of the passed-in direction.  The direction does not need to be normalized.
+     * Vehicles are sorted closest first.  The returned list is shared by all callers making the same query this tick,
+     * so it must not be modified.
+     */
+    public synchronized List<EntityVehicleF_Physics> getVehiclesInCone(Point3D origin, Point3D direction, double range, double coneAngle) {
+        if (!snapshotValid) {
+            takeSnapshot();
+            snapshotValid = true;
+        }
+
+        lookupQuery.set(origin, direction, range, coneAngle);
+        List<EntityVehicleF_Physics> results = cachedResults.get(lookupQuery);
+        if (results == null) {
+            results = doQuery(origin, direction, range, coneAngle);
+            ConeQuery query = new ConeQuery();
+            query.set(origin, direction, range, coneAngle);
+            cachedResults.put(query, results);
+        }
+        return results;
+    }
+
+    /**
+     * Clears the snapshot and all cached results, so the next query takes a new snapshot.
+     * This also drops all references to vehicles, so removed vehicles aren't held on to.
+     */
+    public synchronized void clear() {
+        if (snapshotValid) {
+            snapshotValid = false;
+            cachedResults.clear();
+            Arrays.fill(vehicles, 0, vehicleCount, null);
+            vehicleCount = 0;
+        }
+    }
+
+    private void takeSnapshot() {
+        sortingList.clear();
+        sortingList.addAll(manager.getEntitiesOfType(EntityVehicleF_Physics.class));
+        sortingList.sort((vehicle1, vehicle2) -> Double.compare(vehicle1.position.x, vehicle2.position.x));
+        vehicleCount = sortingList.size();
+        if (vehicles.length < vehicleCount) {
+            int newLength = Math.max(vehicleCount, vehicles.length * 2);
+            vehicles = new EntityVehicleF_Physics[newLength];
+            xPositions = new double[newLength];
+            yPositions = new double[newLength];
+            zPositions = new double[newLength];
+        }
+        for (int i = 0; i < vehicleCount; ++i) {
+            EntityVehicleF_Physics vehicle = sortingList.get(i);
+            vehicles[i] = vehicle;
+            xPositions[i] = vehicle.position.x;
+            yPositions[i] = vehicle.position.y;
+            zPositions[i] = vehicle.position.z;
+        }
+        //Don't hold onto vehicles past where the snapshot ends, they may have been removed from the world.
+        Arrays.fill(vehicles, vehicleCount, vehicles.length, null);
+        sortingList.clear();
+    }
+
+    private List<EntityVehicleF_Physics> doQuery(Point3D origin, Point3D direction, double range, double coneAngle) {
+        double directionLength = direction.length();
+        if (directionLength == 0 || range <= 0) {
+            return Collections.emptyList();
+        }
+        double directionX = direction.x / directionLength;
+        double directionY = direction.y / directionLength;
+        double directionZ = direction.z / directionLength;
+        double minCos = Math.cos(Math.toRadians(coneAngle));
+        double rangeSquared = range * range;
+
+        //Binary search for the first vehicle that could be in range.
+        int low = 0;
+        int high = vehicleCount;
+        double minX = origin.x - range;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (xPositions[middle] < minX) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        List<EntityVehicleF_Physics> contacts = new ArrayList<>();
+        List<Double> contactDistances = new ArrayList<>();
+        double maxX = origin.x + range;
+        for (int i = low; i < vehicleCount && xPositions[i] <= maxX; ++i) {
+            double deltaX = xPositions[i] - origin.x;
+            double deltaY = yPositions[i] - origin.y;
+            double deltaZ = zPositions[i] - origin.z;
+            double distanceSquared = deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+            //Vehicles right on the origin have no direction, so they can't be in the cone.
+            if (distanceSquared < rangeSquared && distanceSquared != 0) {
+                double distance = Math.sqrt(distanceSquared);
+                if ((deltaX * directionX + deltaY * directionY + deltaZ * directionZ) / distance > minCos) {
+                    //Insert in distance order.  Contact counts are small, so this beats sorting a copy.
+                    int index = contacts.size();
+                    while (index > 0 && contactDistances.get(index - 1) > distance) {
+                        --index;
+                    }
+                    contacts.add(index, vehicles[i]);
+                    contactDistances.add(index, distance);
+                }
+            }
+        }
+        return Collections.unmodifiableList(contacts);
+    }
+
+    private static class ConeQuery {
+        private double originX;
+        private double originY;
+        private double originZ;
+        private double directionX;
+        private double directionY;
+        private double directionZ;
+        private double range;
+        private double coneAngle;
+
+        private void set(Point3D origin, Point3D direction, double range, double coneAngle) {
+            this.originX = origin.x;
+            this.originY = origin.y;
+            this.originZ = origin.z;
+            this.directionX = direction.x;
+            this.directionY = direction.y;
+            this.directionZ = direction.z;
+            this.range = range;
+            this.coneAngle = coneAngle;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof ConeQuery)) {
+                return false;
+            }
+            ConeQuery other = (ConeQuery) obj;
+            return originX == other.originX && originY == other.originY && originZ == other.originZ && directionX == other.directionX && directionY == other.directionY && directionZ == other.directionZ && range == other.range && coneAngle == other.coneAngle;
+        }
+
+        @Override
+        public int hashCode() {
+            long bits = Double.doubleToLongBits(originX);
+            bits = bits * 31 + Double.doubleToLongBits(originY);
+            bits = bits * 31 + Double.doubleToLongBits(originZ);
+            bits = bits * 31 + Double.doubleToLongBits(directionX);
+            bits = bits * 31 + Double.doubleToLongBits(directionY);
+            bits = bits * 31 + Double.doubleToLongBits(directionZ);
+            bits = bits * 31 + Double.doubleToLongBits(range);
+            bits = bits * 31 + Double.doubleToLongBits(coneAngle);
+            return (int) (bits ^ (bits >>> 32));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package minecrafttransportsimulator.baseclasses;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+
+/**
+ * Trigger zones that track which vehicles are inside them.  Zones are flat rectangles on the XZ plane that
+ * extend infinitely up and down.  Rather than the owner of a zone checking every vehicle in the world for
+ * presence, vehicles report their position here whenever they move, and zones keep a count of how many
+ * vehicles are inside them.  Zones are bucketed into chunk-sized columns, so a vehicle that isn't in a
+ * column with a zone costs one map lookup, and if there are no zones in the world, nothing at all.
+ * <br><br>
+ * All methods are synchronized, as vehicles may move on multiple threads.
+ *
+ * @author don_bruce
+ */
+public class VehicleTriggerZones {
+    private static final int CELL_BITS = 4;
+
+    private final EntityManager manager;
+    private final Map<Long, List<TriggerZone>> cells = new HashMap<>();
+    private final Map<EntityVehicleF_Physics, List<TriggerZone>> vehicleZones = new IdentityHashMap<>();
+
+    public VehicleTriggerZones(EntityManager manager) {
+        this.manager = manager;
+    }
+
+    /**
+     * Adds the passed-in zone.  Any vehicles already inside it are counted right away.
+     */
+    public synchronized void register(TriggerZone zone) {
+        for (int x = toCell(zone.minX); x <= toCell(zone.maxX); ++x) {
+            for (int z = toCell(zone.minZ); z <= toCell(zone.maxZ); ++z) {
+                cells.computeIfAbsent(getKey(x, z), k -> new ArrayList<>()).add(zone);
+            }
+        }
+        for (EntityVehicleF_Physics vehicle : manager.getEntitiesOfType(EntityVehicleF_Physics.class)) {
+            if (vehicle.isValid && zone.contains(vehicle.position)) {
+                vehicleZones.computeIfAbsent(vehicle, k -> new ArrayList<>()).add(zone);
+                ++zone.vehicleCount;
+            }
+        }
+    }
+
+    /**
+     * Removes the passed-in zone.  Its vehicle count will be 0 after this.
+     */
+    public synchronized void unregister(TriggerZone zone) {
+        for (int x = toCell(zone.minX); x <= toCell(zone.maxX); ++x) {
+            for (int z = toCell(zone.minZ); z <= toCell(zone.maxZ); ++z) {
+                long key = getKey(x, z);
+                List<TriggerZone> cellZones = cells.get(key);
+                if (cellZones != null) {
+                    cellZones.remove(zone);
+                    if (cellZones.isEmpty()) {
+                        cells.remove(key);
+                    }
+                }
+            }
+        }
+        if (zone.vehicleCount > 0) {
+            Iterator<List<TriggerZone>> iterator = vehicleZones.values().iterator();
+            while (iterator.hasNext()) {
+                List<TriggerZone> zones = iterator.next();
+                if (zones.remove(zone) && zones.isEmpty()) {
+                    iterator.remove();
+                }
+            }
+            zone.vehicleCount = 0;
+        }
+    }
+
+    /**
+     * Updates the zones the passed-in vehicle is in.  Call whenever the vehicle moves.
+     */
+    public synchronized void updateVehicle(EntityVehicleF_Physics vehicle) {
+        if (cells.isEmpty() && vehicleZones.isEmpty()) {
+            return;
+        }
+        List<TriggerZone> cellZones = cells.get(getKey(toCell(vehicle.position.x), toCell(vehicle.position.z)));
+        List<TriggerZone> currentZones = vehicleZones.get(vehicle);
+        if (cellZones == null && currentZones == null) {
+            return;
+        }
+
+        //Leave zones we moved out of.
+        if (currentZones != null) {
+            Iterator<TriggerZone> iterator = currentZones.iterator();
+            while (iterator.hasNext()) {
+                TriggerZone zone = iterator.next();
+                if (!zone.contains(vehicle.position)) {
+                    iterator.remove();
+                    --zone.vehicleCount;
+                }
+            }
+        }
+
+        //Enter zones we moved into.
+        if (cellZones != null) {
+            for (TriggerZone zone : cellZones) {
+                if (zone.contains(vehicle.position) && (currentZones == null || !currentZones.contains(zone))) {
+                    if (currentZones == null) {
+                        currentZones = new ArrayList<>();
+                        vehicleZones.put(vehicle, currentZones);
+                    }
+                    currentZones.add(zone);
+                    ++zone.vehicleCount;
+                }
+            }
+        }
+
+        if (currentZones != null && currentZones.isEmpty()) {
+            vehicleZones.remove(vehicle);
+        }
+    }
+
+    /**
+     * Removes the passed-in vehicle from all zones it is in.  Call when the vehicle is removed from the world.
+     */
+    public synchronized void removeVehicle(EntityVehicleF_Physics vehicle) {
+        List<TriggerZone> currentZones = vehicleZones.remove(vehicle);
+        if (currentZones != null) {
+            for (TriggerZone zone : currentZones) {
+                --zone.vehicleCount;
+            }
+        }
+    }
+
+    private static int toCell(double coord) {
+        return ((int) Math.floor(coord)) >> CELL_BITS;
+    }
+
+    private static long getKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * A single trigger zone.  Bounds are exclusive, so vehicles right on the edge are not inside.
+     */
+    public static class TriggerZone {
+        public final double minX;
+        public final double maxX;
+        public final double minZ;
+        public final double maxZ;
+        private volatile int vehicleCount;
+
+        public TriggerZone(double minX, double maxX, double minZ, double maxZ) {
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minZ = minZ;
+            this.maxZ = maxZ;
+        }
+
+        /**
+         * Returns true if the passed-in position is inside this zone.
+         */
+        public boolean contains(Point3D position) {
+            return position.x > minX && position.x < maxX && position.z > minZ && position.z < maxZ;
+        }
+
+        /**
+         * Returns true if there are any vehicles inside this zone.
+         */
+        public boolean hasVehicles() {
+            return vehicleCount > 0;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package minecrafttransportsimulator.blocks.tileentities.components;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import minecrafttransportsimulator.baseclasses.BezierCurve;
+import minecrafttransportsimulator.baseclasses.Point3D;
+
+/**
+ * Spatial lookup for the lanes of a road.  When built, every lane curve is sampled at the same
+ * 1-block steps that road snapping uses, and each sample is put into a map keyed by the block it is in.
+ * Finding the lane at a position then only needs to check the samples in the blocks around it,
+ * rather than walking every curve of every lane.  Samples keep the order they were made in, so the
+ * lane returned is the same one a full walk of the lanes would find first.
+ *
+ * @author don_bruce
+ */
+public class RoadLaneIndex {
+    private final Map<Long, List<LaneSample>> samples = new HashMap<>();
+
+    public RoadLaneIndex(List<RoadLane> lanes) {
+        int order = 0;
+        Point3D samplePoint = new Point3D();
+        for (RoadLane lane : lanes) {
+            for (BezierCurve curve : lane.curves) {
+                for (float f = 0; f < curve.pathLength; ++f) {
+                    curve.setPointToPositionAt(samplePoint, f);
+                    LaneSample sample = new LaneSample(lane, curve, f, samplePoint.copy(), curve.getRotationAt(f).angles.copy(), order++);
+                    samples.computeIfAbsent(getKey((int) Math.floor(samplePoint.x), (int) Math.floor(samplePoint.y), (int) Math.floor(samplePoint.z)), k -> new ArrayList<>()).add(sample);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns a new following state for the lane at the passed-in position, or null if there isn't one.
+     * The lane must be within 1 block of the position, and must be going in the same, or opposite, direction as the yaw.
+     */
+    public RoadFollowingState getFollowingState(Point3D position, double yaw) {
+        LaneSample bestSample = null;
+        boolean bestSameDirection = false;
+        int blockX = (int) Math.floor(position.x);
+        int blockY = (int) Math.floor(position.y);
+        int blockZ = (int) Math.floor(position.z);
+        //Samples are within 1 block of the position, so they can only be in adjacent blocks.
+        for (int i = -1; i <= 1; ++i) {
+            for (int j = -1; j <= 1; ++j) {
+                for (int k = -1; k <= 1; ++k) {
+                    List<LaneSample> blockSamples = samples.get(getKey(blockX + i, blockY + j, blockZ + k));
+                    if (blockSamples != null) {
+                        for (LaneSample sample : blockSamples) {
+                            if ((bestSample == null || sample.order < bestSample.order) && sample.position.isDistanceToCloserThan(position, 1)) {
+                                double yawDelta = Math.abs(sample.angles.getClampedYDelta(yaw));
+                                boolean sameDirection = yawDelta < 10;
+                                if (sameDirection || yawDelta > 170) {
+                                    bestSample = sample;
+                                    bestSameDirection = sameDirection;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return bestSample != null ? new RoadFollowingState(bestSample.lane, bestSample.curve, bestSameDirection, bestSample.segmentPoint) : null;
+    }
+
+    private static long getKey(int x, int y, int z) {
+        return ((x & 0x3FFFFFFL) << 38) | ((z & 0x3FFFFFFL) << 12) | (y & 0xFFFL);
+    }
+
+    private static class LaneSample {
+        private final RoadLane lane;
+        private final BezierCurve curve;
+        private final float segmentPoint;
+        private final Point3D position;
+        private final Point3D angles;
+        private final int order;
+
+        private LaneSample(RoadLane lane, BezierCurve curve, float segmentPoint, Point3D position, Point3D angles, int order) {
+            this.lane = lane;
+            this.curve = curve;
+            this.segmentPoint = segmentPoint;
+            this.position = position;
+            this.angles = angles;
+            this.order = order;
+        }
+    }
+}
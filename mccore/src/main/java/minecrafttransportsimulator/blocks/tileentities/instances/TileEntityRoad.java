@@ -19,6 +19,7 @@ import minecrafttransportsimulator.blocks.instances.BlockCollision;
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityBase;
 import minecrafttransportsimulator.blocks.tileentities.components.RoadClickData;
 import minecrafttransportsimulator.blocks.tileentities.components.RoadLane;
+import minecrafttransportsimulator.blocks.tileentities.components.RoadLaneIndex;
 import minecrafttransportsimulator.blocks.tileentities.components.RoadLaneConnection;
 import minecrafttransportsimulator.items.instances.ItemRoadComponent;
 import minecrafttransportsimulator.jsondefs.JSONRoadComponent;
@@ -59,6 +60,7 @@ public class TileEntityRoad extends ATileEntityBase<JSONRoadComponent> {
     //Static variables based on core definition.
     public BezierCurve dynamicCurve;
     public final List<RoadLane> lanes = new ArrayList<>();
+    public RoadLaneIndex laneIndex;
 
     //Dynamic variables based on states.
     private boolean isActive;
@@ -236,6 +238,7 @@ public class TileEntityRoad extends ATileEntityBase<JSONRoadComponent> {
                 }
             }
         }
+        laneIndex = new RoadLaneIndex(lanes);
     }
 
     /**
@@ -14,9 +14,9 @@ import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.ColorRGB;
 import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.baseclasses.TransformationMatrix;
+import minecrafttransportsimulator.baseclasses.VehicleTriggerZones.TriggerZone;
 import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
 import minecrafttransportsimulator.blocks.tileentities.components.ATileEntityPole_Component;
-import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
 import minecrafttransportsimulator.items.instances.ItemDecor;
 import minecrafttransportsimulator.mcinterface.AWrapperWorld;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
@@ -129,6 +129,7 @@ public class TileEntitySignalController extends TileEntityDecor {
         super.remove();
         //Clear found poles so signals know we don't exist anymore and to remove their references.
         clearFoundPoles();
+        removeTriggerZones();
     }
 
     @Override
@@ -182,6 +183,7 @@ public class TileEntitySignalController extends TileEntityDecor {
         componentLocations.addAll(data.getPoint3dsCompact("componentLocations"));
 
         //Create all signal groups.
+        removeTriggerZones();
         signalGroups.clear();
         for (Axis axis : Axis.values()) {
             if (axis.xzPlanar) {
@@ -222,6 +224,19 @@ public class TileEntitySignalController extends TileEntityDecor {
         missingLocations.addAll(componentLocations);
     }
 
+    /**
+     * Removes the trigger zones of all signal groups from the world.
+     */
+    private void removeTriggerZones() {
+        for (Set<SignalGroup> signalGroupSet : signalGroups.values()) {
+            for (SignalGroup signalGroup : signalGroupSet) {
+                if (signalGroup.triggerZone != null) {
+                    world.vehicleTriggerZones.unregister(signalGroup.triggerZone);
+                }
+            }
+        }
+    }
+
     @Override
     protected void renderHolographicBoxes(TransformationMatrix transform) {
         //Render lane holo-boxes if we are a signal controller that's being edited.
@@ -333,6 +348,8 @@ public class TileEntitySignalController extends TileEntityDecor {
         public final int laneCount;
         public final double signalLineWidth;
         public final Point3D signalLineCenter;
+        /**Zone vehicles need to be in to trigger this signal.  Null if this signal doesn't trigger off vehicles.**/
+        private final TriggerZone triggerZone;
 
         private SignalGroup(Axis axis, SignalDirection direction, IWrapperNBT data) {
             this.axis = axis;
@@ -382,6 +399,17 @@ public class TileEntitySignalController extends TileEntityDecor {
                 default:
                     throw new IllegalStateException("We'll never get here, shut up compiler!");
             }
+
+            //Create trigger zone if we need one.  Main-central signals and timed signals don't check for vehicles.
+            //Zone is the 16-long box behind the stop line, rotated into the world.  Axis rotations are all 90 degrees, so it stays axis-aligned.
+            if (!timedMode && laneCount != 0 && !(isMainSignal && direction.equals(SignalDirection.CENTER))) {
+                Point3D corner1 = new Point3D(signalLineCenter.x - signalLineWidth / 2D, 0, signalLineCenter.z).rotate(axis.yRotation).add(intersectionCenterPoint);
+                Point3D corner2 = new Point3D(signalLineCenter.x + signalLineWidth / 2D, 0, signalLineCenter.z + 16).rotate(axis.yRotation).add(intersectionCenterPoint);
+                this.triggerZone = new TriggerZone(Math.min(corner1.x, corner2.x), Math.max(corner1.x, corner2.x), Math.min(corner1.z, corner2.z), Math.max(corner1.z, corner2.z));
+                world.vehicleTriggerZones.register(triggerZone);
+            } else {
+                this.triggerZone = null;
+            }
         }
 
         protected void update() {
@@ -412,22 +440,17 @@ public class TileEntitySignalController extends TileEntityDecor {
                             }
                         } else {
                             //See if we have a vehicle in our intersection bounds and need to change other signals.
-                            //We only do this once every 2 seconds, and only if we aren't a main-central intersection.
-                            if (ticksExisted % 40 == 0) {
-                                if (isMainSignal && direction.equals(SignalDirection.CENTER)) {
+                            //Main-central intersections only do this once every 2 seconds.
+                            if (isMainSignal && direction.equals(SignalDirection.CENTER)) {
+                                if (ticksExisted % 40 == 0) {
                                     //Just wait until the other signals don't have any cooldown, then set them red.
                                     stateChangeRequested = true;
-                                } else {
-                                    for (EntityVehicleF_Physics vehicle : world.getEntitiesOfType(EntityVehicleF_Physics.class)) {
-                                        Point3D adjustedPos = vehicle.position.copy().subtract(intersectionCenterPoint).reOrigin(axis.yRotation);
-                                        if (adjustedPos.x > signalLineCenter.x - signalLineWidth / 2D && adjustedPos.x < signalLineCenter.x + signalLineWidth / 2D && adjustedPos.z > signalLineCenter.z && adjustedPos.z < signalLineCenter.z + 16) {
-                                            //Vehicle present.  If we are blocked, send the respective signal states to the other signals to change them.
-                                            //Flag this signal as pending changes to blocked signals to avoid checking until those signals change.
-                                            stateChangeRequested = true;
-                                            break;
-                                        }
-                                    }
                                 }
+                            } else if (triggerZone != null && triggerZone.hasVehicles()) {
+                                //Vehicle present.  If we are blocked, send the respective signal states to the other signals to change them.
+                                //Flag this signal as pending changes to blocked signals to avoid checking until those signals change.
+                                //Vehicles report themselves to the zone as they move, so we can check this every tick.
+                                stateChangeRequested = true;
                             }
                         }
                     }
@@ -84,6 +84,15 @@ public abstract class AEntityA_Base {
         return true;
     }
 
+    /**
+     * Called when something from outside this entity's update may have changed its state, such as a player
+     * interacting with it, or it getting attacked or hit.  Entities that stop updating while idle
+     * should go back to updating normally when this is called.
+     */
+    public void wakeFromDormancy() {
+        //Nothing by default.
+    }
+
     /**
      * Called to remove this entity from the world.  Removal should perform any and all logic required to ensure
      * no references are left to this entity in any objects.  This ensures memory can be freed for use elsewhere,
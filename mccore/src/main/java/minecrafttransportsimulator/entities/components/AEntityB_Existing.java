@@ -24,6 +24,7 @@ import minecrafttransportsimulator.packets.instances.PacketEntityRiderChange;
 import minecrafttransportsimulator.sound.SoundInstance;
 import minecrafttransportsimulator.systems.CameraSystem;
 import minecrafttransportsimulator.systems.CameraSystem.CameraMode;
+import minecrafttransportsimulator.systems.MetricsSystem;
 
 /**
  * Base class for entities that exist in the world. In addition to the normal functions
@@ -88,8 +89,8 @@ public abstract class AEntityB_Existing extends AEntityA_Base {
      **/
     public RotationMatrix riderRelativeOrientation;
     public RotationMatrix prevRiderRelativeOrientation;
-    private static final Point3D riderTempPoint = new Point3D();
-    private static final RotationMatrix riderTempMatrix = new RotationMatrix();
+    private final Point3D riderTempPoint = new Point3D();
+    private final RotationMatrix riderTempMatrix = new RotationMatrix();
 
     //Camera variables.
     public int zoomLevel;
@@ -160,7 +161,9 @@ public abstract class AEntityB_Existing extends AEntityA_Base {
         super.update();
         world.beginProfiling("EntityB_Level", true);
         if (world.isClient()) {
+            long soundStartTime = MetricsSystem.startTimer();
             updateSounds(0);
+            MetricsSystem.SOUNDS.record(soundStartTime);
         }
         if (requiresDeltaUpdates()) {
             prevPosition.set(position);
@@ -325,6 +328,7 @@ public abstract class AEntityB_Existing extends AEntityA_Base {
             return false;
         } else {
             rider = newRider;
+            wakeFromDormancy();
             riderIsClient = world.isClient() && rider.equals(InterfaceManager.clientInterface.getClientPlayer());
 
             //Create variables for use in other code areas.
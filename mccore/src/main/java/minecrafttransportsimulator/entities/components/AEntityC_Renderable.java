@@ -1,11 +1,13 @@
 package minecrafttransportsimulator.entities.components;
 
+import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.baseclasses.RotationMatrix;
 import minecrafttransportsimulator.baseclasses.TransformationMatrix;
 import minecrafttransportsimulator.mcinterface.AWrapperWorld;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.systems.MetricsSystem;
 
 /**
  * Base class for entities that are rendered in the world in 3D.
@@ -93,7 +95,9 @@ public abstract class AEntityC_Renderable extends AEntityB_Existing {
             world.endProfiling();
 
             //Render the main model.
+            long renderStartTime = MetricsSystem.startTimer();
             renderModel(rotatedMatrix, blendingEnabled, partialTicks);
+            MetricsSystem.RENDERING.record(renderStartTime);
 
             //End rotation render matrix.
             //Render holoboxes.
@@ -111,11 +115,41 @@ public abstract class AEntityC_Renderable extends AEntityB_Existing {
             //Handle sounds.  These will be partial-tick only ones.
             //Normal sounds are handled on the main tick loop.
             world.beginProfiling("Sounds", true);
+            long soundStartTime = MetricsSystem.startTimer();
             updateSounds(partialTicks);
+            MetricsSystem.SOUNDS.record(soundStartTime);
             world.endProfiling();
         }
     }
 
+    /**
+     * Called instead of {@link #render(boolean, float)} when this entity has been culled for this frame.
+     * Nothing is rendered, but anything the render call does that affects things besides the model,
+     * such as sounds, still needs to run so it doesn't stop while the entity is out of view.
+     */
+    public void updateCulled(boolean blendingEnabled, float partialTicks) {
+        if (!disableRendering()) {
+            long soundStartTime = MetricsSystem.startTimer();
+            updateSounds(partialTicks);
+            MetricsSystem.SOUNDS.record(soundStartTime);
+        }
+    }
+
+    /**
+     * Returns true if this entity may be culled this frame.  Entities that render things outside of their
+     * culling box should return false here when they do so.
+     */
+    public boolean canBeCulled() {
+        return true;
+    }
+
+    /**
+     * Returns the box used to cull this entity.  This should enclose everything the entity renders.
+     */
+    public BoundingBox getCullingBox() {
+        return boundingBox;
+    }
+
     /**
      * If rendering needs to be skipped for any reason, return true here.
      */
@@ -5,8 +5,7 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Comparator;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -22,7 +21,6 @@ import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.baseclasses.TransformationMatrix;
 import minecrafttransportsimulator.blocks.components.ABlockBase.BlockMaterial;
 import minecrafttransportsimulator.entities.instances.APart;
-import minecrafttransportsimulator.entities.instances.EntityParticle;
 import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
 import minecrafttransportsimulator.entities.instances.PartSeat;
 import minecrafttransportsimulator.items.components.AItemPack;
@@ -32,7 +30,9 @@ import minecrafttransportsimulator.jsondefs.JSONAction;
 import minecrafttransportsimulator.jsondefs.JSONAnimatedObject;
 import minecrafttransportsimulator.jsondefs.JSONAnimationDefinition;
 import minecrafttransportsimulator.jsondefs.JSONCameraObject;
+import minecrafttransportsimulator.jsondefs.JSONLODTier;
 import minecrafttransportsimulator.jsondefs.JSONLight;
+import minecrafttransportsimulator.jsondefs.JSONLight.JSONLightBlendableComponent;
 import minecrafttransportsimulator.jsondefs.JSONParticle;
 import minecrafttransportsimulator.jsondefs.JSONRendering.ModelType;
 import minecrafttransportsimulator.jsondefs.JSONSound;
@@ -54,6 +54,7 @@ import minecrafttransportsimulator.sound.SoundInstance;
 import minecrafttransportsimulator.systems.CameraSystem;
 import minecrafttransportsimulator.systems.CameraSystem.CameraMode;
 import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.MetricsSystem;
 
 /**
  * Base class for entities that are defined via JSON definitions and can be modeled in 3D.
@@ -68,6 +69,11 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
      */
     public final JSONDefinition definition;
 
+    /**
+     * The metrics section for the definition of this entity.  Shared by all entities with that definition.
+     */
+    public final MetricsSystem.Section metricsSection;
+
     /**
      * The current sub-definition for this entity.
      */
@@ -91,9 +97,17 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
      **/
     protected final Map<String, ComputedVariable> computedVariables = new HashMap<>();
 
+    /**
+     * Array of variables returned by {@link #getVariable(int, String)}, indexed by slot ID.  This holds the same
+     * variables as {@link #computedVariables}, so it is replaced any time that map has a variable removed or replaced.
+     **/
+    private ComputedVariable[] slottedVariables = new ComputedVariable[0];
+
     private final List<JSONSound> allSoundDefs = new ArrayList<>();
     private final Map<JSONSound, AnimationSwitchbox> soundActiveSwitchboxes = new HashMap<>();
     private final Set<JSONSound> soundDefFalseLastCheck = new HashSet<>();
+    /**Furthest distance from this entity any of our sounds can be heard.  Past this, we don't bother checking sounds.**/
+    private double maxSoundDistance;
     private final Map<JSONSound, SoundSwitchbox> soundVolumeSwitchboxes = new HashMap<>();
     private final Map<JSONSound, SoundSwitchbox> soundPitchSwitchboxes = new HashMap<>();
     private final Map<JSONLight, LightSwitchbox> lightBrightnessSwitchboxes = new HashMap<>();
@@ -141,6 +155,11 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
      **/
     private List<RenderableModelObject> objectList;
 
+    /**
+     * The level-of-detail tier being used for the current render call, or null if everything is to be rendered.
+     **/
+    public JSONLODTier currentLODTier;
+
     /**
      * List of players interacting with this entity via a GUI.
      **/
@@ -155,13 +174,6 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
     //Radar lists.  Only updated once a tick.  Created when first requested via animations.
     public final List<EntityVehicleF_Physics> aircraftOnRadar = new ArrayList<>();
     public final List<EntityVehicleF_Physics> groundersOnRadar = new ArrayList<>();
-    private final Comparator<AEntityB_Existing> entityComparator = new Comparator<AEntityB_Existing>() {
-        @Override
-        public int compare(AEntityB_Existing o1, AEntityB_Existing o2) {
-            return position.isFirstCloserThanSecond(o1.position, o2.position) ? -1 : 1;
-        }
-
-    };
 
     public static final String REPAIRED_NAME = "repaired";
 
@@ -177,6 +189,7 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
             this.definition = generateDefaultDefinition();
             updateSubDefinition("");
         }
+        this.metricsSection = MetricsSystem.getDefinitionSection(definition);
 
         //Load data, or use defaults.
         if (data != null) {
@@ -226,6 +239,7 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
     public AEntityD_Definable(AWrapperWorld world, Point3D position, Point3D motion, Point3D angles, AItemSubTyped<JSONDefinition> item) {
         super(world, position, motion, angles);
         this.definition = item.definition;
+        this.metricsSection = MetricsSystem.getDefinitionSection(definition);
         updateSubDefinition(item.subDefinition.subName);
         addVariable(this.textureIndexVar = new ComputedVariable(this, "textureIndex", null));
         addVariable(this.repaintedVar = new ComputedVariable(this, "repainted"));
@@ -265,6 +279,11 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
             if (definition.rendering.sounds != null) {
                 for (JSONSound soundDef : definition.rendering.sounds) {
                     allSoundDefs.add(soundDef);
+                    double soundDistance = soundDef.maxDistance != soundDef.minDistance ? soundDef.maxDistance : SoundInstance.DEFAULT_MAX_DISTANCE;
+                    if (soundDef.pos != null) {
+                        soundDistance += soundDef.pos.length();
+                    }
+                    maxSoundDistance = Math.max(maxSoundDistance, soundDistance);
                     soundActiveSwitchboxes.put(soundDef, new AnimationSwitchbox(this, soundDef.activeAnimations, null));
 
                     if (soundDef.volumeAnimations != null) {
@@ -363,17 +382,12 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
 
         //Only update radar once a second, and only if we requested it via variables.
         if (definition.general.radarRange > 0 && ticksExisted % 20 == 0) {
-            Collection<EntityVehicleF_Physics> allVehicles = world.getEntitiesOfType(EntityVehicleF_Physics.class);
             aircraftOnRadar.clear();
             groundersOnRadar.clear();
-            Point3D searchVector = new Point3D();
-            Point3D LOSVector = new Point3D();
-            for (EntityVehicleF_Physics vehicle : allVehicles) {
-                searchVector.set(0, 0, definition.general.radarRange).rotate(orientation);
-                LOSVector.set(vehicle.position).subtract(position).normalize();
-                double coneAngle = definition.general.radarWidth;
-                double angle = Math.abs(Math.toDegrees(Math.acos(searchVector.normalize().dotProduct(LOSVector, false))));
-                if (!vehicle.outOfHealth && vehicle != this && (angle < coneAngle && vehicle.position.isDistanceToCloserThan(position, definition.general.radarRange))) {
+            Point3D searchVector = new Point3D(0, 0, 1).rotate(orientation);
+            //Contacts come back closest-first, so the lists are already sorted.
+            for (EntityVehicleF_Physics vehicle : world.vehicleTargetIndex.getVehiclesInCone(position, searchVector, definition.general.radarRange, definition.general.radarWidth)) {
+                if (!vehicle.outOfHealth && vehicle != this) {
                     if (vehicle.definition.motorized.isAircraft) {
                         aircraftOnRadar.add(vehicle);
                     } else {
@@ -384,8 +398,6 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
                     }
                 }
             }
-            aircraftOnRadar.sort(entityComparator);
-            groundersOnRadar.sort(entityComparator);
         }
         world.endProfiling();
     }
@@ -561,7 +573,7 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
                             if (spawningSwitchbox != null) {
                                 spawningSwitchbox.runSwitchbox(partialTicks, false);
                             }
-                            world.addEntity(new EntityParticle(this, particleDef, spawningPosition, spawningSwitchbox));
+                            world.spawnParticle(this, particleDef, spawningPosition, spawningSwitchbox);
                         }
                         lastParticlePosition.set(spawningPosition);
                     }
@@ -574,7 +586,7 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
                             if (spawningSwitchbox != null) {
                                 spawningSwitchbox.runSwitchbox(partialTicks, false);
                             }
-                            world.addEntity(new EntityParticle(this, particleDef, position, spawningSwitchbox));
+                            world.spawnParticle(this, particleDef, position, spawningSwitchbox);
                         }
                         lastTickParticleSpawned.put(particleDef, ticksExisted);
                     }
@@ -692,6 +704,18 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
         super.updateSounds(partialTicks);
         //Check all sound defs and update the existing sounds accordingly.
         if (!allSoundDefs.isEmpty()) {
+            //If the player is too far away to hear any of our sounds, don't run any sound animations.
+            //Just stop any looping sounds, like the distance checks would, and forget past trigger states.
+            //The latter prevents one-shot sounds from going off when we come back in range if they were triggered while we were out.
+            if (!position.isDistanceToCloserThan(InterfaceManager.clientInterface.getClientPlayer().getPosition(), maxSoundDistance)) {
+                for (SoundInstance sound : sounds) {
+                    if (sound.soundDef != null && sound.soundDef.looping) {
+                        sound.stopSound = true;
+                    }
+                }
+                soundDefFalseLastCheck.clear();
+                return;
+            }
             AEntityF_Multipart<?> soundMasterEntity = this instanceof APart ? ((APart) this).masterEntity : (this instanceof AEntityF_Multipart ? (AEntityF_Multipart<?>) this : null);
             AEntityB_Existing entityRiding = InterfaceManager.clientInterface.getClientPlayer().getEntityRiding();
             AEntityF_Multipart<?> playerRidingMasterEntity = entityRiding instanceof APart ? ((APart) entityRiding).masterEntity : (entityRiding instanceof AEntityF_Multipart ? (AEntityF_Multipart<?>) entityRiding : null);
@@ -1054,7 +1078,7 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
      * the scale parameter as only the variable value should be scaled, not the offset..
      */
     public final double getAnimatedVariableValue(DurationDelayClock clock, double scaleFactor, double offset, float partialTicks) {
-        double value = getOrCreateVariable(clock.animation.variable).computeValue(partialTicks);
+        double value = getVariable(clock.variableSlot, clock.animation.variable).computeValue(partialTicks);
         return clock.clampAndScale(this, value, scaleFactor, offset, partialTicks);
     }
 
@@ -1090,15 +1114,41 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
         return computedVar;
     }
     
+    /**
+     * Like {@link #getOrCreateVariable(String)}, but takes the variable's slot ID from {@link ComputedVariable#getSlot(String)}
+     * too.  The variable is only looked up by name the first time this is called for the slot, and again after variables are
+     * reset.  All other calls just index an array, which saves hashing the name for every animation every frame.
+     * Only variables that are in {@link #computedVariables} are kept in the array, so this always returns what
+     * {@link #getOrCreateVariable(String)} would.
+     */
+    public ComputedVariable getVariable(int slot, String variable) {
+        if (slot < slottedVariables.length && slottedVariables[slot] != null) {
+            return slottedVariables[slot];
+        }
+        ComputedVariable computedVar = getOrCreateVariable(variable);
+        //Only keep variables that are in our map, as forwarded ones like trailer hookups can change without us being reset.
+        if (computedVariables.get(variable) == computedVar) {
+            if (slot >= slottedVariables.length) {
+                slottedVariables = Arrays.copyOf(slottedVariables, slot + 1);
+            }
+            slottedVariables[slot] = computedVar;
+        }
+        return computedVar;
+    }
+
     public void addVariable(ComputedVariable variable) {
-        computedVariables.put(variable.variableKey, variable);
+        ComputedVariable priorVariable = computedVariables.put(variable.variableKey, variable);
         if (variable.invertedVariable != null) {
             computedVariables.put(variable.invertedVariable.variableKey, variable.invertedVariable);
         }
+        if (priorVariable != null && priorVariable != variable) {
+            slottedVariables = new ComputedVariable[slottedVariables.length];
+        }
     }
 
     public void resetAllVariables() {
         computedVariables.entrySet().removeIf(entry -> entry.getValue().entity != this || entry.getValue().shouldReset);
+        slottedVariables = new ComputedVariable[slottedVariables.length];
     }
 
     public boolean containsVariable(String variable) {
@@ -1254,6 +1304,20 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
         //Nothing for this level.
     }
 
+    /**
+     * Returns a hash of the current values of all variables on this entity.  Used to check if any
+     * variables changed between two points in time without having to copy all of them.
+     * Variables are not computed here, so this only sees values as of their last computation.
+     */
+    public int getVariableStateHash() {
+        int hash = 1;
+        for (ComputedVariable variable : computedVariables.values()) {
+            long bits = Double.doubleToLongBits(variable.currentValue);
+            hash = 31 * hash + (int) (bits ^ (bits >>> 32));
+        }
+        return hash;
+    }
+
     /**
      * Called to update the variable modifiers for this entity.
      */
@@ -1272,31 +1336,94 @@ public abstract class AEntityD_Definable<JSONDefinition extends AJSONMultiModelP
         world.beginProfiling("LightStateUpdates", true);
         updateLightBrightness(partialTicks);
 
+        //Get the LOD tier for how far away we are.
+        currentLODTier = null;
+        if (definition.rendering.lodTiers != null) {
+            double cameraDistance = position.distanceTo(InterfaceManager.clientInterface.getCameraPosition());
+            for (JSONLODTier tier : definition.rendering.lodTiers) {
+                if (cameraDistance >= tier.distance && (currentLODTier == null || tier.distance > currentLODTier.distance)) {
+                    currentLODTier = tier;
+                }
+            }
+        }
+
         //Parse model if it hasn't been already.
+        //If it's still loading in the background, render a placeholder box in its place.
         world.beginProfiling("MainModel", false);
         if (objectList == null) {
             objectList = AModelParser.generateRenderables(this);
         }
 
         //Render model object individually.
-        objectList.forEach(modelObject -> modelObject.render(this, transform, blendingEnabled, partialTicks));
+        if (objectList != null) {
+            objectList.forEach(modelObject -> modelObject.render(this, transform, blendingEnabled, partialTicks));
+        } else if (blendingEnabled) {
+            boundingBox.renderHolographic(transform, null, ColorRGB.GRAY);
+        }
 
         //Render any static text.
-        world.beginProfiling("MainText", false);
-        for (Entry<JSONText, String> textEntry : text.entrySet()) {
-            JSONText textDef = textEntry.getKey();
-            if (textDef.attachedTo == null && ((textDef.lightsUp && renderTextLit()) == blendingEnabled)) {
-                RenderText.draw3DText(textEntry.getValue(), this, transform, textDef, false, blendingEnabled);
+        if (currentLODTier == null || !currentLODTier.disableText) {
+            world.beginProfiling("MainText", false);
+            for (Entry<JSONText, String> textEntry : text.entrySet()) {
+                JSONText textDef = textEntry.getKey();
+                if (textDef.attachedTo == null && ((textDef.lightsUp && renderTextLit()) == blendingEnabled)) {
+                    RenderText.draw3DText(textEntry.getValue(), this, transform, textDef, false, blendingEnabled);
+                }
             }
         }
-        //Handle particles.  Need to only do this once per frame-render.  Shaders may have us render multiple times.
+        spawnParticlesForFrame(partialTicks);
+        world.endProfiling();
+    }
+
+    @Override
+    public void updateCulled(boolean blendingEnabled, float partialTicks) {
+        super.updateCulled(blendingEnabled, partialTicks);
+        if (!disableRendering()) {
+            //Keep lights and particles going so beams and smoke are right when we come back into view.
+            world.beginProfiling("LightStateUpdates", true);
+            updateLightBrightness(partialTicks);
+            spawnParticlesForFrame(partialTicks);
+            world.endProfiling();
+        }
+    }
+
+    @Override
+    public boolean canBeCulled() {
+        //Beams reach well past our box, so we can't be culled while any are on.
+        if (ConfigSystem.client.renderingSettings.renderBeams.value) {
+            for (Entry<JSONLight, Float> lightEntry : lightBrightnessValues.entrySet()) {
+                if (lightEntry.getValue() > 0 && hasBeam(lightEntry.getKey())) {
+                    return false;
+                }
+            }
+        }
+        return super.canBeCulled();
+    }
+
+    private static boolean hasBeam(JSONLight lightDef) {
+        if (lightDef.isBeam) {
+            return true;
+        }
+        if (lightDef.blendableComponents != null) {
+            for (JSONLightBlendableComponent component : lightDef.blendableComponents) {
+                if (component.beamDiameter > 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Spawns particles, if we haven't already for this frame.  Shaders may have us render multiple times.
+     */
+    private void spawnParticlesForFrame(float partialTicks) {
         if (!InterfaceManager.clientInterface.isGamePaused() && !(ticksExisted == lastTickParticlesSpawned && partialTicks == lastPartialTickParticlesSpawned)) {
             world.beginProfiling("Particles", false);
             spawnParticles(partialTicks);
             lastTickParticlesSpawned = ticksExisted;
             lastPartialTickParticlesSpawned = partialTicks;
         }
-        world.endProfiling();
     }
 
     @Override
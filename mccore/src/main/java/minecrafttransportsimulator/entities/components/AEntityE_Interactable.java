@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -36,6 +37,7 @@ import minecrafttransportsimulator.packets.instances.PacketPlayerChatMessage;
 import minecrafttransportsimulator.packloading.PackParser;
 import minecrafttransportsimulator.rendering.RenderInstrument;
 import minecrafttransportsimulator.rendering.RenderInstrument.InstrumentSwitchbox;
+import minecrafttransportsimulator.rendering.RenderInstrument.InstrumentText;
 import minecrafttransportsimulator.rendering.RenderableData;
 import minecrafttransportsimulator.rendering.RenderableVertices;
 import minecrafttransportsimulator.systems.LanguageSystem;
@@ -80,8 +82,10 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
      * Set of entities that this entity collided with this tick.  Any entity that is in this set
      * should NOT do collision checks with this entity, or infinite loops will occur.
      * This set should be cleared after all collisions have been checked.
+     * Kept in collision order, as only the first entity is used for moving along, and
+     * it needs to be the same one every time for the same collisions.
      **/
-    public final Set<AEntityE_Interactable<?>> collidedEntities = new HashSet<>();
+    public final Set<AEntityE_Interactable<?>> collidedEntities = new LinkedHashSet<>();
 
     /**
      * List of instruments based on their slot in the JSON.  Note that this list is created on first construction
@@ -97,6 +101,12 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
      */
     public final List<List<RenderableData>> instrumentRenderables = new ArrayList<>();
 
+    /**
+     * Similar to {@link #instrumentRenderables}, except this is the formatted text for text components.
+     * Non-text components have a null entry.
+     */
+    public final List<List<InstrumentText>> instrumentTexts = new ArrayList<>();
+
     /**
      * Maps instrument components to their respective switchboxes.
      **/
@@ -129,6 +139,7 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
             for (int i = 0; i < definition.instruments.size(); ++i) {
                 instruments.add(null);
                 instrumentRenderables.add(null);
+                instrumentTexts.add(null);
             }
 
             //Create instrument animation clocks.
@@ -354,17 +365,21 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
     public void addInstrument(ItemInstrument instrument, int slot) {
         instruments.set(slot, instrument);
         List<RenderableData> renderables = new ArrayList<>();
+        List<InstrumentText> texts = new ArrayList<>();
         for (JSONInstrumentComponent component : instrument.definition.components) {
             if (component.textObject != null) {
                 renderables.add(null);
+                texts.add(new InstrumentText());
             } else {
                 renderables.add(new RenderableData(RenderableVertices.createSprite(1, null, null)));
+                texts.add(null);
             }
             if (component.animations != null) {
                 instrumentComponentSwitchboxes.put(component, new InstrumentSwitchbox(this, component));
             }
         }
         instrumentRenderables.set(slot, renderables);
+        instrumentTexts.set(slot, texts);
     }
 
     /**
@@ -377,6 +392,7 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
                 instrumentComponentSwitchboxes.remove(component);
             }
             instrumentRenderables.set(slot, null);
+            instrumentTexts.set(slot, null);
         }
     }
 
@@ -402,6 +418,7 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
      * applications, which means one of those may have made this entity invalid.
      */
     public void attack(Damage damage) {
+        wakeFromDormancy();
         if (!damage.isWater && !(damage.isExplosion && ignoreExplosiveDamage())) {
             if (!outOfHealth) {
                 double currentDamage = damageVar.currentValue + damage.amount;
@@ -425,6 +442,12 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
         collisionBoxes.forEach(box -> box.renderWireframe(this, transform, null, null));
     }
 
+    @Override
+    public BoundingBox getCullingBox() {
+        //Entities without collision have an empty encompassing box, so fall back to the normal box for them.
+        return encompassingBox.widthRadius > 0 || encompassingBox.heightRadius > 0 || encompassingBox.depthRadius > 0 ? encompassingBox : boundingBox;
+    }
+
     @Override
     protected void renderModel(TransformationMatrix transform, boolean blendingEnabled, float partialTicks) {
         super.renderModel(transform, blendingEnabled, partialTicks);
@@ -433,7 +456,7 @@ public abstract class AEntityE_Interactable<JSONDefinition extends AJSONInteract
         //We only apply the appropriate translation and rotation.
         //Normalization is required here, as otherwise the normals get scaled with the
         //scaling operations, and shading gets applied funny.
-        if (definition.instruments != null) {
+        if (definition.instruments != null && (currentLODTier == null || !currentLODTier.disableInstruments)) {
             world.beginProfiling("Instruments", true);
             for (int i = 0; i < definition.instruments.size(); ++i) {
                 ItemInstrument instrument = instruments.get(i);
@@ -860,6 +860,7 @@ public abstract class AEntityF_Multipart<JSONDefinition extends AJSONPartProvide
             }
         }
         encompassingBox.updateToEntity(this, null);
+        world.updateMultipartBounds(this);
     }
 
     @Override
@@ -203,6 +203,15 @@ public abstract class AEntityG_Towable<JSONDefinition extends AJSONPartProvider>
         return towedByConnection != null;
     }
 
+    /**
+     * Returns true if this entity still has saved connections it is trying to link up.
+     * Linking looks up and modifies other entities, so this needs to be known by systems
+     * that assume entities only modify themselves during their update.
+     */
+    public boolean isLinkingConnections() {
+        return savedTowedByConnection != null || !savedTowingConnections.isEmpty();
+    }
+
     @Override
     public ComputedVariable createComputedVariable(String variable, boolean createDefaultIfNotPresent) {
         if (variable.startsWith("connection")) {
@@ -527,6 +536,10 @@ public abstract class AEntityG_Towable<JSONDefinition extends AJSONPartProvider>
         ((AEntityG_Towable<?>) connection.towedVehicle).savedTowedByConnection = null;
         savedTowingConnections.removeIf(testConnection -> connection.hitchConnectionGroup.equals(testConnection.hitchConnectionGroup) && connection.hitchConnectionIndex == testConnection.hitchConnectionIndex);
 
+        //Wake both sides, as the towed vehicle will need to tick to follow us.
+        wakeFromDormancy();
+        connection.towedVehicle.wakeFromDormancy();
+
         //Clear connection variables, since our connections have changed and those affect them.
         resetAllVariables();
         connection.towedVehicle.resetAllVariables();
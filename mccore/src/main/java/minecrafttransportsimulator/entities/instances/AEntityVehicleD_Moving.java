@@ -4,10 +4,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
-import minecrafttransportsimulator.baseclasses.BezierCurve;
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.ComputedVariable;
 import minecrafttransportsimulator.baseclasses.Damage;
+import minecrafttransportsimulator.baseclasses.EntityTickScheduler;
 import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.baseclasses.RotationMatrix;
 import minecrafttransportsimulator.baseclasses.TowingConnection;
@@ -15,7 +15,6 @@ import minecrafttransportsimulator.baseclasses.VehicleGroundDeviceCollection;
 import minecrafttransportsimulator.blocks.components.ABlockBase;
 import minecrafttransportsimulator.blocks.instances.BlockCollision;
 import minecrafttransportsimulator.blocks.tileentities.components.RoadFollowingState;
-import minecrafttransportsimulator.blocks.tileentities.components.RoadLane;
 import minecrafttransportsimulator.blocks.tileentities.components.RoadLane.LaneSelectionRequest;
 import minecrafttransportsimulator.blocks.tileentities.instances.TileEntityRoad;
 import minecrafttransportsimulator.entities.components.AEntityE_Interactable;
@@ -33,6 +32,7 @@ import minecrafttransportsimulator.packets.instances.PacketPlayerChatMessage;
 import minecrafttransportsimulator.packets.instances.PacketVehicleServerMovement;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.LanguageSystem;
+import minecrafttransportsimulator.systems.MetricsSystem;
 
 /**
  * At the final basic vehicle level we add in the functionality for state-based movement.
@@ -214,6 +214,7 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
         //Now do update calculations and logic.
         if (!ConfigSystem.settings.general.noclipVehicles.value || groundDeviceCollective.isReady()) {
             world.beginProfiling("GroundForces", true);
+            long startTime = MetricsSystem.startTimer();
             getForcesAndMotions();
             world.beginProfiling("GroundOperations", false);
             if (towedByConnection == null || !towedByConnection.hitchConnection.mounted) {
@@ -226,6 +227,7 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
             if (!world.isClient()) {
                 adjustControlSurfaces();
             }
+            MetricsSystem.PHYSICS.record(startTime);
             world.endProfiling();
         }
         world.endProfiling();
@@ -236,48 +238,60 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
         super.doPostUpdateLogic();
 
         //Move all entities that are touching this entity.
+        //Game entities may only be moved on the world thread, so wait for it if we are in a parallel tick.
         if (velocity != 0) {
-            world.beginProfiling("MoveAlongEntities", true);
-            encompassingBox.heightRadius += 1.0;
-            List<IWrapperEntity> nearbyEntities = world.getEntitiesWithin(encompassingBox);
-            encompassingBox.heightRadius -= 1.0;
-            for (IWrapperEntity entity : nearbyEntities) {
-                //Only move Vanilla entities not riding things.  We don't want to move other things as we handle our inter-entity movement in each class.
-                if (entity.getEntityRiding() == null && (!(entity instanceof IWrapperPlayer) || !((IWrapperPlayer) entity).isSpectator())) {
-                    //Check each box individually.  Need to do this to know which delta to apply.
-                    BoundingBox entityBounds = entity.getBounds();
-                    entityBounds.heightRadius += 0.25;
-                    for (BoundingBox box : allCollisionBoxes) {
-                        if (box.collisionTypes.contains(CollisionType.ENTITY) && entityBounds.intersects(box)) {
-                            //If the entity is within 0.5 units of the top of the box, we can move them.
-                            //If not, they are just colliding and not on top of the entity and we should leave them be.
-                            double entityBottomDelta = box.globalCenter.y + box.heightRadius - (entityBounds.globalCenter.y - entityBounds.heightRadius + 0.25F);
-                            if (entityBottomDelta >= -0.5 && entityBottomDelta <= 0.5) {
-                                //Only move the entity if it's going slow or in the delta.  Don't move if it's going fast as they might have jumped.
-                                Point3D entityVelocity = entity.getVelocity();
-                                if (entityVelocity.y <= 0 || entityVelocity.y < entityBottomDelta) {
-                                    //Get how much the entity moved the collision box the entity collided with so we know how much to move the entity.
-                                    //This lets entities "move along" with entities when touching a collision box.
-                                    Point3D entityPositionVector = entity.getPosition().copy().subtract(position);
-                                    Point3D startingAngles = entityPositionVector.copy().getAngles(true);
-                                    Point3D entityPositionDelta = entityPositionVector.copy();
-                                    entityPositionDelta.rotate(orientation).reOrigin(prevOrientation);
-                                    Point3D entityAngleDelta = entityPositionDelta.copy().getAngles(true).subtract(startingAngles);
-
-                                    entityPositionDelta.add(position).subtract(prevPosition);
-                                    entityPositionDelta.subtract(entityPositionVector).add(0, entityBottomDelta, 0);
-                                    entity.setPosition(entityPositionDelta.add(entity.getPosition()), true);
-                                    entity.setYaw(entity.getYaw() + entityAngleDelta.y);
-                                    entity.setBodyYaw(entity.getBodyYaw() + entityAngleDelta.y);
-                                    break;
-                                }
+            if (EntityTickScheduler.isParallelTickThread()) {
+                EntityTickScheduler.deferIfParallel(this::moveAlongEntities);
+            } else {
+                moveAlongEntities();
+            }
+        }
+    }
+
+    /**
+     * Moves all game entities that are standing on this vehicle along with it, so they don't fall off.
+     */
+    private void moveAlongEntities() {
+        world.beginProfiling("MoveAlongEntities", true);
+        encompassingBox.heightRadius += 1.0;
+        List<IWrapperEntity> nearbyEntities = world.getEntitiesWithin(encompassingBox);
+        encompassingBox.heightRadius -= 1.0;
+        for (IWrapperEntity entity : nearbyEntities) {
+            //Only move Vanilla entities not riding things.  We don't want to move other things as we handle our inter-entity movement in each class.
+            if (entity.getEntityRiding() == null && (!(entity instanceof IWrapperPlayer) || !((IWrapperPlayer) entity).isSpectator())) {
+                //Check each box individually.  Need to do this to know which delta to apply.
+                BoundingBox entityBounds = entity.getBounds();
+                entityBounds.heightRadius += 0.25;
+                for (BoundingBox box : allCollisionBoxes) {
+                    if (box.collisionTypes.contains(CollisionType.ENTITY) && entityBounds.intersects(box)) {
+                        //If the entity is within 0.5 units of the top of the box, we can move them.
+                        //If not, they are just colliding and not on top of the entity and we should leave them be.
+                        double entityBottomDelta = box.globalCenter.y + box.heightRadius - (entityBounds.globalCenter.y - entityBounds.heightRadius + 0.25F);
+                        if (entityBottomDelta >= -0.5 && entityBottomDelta <= 0.5) {
+                            //Only move the entity if it's going slow or in the delta.  Don't move if it's going fast as they might have jumped.
+                            Point3D entityVelocity = entity.getVelocity();
+                            if (entityVelocity.y <= 0 || entityVelocity.y < entityBottomDelta) {
+                                //Get how much the entity moved the collision box the entity collided with so we know how much to move the entity.
+                                //This lets entities "move along" with entities when touching a collision box.
+                                Point3D entityPositionVector = entity.getPosition().copy().subtract(position);
+                                Point3D startingAngles = entityPositionVector.copy().getAngles(true);
+                                Point3D entityPositionDelta = entityPositionVector.copy();
+                                entityPositionDelta.rotate(orientation).reOrigin(prevOrientation);
+                                Point3D entityAngleDelta = entityPositionDelta.copy().getAngles(true).subtract(startingAngles);
+
+                                entityPositionDelta.add(position).subtract(prevPosition);
+                                entityPositionDelta.subtract(entityPositionVector).add(0, entityBottomDelta, 0);
+                                entity.setPosition(entityPositionDelta.add(entity.getPosition()), true);
+                                entity.setYaw(entity.getYaw() + entityAngleDelta.y);
+                                entity.setBodyYaw(entity.getBodyYaw() + entityAngleDelta.y);
+                                break;
                             }
                         }
                     }
                 }
             }
-            world.endProfiling();
         }
+        world.endProfiling();
     }
 
     @Override
@@ -298,6 +312,8 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
         if (ticksExisted > 1) {
             updateGroundDevicesRequest = true;
         }
+        //Parts changed, so we may not be resting how we were.
+        wakeFromDormancy();
     }
 
     @Override
@@ -364,6 +380,15 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
         super.disconnectTrailer(connectionIndex);
     }
 
+    /**
+     * Returns true if this vehicle will look for a road to follow on its next tick.
+     * Roads are found through their tile entities, which may only be accessed on
+     * the world thread, so this vehicle can't be ticked in parallel when this is true.
+     */
+    public boolean willSearchForRoad() {
+        return !definition.motorized.isAircraft && (frontFollower == null || rearFollower == null) && (ticksExisted + 1) % 20 == 0;
+    }
+
     /**
      * Returns the follower for the rear of the vehicle.  Front follower should
      * be obtained by getting the point from this follower the distance away from the
@@ -376,26 +401,9 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
             ABlockBase block = world.getBlock(contactPoint);
             if (block instanceof BlockCollision) {
                 TileEntityRoad road = ((BlockCollision) block).getMasterRoad(world, contactPoint);
-                if (road != null) {
+                if (road != null && road.laneIndex != null) {
                     //Check to see which lane we are on, if any.
-                    Point3D testPoint = new Point3D();
-                    Point3D testRotation;
-                    for (RoadLane lane : road.lanes) {
-                        //Check path-points on the curve.  If our angles and position are close, set this as the curve.
-                        for (BezierCurve curve : lane.curves) {
-                            for (float f = 0; f < curve.pathLength; ++f) {
-                                curve.setPointToPositionAt(testPoint, f);
-                                if (testPoint.isDistanceToCloserThan(contactPoint, 1)) {
-                                    testRotation = curve.getRotationAt(f).angles;
-                                    boolean sameDirection = Math.abs(testRotation.getClampedYDelta(orientation.angles.y)) < 10;
-                                    boolean oppositeDirection = Math.abs(testRotation.getClampedYDelta(orientation.angles.y)) > 170;
-                                    if (sameDirection || oppositeDirection) {
-                                        return new RoadFollowingState(lane, curve, sameDirection, f);
-                                    }
-                                }
-                            }
-                        }
-                    }
+                    return road.laneIndex.getFollowingState(contactPoint, orientation.angles.y);
                 }
             }
         }
@@ -805,11 +813,14 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
                 //If we hit something, however, we need to inhibit the movement so we don't do that.
                 //This prevents vehicles from phasing through walls even though they are driving on the ground.
                 //If we are being towed, apply this movement to the towing vehicle, not ourselves, as this can lead to the vehicle getting stuck.
-                world.beginProfiling("CollisionCheck_" + lastBlockCollisionBoxesCount, false);
+                world.beginProfiling("CollisionCheck", false);
                 if (crashDebounce > 0) {
                     --crashDebounce;
                 }
-                if (isCollisionBoxCollided()) {
+                long collisionStartTime = MetricsSystem.startTimer();
+                boolean collided = isCollisionBoxCollided();
+                MetricsSystem.COLLISIONS.record(collisionStartTime);
+                if (collided) {
                     world.beginProfiling("CollisionHandling", false);
                     if (towedByConnection != null) {
                         Point3D initalMotion = motion.copy();
@@ -1137,7 +1148,11 @@ abstract class AEntityVehicleD_Moving extends AEntityVehicleC_Colliding {
                 }
                 serverDeltaPApplied += pathingApplied;
                 serverDeltaP += pathingApplied;
-                InterfaceManager.packetInterface.sendToAllClients(new PacketVehicleServerMovement((EntityVehicleF_Physics) this, motionApplied, rotationApplied.angles, pathingApplied));
+                if (ConfigSystem.settings.general.batchedMovementSync.value) {
+                    world.queueVehicleMovement((EntityVehicleF_Physics) this, motionApplied, rotationApplied.angles, pathingApplied);
+                } else {
+                    InterfaceManager.packetInterface.sendToAllClients(new PacketVehicleServerMovement((EntityVehicleF_Physics) this, motionApplied, rotationApplied.angles, pathingApplied));
+                }
             }
         }
     }
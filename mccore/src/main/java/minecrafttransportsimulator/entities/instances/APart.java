@@ -310,6 +310,12 @@ public abstract class APart extends AEntityF_Multipart<JSONPart> {
         }
     }
 
+    @Override
+    public void wakeFromDormancy() {
+        //Parts update with their master, so wake that.
+        masterEntity.wakeFromDormancy();
+    }
+
     @Override
     public void attack(Damage damage) {
         //Check if we can be removed by this attack.
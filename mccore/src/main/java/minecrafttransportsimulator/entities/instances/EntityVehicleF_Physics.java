@@ -90,6 +90,22 @@ public class EntityVehicleF_Physics extends AEntityVehicleE_Powered {
     private final Point3D hitchCurrentOffset = new Point3D();
     private final Set<AEntityG_Towable<?>> towedEntitiesCheckedForWeights = new HashSet<>();
 
+    //Dormancy.
+    /**Ticks we need to be at rest with no variable changes before going dormant.**/
+    private static final int DORMANT_DELAY_TICKS = 40;
+    /**How often dormant vehicles do a full update to check if anything changed.**/
+    private static final int DORMANT_HEARTBEAT_TICKS = 20;
+    /**Most we can move in a tick, in blocks, and still be considered at rest.  Covers settling jitter from ground devices.**/
+    private static final double DORMANT_MAX_MOVEMENT = 0.001;
+    /**Most we can rotate in a tick, in degrees, and still be considered at rest.**/
+    private static final double DORMANT_MAX_ROTATION = 0.01;
+    private final int dormantHeartbeatOffset;
+    private int restingTicks;
+    private int restingStateHash;
+    private volatile boolean dormant;
+    private long skipCheckTime = -1;
+    private boolean skippingTick;
+
     //Physics properties
     public final ComputedVariable dragCoefficientVar;
     public final ComputedVariable ballastControlVar;
@@ -161,6 +177,9 @@ public class EntityVehicleF_Physics extends AEntityVehicleE_Powered {
         addVariable(this.waterBallastFactorVar = new ComputedVariable(this, "waterBallastFactor"));
         addVariable(this.gravityFactorVar = new ComputedVariable(this, "gravityFactor"));
         addVariable(this.axleRatioVar = new ComputedVariable(this, "axleRatio"));
+
+        //Spread heartbeats out so dormant vehicles don't all update on the same tick.
+        this.dormantHeartbeatOffset = (uniqueUUID.hashCode() & Integer.MAX_VALUE) % DORMANT_HEARTBEAT_TICKS;
     }
 
     @Override
@@ -176,6 +195,94 @@ public class EntityVehicleF_Physics extends AEntityVehicleE_Powered {
         world.endProfiling();
     }
 
+    @Override
+    public void doPostUpdateLogic() {
+        super.doPostUpdateLogic();
+        if (!world.isClient()) {
+            updateDormancy();
+        }
+    }
+
+    @Override
+    public void wakeFromDormancy() {
+        dormant = false;
+        restingTicks = 0;
+    }
+
+    /**
+     * Returns true if this vehicle is dormant and should skip this tick.  Dormant vehicles still do a full
+     * tick every {@link #DORMANT_HEARTBEAT_TICKS}, which lets them see any changes that didn't wake them directly.
+     * Only servers put vehicles to sleep; clients always tick so their animations keep running.
+     * The result is fixed for the whole tick, so waking mid-tick doesn't run the tick with its variable defaults skipped.
+     * Ticks are counted by the {@link minecrafttransportsimulator.baseclasses.EntityManager}, not the world clock, which may be stopped.
+     */
+    public boolean isSkippingTick() {
+        long time = world.getTickCount();
+        if (time != skipCheckTime) {
+            skipCheckTime = time;
+            skippingTick = dormant && (time + dormantHeartbeatOffset) % DORMANT_HEARTBEAT_TICKS != 0;
+        }
+        return skippingTick;
+    }
+
+    /**
+     * Checks if we are at rest, and if so, if we have been for long enough to go dormant.
+     * Rest is tracked by a hash of our state, and any change to it restarts the count.
+     * This is checked on heartbeat ticks too, so a dormant vehicle whose state changed wakes up here.
+     */
+    private void updateDormancy() {
+        if (canGoDormant()) {
+            int stateHash = getRestingStateHash();
+            if (restingTicks == 0 || stateHash != restingStateHash) {
+                restingStateHash = stateHash;
+                restingTicks = 1;
+                dormant = false;
+            } else if (restingTicks < DORMANT_DELAY_TICKS) {
+                ++restingTicks;
+            } else {
+                dormant = true;
+            }
+        } else {
+            wakeFromDormancy();
+        }
+    }
+
+    /**
+     * Returns true if nothing about this vehicle would change it on its own.  No movement, no riders, no engines,
+     * nothing towing or being towed, and no parts that act on the world while we are still.
+     */
+    private boolean canGoDormant() {
+        if (!ConfigSystem.settings.general.dormantVehicles.value || ticksExisted < DORMANT_DELAY_TICKS) {
+            return false;
+        }
+        if (!position.isDistanceToCloserThan(prevPosition, DORMANT_MAX_MOVEMENT) || !orientation.angles.isDistanceToCloserThan(prevOrientation.angles, DORMANT_MAX_ROTATION)) {
+            return false;
+        }
+        if (rider != null || enginesOn || beingFueled || !playersInteracting.isEmpty() || towedByConnection != null || !towingConnections.isEmpty() || definition.general.radarRange > 0) {
+            return false;
+        }
+        for (APart part : allParts) {
+            if (part.rider != null || part instanceof PartGun || part instanceof PartEffector || !part.playersInteracting.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a hash of everything that can change on a vehicle that is otherwise at rest.  If this stays the same,
+     * nothing is changing, be it variable modifiers, cooling engines, or draining batteries.
+     */
+    private int getRestingStateHash() {
+        int hash = getVariableStateHash();
+        for (APart part : allParts) {
+            hash = 31 * hash + part.getVariableStateHash();
+        }
+        hash = 31 * hash + Double.hashCode(electricPower);
+        hash = 31 * hash + Double.hashCode(fuelTank.getFluidLevel());
+        return hash;
+    }
+
     @Override
     public boolean requiresDeltaUpdates() {
         return true;
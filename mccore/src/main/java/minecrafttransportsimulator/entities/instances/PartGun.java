@@ -815,24 +815,16 @@ public class PartGun extends APart {
                 if (startPoint != null) {
                     //First check for hard targets, since those are more dangerous.
                     if (definition.gun.targetType == TargetType.ALL || definition.gun.targetType == TargetType.HARD || definition.gun.targetType == TargetType.AIRCRAFT || definition.gun.targetType == TargetType.GROUND) {
-                        normalizedConeVector.set(searchVector).normalize();
                         EntityVehicleF_Physics vehicleTarget = null;
-                        double smallestDistance = searchVector.length();
-                        for (EntityVehicleF_Physics vehicle : world.getEntitiesOfType(EntityVehicleF_Physics.class)) {
+                        //Contacts come back closest-first, so the first one we can see is the one we want.
+                        //This also means we only raytrace for vehicles that are actually in the cone.
+                        for (EntityVehicleF_Physics vehicle : world.vehicleTargetIndex.getVehiclesInCone(startPoint, searchVector, searchVector.length(), coneAngle)) {
                             //Make sure we don't lock-on to our own vehicle.  Also, ensure if we want aircraft, or ground, we only get those.
                             if (vehicle != vehicleOn && (definition.gun.targetType != TargetType.AIRCRAFT || vehicle.definition.motorized.isAircraft) && (definition.gun.targetType != TargetType.GROUND || !vehicle.definition.motorized.isAircraft)) {
                                 targetVector.set(vehicle.position).subtract(startPoint);
                                 if (world.getBlockHit(startPoint, targetVector) == null) {
-                                    double entityDistance = vehicle.position.distanceTo(startPoint);
-                                    if (entityDistance < smallestDistance) {
-                                        //Potential match by distance, check if the entity is inside the cone.
-                                        normalizedEntityVector.set(vehicle.position).subtract(startPoint).normalize();
-                                        double targetAngle = Math.abs(Math.toDegrees(Math.acos(normalizedConeVector.dotProduct(normalizedEntityVector, false))));
-                                        if (targetAngle < coneAngle) {
-                                            smallestDistance = entityDistance;
-                                            vehicleTarget = vehicle;
-                                        }
-                                    }
+                                    vehicleTarget = vehicle;
+                                    break;
                                 }
                             }
                         }
@@ -35,6 +35,13 @@ public class JSONConfigClient {
         public JSONConfigEntry<Boolean> brightLights = new JSONConfigEntry<>(true, "If false, lights from vehicles and blocks will not make themselves bright and instead will render as if they were part of the model at that same brightness.  Useful if you have shaders and this is causing troubles.");
         public JSONConfigEntry<Boolean> blendedLights = new JSONConfigEntry<>(true, "If false, beam-based lights from vehicles and blocks will not do brightness blending.  This is different from the general brightness setting as this will do OpenGL blending on the world to make it brighter, not just the beams themselves.");
 
+        public JSONConfigEntry<Boolean> preloadModels = new JSONConfigEntry<>(true, "If true, models for all pack items will be loaded in the background after startup rather than when they are first seen.  Models that aren't loaded yet show as a box until they are.  Set to false to save memory if you have lots of packs.");
+
+        public JSONConfigEntry<Boolean> frustumCulling = new JSONConfigEntry<>(true, "If true, vehicles and other MTS things that are outside your view will not be rendered.  Set to false if things are popping in and out at the edges of your screen, which may happen with some camera mods.");
+        public JSONConfigEntry<Integer> renderDistance = new JSONConfigEntry<>(256, "Max distance, in blocks, from the camera that vehicles and other MTS things will be rendered at.  Set to 0 to render them at any distance.  Lower this if you have FPS drops in busy areas.");
+
+        public JSONConfigEntry<Integer> maxParticles = new JSONConfigEntry<>(4096, "Max number of particles that can exist at once.  Particles spawned past this limit will be skipped until older ones die off.  Lower this if you have FPS drops with lots of guns or smoke.");
+
         public JSONConfigEntry<Boolean> playerTweaks = new JSONConfigEntry<>(true, "If true, player hands will be modified when holding guns, and hands and legs will be modified when riding in vehicles.  Set this to false (and restart the game) if mods cause issues, like two-hand rendering or player model issues.  Automatically set to false if some mods are detected.");
 
         public JSONConfigEntry<Integer> renderingMode = new JSONConfigEntry<>(0, "Internal rendering mode value, don't touch!");
@@ -42,6 +42,14 @@ public class JSONConfigSettings {
         public JSONConfigEntry<Boolean> performModCompatFunctions = new JSONConfigEntry<>(true, "If true, mod compatibility functions will be executed.  Should be true unless you're configuring a modpack and know and have addressed the various incompatibilities.");
         public JSONConfigEntry<Boolean> forceRenderLastSolid = new JSONConfigEntry<>(false, "If enabled, MTS will do rendering on the world-last Forge event.  This is not normally something you want, but can be used if some mods make things invisible.  Replaymod being one such example.");
         public JSONConfigEntry<Boolean> devMode = new JSONConfigEntry<>(false, "If enabled, MTS will allow access to the dev mode GUI while sitting in vehicles.  The GUI allows editing JSONs in-game without the need to restart.");
+        public JSONConfigEntry<Boolean> parallelEntityTicking = new JSONConfigEntry<>(false, "If true, the server will tick groups of vehicles and placed parts that can't interact with each other on multiple threads.  Vehicles that are touching or towing each other are always ticked together in their normal order.  World changes are applied after all groups finish.  This is experimental: turn it off if you see any odd behavior.");
+        public JSONConfigEntry<Integer> parallelEntityTickThreads = new JSONConfigEntry<>(0, "How many threads to use when parallelEntityTicking is true.  0 will use one less than the number of CPU cores.");
+        public JSONConfigEntry<Boolean> dormantVehicles = new JSONConfigEntry<>(true, "If true, vehicles that have been sitting still with no riders, no running engines, and no changing variables for a few seconds will go dormant.  Dormant vehicles only update once a second, and wake up right away when interacted with, hit, towed, or when a block near them changes.  This saves a lot of server time on worlds with many parked vehicles.");
+        public JSONConfigEntry<Boolean> tickMetrics = new JSONConfigEntry<>(false, "If true, MTS will time how long each vehicle and part definition, subsystem, and packet type takes, and keep the results for the last 10 seconds.  These can be viewed with the /mtsmetrics command.  This has a small cost, so leave it off unless you are looking for what is slowing your server down.");
+        public JSONConfigEntry<Integer> tickMetricsDumpInterval = new JSONConfigEntry<>(0, "When tickMetrics is true, how often, in minutes, to write the metrics to CSV and JSON files in the mts_metrics folder.  0 disables writing files.");
+        public JSONConfigEntry<Boolean> batchedMovementSync = new JSONConfigEntry<>(false, "If true, vehicle movement is only sent to players that are tracking the vehicle, and all movement for a player is packed into one packet per tick.  Far-away vehicles send movement less often, as set by the two options below.");
+        public JSONConfigEntry<Integer> movementSyncFalloffDistance = new JSONConfigEntry<>(64, "When batchedMovementSync is true, the distance, in blocks, between send-rate steps.  Vehicles closer than this send movement every tick, vehicles up to twice this every other tick, and so on.");
+        public JSONConfigEntry<Integer> movementSyncMaxInterval = new JSONConfigEntry<>(10, "When batchedMovementSync is true, the most ticks a player will go without getting movement for a vehicle that has moved.");
         public JSONConfigEntry<Integer> roadMaxLength = new JSONConfigEntry<>(32, "How long a single segment of road can be, in blocks.  While you can have longer segements, be aware they have more collision boxes and will generate more lag when broken or interacted with, and may not render if outside the chunk they are in.  Must be a whole number.");
         public JSONConfigEntry<Double> aircraftSpeedFactor = new JSONConfigEntry<>(0.35D, "Factor to apply to aircraft movement.  1 is the realistic value, but this makes vehicles move too fast for Minecraft. Adjust with caution.");
         public JSONConfigEntry<Double> carSpeedFactor = new JSONConfigEntry<>(0.35D, "Factor to apply to car movement.  1 is the realistic value, but this makes vehicles move too fast for Minecraft. Adjust with caution.");
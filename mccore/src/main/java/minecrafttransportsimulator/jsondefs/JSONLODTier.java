@@ -0,0 +1,22 @@
+package minecrafttransportsimulator.jsondefs;
+
+import minecrafttransportsimulator.packloading.JSONParser.JSONDescription;
+import minecrafttransportsimulator.packloading.JSONParser.JSONRequired;
+
+public class JSONLODTier {
+    @JSONRequired
+    @JSONDescription("The distance from the camera, in blocks, at which this tier starts being used.  The tier with the highest distance that the entity is past is the one used, so tiers do not need to be in any order.")
+    public double distance;
+
+    @JSONDescription("Model objects whose largest dimension is smaller than this, in model units, will not be rendered.  Useful for hiding bolts, switches, and other fine details nobody can see from far away.  Treads and lights are never hidden by this; use disableLights for the latter.")
+    public double minObjectSize;
+
+    @JSONDescription("If true, lights will not render their glow, flares, or beams.  The light objects themselves will still render as normal model objects.")
+    public boolean disableLights;
+
+    @JSONDescription("If true, text objects will not be rendered.")
+    public boolean disableText;
+
+    @JSONDescription("If true, instruments will not be rendered.")
+    public boolean disableInstruments;
+}
@@ -30,6 +30,9 @@ public class JSONRendering {
     @JSONDescription("Particles are the little things spawned into the game to add a bit of flair to your model.  Think exhausts and burnout smoke, but also dirt from tires and water from outboard motors.")
     public List<JSONParticle> particles;
 
+    @JSONDescription("Level-of-detail tiers.  These let you skip rendering small model objects, lights, text, and instruments when the camera is far from this entity.  Each tier starts at its own distance, so you can hide more and more detail the further away the camera gets.  If the camera isn't past any tier's distance, everything is rendered.")
+    public List<JSONLODTier> lodTiers;
+
     @JSONRequired
     @JSONDescription("The type of model that this entity will render from.")
     public ModelType modelType;
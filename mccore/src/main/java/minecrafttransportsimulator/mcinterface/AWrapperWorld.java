@@ -10,6 +10,7 @@ import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.ColorRGB;
 import minecrafttransportsimulator.baseclasses.Damage;
 import minecrafttransportsimulator.baseclasses.EntityManager;
+import minecrafttransportsimulator.baseclasses.EntityTickScheduler;
 import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.blocks.components.ABlockBase;
 import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
@@ -33,6 +34,8 @@ import minecrafttransportsimulator.jsondefs.AJSONMultiModelProvider;
  * @author don_bruce
  */
 public abstract class AWrapperWorld extends EntityManager {
+    /**Distance, in blocks, used by {@link #getPlayersTracking(Point3D)} if the interface doesn't override it.  This is 10 chunks, the default view distance.**/
+    private static final double DEFAULT_TRACKING_DISTANCE = 160;
 
     /**
      * Returns true if this is a client world, false if we're on the server.
@@ -73,6 +76,26 @@ public abstract class AWrapperWorld extends EntityManager {
      */
     public abstract void endProfiling();
 
+    /**
+     * Returns true if this world can have its entities ticked in parallel by the {@link EntityTickScheduler}.
+     * Worlds that return true here must route their mutating methods, and packet sends, through
+     * {@link EntityTickScheduler#deferIfParallel(Runnable)}, and must not touch the profiler from
+     * island threads.  Defaults to false, which always uses the serial tick.
+     */
+    public boolean supportsParallelTicking() {
+        return false;
+    }
+
+    /**
+     * Runs a single pending task that is waiting on the world thread, if one exists, and returns true.
+     * This is called by the world thread while it is waiting on parallel entity ticks, so
+     * any island thread that needs the world thread to do something for it doesn't deadlock.
+     * Returns false if no tasks were pending.
+     */
+    public boolean runPendingWorldTask() {
+        return false;
+    }
+
     /**
      * Returns the requested saved data for this world.  As servers save data, while clients don't,
      * this method will only ensure valid return values on the server.  On clients, there will
@@ -118,6 +141,16 @@ public abstract class AWrapperWorld extends EntityManager {
      */
     public abstract List<IWrapperPlayer> getPlayersWithin(BoundingBox box);
 
+    /**
+     * Returns a list of all players whose clients are tracking the passed-in position.
+     * Only these players need to know about changes to entities at this position.
+     * The default implementation just returns all players within a view-distance-sized box,
+     * interfaces should override this if they know the actual chunks players are tracking.
+     */
+    public List<IWrapperPlayer> getPlayersTracking(Point3D position) {
+        return getPlayersWithin(new BoundingBox(position, DEFAULT_TRACKING_DISTANCE, getMaxHeight(), DEFAULT_TRACKING_DISTANCE));
+    }
+
     /**
      * Returns a list of all hostile entities in the specified radius.
      */
@@ -43,6 +43,12 @@ public interface IInterfaceSound {
      */
     int createBuffer(ByteBuffer buffer, IStreamDecoder decoder);
 
+    /**
+     * Like {@link #createBuffer(ByteBuffer, IStreamDecoder)}, but re-uses an existing buffer rather than creating a new one.
+     * The buffer must not be bound to any sounds.
+     */
+    void refillBuffer(int bufferIndex, ByteBuffer buffer, IStreamDecoder decoder);
+
     /**
      * Deletes a buffer of station data.  Used when all radios are done playing the buffer,
      * or if the station switches buffers out.
@@ -117,6 +117,12 @@ public interface IWrapperNBT {
 
     void deleteEntry(String name);
 
+    /**
+     * Copies all entries in the passed-in data into this data, replacing any entries with the same name.
+     * Entries are copied, so later changes to the passed-in data won't affect this data.
+     **/
+    void setAllEntries(IWrapperNBT source);
+
     /**
      * Returns all key-tag names in this tag.
      **/
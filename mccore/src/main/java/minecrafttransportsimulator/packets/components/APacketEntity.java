@@ -36,6 +36,10 @@ public abstract class APacketEntity<EntityType extends AEntityA_Base> extends AP
     @Override
     public void handle(AWrapperWorld world) {
         EntityType entity = world.getEntity(uniqueUUID);
+        if (entity != null && !world.isClient()) {
+            //Anything a client sends about an entity may change it, so make sure it's ticking to see that.
+            entity.wakeFromDormancy();
+        }
         if (entity != null && handle(world, entity) && !world.isClient()) {
             InterfaceManager.packetInterface.sendToAllClients(this);
             if (entity instanceof ATileEntityBase) {
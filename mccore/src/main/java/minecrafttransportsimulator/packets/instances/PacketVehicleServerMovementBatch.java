@@ -0,0 +1,105 @@
+package minecrafttransportsimulator.packets.instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.entities.components.AEntityA_Base;
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.mcinterface.AWrapperWorld;
+import minecrafttransportsimulator.packets.components.APacketBase;
+
+/**
+ * Batched version of {@link PacketVehicleServerMovement}.  This packet contains the movement
+ * of all vehicles a single player is tracking for a tick, rather than one packet per vehicle sent
+ * to all players.  Movement is sent as fixed-point deltas, with a flag byte marking which values
+ * are non-zero, so vehicles moving in a straight line only cost a few bytes on top of their UUID.
+ * Deltas are added to the vehicle just like the non-batched packet.
+ *
+ * @author don_bruce
+ */
+public class PacketVehicleServerMovementBatch extends APacketBase {
+    /**Number of fixed-point steps per block, degree, or pathing unit.**/
+    public static final double FIXED_POINT_SCALE = 4096D;
+    /**Max number of vehicles per packet.  Senders should start a new packet once this is hit.**/
+    public static final int MAX_VEHICLES = 1024;
+    /**Number of values in each delta: motion XYZ, rotation XYZ, then pathing.**/
+    public static final int DELTA_LENGTH = 7;
+
+    private final List<UUID> vehicleIDs = new ArrayList<>();
+    private final List<int[]> deltas = new ArrayList<>();
+
+    public PacketVehicleServerMovementBatch() {
+        super(null);
+    }
+
+    public PacketVehicleServerMovementBatch(ByteBuf buf) {
+        super(buf);
+        int count = buf.readShort();
+        for (int i = 0; i < count; ++i) {
+            vehicleIDs.add(readUUIDFromBuffer(buf));
+            int[] delta = new int[DELTA_LENGTH];
+            byte flags = buf.readByte();
+            for (int j = 0; j < DELTA_LENGTH; ++j) {
+                if ((flags & (1 << j)) != 0) {
+                    delta[j] = buf.readInt();
+                }
+            }
+            deltas.add(delta);
+        }
+    }
+
+    @Override
+    public void writeToBuffer(ByteBuf buf) {
+        super.writeToBuffer(buf);
+        buf.writeShort(vehicleIDs.size());
+        for (int i = 0; i < vehicleIDs.size(); ++i) {
+            writeUUIDToBuffer(vehicleIDs.get(i), buf);
+            int[] delta = deltas.get(i);
+            byte flags = 0;
+            for (int j = 0; j < DELTA_LENGTH; ++j) {
+                if (delta[j] != 0) {
+                    flags |= 1 << j;
+                }
+            }
+            buf.writeByte(flags);
+            for (int j = 0; j < DELTA_LENGTH; ++j) {
+                if (delta[j] != 0) {
+                    buf.writeInt(delta[j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the fixed-point delta for the passed-in vehicle to this packet.
+     */
+    public void addVehicle(EntityVehicleF_Physics vehicle, int[] delta) {
+        vehicleIDs.add(vehicle.uniqueUUID);
+        deltas.add(delta);
+    }
+
+    /**
+     * Returns the number of vehicles in this packet.
+     */
+    public int getVehicleCount() {
+        return vehicleIDs.size();
+    }
+
+    @Override
+    public void handle(AWrapperWorld world) {
+        Point3D motion = new Point3D();
+        Point3D rotation = new Point3D();
+        for (int i = 0; i < vehicleIDs.size(); ++i) {
+            AEntityA_Base entity = world.getEntity(vehicleIDs.get(i));
+            if (entity instanceof EntityVehicleF_Physics) {
+                int[] delta = deltas.get(i);
+                motion.set(delta[0] / FIXED_POINT_SCALE, delta[1] / FIXED_POINT_SCALE, delta[2] / FIXED_POINT_SCALE);
+                rotation.set(delta[3] / FIXED_POINT_SCALE, delta[4] / FIXED_POINT_SCALE, delta[5] / FIXED_POINT_SCALE);
+                ((EntityVehicleF_Physics) entity).addToServerDeltas(motion, rotation, delta[6] / FIXED_POINT_SCALE);
+            }
+        }
+    }
+}
@@ -1,24 +1,41 @@
 package minecrafttransportsimulator.packets.instances;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.mcinterface.AWrapperWorld;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import minecrafttransportsimulator.packets.components.APacketBase;
 
 /**
  * Packet used to update save data on clients from the server.
- * The string passed in will be the block to update.
+ * The string passed in will be the block to update.  This either contains
+ * the whole block, or only the entries in that block that changed and
+ * the entries that were removed.  The latter is used for changes after
+ * the initial sync so we don't send the whole block for a single change.
  *
  * @author don_bruce
  */
 public class PacketWorldSavedDataUpdate extends APacketBase {
     private final String name;
     private final IWrapperNBT data;
+    private final List<String> removedEntries;
 
     public PacketWorldSavedDataUpdate(String name, IWrapperNBT data) {
         super(null);
         this.name = name;
         this.data = data;
+        this.removedEntries = null;
+    }
+
+    public PacketWorldSavedDataUpdate(String name, IWrapperNBT changedEntries, Collection<String> removedEntries) {
+        super(null);
+        this.name = name;
+        this.data = changedEntries;
+        this.removedEntries = new ArrayList<>(removedEntries);
     }
 
     public PacketWorldSavedDataUpdate(ByteBuf buf) {
@@ -29,6 +46,15 @@ public class PacketWorldSavedDataUpdate extends APacketBase {
         } else {
             this.data = null;
         }
+        if (buf.readBoolean()) {
+            int removedCount = buf.readInt();
+            this.removedEntries = new ArrayList<>(removedCount);
+            for (int i = 0; i < removedCount; ++i) {
+                removedEntries.add(readStringFromBuffer(buf));
+            }
+        } else {
+            this.removedEntries = null;
+        }
     }
 
     @Override
@@ -41,11 +67,33 @@ public class PacketWorldSavedDataUpdate extends APacketBase {
         } else {
             buf.writeBoolean(false);
         }
+        if (removedEntries != null) {
+            buf.writeBoolean(true);
+            buf.writeInt(removedEntries.size());
+            for (String removedEntry : removedEntries) {
+                writeStringToBuffer(removedEntry, buf);
+            }
+        } else {
+            buf.writeBoolean(false);
+        }
     }
 
     @Override
     public void handle(AWrapperWorld world) {
-        world.setData(name, data);
+        if (removedEntries != null) {
+            //Only changes, apply them to our copy.
+            IWrapperNBT existingData = world.getData(name);
+            if (existingData == null) {
+                existingData = InterfaceManager.coreInterface.getNewNBTWrapper();
+            }
+            existingData.setAllEntries(data);
+            for (String removedEntry : removedEntries) {
+                existingData.deleteEntry(removedEntry);
+            }
+            world.setData(name, existingData);
+        } else {
+            world.setData(name, data);
+        }
     }
 
     @Override
@@ -0,0 +1,267 @@
+package minecrafttransportsimulator.packloading;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import minecrafttransportsimulator.jsondefs.AJSONBase;
+import minecrafttransportsimulator.jsondefs.JSONPack;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packloading.PackResourceLoader.ItemClassification;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**
+ * Disk cache of pack definitions.  Definitions are stored after legacy compats and validation have
+ * been applied, so packs loaded from the cache don't need to have their jars scanned, or their
+ * definitions re-checked.  Each pack is keyed by its jar's size, modified time, and SHA-256 hash, plus
+ * the sub-folders that were loaded for it, as those depend on what other packs and mods are present.
+ * The whole cache is dropped if the format version, the core mod jar, the layout of any definition class,
+ * or any config that changes how definitions are loaded changes, since those change what the compats
+ * and validation do, and how definitions are stored.
+ * <br><br>
+ * The file itself is a GZIP'd binary stream.  Definitions are stored field-by-field with the
+ * {@link PackDefinitionSerializer}, so loading them doesn't need any JSON parsing.
+ *
+ * @author don_bruce
+ */
+public class PackDefinitionCache {
+    private static final int FORMAT_VERSION = 2;
+
+    private final File cacheFile;
+    private final String coreStamp;
+    private final boolean enabled;
+    private final Map<String, CachedPack> loadedPacks = new HashMap<>();
+    private final Map<String, CachedPack> savedPacks = new LinkedHashMap<>();
+    private final Map<File, byte[]> jarHashes = new HashMap<>();
+
+    public PackDefinitionCache(File cacheFile) {
+        this.cacheFile = cacheFile;
+        this.coreStamp = getCoreStamp() + getConfigStamp() + "|schema:" + PackDefinitionSerializer.getSchemaStamp();
+        this.enabled = PackDefinitionSerializer.getUnsupportedReason() == null;
+        if (!enabled) {
+            InterfaceManager.coreInterface.logError("Pack definitions can't be cached, packs will be re-parsed.  " + PackDefinitionSerializer.getUnsupportedReason());
+        } else if (cacheFile.exists()) {
+            try (DataInputStream stream = new DataInputStream(new BufferedInputStream(new GZIPInputStream(new FileInputStream(cacheFile))))) {
+                if (stream.readInt() == FORMAT_VERSION && stream.readUTF().equals(coreStamp)) {
+                    int packCount = stream.readInt();
+                    for (int i = 0; i < packCount; ++i) {
+                        CachedPack pack = new CachedPack(stream);
+                        loadedPacks.put(pack.packID, pack);
+                    }
+                }
+            } catch (Exception e) {
+                //Bad cache file, just re-parse everything.
+                InterfaceManager.coreInterface.logError("Could not read pack definition cache, packs will be re-parsed.  " + e.getMessage());
+                loadedPacks.clear();
+            }
+        }
+    }
+
+    /**
+     * Returns the cached definitions for the passed-in pack, or null if the pack isn't cached or has changed.
+     * If definitions are returned, they are added to the cache that will be saved by {@link #save()}.
+     */
+    public List<CachedDefinition> getDefinitions(JSONPack packDef, File packJar, List<String> validSubDirectories) {
+        //Loaded packs are always empty if we're disabled, so we don't need to check for it here.
+        CachedPack pack = loadedPacks.get(packDef.packID);
+        if (pack != null && pack.jarSize == packJar.length() && pack.jarModified == packJar.lastModified() && pack.subDirectories.equals(String.join("/", validSubDirectories))) {
+            byte[] hash = getJarHash(packJar);
+            if (hash != null && Arrays.equals(hash, pack.jarHash)) {
+                savedPacks.put(pack.packID, pack);
+                return pack.definitions;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the passed-in definitions to the cache for the passed-in pack, replacing any prior definitions.
+     */
+    public void putDefinitions(JSONPack packDef, File packJar, List<String> validSubDirectories, List<CachedDefinition> definitions) {
+        if (!enabled) {
+            return;
+        }
+        byte[] hash = getJarHash(packJar);
+        if (hash != null) {
+            CachedPack pack = new CachedPack(packDef.packID, packJar.length(), packJar.lastModified(), hash, String.join("/", validSubDirectories));
+            pack.definitions.addAll(definitions);
+            savedPacks.put(pack.packID, pack);
+        }
+    }
+
+    /**
+     * Saves all packs that were either loaded from, or added to, the cache.
+     * Packs that weren't present this launch are dropped.
+     */
+    public void save() {
+        if (!enabled) {
+            return;
+        }
+        try (DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(new FileOutputStream(cacheFile))))) {
+            stream.writeInt(FORMAT_VERSION);
+            stream.writeUTF(coreStamp);
+            stream.writeInt(savedPacks.size());
+            for (CachedPack pack : savedPacks.values()) {
+                pack.write(stream);
+            }
+        } catch (Exception e) {
+            InterfaceManager.coreInterface.logError("Could not save pack definition cache.  " + e.getMessage());
+        }
+    }
+
+    private byte[] getJarHash(File packJar) {
+        return jarHashes.computeIfAbsent(packJar, k -> {
+            try (InputStream stream = new FileInputStream(packJar)) {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                byte[] buffer = new byte[65536];
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    digest.update(buffer, 0, read);
+                }
+                return digest.digest();
+            } catch (Exception e) {
+                InterfaceManager.coreInterface.logError("Could not hash pack file: " + packJar.getName() + ".  " + e.getMessage());
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Returns a string that changes whenever the core mod jar changes.  If we're not in a jar,
+     * such as in a dev environment, this returns an empty string.
+     */
+    private static String getCoreStamp() {
+        try {
+            File coreJar = new File(PackDefinitionCache.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+            if (coreJar.isFile()) {
+                return coreJar.getName() + ":" + coreJar.length() + ":" + coreJar.lastModified();
+            }
+        } catch (Exception e) {
+            //Not a file we can check, skip it.
+        }
+        return "";
+    }
+
+    /**
+     * Returns a string that changes whenever a config that changes the cached definitions changes.
+     * Legacy light compats change what lights definitions have, and HSV changes how colors are exported.
+     */
+    private static String getConfigStamp() {
+        if (ConfigSystem.settings == null) {
+            return "";
+        }
+        return "|legacyLights:" + ConfigSystem.settings.general.doLegacyLightCompats.value + "|hsv:" + ConfigSystem.settings.general.useHSV.value;
+    }
+
+    private static class CachedPack {
+        private final String packID;
+        private final long jarSize;
+        private final long jarModified;
+        private final byte[] jarHash;
+        private final String subDirectories;
+        private final List<CachedDefinition> definitions = new ArrayList<>();
+
+        private CachedPack(String packID, long jarSize, long jarModified, byte[] jarHash, String subDirectories) {
+            this.packID = packID;
+            this.jarSize = jarSize;
+            this.jarModified = jarModified;
+            this.jarHash = jarHash;
+            this.subDirectories = subDirectories;
+        }
+
+        private CachedPack(DataInputStream stream) throws Exception {
+            this.packID = stream.readUTF();
+            this.jarSize = stream.readLong();
+            this.jarModified = stream.readLong();
+            this.jarHash = new byte[stream.readUnsignedByte()];
+            stream.readFully(jarHash);
+            this.subDirectories = stream.readUTF();
+            int definitionCount = stream.readInt();
+            for (int i = 0; i < definitionCount; ++i) {
+                ItemClassification classification = ItemClassification.values()[stream.readUnsignedByte()];
+                String systemName = stream.readUTF();
+                String prefixFolders = stream.readUTF();
+                byte[] data = new byte[stream.readInt()];
+                stream.readFully(data);
+                definitions.add(new CachedDefinition(classification, systemName, prefixFolders, data));
+            }
+        }
+
+        private void write(DataOutputStream stream) throws Exception {
+            stream.writeUTF(packID);
+            stream.writeLong(jarSize);
+            stream.writeLong(jarModified);
+            stream.writeByte(jarHash.length);
+            stream.write(jarHash);
+            stream.writeUTF(subDirectories);
+            stream.writeInt(definitions.size());
+            for (CachedDefinition definition : definitions) {
+                stream.writeByte(definition.classification.ordinal());
+                stream.writeUTF(definition.systemName);
+                stream.writeUTF(definition.prefixFolders);
+                stream.writeInt(definition.data.length);
+                stream.write(definition.data);
+            }
+        }
+    }
+
+    /**
+     * A single cached definition.  Call {@link #create(String)} to get a new definition instance from it.
+     */
+    public static class CachedDefinition {
+        private final ItemClassification classification;
+        private final String systemName;
+        private final String prefixFolders;
+        private final byte[] data;
+
+        /**
+         * Creates a cached copy of the passed-in definition.  The definition must have had its
+         * compats and validation done, but must not yet have been registered, as registration
+         * may modify it.
+         */
+        public CachedDefinition(AJSONBase definition) throws IOException {
+            this.classification = definition.classification;
+            this.systemName = definition.systemName;
+            this.prefixFolders = definition.prefixFolders;
+            ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
+            PackDefinitionSerializer.writeDefinition(new DataOutputStream(dataStream), definition, classification);
+            this.data = dataStream.toByteArray();
+        }
+
+        private CachedDefinition(ItemClassification classification, String systemName, String prefixFolders, byte[] data) {
+            this.classification = classification;
+            this.systemName = systemName;
+            this.prefixFolders = prefixFolders;
+            this.data = data;
+        }
+
+        /**
+         * Creates a new definition from this cached definition.  This may be called from any thread.
+         */
+        public AJSONBase create(String packID) throws IOException {
+            AJSONBase definition = PackDefinitionSerializer.readDefinition(new DataInputStream(new ByteArrayInputStream(data)), classification);
+            definition.packID = packID;
+            definition.systemName = systemName;
+            definition.classification = classification;
+            definition.prefixFolders = prefixFolders;
+            return definition;
+        }
+    }
+}
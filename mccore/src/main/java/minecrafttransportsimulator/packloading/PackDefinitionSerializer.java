@@ -0,0 +1,618 @@
+package minecrafttransportsimulator.packloading;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.baseclasses.RotationMatrix;
+import minecrafttransportsimulator.jsondefs.AJSONBase;
+import minecrafttransportsimulator.packloading.PackResourceLoader.ItemClassification;
+
+/**
+ * Binary serializer for pack definitions, used by the {@link PackDefinitionCache}.  This writes
+ * definitions field-by-field, so loading them back is just a matter of reading values and setting
+ * fields, with no JSON text or GSON involved.  Fields are picked the same way GSON picks them: all
+ * non-static, non-transient fields, including those of super-classes.  Collections and maps are read
+ * back into the same types GSON would make for them, and {@link Point3D} and {@link RotationMatrix}
+ * are stored the same way as the JSON adapters store them.
+ * <br><br>
+ * Values are stored in the order of the class layouts, with enums by their ordinal, so the data is only
+ * valid for the exact classes that wrote it.  {@link #getSchemaStamp()} returns a hash of all the layouts
+ * which the cache uses to drop itself if any definition class changes.
+ * <br><br>
+ * All serializers are made up-front when this class is loaded, so they may be used from any thread.
+ *
+ * @author don_bruce
+ */
+class PackDefinitionSerializer {
+    private static final Map<Type, ValueSerializer> serializers = new HashMap<>();
+    private static final StringBuilder schema = new StringBuilder();
+    private static final String schemaStamp;
+    private static final String unsupportedReason;
+
+    static {
+        String reason = null;
+        try {
+            for (ItemClassification classification : ItemClassification.values()) {
+                getSerializer(classification.representingClass);
+            }
+        } catch (IllegalStateException e) {
+            reason = e.getMessage();
+            serializers.clear();
+        }
+        unsupportedReason = reason;
+        schemaStamp = hashSchema();
+    }
+
+    /**
+     * Returns a string that changes whenever the layout of any definition class changes.
+     */
+    static String getSchemaStamp() {
+        return schemaStamp;
+    }
+
+    /**
+     * Returns why definitions can't be serialized, or null if they can.  This only happens
+     * if a definition class has a field of a type this serializer doesn't know about.
+     */
+    static String getUnsupportedReason() {
+        return unsupportedReason;
+    }
+
+    /**
+     * Writes the passed-in definition to the stream.
+     */
+    static void writeDefinition(DataOutputStream stream, AJSONBase definition, ItemClassification classification) throws IOException {
+        serializers.get(classification.representingClass).write(stream, definition);
+    }
+
+    /**
+     * Reads a new definition from the stream.  The definition's pack, name, and location are not stored, so
+     * they will need to be set by the caller.
+     */
+    static AJSONBase readDefinition(DataInputStream stream, ItemClassification classification) throws IOException {
+        return (AJSONBase) serializers.get(classification.representingClass).read(stream);
+    }
+
+    private static String hashSchema() {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(schema.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hexString = new StringBuilder();
+            for (int i = 0; i < 8; ++i) {
+                hexString.append(String.format("%02x", hash[i]));
+            }
+            return hexString.toString();
+        } catch (Exception e) {
+            //Every JVM has SHA-256, so we should never get here.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the serializer for the passed-in type, making it if required.  Object serializers are
+     * put in the map before their fields are set up, so classes that contain themselves work.
+     */
+    private static ValueSerializer getSerializer(Type type) {
+        ValueSerializer serializer = serializers.get(type);
+        if (serializer == null) {
+            if (type instanceof ParameterizedType) {
+                serializer = getGenericSerializer((ParameterizedType) type);
+            } else if (type instanceof GenericArrayType) {
+                Type componentType = ((GenericArrayType) type).getGenericComponentType();
+                serializer = new ArraySerializer(getRawClass(componentType), getSerializer(componentType));
+            } else if (type instanceof Class) {
+                Class<?> rawClass = (Class<?>) type;
+                if (rawClass.isArray()) {
+                    serializer = new ArraySerializer(rawClass.getComponentType(), getSerializer(rawClass.getComponentType()));
+                } else if (rawClass.isEnum()) {
+                    serializer = new EnumSerializer(rawClass);
+                    schema.append(rawClass.getName()).append(Arrays.toString(rawClass.getEnumConstants())).append(';');
+                } else {
+                    serializer = getClassSerializer(rawClass);
+                }
+            } else {
+                throw new IllegalStateException("Can't serialize type: " + type);
+            }
+            serializers.put(type, serializer);
+        }
+        return serializer;
+    }
+
+    private static ValueSerializer getGenericSerializer(ParameterizedType type) {
+        Class<?> rawClass = getRawClass(type);
+        Type[] typeArguments = type.getActualTypeArguments();
+        if (Collection.class.isAssignableFrom(rawClass)) {
+            Supplier<Collection<Object>> creator;
+            if (rawClass.isAssignableFrom(ArrayList.class)) {
+                creator = ArrayList::new;
+            } else if (rawClass.isAssignableFrom(LinkedHashSet.class)) {
+                creator = LinkedHashSet::new;
+            } else {
+                creator = getCreator(rawClass);
+            }
+            return new CollectionSerializer(creator, getSerializer(typeArguments[0]));
+        } else if (Map.class.isAssignableFrom(rawClass)) {
+            Supplier<Map<Object, Object>> creator;
+            if (rawClass.isAssignableFrom(LinkedHashMap.class)) {
+                creator = LinkedHashMap::new;
+            } else {
+                creator = getCreator(rawClass);
+            }
+            return new MapSerializer(creator, getSerializer(typeArguments[0]), getSerializer(typeArguments[1]));
+        } else {
+            throw new IllegalStateException("Can't serialize generic type: " + type);
+        }
+    }
+
+    private static ValueSerializer getClassSerializer(Class<?> rawClass) {
+        if (rawClass == boolean.class || rawClass == Boolean.class) {
+            return new BooleanSerializer();
+        } else if (rawClass == byte.class || rawClass == Byte.class) {
+            return new ByteSerializer();
+        } else if (rawClass == int.class || rawClass == Integer.class) {
+            return new IntegerSerializer();
+        } else if (rawClass == long.class || rawClass == Long.class) {
+            return new LongSerializer();
+        } else if (rawClass == float.class || rawClass == Float.class) {
+            return new FloatSerializer();
+        } else if (rawClass == double.class || rawClass == Double.class) {
+            return new DoubleSerializer();
+        } else if (rawClass == String.class) {
+            return new StringSerializer();
+        } else if (rawClass == Point3D.class) {
+            return new Point3DSerializer();
+        } else if (rawClass == RotationMatrix.class) {
+            return new RotationMatrixSerializer();
+        } else if (rawClass.isPrimitive() || rawClass.isInterface() || Modifier.isAbstract(rawClass.getModifiers()) || !rawClass.getName().startsWith("minecrafttransportsimulator.")) {
+            throw new IllegalStateException("Can't serialize class: " + rawClass.getName());
+        } else {
+            ObjectSerializer serializer = new ObjectSerializer(getCreator(rawClass));
+            serializers.put(rawClass, serializer);
+
+            //Get fields from the top-most class down, sorted by name in each class so the order doesn't depend on the JVM.
+            List<Class<?>> classes = new ArrayList<>();
+            for (Class<?> fieldClass = rawClass; fieldClass != Object.class; fieldClass = fieldClass.getSuperclass()) {
+                classes.add(0, fieldClass);
+            }
+            schema.append(rawClass.getName()).append('{');
+            for (Class<?> fieldClass : classes) {
+                Field[] fields = fieldClass.getDeclaredFields();
+                Arrays.sort(fields, Comparator.comparing(Field::getName));
+                for (Field field : fields) {
+                    if (!Modifier.isStatic(field.getModifiers()) && !Modifier.isTransient(field.getModifiers()) && !field.isSynthetic()) {
+                        field.setAccessible(true);
+                        schema.append(field.getName()).append(':').append(field.getGenericType().getTypeName()).append(',');
+                        serializer.fields.add(getFieldSerializer(field));
+                    }
+                }
+            }
+            schema.append("};");
+            return serializer;
+        }
+    }
+
+    private static FieldSerializer getFieldSerializer(Field field) {
+        Class<?> fieldClass = field.getType();
+        if (fieldClass == boolean.class) {
+            return new FieldSerializer(field, null) {
+                @Override
+                void write(DataOutputStream stream, Object object) throws IOException, IllegalAccessException {
+                    stream.writeBoolean(field.getBoolean(object));
+                }
+
+                @Override
+                void read(DataInputStream stream, Object object) throws IOException, IllegalAccessException {
+                    field.setBoolean(object, stream.readBoolean());
+                }
+            };
+        } else if (fieldClass == int.class) {
+            return new FieldSerializer(field, null) {
+                @Override
+                void write(DataOutputStream stream, Object object) throws IOException, IllegalAccessException {
+                    stream.writeInt(field.getInt(object));
+                }
+
+                @Override
+                void read(DataInputStream stream, Object object) throws IOException, IllegalAccessException {
+                    field.setInt(object, stream.readInt());
+                }
+            };
+        } else if (fieldClass == float.class) {
+            return new FieldSerializer(field, null) {
+                @Override
+                void write(DataOutputStream stream, Object object) throws IOException, IllegalAccessException {
+                    stream.writeFloat(field.getFloat(object));
+                }
+
+                @Override
+                void read(DataInputStream stream, Object object) throws IOException, IllegalAccessException {
+                    field.setFloat(object, stream.readFloat());
+                }
+            };
+        } else if (fieldClass == double.class) {
+            return new FieldSerializer(field, null) {
+                @Override
+                void write(DataOutputStream stream, Object object) throws IOException, IllegalAccessException {
+                    stream.writeDouble(field.getDouble(object));
+                }
+
+                @Override
+                void read(DataInputStream stream, Object object) throws IOException, IllegalAccessException {
+                    field.setDouble(object, stream.readDouble());
+                }
+            };
+        } else {
+            //Other primitives are rare in definitions, so they just go through the boxed serializers.
+            return new FieldSerializer(field, getSerializer(field.getGenericType()));
+        }
+    }
+
+    private static Class<?> getRawClass(Type type) {
+        if (type instanceof Class) {
+            return (Class<?>) type;
+        } else if (type instanceof ParameterizedType) {
+            return (Class<?>) ((ParameterizedType) type).getRawType();
+        } else {
+            throw new IllegalStateException("Can't serialize type: " + type);
+        }
+    }
+
+    /**
+     * Returns a creator for new instances of the passed-in class.  Inner classes are made with a null outer
+     * instance, as GSON does for them, since definitions never use it.
+     */
+    @SuppressWarnings("unchecked")
+    private static <ObjectType> Supplier<ObjectType> getCreator(Class<?> rawClass) {
+        try {
+            final Constructor<?> constructor;
+            final Object[] arguments;
+            if (rawClass.isMemberClass() && !Modifier.isStatic(rawClass.getModifiers())) {
+                constructor = rawClass.getDeclaredConstructor(rawClass.getEnclosingClass());
+                arguments = new Object[]{null};
+            } else {
+                constructor = rawClass.getDeclaredConstructor();
+                arguments = new Object[0];
+            }
+            constructor.setAccessible(true);
+            return () -> {
+                try {
+                    return (ObjectType) constructor.newInstance(arguments);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Could not create: " + rawClass.getName(), e);
+                }
+            };
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Can't serialize class without a no-argument constructor: " + rawClass.getName());
+        }
+    }
+
+    /**
+     * Writes and reads a single value type.  Values that can be null have a leading flag
+     * for if they are present, as do primitives since they share serializers with their boxes.
+     */
+    private static abstract class ValueSerializer {
+        void write(DataOutputStream stream, Object value) throws IOException {
+            if (value == null) {
+                stream.writeBoolean(false);
+            } else {
+                stream.writeBoolean(true);
+                writeValue(stream, value);
+            }
+        }
+
+        Object read(DataInputStream stream) throws IOException {
+            return stream.readBoolean() ? readValue(stream) : null;
+        }
+
+        abstract void writeValue(DataOutputStream stream, Object value) throws IOException;
+
+        abstract Object readValue(DataInputStream stream) throws IOException;
+    }
+
+    private static class BooleanSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            stream.writeBoolean((Boolean) value);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return stream.readBoolean();
+        }
+    }
+
+    private static class ByteSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            stream.writeByte((Byte) value);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return stream.readByte();
+        }
+    }
+
+    private static class IntegerSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            stream.writeInt((Integer) value);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return stream.readInt();
+        }
+    }
+
+    private static class LongSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            stream.writeLong((Long) value);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return stream.readLong();
+        }
+    }
+
+    private static class FloatSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            stream.writeFloat((Float) value);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return stream.readFloat();
+        }
+    }
+
+    private static class DoubleSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            stream.writeDouble((Double) value);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return stream.readDouble();
+        }
+    }
+
+    /**
+     * Strings are written as length-prefixed UTF-8 rather than with {@link DataOutputStream#writeUTF(String)},
+     * as that can't write strings over 64KB, which long booklet pages can be.
+     */
+    private static class StringSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            byte[] bytes = ((String) value).getBytes(StandardCharsets.UTF_8);
+            stream.writeInt(bytes.length);
+            stream.write(bytes);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            byte[] bytes = new byte[stream.readInt()];
+            stream.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class EnumSerializer extends ValueSerializer {
+        private final Object[] constants;
+
+        private EnumSerializer(Class<?> enumClass) {
+            this.constants = enumClass.getEnumConstants();
+        }
+
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            stream.writeShort(((Enum<?>) value).ordinal());
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return constants[stream.readUnsignedShort()];
+        }
+    }
+
+    private static class Point3DSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            Point3D point = (Point3D) value;
+            stream.writeDouble(point.x);
+            stream.writeDouble(point.y);
+            stream.writeDouble(point.z);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return new Point3D(stream.readDouble(), stream.readDouble(), stream.readDouble());
+        }
+    }
+
+    private static class RotationMatrixSerializer extends ValueSerializer {
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            RotationMatrix matrix = (RotationMatrix) value;
+            stream.writeDouble(matrix.angles.x);
+            stream.writeDouble(matrix.angles.y);
+            stream.writeDouble(matrix.angles.z);
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            return new RotationMatrix().setToAngles(new Point3D(stream.readDouble(), stream.readDouble(), stream.readDouble()));
+        }
+    }
+
+    private static class ArraySerializer extends ValueSerializer {
+        private final Class<?> componentClass;
+        private final ValueSerializer componentSerializer;
+
+        private ArraySerializer(Class<?> componentClass, ValueSerializer componentSerializer) {
+            this.componentClass = componentClass;
+            this.componentSerializer = componentSerializer;
+        }
+
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            int length = Array.getLength(value);
+            stream.writeInt(length);
+            for (int i = 0; i < length; ++i) {
+                componentSerializer.write(stream, Array.get(value, i));
+            }
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            int length = stream.readInt();
+            Object value = Array.newInstance(componentClass, length);
+            for (int i = 0; i < length; ++i) {
+                Array.set(value, i, componentSerializer.read(stream));
+            }
+            return value;
+        }
+    }
+
+    private static class CollectionSerializer extends ValueSerializer {
+        private final Supplier<Collection<Object>> creator;
+        private final ValueSerializer elementSerializer;
+
+        private CollectionSerializer(Supplier<Collection<Object>> creator, ValueSerializer elementSerializer) {
+            this.creator = creator;
+            this.elementSerializer = elementSerializer;
+        }
+
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            Collection<?> collection = (Collection<?>) value;
+            stream.writeInt(collection.size());
+            for (Object element : collection) {
+                elementSerializer.write(stream, element);
+            }
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            Collection<Object> collection = creator.get();
+            for (int i = stream.readInt(); i > 0; --i) {
+                collection.add(elementSerializer.read(stream));
+            }
+            return collection;
+        }
+    }
+
+    private static class MapSerializer extends ValueSerializer {
+        private final Supplier<Map<Object, Object>> creator;
+        private final ValueSerializer keySerializer;
+        private final ValueSerializer valueSerializer;
+
+        private MapSerializer(Supplier<Map<Object, Object>> creator, ValueSerializer keySerializer, ValueSerializer valueSerializer) {
+            this.creator = creator;
+            this.keySerializer = keySerializer;
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            Map<?, ?> map = (Map<?, ?>) value;
+            stream.writeInt(map.size());
+            for (Entry<?, ?> entry : map.entrySet()) {
+                keySerializer.write(stream, entry.getKey());
+                valueSerializer.write(stream, entry.getValue());
+            }
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            Map<Object, Object> map = creator.get();
+            for (int i = stream.readInt(); i > 0; --i) {
+                map.put(keySerializer.read(stream), valueSerializer.read(stream));
+            }
+            return map;
+        }
+    }
+
+    private static class ObjectSerializer extends ValueSerializer {
+        private final Supplier<Object> creator;
+        private final List<FieldSerializer> fields = new ArrayList<>();
+
+        private ObjectSerializer(Supplier<Object> creator) {
+            this.creator = creator;
+        }
+
+        @Override
+        void writeValue(DataOutputStream stream, Object value) throws IOException {
+            try {
+                for (FieldSerializer field : fields) {
+                    field.write(stream, value);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+        }
+
+        @Override
+        Object readValue(DataInputStream stream) throws IOException {
+            Object value = creator.get();
+            try {
+                for (FieldSerializer field : fields) {
+                    field.read(stream, value);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IOException(e);
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Writes and reads a single field of an object.  The common primitive fields override this
+     * to get and set their values directly, rather than boxing them.
+     */
+    private static class FieldSerializer {
+        protected final Field field;
+        private final ValueSerializer serializer;
+
+        private FieldSerializer(Field field, ValueSerializer serializer) {
+            this.field = field;
+            this.serializer = serializer;
+        }
+
+        void write(DataOutputStream stream, Object object) throws IOException, IllegalAccessException {
+            serializer.write(stream, field.get(object));
+        }
+
+        void read(DataInputStream stream, Object object) throws IOException, IllegalAccessException {
+            Object value = serializer.read(stream);
+            if (value != null || !field.getType().isPrimitive()) {
+                field.set(object, value);
+            }
+        }
+    }
+}
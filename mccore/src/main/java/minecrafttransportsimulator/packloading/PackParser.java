@@ -5,11 +5,17 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
@@ -41,6 +47,7 @@ import minecrafttransportsimulator.jsondefs.JSONSkin;
 import minecrafttransportsimulator.jsondefs.JSONSubDefinition;
 import minecrafttransportsimulator.jsondefs.JSONVehicle;
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packloading.PackDefinitionCache.CachedDefinition;
 import minecrafttransportsimulator.packloading.PackResourceLoader.ItemClassification;
 import minecrafttransportsimulator.packloading.PackResourceLoader.PackStructure;
 import minecrafttransportsimulator.systems.ConfigSystem;
@@ -270,8 +277,10 @@ public final class PackParser {
      */
     private static void checkJarForPacks(File packJar) {
         try {
-            //Try to find a JSON definition.
+            //Try to find a JSON definition.  If we don't find one, check for the old loader.
+            //We check both in the same pass so we only need to go through the jar's entries once.
             boolean foundJSON = false;
+            ZipEntry oldLoaderEntry = null;
             ZipFile jarFile = new ZipFile(packJar);
             Enumeration<? extends ZipEntry> entries = jarFile.entries();
             while (entries.hasMoreElements()) {
@@ -282,26 +291,20 @@ public final class PackParser {
                     packJarMap.put(packDef.packID, packJar);
                     packMap.put(packDef.packID, packDef);
                     foundJSON = true;
+                } else if (oldLoaderEntry == null && entry.getName().endsWith("MTSPackLoader.class")) {
+                    oldLoaderEntry = entry;
                 }
             }
 
-            if (!foundJSON) {
-                //Didn't get a normal definition file, check for old loader.
-                entries = jarFile.entries();
-                while (entries.hasMoreElements()) {
-                    ZipEntry entry = entries.nextElement();
-                    if (entry.getName().endsWith("MTSPackLoader.class")) {
-                        //Old pack style, auto-create a packdef.
-                        //Pack ID will match the folder the packloader is in.
-                        JSONPack packDef = new JSONPack();
-                        String[] pathComponents = entry.getName().split("/");
-                        packDef.packID = pathComponents[pathComponents.length - 2];
-                        packDef.packName = "Auto-Generated: " + packDef.packID;
-                        packJarMap.put(packDef.packID, packJar);
-                        packMap.put(packDef.packID, packDef);
-                        break;
-                    }
-                }
+            if (!foundJSON && oldLoaderEntry != null) {
+                //Old pack style, auto-create a packdef.
+                //Pack ID will match the folder the packloader is in.
+                JSONPack packDef = new JSONPack();
+                String[] pathComponents = oldLoaderEntry.getName().split("/");
+                packDef.packID = pathComponents[pathComponents.length - 2];
+                packDef.packName = "Auto-Generated: " + packDef.packID;
+                packJarMap.put(packDef.packID, packJar);
+                packMap.put(packDef.packID, packDef);
             }
             jarFile.close();
         } catch (Exception e) {
@@ -317,9 +320,25 @@ public final class PackParser {
      * performing any actual loading operations.  Note that all packs in this routine
      * assume the default loader.  If you want to use a custom loader, you should manually
      * create and register your pack items and use {@link #registerItem(AJSONItem)}.
+     * <br><br>
+     * Each jar is only scanned once, even if it contains multiple packs or sub-directories.
+     * JSONs found in the scan are parsed on a pool of worker threads, but are registered
+     * on the calling thread in pack, sub-directory, then jar order.  This keeps registration
+     * order the same as if everything was parsed one file at a time.
+     * Packs that are unchanged from the last launch are loaded from the {@link PackDefinitionCache}
+     * rather than their jars.
      */
     private static void parseAllPacks() {
         List<String> packIDs = new ArrayList<>(packMap.keySet());
+        List<PackLoader> packLoaders = new ArrayList<>();
+        Map<File, List<PackLoader>> jarLoaders = new LinkedHashMap<>();
+        PackDefinitionCache definitionCache = new PackDefinitionCache(new File(InterfaceManager.gameDirectory, "mtspackcache.bin"));
+        AtomicInteger threadNumber = new AtomicInteger();
+        ExecutorService parsePool = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), runnable -> {
+            Thread thread = new Thread(runnable, "MTS-PackParser-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
         for (String s : packMap.keySet()) {
             JSONPack packDef = packMap.get(s);
             //Don't parse the core pack.  THat's all internal.
@@ -371,80 +390,228 @@ public final class PackParser {
                 }
             }
 
-            //Load the pack components into the game.
-            //We iterate over all the sub-folders we found from the packDef checks.
-            PackStructure structure = PackStructure.values()[packDef.fileStructure];
+            //Group the loaders by jar so we only need to scan each jar once.
+            //Cached packs don't need their jars scanned at all.
+            PackLoader loader = new PackLoader(packDef, packJarMap.get(packDef.packID), validSubDirectories, definitionCache, parsePool);
+            packLoaders.add(loader);
+            if (!loader.fromCache) {
+                jarLoaders.computeIfAbsent(loader.packJar, k -> new ArrayList<>()).add(loader);
+            }
+        }
+
+        //Load the pack components into the game.
+        //We scan each jar once, and hand each JSON to every pack loader for that jar.
+        //Loaders will queue up parsing of any JSONs in their sub-folders on the pool.
+        List<ZipFile> openJars = new ArrayList<>();
+        try {
+            for (Entry<File, List<PackLoader>> jarEntry : jarLoaders.entrySet()) {
+                try {
+                    ZipFile jarFile = new ZipFile(jarEntry.getKey());
+                    openJars.add(jarFile);
+                    Enumeration<? extends ZipEntry> entries = jarFile.entries();
+                    while (entries.hasMoreElements()) {
+                        ZipEntry entry = entries.nextElement();
+                        if (entry.getName().endsWith(".json")) {
+                            for (PackLoader loader : jarEntry.getValue()) {
+                                loader.queueEntry(jarFile, entry, parsePool);
+                            }
+                        }
+                    }
+                } catch (Exception e) {
+                    for (PackLoader loader : jarEntry.getValue()) {
+                        InterfaceManager.coreInterface.logError("Could not start parsing of pack: " + loader.packDef.packID);
+                        loader.hadErrors = true;
+                    }
+                    e.printStackTrace();
+                }
+            }
+
+            //Now register everything.  This waits for parsing to finish on a per-file basis, so packs
+            //can start registering while later ones are still being parsed.
+            for (PackLoader loader : packLoaders) {
+                loader.registerAll(definitionCache);
+            }
+            definitionCache.save();
+        } finally {
+            parsePool.shutdownNow();
+            for (ZipFile jarFile : openJars) {
+                try {
+                    jarFile.close();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper class for loading a single pack from its jar.  Contains the asset folders
+     * the pack is to be loaded from, and the pending parse results for each folder.
+     * If the pack is in the cache, the cached definitions are queued instead, and
+     * the jar isn't touched.
+     */
+    private static class PackLoader {
+        private final JSONPack packDef;
+        private final File packJar;
+        private final List<String> validSubDirectories;
+        private final boolean fromCache;
+        private volatile boolean hadErrors;
+        private final PackStructure structure;
+        private final List<String> assetPathPrefixes = new ArrayList<>();
+        private final List<List<Future<AJSONBase>>> pendingDefinitions = new ArrayList<>();
+        private final AtomicLong parseTime = new AtomicLong();
+
+        private PackLoader(JSONPack packDef, File packJar, List<String> validSubDirectories, PackDefinitionCache definitionCache, ExecutorService parsePool) {
+            this.packDef = packDef;
+            this.packJar = packJar;
+            this.validSubDirectories = validSubDirectories;
+            this.structure = PackStructure.values()[packDef.fileStructure];
             for (String subDirectory : validSubDirectories) {
                 String assetPathPrefix = "assets/" + packDef.packID + "/";
                 if (!subDirectory.isEmpty()) {
                     assetPathPrefix += subDirectory + "/";
                 }
+                assetPathPrefixes.add(assetPathPrefix);
+                pendingDefinitions.add(new ArrayList<>());
+            }
 
-                try {
-                    ZipFile jarFile = new ZipFile(packJarMap.get(packDef.packID));
-                    Enumeration<? extends ZipEntry> entries = jarFile.entries();
-                    while (entries.hasMoreElements()) {
-                        //Get next entry and path.
-                        ZipEntry entry = entries.nextElement();
-                        String entryFullPath = entry.getName();
-                        if (entryFullPath.startsWith(assetPathPrefix) && entryFullPath.endsWith(".json")) {
-                            //JSON is in correct folder.  Get path properties and ensure they match our specs.
-                            //Need the asset folder structure between the main prefix and the asset itself.
-                            //This lets us know what asset we need to create as all assets are in their own folders.
-                            String fileName = entryFullPath.substring(entryFullPath.lastIndexOf('/') + 1);
-                            String assetPath = entryFullPath.substring(assetPathPrefix.length(), entryFullPath.substring(0, entryFullPath.length() - fileName.length()).lastIndexOf("/") + 1);
-                            if (!structure.equals(PackStructure.MODULAR)) {
-                                //Need to trim the jsondefs folder to get correct sub-folder of jsondefs data.
-                                //Modular structure does not have a jsondefs folder, so we don't need to trim it off for that.
-                                //If we aren't modular, and aren't in a jsondefs folder, skip this entry.
-                                if (assetPath.startsWith("jsondefs/")) {
-                                    assetPath = assetPath.substring("jsondefs/".length());
-                                } else {
-                                    continue;
-                                }
+            List<CachedDefinition> cachedDefinitions = definitionCache.getDefinitions(packDef, packJar, validSubDirectories);
+            this.fromCache = cachedDefinitions != null;
+            if (fromCache) {
+                List<Future<AJSONBase>> folderDefinitions = new ArrayList<>();
+                pendingDefinitions.clear();
+                pendingDefinitions.add(folderDefinitions);
+                for (CachedDefinition cachedDefinition : cachedDefinitions) {
+                    folderDefinitions.add(parsePool.submit(() -> {
+                        long parseStart = System.nanoTime();
+                        try {
+                            return cachedDefinition.create(packDef.packID);
+                        } finally {
+                            parseTime.addAndGet(System.nanoTime() - parseStart);
+                        }
+                    }));
+                }
+            }
+        }
+
+        /**
+         * Checks if the passed-in JSON entry is one this pack should load, and if so, queues it up to be parsed.
+         * The entry is checked against every sub-folder, as sub-folders may be nested.
+         */
+        private void queueEntry(ZipFile jarFile, ZipEntry entry, ExecutorService parsePool) {
+            String entryFullPath = entry.getName();
+            for (int i = 0; i < assetPathPrefixes.size(); ++i) {
+                String assetPathPrefix = assetPathPrefixes.get(i);
+                if (entryFullPath.startsWith(assetPathPrefix)) {
+                    //JSON is in correct folder.  Get path properties and ensure they match our specs.
+                    //Need the asset folder structure between the main prefix and the asset itself.
+                    //This lets us know what asset we need to create as all assets are in their own folders.
+                    String fileName = entryFullPath.substring(entryFullPath.lastIndexOf('/') + 1);
+                    String assetPath = entryFullPath.substring(assetPathPrefix.length(), entryFullPath.substring(0, entryFullPath.length() - fileName.length()).lastIndexOf("/") + 1);
+                    if (!structure.equals(PackStructure.MODULAR)) {
+                        //Need to trim the jsondefs folder to get correct sub-folder of jsondefs data.
+                        //Modular structure does not have a jsondefs folder, so we don't need to trim it off for that.
+                        //If we aren't modular, and aren't in a jsondefs folder, skip this entry.
+                        if (assetPath.startsWith("jsondefs/")) {
+                            assetPath = assetPath.substring("jsondefs/".length());
+                        } else {
+                            continue;
+                        }
+                    }
+
+                    //Check to make sure json isn't an item JSON or our pack definition.
+                    if (!fileName.equals("packdefinition.json") && (structure.equals(PackStructure.MODULAR) ? !fileName.endsWith("_item.json") : entryFullPath.contains("jsondefs"))) {
+                        //Get classification and JSON class type to use with GSON system.
+                        ItemClassification classification;
+                        try {
+                            classification = ItemClassification.fromDirectory(assetPath.substring(0, assetPath.indexOf("/") + 1));
+                        } catch (Exception e) {
+                            InterfaceManager.coreInterface.logError("Was given an invalid classifcation sub-folder for asset: " + fileName + ".  Check your folder paths.");
+                            continue;
+                        }
+
+                        //Queue up the JSON instance creation.
+                        String systemName = fileName.substring(0, fileName.length() - ".json".length());
+                        String prefixFolders = assetPath.substring(classification.toDirectory().length());
+                        pendingDefinitions.get(i).add(parsePool.submit(() -> {
+                            long parseStart = System.nanoTime();
+                            AJSONBase definition;
+                            try {
+                                definition = JSONParser.parseStream(jarFile.getInputStream(entry), classification.representingClass, packDef.packID, systemName);
+                            } catch (Exception e) {
+                                InterfaceManager.coreInterface.logError("Could not parse: " + packDef.packID + ":" + fileName);
+                                InterfaceManager.coreInterface.logError(e.getMessage());
+                                hadErrors = true;
+                                return null;
+                            } finally {
+                                parseTime.addAndGet(System.nanoTime() - parseStart);
                             }
 
-                            //Check to make sure json isn't an item JSON or our pack definition.
-                            if (!fileName.equals("packdefinition.json") && (structure.equals(PackStructure.MODULAR) ? !fileName.endsWith("_item.json") : entryFullPath.contains("jsondefs"))) {
-                                //Get classification and JSON class type to use with GSON system.
-                                ItemClassification classification;
-                                try {
-                                    classification = ItemClassification.fromDirectory(assetPath.substring(0, assetPath.indexOf("/") + 1));
-                                } catch (Exception e) {
-                                    InterfaceManager.coreInterface.logError("Was given an invalid classifcation sub-folder for asset: " + fileName + ".  Check your folder paths.");
-                                    continue;
-                                }
+                            //Remove the classification folder from the assetPath.  We don't use this for the resource-loading code.
+                            //Instead, this will be loaded by referencing the definition.  This also allows us to omit the path
+                            //if we are loading a non-default pack format.
+                            definition.packID = packDef.packID;
+                            definition.systemName = systemName;
+                            definition.classification = classification;
+                            definition.prefixFolders = prefixFolders;
+                            return definition;
+                        }));
+                    }
+                }
+            }
+        }
 
-                                //Create the JSON instance.
-                                String systemName = fileName.substring(0, fileName.length() - ".json".length());
-                                AJSONBase definition;
+        /**
+         * Waits for all queued JSONs to be parsed and registers them, in the order they were queued.
+         * If the pack wasn't from the cache, and had no errors, it is added to the cache.
+         * Logs how long the pack took once done.
+         */
+        private void registerAll(PackDefinitionCache definitionCache) {
+            int definitionCount = 0;
+            long registerTime = 0;
+            List<CachedDefinition> checkedDefinitions = new ArrayList<>();
+            for (List<Future<AJSONBase>> folderDefinitions : pendingDefinitions) {
+                for (Future<AJSONBase> pendingDefinition : folderDefinitions) {
+                    AJSONBase definition;
+                    try {
+                        definition = pendingDefinition.get();
+                    } catch (Exception e) {
+                        InterfaceManager.coreInterface.logError("Could not parse a definition in pack: " + packDef.packID);
+                        e.printStackTrace();
+                        hadErrors = true;
+                        continue;
+                    }
+                    if (definition != null) {
+                        long registerStart = System.nanoTime();
+                        //Cached definitions have already been checked, so we only need to check new ones.
+                        if (fromCache) {
+                            registerCheckedItem(definition);
+                            ++definitionCount;
+                        } else if (checkItem(definition)) {
+                            //Need to cache before registering, as registering can modify the definition.
+                            if (!hadErrors) {
                                 try {
-                                    definition = JSONParser.parseStream(jarFile.getInputStream(entry), classification.representingClass, packDef.packID, systemName);
+                                    checkedDefinitions.add(new CachedDefinition(definition));
                                 } catch (Exception e) {
-                                    InterfaceManager.coreInterface.logError("Could not parse: " + packDef.packID + ":" + fileName);
-                                    InterfaceManager.coreInterface.logError(e.getMessage());
-                                    continue;
+                                    InterfaceManager.coreInterface.logError("Could not cache definition: " + packDef.packID + ":" + definition.systemName + ".  " + e.getMessage());
+                                    hadErrors = true;
                                 }
-
-                                //Remove the classification folder from the assetPath.  We don't use this for the resource-loading code.
-                                //Instead, this will be loaded by referencing the definition.  This also allows us to omit the path
-                                //if we are loading a non-default pack format.
-                                definition.packID = packDef.packID;
-                                definition.systemName = systemName;
-                                definition.classification = classification;
-                                definition.prefixFolders = assetPath.substring(classification.toDirectory().length());
-                                registerItem(definition);
                             }
+                            registerCheckedItem(definition);
+                            ++definitionCount;
+                        } else {
+                            hadErrors = true;
                         }
+                        registerTime += System.nanoTime() - registerStart;
                     }
-
-                    //Done parsing.  Close the jarfile.
-                    jarFile.close();
-                } catch (Exception e) {
-                    InterfaceManager.coreInterface.logError("Could not start parsing of pack: " + packDef.packID);
-                    e.printStackTrace();
                 }
             }
+
+            //Only cache packs that loaded cleanly, so any errors are still reported next launch.
+            if (!fromCache && !hadErrors) {
+                definitionCache.putDefinitions(packDef, packJar, validSubDirectories, checkedDefinitions);
+            }
+            InterfaceManager.coreInterface.logError(String.format("Loaded %d definitions from pack %s%s: %dms parsing across workers, %dms registering.", definitionCount, packDef.packID, fromCache ? " (cached)" : "", parseTime.get() / 1000000, registerTime / 1000000));
         }
     }
 
@@ -463,12 +630,34 @@ public final class PackParser {
      * A fault in the compatibility system or in the validation will result in the item not being registered.
      */
     public static void registerItem(AJSONBase itemDef) {
+        if (checkItem(itemDef)) {
+            registerCheckedItem(itemDef);
+        }
+    }
+
+    /**
+     * Performs Legacy Compatibility and validation on the passed-in definition.
+     * Returns true if the definition can be registered, false if it had a fault.
+     */
+    private static boolean checkItem(AJSONBase itemDef) {
         try {
             //Do legacy compats before validating the JSON.
             //This will populate any required fields that were not in older versions.
             LegacyCompatSystem.performLegacyCompats(itemDef);
             JSONParser.validateFields(itemDef, itemDef.packID + ":" + itemDef.systemName + "/", 1);
+            return true;
+        } catch (Exception e) {
+            InterfaceManager.coreInterface.logError(e.getMessage());
+            e.printStackTrace();
+            return false;
+        }
+    }
 
+    /**
+     * Like {@link #registerItem(AJSONBase)}, but for definitions that have already been checked by {@link #checkItem(AJSONBase)}.
+     */
+    private static void registerCheckedItem(AJSONBase itemDef) {
+        try {
             //Create all required items.
             if (itemDef instanceof AJSONMultiModelProvider) {
                 //Check if the definition is a skin.  If so, we need to just add it to the skin map for processing later.
@@ -4,8 +4,19 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import minecrafttransportsimulator.entities.components.AEntityD_Definable;
+import minecrafttransportsimulator.items.components.AItemPack;
+import minecrafttransportsimulator.items.components.AItemSubTyped;
+import minecrafttransportsimulator.jsondefs.JSONSubDefinition;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packloading.PackParser;
 
 /**
  * Abstract class for parsing models.  This contains methods for determining what models
@@ -13,12 +24,19 @@ import minecrafttransportsimulator.entities.components.AEntityD_Definable;
  * It also stores a list of created parsers for use when requesting a model be parsed.
  * By default, an OBJ parser is created when this class is first accessed, but one may
  * add other parsers as they see fit.
+ * <br><br>
+ * Parsers that support it may parse models on a background loader.  Entities use this
+ * to avoid stalling the render thread when a new model comes into view; they show a
+ * placeholder until the model is done.
  *
  * @author don_bruce
  */
 public abstract class AModelParser {
     private static final Map<String, AModelParser> parsers = new HashMap<>();
-    private static final Map<String, List<RenderableVertices>> parsedVertices = new HashMap<>();
+    private static final Map<String, List<RenderableVertices>> parsedVertices = new ConcurrentHashMap<>();
+    private static final Map<String, Future<?>> pendingVertices = new ConcurrentHashMap<>();
+    private static final Map<String, RuntimeException> failedModels = new ConcurrentHashMap<>();
+    private static ExecutorService loaderPool;
     public static final String WINDOW_OBJECT_NAME = "window";
     public static final String ONLINE_TEXTURE_OBJECT_NAME = "url";
     public static final String TRANSLUCENT_OBJECT_NAME = "translucent";
@@ -44,40 +62,149 @@ public abstract class AModelParser {
      */
     protected abstract List<RenderableVertices> parseModelInternal(String modelLocation);
 
+    /**
+     * Returns true if {@link #parseModelInternal(String)} may be called off the main threads.
+     * Parsers that query game state, such as block textures, should leave this false.
+     */
+    protected boolean supportsBackgroundParsing() {
+        return false;
+    }
+
     /**
      * Attempts to obtain the parser for the passed-in modelLocation.  After this, the model
      * is parsed and returned.  If no parser is found, an exception is thrown.
      * If the model has already been parsed, a cached copy is returned.
+     * If the model is being parsed on the background loader, this waits for it to finish.
+     * If the model failed to parse on the background loader, the exception from that parse is thrown.
      */
     public static List<RenderableVertices> parseModel(String modelLocation, boolean returnCached) {
         List<RenderableVertices> vertices = null;
         if (returnCached) {
             vertices = parsedVertices.get(modelLocation);
+            if (vertices == null) {
+                Future<?> pendingParse = pendingVertices.get(modelLocation);
+                if (pendingParse != null) {
+                    try {
+                        pendingParse.get();
+                    } catch (InterruptedException | ExecutionException e) {
+                        //Background parse failed, we'll throw its exception below.
+                    }
+                    vertices = parsedVertices.get(modelLocation);
+                }
+                RuntimeException failure = failedModels.get(modelLocation);
+                if (vertices == null && failure != null) {
+                    throw failure;
+                }
+            }
         }
         if (vertices == null) {
-            AModelParser parser = parsers.get(modelLocation.substring(modelLocation.lastIndexOf(".") + 1));
-            if (parser != null) {
-                vertices = parser.parseModelInternal(modelLocation);
-                if (returnCached) {
-                    parsedVertices.put(modelLocation, vertices);
-                }
+            vertices = getParser(modelLocation).parseModelInternal(modelLocation);
+            if (returnCached) {
+                parsedVertices.put(modelLocation, vertices);
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * Like {@link #parseModel(String, boolean)} with caching, but doesn't block if the parser
+     * supports background parsing.  Instead, the model is queued to be parsed, and null is returned
+     * until the model is ready.  If the model failed to parse, the exception from that parse is thrown,
+     * the same as {@link #parseModel(String, boolean)} would, but the model isn't parsed again.
+     */
+    public static List<RenderableVertices> parseModelIfReady(String modelLocation) {
+        List<RenderableVertices> vertices = parsedVertices.get(modelLocation);
+        if (vertices == null) {
+            RuntimeException failure = failedModels.get(modelLocation);
+            if (failure != null) {
+                throw failure;
+            } else if (getParser(modelLocation).supportsBackgroundParsing()) {
+                preloadModel(modelLocation);
             } else {
-                throw new IllegalArgumentException("No parser found for model format of " + modelLocation.substring(modelLocation.lastIndexOf(".") + 1));
+                vertices = parseModel(modelLocation, true);
             }
         }
         return vertices;
     }
 
+    /**
+     * Queues the model at the passed-in location to be parsed on the background loader, if it hasn't been parsed already.
+     * Models whose parser doesn't support background parsing are skipped; they will be parsed when first requested.
+     * Models that failed to parse are also skipped, as they'd just fail again.
+     */
+    public static void preloadModel(String modelLocation) {
+        if (!parsedVertices.containsKey(modelLocation) && !failedModels.containsKey(modelLocation) && getParser(modelLocation).supportsBackgroundParsing()) {
+            pendingVertices.computeIfAbsent(modelLocation, k -> getLoaderPool().submit(() -> {
+                try {
+                    parsedVertices.put(modelLocation, getParser(modelLocation).parseModelInternal(modelLocation));
+                } catch (RuntimeException e) {
+                    failedModels.put(modelLocation, e);
+                    InterfaceManager.coreInterface.logError("Could not load model in background: " + modelLocation + ".  " + e.getMessage());
+                    throw e;
+                } finally {
+                    pendingVertices.remove(modelLocation);
+                }
+            }));
+        }
+    }
+
+    /**
+     * Queues all models for all pack items to be parsed on the background loader.
+     * Call this after packs are loaded on clients.
+     */
+    public static void preloadPackModels() {
+        for (AItemPack<?> packItem : PackParser.getAllPackItems()) {
+            if (packItem instanceof AItemSubTyped) {
+                AItemSubTyped<?> subTypedItem = (AItemSubTyped<?>) packItem;
+                JSONSubDefinition subDefinition = subTypedItem.subDefinition;
+                String modelLocation = subTypedItem.definition.getModelLocation(subDefinition);
+                if (modelLocation != null) {
+                    try {
+                        preloadModel(modelLocation);
+                    } catch (Exception e) {
+                        //No parser for this model.  It'll error out properly when rendered.
+                    }
+                }
+            }
+        }
+    }
+
+    private static AModelParser getParser(String modelLocation) {
+        AModelParser parser = parsers.get(modelLocation.substring(modelLocation.lastIndexOf(".") + 1));
+        if (parser == null) {
+            throw new IllegalArgumentException("No parser found for model format of " + modelLocation.substring(modelLocation.lastIndexOf(".") + 1));
+        }
+        return parser;
+    }
+
+    private static synchronized ExecutorService getLoaderPool() {
+        if (loaderPool == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            loaderPool = Executors.newFixedThreadPool(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() / 2)), runnable -> {
+                Thread thread = new Thread(runnable, "MTS-ModelLoader-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+        }
+        return loaderPool;
+    }
+
     /**
      * Parses the model for the passed-in entity, and generates all {@link RenderableModelObject}s for it.
      * These are returned as a list.  Objects in the parsed model are cross-checked with the passed-in
      * definition to ensure the proper constructors are created.  All objects in the model
      * are assured to be turned into one of the objects in the returned list.
+     * If the model is still being parsed in the background, null is returned.
      */
     public static List<RenderableModelObject> generateRenderables(AEntityD_Definable<?> entity) {
         String modelLocation = entity.definition.getModelLocation(entity.subDefinition);
+        List<RenderableVertices> parsedModel = parseModelIfReady(modelLocation);
+        if (parsedModel == null) {
+            return null;
+        }
         List<RenderableModelObject> modelObjects = new ArrayList<>();
-        for (RenderableVertices parsedObject : parseModel(modelLocation, true)) {
+        for (RenderableVertices parsedObject : parsedModel) {
             modelObjects.add(new RenderableModelObject(entity, parsedObject));
         }
         return modelObjects;
@@ -1,5 +1,6 @@
 package minecrafttransportsimulator.rendering;
 
+import minecrafttransportsimulator.baseclasses.ComputedVariable;
 import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.entities.components.AEntityD_Definable;
 import minecrafttransportsimulator.jsondefs.JSONAnimationDefinition;
@@ -37,11 +38,15 @@ public class DurationDelayClock {
     private boolean startedReverseMovement = false;
     private boolean endedReverseMovement = false;
 
+    /**Slot ID of this clock's animation variable, from {@link ComputedVariable#getSlot(String)}.**/
+    public final int variableSlot;
+
     public DurationDelayClock(JSONAnimationDefinition animation) {
         this.animation = animation;
         this.animationAxisMagnitude = animation.axis != null ? animation.axis.length() : 1.0;
         this.animationAxisNormalized = animation.axis != null ? animation.axis.copy().normalize() : null;
         this.shouldDoFactoring = animation.duration != 0 || animation.forwardsDelay != 0 || animation.reverseDelay != 0;
+        this.variableSlot = ComputedVariable.getSlot(animation.variable);
         this.isUseful = shouldDoFactoring || animation.animationType.equals(AnimationComponentType.VISIBILITY) || animation.animationType.equals(AnimationComponentType.INHIBITOR) || animation.animationType.equals(AnimationComponentType.ACTIVATOR) || animation.forwardsStartSound != null || animation.forwardsEndSound != null || animation.reverseStartSound != null || animation.reverseEndSound != null;
     }
 
@@ -1,37 +1,95 @@
 package minecrafttransportsimulator.rendering;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
 
 /**
  * Class responsible for parsing OBJ models into arrays that can be fed to the GPU.
  * Much more versatile than the Forge system.
+ * <br><br>
+ * Compiled vertex data is cached on disk, keyed by the hash of the OBJ file.  Cached models
+ * are memory-mapped straight into the {@link RenderableVertices} buffers, so they don't
+ * need to be parsed or copied on later loads.  Mappings are private, so objects that change
+ * their own vertices, like windows setting their texture bounds, get a copy of just the pages
+ * they change and never write back to the cache.  Cache entries that haven't been used in
+ * {@link #CACHE_MAX_UNUSED_DAYS} are deleted the first time the cache is used each launch,
+ * so models from removed or updated packs don't pile up.
  *
  * @author don_bruce
  */
 public final class ModelParserOBJ extends AModelParser {
+    private static final int CACHE_MAGIC = 0x4D54534F;
+    private static final int CACHE_VERSION = 1;
+    private static final int CACHE_MAX_UNUSED_DAYS = 30;
+    private static final String CACHE_DIRECTORY = "mtsmodelcache";
+    private static boolean cacheCleaned;
 
     @Override
     protected String getModelSuffix() {
         return "obj";
     }
 
+    @Override
+    protected boolean supportsBackgroundParsing() {
+        return true;
+    }
+
     @Override
     protected List<RenderableVertices> parseModelInternal(String modelLocation) {
-        List<RenderableVertices> objectList = new ArrayList<>();
-        BufferedReader reader;
-        try {
-            reader = new BufferedReader(new InputStreamReader(InterfaceManager.coreInterface.getPackResource(modelLocation)));
+        byte[] modelData;
+        try (InputStream stream = InterfaceManager.coreInterface.getPackResource(modelLocation)) {
+            ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
+            byte[] buffer = new byte[65536];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                dataStream.write(buffer, 0, read);
+            }
+            modelData = dataStream.toByteArray();
         } catch (Exception e) {
             throw new NullPointerException("Attempted to parse the OBJ model at: " + modelLocation + " but could not find it.  Check the path and try again.");
         }
 
+        //Check the cache before parsing.
+        File cacheFile = getCacheFile(modelData);
+        if (cacheFile != null && cacheFile.exists()) {
+            try {
+                //Mark the entry as used so it isn't cleaned up.
+                cacheFile.setLastModified(System.currentTimeMillis());
+                return readCache(cacheFile);
+            } catch (Exception e) {
+                InterfaceManager.coreInterface.logError("Could not read cached model for: " + modelLocation + ", re-parsing it.  " + e.getMessage());
+            }
+        }
+        List<RenderableVertices> objectList = parseModelData(modelLocation, modelData);
+        if (cacheFile != null) {
+            writeCache(cacheFile, objectList);
+        }
+        return objectList;
+    }
+
+    static List<RenderableVertices> parseModelData(String modelLocation, byte[] modelData) {
+        List<RenderableVertices> objectList = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(new ByteArrayInputStream(modelData)));
+
         String objectName = null;
         final List<float[]> vertexList = new ArrayList<>();
         final List<float[]> normalList = new ArrayList<>();
@@ -176,4 +234,118 @@ public final class ModelParserOBJ extends AModelParser {
         //Clear face list as we don't want to compile them on the next pass.
         faceList.clear();
     }
+
+    /**
+     * Returns the cache file for the passed-in model data, or null if we can't hash it.
+     * The first call each launch also cleans up the cache directory.
+     */
+    private static File getCacheFile(byte[] modelData) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(modelData);
+            StringBuilder builder = new StringBuilder();
+            for (byte hashByte : hash) {
+                builder.append(String.format("%02x", hashByte));
+            }
+            File cacheDirectory = new File(InterfaceManager.gameDirectory, CACHE_DIRECTORY);
+            synchronized (ModelParserOBJ.class) {
+                if (!cacheCleaned) {
+                    cacheCleaned = true;
+                    cleanCache(cacheDirectory, System.currentTimeMillis());
+                }
+            }
+            return new File(cacheDirectory, builder.append(".bin").toString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes all cache entries in the passed-in directory that haven't been used in {@link #CACHE_MAX_UNUSED_DAYS}
+     * as of the passed-in time, and all temp files left over from writes that didn't finish.
+     * Temp files from writes that may still be going on are left alone.
+     */
+    static void cleanCache(File cacheDirectory, long currentTime) {
+        File[] files = cacheDirectory.listFiles();
+        if (files != null) {
+            long oldestUsedTime = currentTime - TimeUnit.DAYS.toMillis(CACHE_MAX_UNUSED_DAYS);
+            long oldestTempTime = currentTime - TimeUnit.HOURS.toMillis(1);
+            for (File file : files) {
+                if ((file.getName().endsWith(".bin") && file.lastModified() < oldestUsedTime) || (file.getName().endsWith(".tmp") && file.lastModified() < oldestTempTime)) {
+                    //If this fails, another game instance likely has the file mapped, so just leave it for next time.
+                    file.delete();
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the objects from the passed-in cache file.  Vertex buffers are views into the
+     * memory-mapped file.  The mapping is copy-on-write, so the buffers may be written to
+     * without changing the file.
+     */
+    static List<RenderableVertices> readCache(File cacheFile) throws IOException {
+        ByteBuffer data;
+        //Private mappings need a channel that can write, even though nothing is ever written back.
+        try (FileChannel channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            data = channel.map(FileChannel.MapMode.PRIVATE, 0, channel.size()).order(ByteOrder.nativeOrder());
+        }
+        if (data.getInt() != CACHE_MAGIC || data.getInt() != CACHE_VERSION) {
+            throw new IOException("Cache file is from a different version.");
+        }
+        int objectCount = data.getInt();
+        List<RenderableVertices> objectList = new ArrayList<>(objectCount);
+        for (int i = 0; i < objectCount; ++i) {
+            byte[] nameBytes = new byte[data.getInt()];
+            data.get(nameBytes);
+            data.position((data.position() + 3) & ~3);
+            int floatCount = data.getInt();
+            ByteBuffer vertexData = data.slice().order(ByteOrder.nativeOrder());
+            vertexData.limit(floatCount * Float.BYTES);
+            data.position(data.position() + floatCount * Float.BYTES);
+            objectList.add(new RenderableVertices(new String(nameBytes, StandardCharsets.UTF_8), vertexData.asFloatBuffer(), true));
+        }
+        return objectList;
+    }
+
+    /**
+     * Writes the passed-in objects to the cache file.  This goes through a temp file so
+     * other threads never see a partly-written cache.
+     */
+    static void writeCache(File cacheFile, List<RenderableVertices> objectList) {
+        int size = 3 * Integer.BYTES;
+        List<byte[]> names = new ArrayList<>();
+        for (RenderableVertices object : objectList) {
+            byte[] nameBytes = object.name.getBytes(StandardCharsets.UTF_8);
+            names.add(nameBytes);
+            size += Integer.BYTES + ((nameBytes.length + 3) & ~3) + Integer.BYTES + object.vertices.limit() * Float.BYTES;
+        }
+        ByteBuffer data = ByteBuffer.allocate(size).order(ByteOrder.nativeOrder());
+        data.putInt(CACHE_MAGIC);
+        data.putInt(CACHE_VERSION);
+        data.putInt(objectList.size());
+        for (int i = 0; i < objectList.size(); ++i) {
+            RenderableVertices object = objectList.get(i);
+            data.putInt(names.get(i).length);
+            data.put(names.get(i));
+            data.position((data.position() + 3) & ~3);
+            data.putInt(object.vertices.limit());
+            for (int j = 0; j < object.vertices.limit(); ++j) {
+                data.putFloat(object.vertices.get(j));
+            }
+        }
+
+        try {
+            cacheFile.getParentFile().mkdirs();
+            File tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+            Files.write(tempFile.toPath(), data.array());
+            try {
+                Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                //Another thread may have beat us to it, or the filesystem may not support atomic moves.
+                Files.deleteIfExists(tempFile.toPath());
+            }
+        } catch (Exception e) {
+            InterfaceManager.coreInterface.logError("Could not write model cache file: " + cacheFile.getName() + ".  " + e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,102 @@
+package minecrafttransportsimulator.rendering;
+
+import minecrafttransportsimulator.baseclasses.BoundingBox;
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.entities.components.AEntityC_Renderable;
+
+/**
+ * Decides if entities need to be rendered this frame.  Entities are culled if their culling box is
+ * past the max render distance from the camera, or if it is fully outside the camera's view frustum.
+ * The frustum is taken from the combined projection and model-view matrix the frame renders with, so
+ * this class has no ties to the game's own camera classes.  This also means it can be driven by
+ * a synthetic camera by passing in a hand-built matrix to {@link #setCamera(Point3D, Point3D, float[], double)}.
+ *
+ * @author don_bruce
+ */
+public class RenderCuller {
+    /**Extra size added to all boxes.  Covers movement between ticks and small model overhangs.**/
+    private static final double CULLING_MARGIN = 1.0;
+    /**Left, right, bottom, top, and near planes.  The far plane is covered by the distance check.**/
+    private static final int PLANE_COUNT = 5;
+
+    private final double[] planes = new double[PLANE_COUNT * 4];
+    private final Point3D matrixOrigin = new Point3D();
+    private final Point3D cameraPosition = new Point3D();
+    private boolean frustumSet;
+    private double maxDistanceSquared;
+
+    /**
+     * Sets the camera for culling.  This should be called once per frame prior to any culling checks.
+     * The matrix origin is the world position of the point at 0,0,0 in the passed-in matrix, which may
+     * not be where the camera is.  The matrix is the combined projection and model-view matrix, in column-major
+     * order, and may be null to disable frustum culling.  A max distance of 0 or less disables distance culling.
+     */
+    public void setCamera(Point3D matrixOrigin, Point3D cameraPosition, float[] clipMatrix, double maxDistance) {
+        this.matrixOrigin.set(matrixOrigin);
+        this.cameraPosition.set(cameraPosition);
+        this.maxDistanceSquared = maxDistance > 0 ? maxDistance * maxDistance : 0;
+        this.frustumSet = clipMatrix != null;
+        if (frustumSet) {
+            //Gribb-Hartmann extraction.  Each plane is the last matrix row plus or minus one of the others.
+            for (int i = 0; i < PLANE_COUNT; ++i) {
+                int row = i / 2;
+                double sign = i % 2 == 0 ? 1 : -1;
+                double a = clipMatrix[3] + sign * clipMatrix[row];
+                double b = clipMatrix[7] + sign * clipMatrix[4 + row];
+                double c = clipMatrix[11] + sign * clipMatrix[8 + row];
+                double d = clipMatrix[15] + sign * clipMatrix[12 + row];
+                double length = Math.sqrt(a * a + b * b + c * c);
+                if (length == 0) {
+                    //Degenerate matrix, don't cull anything rather than culling everything.
+                    frustumSet = false;
+                    return;
+                }
+                planes[i * 4] = a / length;
+                planes[i * 4 + 1] = b / length;
+                planes[i * 4 + 2] = c / length;
+                planes[i * 4 + 3] = d / length;
+            }
+        }
+    }
+
+    /**
+     * Returns true if the passed-in entity should be rendered.
+     */
+    public boolean isVisible(AEntityC_Renderable entity) {
+        return !entity.canBeCulled() || isVisible(entity.getCullingBox());
+    }
+
+    /**
+     * Returns true if any part of the passed-in box is within render distance and inside the frustum.
+     */
+    public boolean isVisible(BoundingBox box) {
+        double widthRadius = box.widthRadius + CULLING_MARGIN;
+        double heightRadius = box.heightRadius + CULLING_MARGIN;
+        double depthRadius = box.depthRadius + CULLING_MARGIN;
+
+        if (maxDistanceSquared != 0) {
+            //Distance to the closest point of the box, not its center, so big entities don't pop out early.
+            double deltaX = Math.max(Math.abs(box.globalCenter.x - cameraPosition.x) - widthRadius, 0);
+            double deltaY = Math.max(Math.abs(box.globalCenter.y - cameraPosition.y) - heightRadius, 0);
+            double deltaZ = Math.max(Math.abs(box.globalCenter.z - cameraPosition.z) - depthRadius, 0);
+            if (deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ > maxDistanceSquared) {
+                return false;
+            }
+        }
+
+        if (frustumSet) {
+            double centerX = box.globalCenter.x - matrixOrigin.x;
+            double centerY = box.globalCenter.y - matrixOrigin.y;
+            double centerZ = box.globalCenter.z - matrixOrigin.z;
+            for (int i = 0; i < planes.length; i += 4) {
+                //Check the box corner furthest along the plane normal.  If that's behind the plane, the whole box is.
+                double distance = planes[i] * centerX + planes[i + 1] * centerY + planes[i + 2] * centerZ + planes[i + 3];
+                double reach = Math.abs(planes[i]) * widthRadius + Math.abs(planes[i + 1]) * heightRadius + Math.abs(planes[i + 2]) * depthRadius;
+                if (distance + reach < 0) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -73,11 +73,13 @@ public final class RenderInstrument {
                     //Render if we don't have transforms, or of those transforms said we were good.
                     InstrumentSwitchbox switchbox = entity.instrumentComponentSwitchboxes.get(component);
                     if (switchbox == null || switchbox.runSwitchbox(partialTicks, true)) {
+                        //Only re-format if the value changed.  Most gauges sit still most of the time.
+                        InstrumentText text = entity.instrumentTexts.get(slot).get(i);
                         String value = entity.getRawTextVariableValue(component.textObject, partialTicks);
                         if (value != null) {
-                            value = String.format(component.textObject.variableFormat, value);
+                            value = text.getText(component.textObject.variableFormat, value);
                         } else {
-                            value = String.format(component.textObject.variableFormat, getInstrumentVariableValue(entity, null, component.textObject.variableName, component.textObject.variableFactor, partialTicks) + component.textObject.variableOffset);
+                            value = text.getText(component.textObject.variableFormat, getInstrumentVariableValue(entity, null, component.textObject.variableName, component.textObject.variableFactor, partialTicks) + component.textObject.variableOffset);
                         }
                         RenderText.draw3DText(value, entity, textTransform, component.textObject, true, renderLit);
                     }
@@ -153,6 +155,33 @@ public final class RenderInstrument {
         return value;
     }
 
+    /**
+     * Formatted text for an instrument text component.  The text is only formatted again
+     * when the value passed in differs from the one it was last formatted with.
+     */
+    public static class InstrumentText {
+        private String lastRawValue;
+        private double lastValue;
+        private String text;
+
+        private String getText(String format, String rawValue) {
+            if (text == null || !rawValue.equals(lastRawValue)) {
+                text = String.format(format, rawValue);
+                lastRawValue = rawValue;
+            }
+            return text;
+        }
+
+        private String getText(String format, double value) {
+            if (text == null || lastRawValue != null || Double.doubleToLongBits(value) != Double.doubleToLongBits(lastValue)) {
+                text = String.format(format, value);
+                lastValue = value;
+                lastRawValue = null;
+            }
+            return text;
+        }
+    }
+
     /**
      * Custom instrument switchbox class.
      */
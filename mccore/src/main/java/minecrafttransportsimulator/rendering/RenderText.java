@@ -2,8 +2,11 @@ package minecrafttransportsimulator.rendering;
 
 import java.awt.image.BufferedImage;
 import java.nio.FloatBuffer;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -34,6 +37,7 @@ public class RenderText {
     public static final char RESET_FORMATTING_CHAR = 'r';
     public static final char UNDERLINE_CHAR = '_';
     public static final char STRIKETHROUGH_CHAR = '-';
+    private static final String RANDOM_FORMATTING_CODE = String.valueOf(new char[]{FORMATTING_CHAR, RANDOM_FORMATTING_CHAR});
 
     private static final Map<String, FontData> fontDatas = new HashMap<>();
     private static final TransformationMatrix transformHelper = new TransformationMatrix();
@@ -124,6 +128,7 @@ public class RenderText {
         private static final ColorRGB[] COLORS = new ColorRGB[]{new ColorRGB(0, 0, 0), new ColorRGB(0, 0, 170), new ColorRGB(0, 170, 0), new ColorRGB(0, 170, 170), new ColorRGB(170, 0, 0), new ColorRGB(170, 0, 170), new ColorRGB(255, 170, 0), new ColorRGB(170, 170, 170), new ColorRGB(85, 85, 85), new ColorRGB(85, 85, 255), new ColorRGB(85, 255, 85), new ColorRGB(85, 255, 255), new ColorRGB(255, 85, 85), new ColorRGB(255, 85, 255), new ColorRGB(255, 255, 85), new ColorRGB(255, 255, 255)};
         private static final FontRenderState[] STATES = FontRenderState.generateDefaults();
         private static final int MAX_VERTCIES_PER_RENDER = 1000 * 6;
+        private static final int MAX_CACHED_MESHES = 256;
         private static final Point3D adjustmentOffset = new Point3D();
 
         /**
@@ -180,6 +185,21 @@ public class RenderText {
          * At the end, it will be populated and should be looped over for drawing.
          */
         private final Set<RenderableData> activeRenderObjects = new LinkedHashSet<>();
+        /**
+         * Built text meshes, keyed by everything that affects the mesh.  This is an access-ordered map, so the
+         * least-recently drawn mesh is removed when it gets full.  Text rarely changes between frames, so this
+         * saves us from re-building the same vertices every time the text is drawn.
+         **/
+        private final Map<TextMeshKey, TextMesh> cachedMeshes = new LinkedHashMap<TextMeshKey, TextMesh>(16, 0.75F, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<TextMeshKey, TextMesh> eldest) {
+                return size() > MAX_CACHED_MESHES;
+            }
+        };
+        /**
+         * Mutable key for mesh lookups.  Only copied when a new mesh is added to the cache.
+         **/
+        private final TextMeshKey lookupKey = new TextMeshKey();
         /**
          * Mutable helper for doing vertex-building operations.
          **/
@@ -327,6 +347,39 @@ public class RenderText {
         }
 
         private void renderText(String text, TransformationMatrix transform, RotationMatrix rotation, TextAlignment alignment, float scale, boolean autoScale, int wrapWidth, boolean pixelCoords, ColorRGB color, boolean renderLit, int worldLightValue, boolean onGUI) {
+            //Get the mesh for this text.  Text with random chars changes every draw, so it can't be cached.
+            TextMesh mesh;
+            if (text.contains(RANDOM_FORMATTING_CODE)) {
+                mesh = buildMesh(text, alignment, scale, autoScale, wrapWidth, pixelCoords, color);
+            } else {
+                lookupKey.set(text, alignment, scale, autoScale, wrapWidth, pixelCoords, color.rgbInt);
+                mesh = cachedMeshes.get(lookupKey);
+                if (mesh == null) {
+                    mesh = buildMesh(text, alignment, scale, autoScale, wrapWidth, pixelCoords, color);
+                    cachedMeshes.put(lookupKey.copy(), mesh);
+                }
+            }
+
+            //Prior to rendering we need to scale the font objects to their requested scale, multiplied by their internal scale factor.
+            //After this, we apply the known-constant adjustmentOffset, which will itself be scaled.
+            for (RenderableData object : mesh.objects) {
+                object.setLightValue(worldLightValue);
+                object.setLightMode(renderLit ? LightingMode.IGNORE_ALL_LIGHTING : (onGUI ? LightingMode.IGNORE_ORIENTATION_LIGHTING : LightingMode.NORMAL));
+                object.transform.set(transform);
+                if (rotation != null) {
+                    object.transform.applyRotation(rotation);
+                }
+                object.transform.applyScaling(mesh.scale, mesh.scale, mesh.scale);
+                object.transform.applyTranslation(mesh.adjustmentOffset);
+                object.render();
+            }
+        }
+
+        /**
+         * Builds the mesh for the passed-in text.  Vertices are built in the shared per-sheet objects,
+         * then copied out to the mesh's own objects so they can be kept around.
+         */
+        private TextMesh buildMesh(String text, TextAlignment alignment, float scale, boolean autoScale, int wrapWidth, boolean pixelCoords, ColorRGB color) {
             //Clear out the active object list as it was set last pass.
             for (RenderableData object : activeRenderObjects) {
                 object.vertexObject.vertices.clear();
@@ -344,7 +397,7 @@ public class RenderText {
 
             //Check the string for a random font code char.  If we have one, we need to substitute chars.
             //Do this prior to rendering operations as this will affect string length and blocks.
-            if (text.indexOf(FORMATTING_CHAR + RANDOM_FORMATTING_CHAR) != -1) {
+            if (text.contains(RANDOM_FORMATTING_CODE)) {
                 char[] textArray = text.toCharArray();
                 boolean randomActive = false;
                 for (int i = 0; i < textArray.length; ++i) {
@@ -655,21 +708,18 @@ public class RenderText {
                 }
             }
 
-            //All points obtained, render.
-            //Prior to rendering we need to scale the font objects to their requested scale, multiplied by their internal scale factor.
-            //After this, we apply the known-constant adjustmentOffset, which will itself be scaled.
+            //All points obtained, copy them to the mesh.
+            TextMesh mesh = new TextMesh(scale, adjustmentOffset);
             for (RenderableData object : activeRenderObjects) {
-                object.setLightValue(worldLightValue);
-                object.setLightMode(renderLit ? LightingMode.IGNORE_ALL_LIGHTING : (onGUI ? LightingMode.IGNORE_ORIENTATION_LIGHTING : LightingMode.NORMAL));
-                object.transform.set(transform);
-                if (rotation != null) {
-                    object.transform.applyRotation(rotation);
-                }
-                object.transform.applyScaling(scale, scale, scale);
-                object.transform.applyTranslation(adjustmentOffset);
                 object.vertexObject.vertices.flip();
-                object.render();
+                FloatBuffer meshVertices = FloatBuffer.allocate(object.vertexObject.vertices.limit());
+                meshVertices.put(object.vertexObject.vertices);
+                meshVertices.flip();
+                RenderableData meshObject = new RenderableData(new RenderableVertices("font_block", meshVertices, false), object.texture);
+                meshObject.setColor(object.color);
+                mesh.objects.add(meshObject);
             }
+            return mesh;
         }
 
         private RenderableData getObjectFor(char textChar, ColorRGB color) {
@@ -710,6 +760,72 @@ public class RenderText {
             return stringWidth;
         }
 
+        /**
+         * A built text mesh.  Holds one object per texture sheet and color used, plus the
+         * final scale and offset the objects need to be rendered at.
+         */
+        private static class TextMesh {
+            private final List<RenderableData> objects = new ArrayList<>();
+            private final float scale;
+            private final Point3D adjustmentOffset;
+
+            private TextMesh(float scale, Point3D adjustmentOffset) {
+                this.scale = scale;
+                this.adjustmentOffset = adjustmentOffset.copy();
+            }
+        }
+
+        /**
+         * Key for {@link TextMesh}es.  Contains everything that changes how text is built.
+         */
+        private static class TextMeshKey {
+            private String text;
+            private TextAlignment alignment;
+            private float scale;
+            private boolean autoScale;
+            private int wrapWidth;
+            private boolean pixelCoords;
+            private int color;
+
+            private void set(String text, TextAlignment alignment, float scale, boolean autoScale, int wrapWidth, boolean pixelCoords, int color) {
+                this.text = text;
+                this.alignment = alignment;
+                this.scale = scale;
+                this.autoScale = autoScale;
+                this.wrapWidth = wrapWidth;
+                this.pixelCoords = pixelCoords;
+                this.color = color;
+            }
+
+            private TextMeshKey copy() {
+                TextMeshKey key = new TextMeshKey();
+                key.set(text, alignment, scale, autoScale, wrapWidth, pixelCoords, color);
+                return key;
+            }
+
+            @Override
+            public int hashCode() {
+                int result = text.hashCode();
+                result = 31 * result + alignment.hashCode();
+                result = 31 * result + Float.floatToIntBits(scale);
+                result = 31 * result + (autoScale ? 1 : 0);
+                result = 31 * result + wrapWidth;
+                result = 31 * result + (pixelCoords ? 1 : 0);
+                result = 31 * result + color;
+                return result;
+            }
+
+            @Override
+            public boolean equals(Object object) {
+                if (object instanceof TextMeshKey) {
+                    TextMeshKey otherKey = (TextMeshKey) object;
+                    return text.equals(otherKey.text) && alignment == otherKey.alignment && scale == otherKey.scale && autoScale == otherKey.autoScale && wrapWidth == otherKey.wrapWidth && pixelCoords == otherKey.pixelCoords && color == otherKey.color;
+                } else {
+                    return false;
+                }
+            }
+        }
+
         private static class FontRenderState {
             private static final int BOLD_BIT_INDEX = 1;
             private static final int ITALIC_BIT_INDEX = 2;
@@ -26,6 +26,7 @@ import minecrafttransportsimulator.entities.instances.APart;
 import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
 import minecrafttransportsimulator.entities.instances.PartGroundDevice;
 import minecrafttransportsimulator.jsondefs.JSONAnimatedObject;
+import minecrafttransportsimulator.jsondefs.JSONLODTier;
 import minecrafttransportsimulator.jsondefs.JSONLight;
 import minecrafttransportsimulator.jsondefs.JSONLight.JSONLightBlendableComponent;
 import minecrafttransportsimulator.jsondefs.JSONText;
@@ -55,6 +56,7 @@ public class RenderableModelObject {
     private final RenderableData beamRenderable;
     private final RenderableData coverRenderable;
     private final List<Double[]> treadPoints;
+    private final float largestDimension;
 
     private static final TransformationMatrix treadPathBaseTransform = new TransformationMatrix();
     private static final RotationMatrix treadRotation = new RotationMatrix();
@@ -154,6 +156,7 @@ public class RenderableModelObject {
         } else {
             this.treadPoints = null;
         }
+        this.largestDimension = vertexObject.getLargestDimension();
 
         //Bind the error texture if we haven't already.
         if (!errorTextureBound) {
@@ -169,6 +172,12 @@ public class RenderableModelObject {
     public void render(AEntityD_Definable<?> entity, TransformationMatrix transform, boolean blendingEnabled, float partialTicks) {
         //Do pre-render checks based on the object we are rendering.
         //This may block rendering if there are false visibility transforms or the wrong render pass.
+        //LOD checks go first, as they save us from running the switchbox.
+        JSONLODTier lodTier = entity.currentLODTier;
+        if (lodTier != null && lightDef == null && treadPoints == null && largestDimension < lodTier.minObjectSize) {
+            return;
+        }
+        boolean lightsEnabled = lodTier == null || !lodTier.disableLights;
         if (shouldRender(entity, blendingEnabled, partialTicks)) {
             //If we are a online texture, bind that one rather than our own.
             //We do this first since we don't need to calculate other stuff if we aren't rendering.
@@ -264,6 +273,10 @@ public class RenderableModelObject {
                 boolean isLitTexture = lightDef != null && lightLevel > 0 && !lightDef.emissive && !lightDef.isBeam;
                 if ((renderable.isTranslucent || isLitTexture) == blendingEnabled) {
                     if (lightDef != null && lightDef.isBeam) {
+                        if (!lightsEnabled) {
+                            //Beam models are all glow, so they get skipped with the other light effects.
+                            return;
+                        }
                         //Model that's actually a beam, render it with beam lighting/blending. 
                         renderable.setLightValue(entity.worldLightValue);
                         renderable.setLightMode(ConfigSystem.client.renderingSettings.brightLights.value ? LightingMode.IGNORE_ALL_LIGHTING : LightingMode.NORMAL);
@@ -289,7 +302,7 @@ public class RenderableModelObject {
             //Check if we are a light that's not a beam.  If so, do light-specific rendering.
             if (lightDef != null && !lightDef.isBeam) {
                 ColorRGB color = entity.lightColorValues.get(lightDef);
-                if (colorRenderable != null && lightLevel > 0) {
+                if (colorRenderable != null && lightLevel > 0 && lightsEnabled) {
                     //Color renderable might or might not be translucent depending on current alpha state.
                     colorRenderable.setAlpha(lightLevel);
                     if (blendingEnabled == colorRenderable.isTranslucent) {
@@ -302,7 +315,7 @@ public class RenderableModelObject {
                 }
 
                 //Flares and beams are always rendered on the blended pass since they need to do alpha blending.
-                if (blendingEnabled && lightLevel > 0) {
+                if (blendingEnabled && lightLevel > 0 && lightsEnabled) {
                     //Light flares or beams detected on blended render pass.
                     //First render all flares, then render all beams.
                     float blendableBrightness = Math.min((1 - entity.world.getLightBrightness(entity.position, false)) * lightLevel, 1);
@@ -336,10 +349,12 @@ public class RenderableModelObject {
             }
 
             //Render text on this object.  Only do this on the solid pass.
-            for (Entry<JSONText, String> textEntry : entity.text.entrySet()) {
-                JSONText textDef = textEntry.getKey();
-                if (renderable.vertexObject.name.equals(textDef.attachedTo) && ((textDef.lightsUp && entity.renderTextLit()) == blendingEnabled)) {
-                    RenderText.draw3DText(textEntry.getValue(), entity, renderable.transform, textDef, false, blendingEnabled);
+            if (lodTier == null || !lodTier.disableText) {
+                for (Entry<JSONText, String> textEntry : entity.text.entrySet()) {
+                    JSONText textDef = textEntry.getKey();
+                    if (renderable.vertexObject.name.equals(textDef.attachedTo) && ((textDef.lightsUp && entity.renderTextLit()) == blendingEnabled)) {
+                        RenderText.draw3DText(textEntry.getValue(), entity, renderable.transform, textDef, false, blendingEnabled);
+                    }
                 }
             }
         }
@@ -300,6 +300,28 @@ public class RenderableVertices {
         return backfaceObject;
     }
 
+    /**
+     * Returns the largest dimension of the axis-aligned box that holds all vertices of this object.
+     * Only valid for tri-based objects, not lines.
+     */
+    public float getLargestDimension() {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+        int limit = vertices.limit();
+        for (int index = 0; index + FLOATS_PER_VERTEX <= limit; index += FLOATS_PER_VERTEX) {
+            float x = vertices.get(index + VERTEX_BUFFER_X_OFFSET);
+            float y = vertices.get(index + VERTEX_BUFFER_Y_OFFSET);
+            float z = vertices.get(index + VERTEX_BUFFER_Z_OFFSET);
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            minZ = Math.min(minZ, z);
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+            maxZ = Math.max(maxZ, z);
+        }
+        return limit < FLOATS_PER_VERTEX ? 0 : Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+    }
+
     /**
      * Adds a line to the {@link #vertices} of this object using Point3D objects.
      * If the last line is added, this function will automatically handle the batch ending.
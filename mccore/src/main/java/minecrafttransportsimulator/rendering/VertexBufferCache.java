@@ -0,0 +1,79 @@
+package minecrafttransportsimulator.rendering;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bookkeeping for GPU vertex buffers shared between {@link RenderableData} instances.  Parsed models are cached
+ * in {@link AModelParser}, so every entity of the same model references the same {@link RenderableVertices}
+ * for each object in it.  This class keys buffers off those vertices, so fifty of the same bus have one buffer
+ * per object rather than fifty.  Each buffer is reference-counted by the renderables using it, and is handed
+ * back to be freed once the last of them is destroyed.
+ * <br><br>
+ * Since buffers are shared, they may only hold geometry.  Per-renderable state, such as color and lighting, must
+ * be supplied when drawing.  Vertices that are cached must also not be modified after they are first rendered, as
+ * doing so won't update the buffer.  The buffer type is generic so this class has no ties to the graphics API.
+ * All methods are synchronized, as renderables may be destroyed off the render thread.
+ *
+ * @author don_bruce
+ */
+public class VertexBufferCache<T> {
+    private final Map<RenderableVertices, SharedBuffer<T>> buffers = new IdentityHashMap<>();
+    private final Map<RenderableData, SharedBuffer<T>> users = new IdentityHashMap<>();
+
+    /**
+     * Returns the buffer for the vertices of the passed-in renderable.  If there isn't one, it is made with
+     * the passed-in function.  The renderable is counted as a user of the buffer until {@link #remove(RenderableData)}
+     * is called for it.
+     */
+    public synchronized T get(RenderableData data, Function<RenderableVertices, T> creator) {
+        SharedBuffer<T> sharedBuffer = users.get(data);
+        if (sharedBuffer == null) {
+            sharedBuffer = buffers.get(data.vertexObject);
+            if (sharedBuffer == null) {
+                sharedBuffer = new SharedBuffer<>(creator.apply(data.vertexObject));
+                buffers.put(data.vertexObject, sharedBuffer);
+            }
+            ++sharedBuffer.userCount;
+            users.put(data, sharedBuffer);
+        }
+        return sharedBuffer.buffer;
+    }
+
+    /**
+     * Removes the passed-in renderable as a user of its buffer.  If it was the last user, the buffer is
+     * returned so the caller can free it.  Otherwise, null is returned.
+     */
+    public synchronized T remove(RenderableData data) {
+        SharedBuffer<T> sharedBuffer = users.remove(data);
+        if (sharedBuffer != null && --sharedBuffer.userCount == 0) {
+            buffers.remove(data.vertexObject);
+            return sharedBuffer.buffer;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of buffers currently held.
+     */
+    public synchronized int getBufferCount() {
+        return buffers.size();
+    }
+
+    /**
+     * Returns the number of renderables currently using buffers.
+     */
+    public synchronized int getUserCount() {
+        return users.size();
+    }
+
+    private static class SharedBuffer<T> {
+        private final T buffer;
+        private int userCount;
+
+        private SharedBuffer(T buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
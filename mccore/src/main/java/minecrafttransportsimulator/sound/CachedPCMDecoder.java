@@ -0,0 +1,286 @@
+package minecrafttransportsimulator.sound;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+
+/**
+ * Decoder that plays local music files from a disk cache of their decoded PCM data, so they
+ * only need to be decoded once.  The first time a file is played, it is decoded by the normal
+ * decoder, and each block is written to the cache as it is returned.  The cache entry is only
+ * kept if the whole file is decoded, so stopping part way through a song doesn't leave a partial
+ * entry.  Later plays read the blocks straight from the cache.
+ * <br><br>
+ * This is only used for OGG files.  MP3 files have the station's equalizer applied while they are
+ * decoded, so cached MP3 data would ignore changes to it.  Decoded data is also ten or more times
+ * the size of the file, so entries that haven't been used in {@link #CACHE_MAX_UNUSED_DAYS} are
+ * deleted, as are the least recently used ones once the cache is over {@link #CACHE_MAX_SIZE}.
+ * This is done the first time the cache is used each launch.
+ *
+ * @author don_bruce
+ */
+public class CachedPCMDecoder implements IStreamDecoder {
+    private static final int CACHE_MAGIC = 0x4D545350;
+    private static final int CACHE_VERSION = 1;
+    private static final int CACHE_HEADER_SIZE = 3 * Integer.BYTES;
+    private static final int CACHE_MAX_UNUSED_DAYS = 30;
+    private static final long CACHE_MAX_SIZE = 1024L * 1024 * 1024;
+    private static final String CACHE_DIRECTORY = "mtsmusiccache";
+    /**
+     * Size of blocks read from the cache.  This is the same as a stereo OGG block once it's been made mono.
+     **/
+    private static final int CACHE_BLOCK_SIZE = BUFFER_SIZE / 2;
+    private static boolean cacheCleaned;
+
+    /**
+     * Decoder to get data from, or null if we are reading from the cache.
+     **/
+    private final IStreamDecoder sourceDecoder;
+    private final File cacheFile;
+    private final int sampleRate;
+    /**
+     * Channel to the cache file if reading, or to the temp file if writing.  Null once done with either.
+     **/
+    private FileChannel channel;
+    private File tempFile;
+    private final ByteBuffer readBuffer;
+
+    private CachedPCMDecoder(File cacheFile, FileChannel channel, int sampleRate) {
+        this.sourceDecoder = null;
+        this.cacheFile = cacheFile;
+        this.channel = channel;
+        this.sampleRate = sampleRate;
+        this.readBuffer = ByteBuffer.allocateDirect(CACHE_BLOCK_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    private CachedPCMDecoder(File cacheFile, IStreamDecoder sourceDecoder) {
+        this.sourceDecoder = sourceDecoder;
+        this.cacheFile = cacheFile;
+        this.sampleRate = sourceDecoder.getSampleRate();
+        this.readBuffer = null;
+        try {
+            cacheFile.getParentFile().mkdirs();
+            tempFile = File.createTempFile(cacheFile.getName(), ".tmp", cacheFile.getParentFile());
+            channel = FileChannel.open(tempFile.toPath(), StandardOpenOption.WRITE);
+            ByteBuffer header = ByteBuffer.allocate(CACHE_HEADER_SIZE).order(ByteOrder.nativeOrder());
+            header.putInt(CACHE_MAGIC).putInt(CACHE_VERSION).putInt(sampleRate).flip();
+            writeFully(header);
+        } catch (IOException e) {
+            InterfaceManager.coreInterface.logError("Could not create music cache file: " + cacheFile.getName() + ".  " + e.getMessage());
+            abortWrite();
+        }
+    }
+
+    /**
+     * Returns a decoder for the passed-in OGG file.  This reads from the cache if the file is in it,
+     * otherwise it decodes the file and adds it to the cache.
+     */
+    public static IStreamDecoder createOGGDecoder(File musicFile) throws IOException {
+        File cacheFile = getCacheFile(musicFile);
+        if (cacheFile != null) {
+            IStreamDecoder cachedDecoder = readCache(cacheFile);
+            if (cachedDecoder != null) {
+                return cachedDecoder;
+            }
+            return writeCache(cacheFile, new OGGDecoder(Files.newInputStream(musicFile.toPath())));
+        } else {
+            return new OGGDecoder(Files.newInputStream(musicFile.toPath()));
+        }
+    }
+
+    /**
+     * Returns a decoder that reads from the passed-in cache file, or null if the file doesn't exist or can't be read.
+     */
+    public static IStreamDecoder readCache(File cacheFile) {
+        if (cacheFile.exists()) {
+            FileChannel channel = null;
+            try {
+                channel = FileChannel.open(cacheFile.toPath(), StandardOpenOption.READ);
+                ByteBuffer header = ByteBuffer.allocate(CACHE_HEADER_SIZE).order(ByteOrder.nativeOrder());
+                while (header.hasRemaining() && channel.read(header) != -1) {
+                    //Keep reading until we have the whole header, or hit the end of a bad file.
+                }
+                header.flip();
+                if (header.remaining() == CACHE_HEADER_SIZE && header.getInt() == CACHE_MAGIC && header.getInt() == CACHE_VERSION) {
+                    //Mark the entry as used so it isn't cleaned up.
+                    cacheFile.setLastModified(System.currentTimeMillis());
+                    return new CachedPCMDecoder(cacheFile, channel, header.getInt());
+                }
+            } catch (IOException e) {
+                InterfaceManager.coreInterface.logError("Could not read cached music file: " + cacheFile.getName() + ", re-decoding it.  " + e.getMessage());
+            }
+            closeQuietly(channel);
+        }
+        return null;
+    }
+
+    /**
+     * Returns a decoder that returns the blocks from the passed-in decoder, and writes them to the passed-in cache file.
+     */
+    public static IStreamDecoder writeCache(File cacheFile, IStreamDecoder sourceDecoder) {
+        return new CachedPCMDecoder(cacheFile, sourceDecoder);
+    }
+
+    @Override
+    public ByteBuffer readBlock() {
+        if (sourceDecoder != null) {
+            ByteBuffer block = sourceDecoder.readBlock();
+            if (channel != null) {
+                try {
+                    if (block != null) {
+                        //Write a duplicate, so the block's position is left for the caller.
+                        writeFully(block.duplicate());
+                    } else {
+                        finishWrite();
+                    }
+                } catch (IOException e) {
+                    InterfaceManager.coreInterface.logError("Could not write music cache file: " + cacheFile.getName() + ".  " + e.getMessage());
+                    abortWrite();
+                }
+            }
+            return block;
+        } else if (channel != null) {
+            try {
+                readBuffer.clear();
+                while (readBuffer.hasRemaining() && channel.read(readBuffer) != -1) {
+                    //Keep reading until we have a full block, or hit the end of the file.
+                }
+                readBuffer.flip();
+                if (readBuffer.hasRemaining()) {
+                    return readBuffer;
+                }
+            } catch (IOException e) {
+                InterfaceManager.coreInterface.logError("Could not read cached music file: " + cacheFile.getName() + ".  " + e.getMessage());
+            }
+            closeQuietly(channel);
+            channel = null;
+        }
+        return null;
+    }
+
+    @Override
+    public void stop() {
+        if (sourceDecoder != null) {
+            sourceDecoder.stop();
+            abortWrite();
+        } else {
+            closeQuietly(channel);
+            channel = null;
+        }
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    private void writeFully(ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            channel.write(data);
+        }
+    }
+
+    /**
+     * Closes the temp file and moves it to the cache file.  This goes through a temp file so
+     * other stations never see a partly-written cache.
+     */
+    private void finishWrite() throws IOException {
+        channel.close();
+        channel = null;
+        try {
+            Files.move(tempFile.toPath(), cacheFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            //Another station may have beat us to it, or the filesystem may not support atomic moves.
+            Files.deleteIfExists(tempFile.toPath());
+        }
+        tempFile = null;
+    }
+
+    /**
+     * Closes and deletes the temp file, if we have one.  Decoding still goes on without caching.
+     */
+    private void abortWrite() {
+        closeQuietly(channel);
+        channel = null;
+        if (tempFile != null) {
+            tempFile.delete();
+            tempFile = null;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                //Nothing we can do, and we don't need it anymore.
+            }
+        }
+    }
+
+    /**
+     * Returns the cache file for the passed-in music file, or null if we can't get one.  Entries are keyed
+     * by the file's path, size, and modified time, so replacing the file makes a new entry.
+     * The first call each launch also cleans up the cache directory.
+     */
+    private static File getCacheFile(File musicFile) {
+        try {
+            String key = musicFile.getAbsolutePath() + ":" + musicFile.length() + ":" + musicFile.lastModified();
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder();
+            for (byte hashByte : hash) {
+                builder.append(String.format("%02x", hashByte));
+            }
+            File cacheDirectory = new File(InterfaceManager.gameDirectory, CACHE_DIRECTORY);
+            synchronized (CachedPCMDecoder.class) {
+                if (!cacheCleaned) {
+                    cacheCleaned = true;
+                    cleanCache(cacheDirectory, System.currentTimeMillis(), CACHE_MAX_SIZE);
+                }
+            }
+            return new File(cacheDirectory, builder.append(".pcm").toString());
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes all cache entries in the passed-in directory that haven't been used in {@link #CACHE_MAX_UNUSED_DAYS}
+     * as of the passed-in time, and all temp files left over from writes that didn't finish.  Temp files from
+     * writes that may still be going on are left alone.  If the remaining entries are more than the passed-in
+     * size, the least recently used ones are deleted until they aren't.
+     */
+    static void cleanCache(File cacheDirectory, long currentTime, long maxSize) {
+        File[] files = cacheDirectory.listFiles();
+        if (files != null) {
+            long oldestUsedTime = currentTime - TimeUnit.DAYS.toMillis(CACHE_MAX_UNUSED_DAYS);
+            long oldestTempTime = currentTime - TimeUnit.HOURS.toMillis(1);
+            long totalSize = 0;
+            Arrays.sort(files, Comparator.comparingLong(File::lastModified).reversed());
+            for (File file : files) {
+                if (file.getName().endsWith(".pcm")) {
+                    //If this fails, another game instance likely has the file open, so just leave it for next time.
+                    if (file.lastModified() < oldestUsedTime || totalSize + file.length() > maxSize) {
+                        file.delete();
+                    } else {
+                        totalSize += file.length();
+                    }
+                } else if (file.getName().endsWith(".tmp") && file.lastModified() < oldestTempTime) {
+                    file.delete();
+                }
+            }
+        }
+    }
+}
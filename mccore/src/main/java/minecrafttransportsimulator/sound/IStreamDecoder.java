@@ -43,22 +43,21 @@ public interface IStreamDecoder {
      * This allows us to use mono-only sounds that support attenuation.
      * This should be done prior to sending the finalized buffer returned in
      * {@link #readBlock()}, if the source sound file is non-mono as all systems
-     * expect a mono sound stream.
+     * expect a mono sound stream.  The buffer is combined in-place, so no new
+     * buffers are created, and the passed-in buffer is returned with its limit halved.
+     * Samples are read and written in the buffer's byte order.
      */
     static ByteBuffer stereoToMono(ByteBuffer stereoBuffer) {
-        ByteBuffer monoBuffer = ByteBuffer.allocateDirect(stereoBuffer.limit() / 2);
-        while (stereoBuffer.hasRemaining()) {
-            //Combine samples using little-endian ordering.
-            byte[] sampleSet = new byte[4];
-            stereoBuffer.get(sampleSet);
-            int leftSample = (sampleSet[1] << 8) | (sampleSet[0] & 0xFF);
-            int rightSample = (sampleSet[3] << 8) | (sampleSet[2] & 0xFF);
-            int combinedSample = (leftSample + rightSample) / 2;
-            monoBuffer.put((byte) (combinedSample & 0xFF));
-            monoBuffer.put((byte) (combinedSample >> 8));
+        int sampleSets = stereoBuffer.limit() / 4;
+        for (int i = 0; i < sampleSets; ++i) {
+            //We write at byte i*2, which is never past where we read from, so this is safe in-place.
+            int leftSample = stereoBuffer.getShort(i * 4);
+            int rightSample = stereoBuffer.getShort(i * 4 + 2);
+            stereoBuffer.putShort(i * 2, (short) ((leftSample + rightSample) / 2));
         }
-        monoBuffer.flip();
-        return monoBuffer;
+        stereoBuffer.position(0);
+        stereoBuffer.limit(sampleSets * 2);
+        return stereoBuffer;
     }
 
     int getSampleRate();
@@ -39,6 +39,8 @@ public class RadioStation {
     private final ConcurrentLinkedQueue<EntityRadio> queuedRadios = new ConcurrentLinkedQueue<>();
     private final ConcurrentLinkedQueue<EntityRadio> playingRadios = new ConcurrentLinkedQueue<>();
     private final ConcurrentLinkedQueue<Integer> activeBuffers = new ConcurrentLinkedQueue<>();
+    /**Buffers that are done playing and can be re-filled, rather than making new ones for every block.**/
+    private final ConcurrentLinkedQueue<Integer> freeBuffers = new ConcurrentLinkedQueue<>();
     private volatile LinkingThread linkingThread;
     private volatile DecoderThread decoderThread;
     private volatile int faultedDecodes;
@@ -115,7 +117,7 @@ public class RadioStation {
                     freeBufferIndex = InterfaceManager.soundInterface.getFreeStationBuffer(playingRadios);
                     if (freeBufferIndex != 0) {
                         activeBuffers.remove(freeBufferIndex);
-                        InterfaceManager.soundInterface.deleteBuffer(freeBufferIndex);
+                        freeBuffers.add(freeBufferIndex);
                     }
                 }
 
@@ -195,13 +197,14 @@ public class RadioStation {
      * Starts playing the local files on the local machine.
      */
     private void playFromLocalFiles() {
-        //Get the next MP3 file for playback.
-        //Use an iterator to keep non-MP3 files from blocking.
+        //Get the next MP3 or OGG file for playback.
+        //Use an iterator to keep other files from blocking.
         Iterator<File> iterator = musicFiles.iterator();
         while (iterator.hasNext()) {
             try {
                 File musicFile = iterator.next();
-                if (!musicFile.getName().toLowerCase(Locale.ROOT).endsWith(".mp3")) {
+                String fileName = musicFile.getName().toLowerCase(Locale.ROOT);
+                if (!fileName.endsWith(".mp3") && !fileName.endsWith(".ogg")) {
                     iterator.remove();
                 } else {
                     infoText = "Station: " + musicFiles.get(0).getParentFile().getName() + "\nNow Playing: " + musicFiles.get(0).getName();
@@ -324,6 +327,8 @@ public class RadioStation {
      * @author don_bruce
      */
     private static class DecoderThread extends Thread {
+        /**Time to wait between checks for free buffers, in milliseconds.  Blocks are over a second long, so this won't starve playback.**/
+        private static final int BUFFER_WAIT_TIME = 50;
         private final RadioStation station;
         private final String contentType;
         private final URLConnection contentConnection;
@@ -362,6 +367,9 @@ public class RadioStation {
                                 decoder = new OGGDecoder(contentConnection.getInputStream());
                                 break;
                         }
+                    } else if (contentFile.getName().toLowerCase(Locale.ROOT).endsWith(".ogg")) {
+                        //OGGs don't use the equalizer, so we can play them from the decoded cache.
+                        decoder = CachedPCMDecoder.createOGGDecoder(contentFile);
                     } else {
                         decoder = new MP3Decoder(Files.newInputStream(contentFile.toPath()), station.equalizer);
                     }
@@ -381,6 +389,13 @@ public class RadioStation {
                             if (newIndex != 0) {
                                 station.playingRadios.forEach(radio -> InterfaceManager.soundInterface.bindBuffer(radio.getPlayingSound(), newIndex));
                             }
+                        } else {
+                            //All buffers full, wait for one to play out rather than spinning.
+                            try {
+                                Thread.sleep(BUFFER_WAIT_TIME);
+                            } catch (InterruptedException e) {
+                                return;
+                            }
                         }
                     }
                     return;
@@ -410,7 +425,15 @@ public class RadioStation {
             ByteBuffer buffer = decoder.readBlock();
             if (buffer != null) {
                 //Get new buffer index from the audio system and add it to our radios.
-                int bufferIndex = InterfaceManager.soundInterface.createBuffer(buffer, decoder);
+                //Re-use a buffer that's done playing if we have one.
+                Integer freeBufferIndex = station.freeBuffers.poll();
+                int bufferIndex;
+                if (freeBufferIndex != null) {
+                    bufferIndex = freeBufferIndex;
+                    InterfaceManager.soundInterface.refillBuffer(bufferIndex, buffer, decoder);
+                } else {
+                    bufferIndex = InterfaceManager.soundInterface.createBuffer(buffer, decoder);
+                }
                 station.activeBuffers.add(bufferIndex);
                 if (updateDisplay) {
                     //Update station buffer counts and return buffer index.
@@ -0,0 +1,313 @@
+package minecrafttransportsimulator.systems;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import minecrafttransportsimulator.jsondefs.AJSONItem;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packloading.JSONParser;
+
+/**
+ * Class that handles timing metrics.  Timings are recorded into sections, which are made once and held by
+ * whatever is being timed, so recording a timing never allocates anything or does any lookups.  Sections exist
+ * for each pack definition that is ticked, for each subsystem, and for each packet type.
+ * <br><br>
+ * To time something, get a start time from {@link #startTimer()}, and pass it to {@link Section#record(long)} once done.
+ * If metrics are disabled, the start time will be 0 and nothing is recorded.  Timings are put into histograms with
+ * four buckets per power of two nanoseconds, which keeps percentiles within about 20% of the real value.  Every 10 seconds
+ * the histograms are rolled over, and the percentiles reported are from the last full 10 seconds.  All methods are
+ * thread-safe, as entities may tick on multiple threads.
+ *
+ * @author don_bruce
+ */
+public final class MetricsSystem {
+    private static final long DEFAULT_WINDOW_NANOS = 10_000_000_000L;
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /**Enough buckets to cover about 18 minutes.  Anything longer goes into the last bucket.**/
+    private static final int BUCKET_COUNT = SUB_BUCKETS * 40;
+
+    private static final Map<String, Section> sections = new HashMap<>();
+    private static final List<Section> sectionList = new ArrayList<>();
+    private static final ClassValue<Section> packetSections = new ClassValue<Section>() {
+        @Override
+        protected Section computeValue(Class<?> packetClass) {
+            return getSection(Category.PACKET, packetClass.getSimpleName());
+        }
+    };
+    private static volatile long windowStartTime = System.nanoTime();
+    private static volatile long windowNanos = DEFAULT_WINDOW_NANOS;
+    private static volatile long lastWindowNanos = DEFAULT_WINDOW_NANOS;
+    private static long lastDumpTime = System.nanoTime();
+
+    /**Ticking physics, including collisions.**/
+    public static final Section PHYSICS = getSection(Category.SUBSYSTEM, "physics");
+    /**Vehicle collision box checks against blocks and entities.**/
+    public static final Section COLLISIONS = getSection(Category.SUBSYSTEM, "collisions");
+    /**Variable modifier switchboxes, which run every tick.**/
+    public static final Section SWITCHBOXES = getSection(Category.SUBSYSTEM, "switchboxes");
+    /**Sound updates, which run every frame.**/
+    public static final Section SOUNDS = getSection(Category.SUBSYSTEM, "sounds");
+    /**Model rendering, which runs every frame.**/
+    public static final Section RENDERING = getSection(Category.SUBSYSTEM, "rendering");
+    /**Entities that have no definition, such as bullets.**/
+    public static final Section OTHER_ENTITIES = getSection(Category.DEFINITION, "other");
+
+    /**
+     * Returns true if metrics are being recorded.
+     */
+    public static boolean isEnabled() {
+        return ConfigSystem.settings != null && ConfigSystem.settings.general.tickMetrics.value;
+    }
+
+    /**
+     * Returns the start time to pass to {@link Section#record(long)}, or 0 if metrics are disabled.
+     */
+    public static long startTimer() {
+        return isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Returns the section for the passed-in category and name, creating it if needed.
+     * This should be called once and the section held, not called every time a timing is recorded.
+     */
+    public static synchronized Section getSection(Category category, String name) {
+        String key = category.name + ":" + name;
+        Section section = sections.get(key);
+        if (section == null) {
+            section = new Section(category, name);
+            sections.put(key, section);
+            sectionList.add(section);
+        }
+        return section;
+    }
+
+    /**
+     * Returns the section for the passed-in definition.  Definitions are keyed by their pack and system name,
+     * so entities of the same definition share a section, even across hotloads.
+     */
+    public static Section getDefinitionSection(AJSONItem definition) {
+        return getSection(Category.DEFINITION, definition.packID + ":" + definition.systemName);
+    }
+
+    /**
+     * Returns the section for the passed-in packet class.  This is cached per-class, so is safe to call every packet.
+     */
+    public static Section getPacketSection(Class<?> packetClass) {
+        return packetSections.get(packetClass);
+    }
+
+    /**
+     * Rolls the histograms over if the current window is done, and dumps them to disk if the dump interval has passed.
+     * Call this every tick.  Multiple calls per tick are fine.
+     */
+    public static void update() {
+        long time = System.nanoTime();
+        if (time - windowStartTime >= windowNanos) {
+            synchronized (MetricsSystem.class) {
+                if (time - windowStartTime >= windowNanos) {
+                    rollWindow(time);
+                    if (isEnabled()) {
+                        int dumpInterval = ConfigSystem.settings.general.tickMetricsDumpInterval.value;
+                        if (dumpInterval > 0 && time - lastDumpTime >= dumpInterval * 60_000_000_000L) {
+                            lastDumpTime = time;
+                            dump();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the current window now, and sets how long the next window is.  Snapshots will be of the window that just
+     * ended.  This is for timing a set run, such as in the simulation harness, rather than the last 10 seconds.
+     * Pass {@link Long#MAX_VALUE} to have the next window last until this is called again.
+     */
+    public static synchronized void endWindow(long nextWindowNanos) {
+        rollWindow(System.nanoTime());
+        windowNanos = nextWindowNanos;
+    }
+
+    private static void rollWindow(long time) {
+        lastWindowNanos = time - windowStartTime;
+        windowStartTime = time;
+        for (Section section : sectionList) {
+            section.roll();
+        }
+    }
+
+    /**
+     * Returns a snapshot of all sections that had timings in the last full window.
+     * Sections are sorted with the ones that took the most total time first.
+     */
+    public static synchronized List<SectionSnapshot> getSnapshots() {
+        List<SectionSnapshot> snapshots = new ArrayList<>();
+        for (Section section : sectionList) {
+            if (section.windowCount > 0) {
+                snapshots.add(new SectionSnapshot(section));
+            }
+        }
+        snapshots.sort((snapshot1, snapshot2) -> Double.compare(snapshot2.totalMillis, snapshot1.totalMillis));
+        return snapshots;
+    }
+
+    /**
+     * Returns lines for the passed-in number of the most expensive sections in the last full window, for displaying
+     * in chat.  If a category is passed-in, only sections of that category are returned.
+     */
+    public static List<String> getReport(Category category, int maxLines) {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("MTS metrics, last %ds (total ms | count | p50 us | p99 us):", Math.round(lastWindowNanos / 1_000_000_000D)));
+        for (SectionSnapshot snapshot : getSnapshots()) {
+            if (category == null || snapshot.category.equals(category.name)) {
+                if (lines.size() > maxLines) {
+                    break;
+                }
+                lines.add(String.format("%s %s: %.2f | %d | %.1f | %.1f", snapshot.category, snapshot.name, snapshot.totalMillis, snapshot.count, snapshot.p50Micros, snapshot.p99Micros));
+            }
+        }
+        if (lines.size() == 1) {
+            lines.add(isEnabled() ? "No timings recorded yet, wait for the window to fill." : "Metrics are disabled.");
+        }
+        return lines;
+    }
+
+    /**
+     * Dumps the last full window to CSV and JSON files in the metrics folder.  Returns the path of the files without
+     * the extension, or null if they couldn't be written.
+     */
+    public static String dump() {
+        List<SectionSnapshot> snapshots = getSnapshots();
+        File metricsDirectory = new File(InterfaceManager.gameDirectory, "mts_metrics");
+        metricsDirectory.mkdirs();
+        String fileName = new File(metricsDirectory, "metrics_" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date())).getAbsolutePath();
+        try (FileWriter writer = new FileWriter(fileName + ".csv")) {
+            writer.write("category,name,count,totalMillis,p50Micros,p99Micros\n");
+            for (SectionSnapshot snapshot : snapshots) {
+                writer.write(String.format("%s,\"%s\",%d,%.3f,%.1f,%.1f\n", snapshot.category, snapshot.name, snapshot.count, snapshot.totalMillis, snapshot.p50Micros, snapshot.p99Micros));
+            }
+            JSONParser.exportStream(snapshots, new FileOutputStream(fileName + ".json"));
+            return fileName;
+        } catch (IOException e) {
+            InterfaceManager.coreInterface.logError("Could not write metrics to: " + fileName + ".  " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static int getBucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return nanos < 0 ? 0 : (int) nanos;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min((exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket, BUCKET_COUNT - 1);
+    }
+
+    private static long getBucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        return (long) (SUB_BUCKETS + bucket % SUB_BUCKETS + 1) << shift;
+    }
+
+    /**
+     * Categories of sections.
+     */
+    public static enum Category {
+        DEFINITION("definition"),
+        SUBSYSTEM("subsystem"),
+        PACKET("packet");
+
+        public final String name;
+
+        private Category(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * A single thing being timed.
+     */
+    public static class Section {
+        public final Category category;
+        public final String name;
+        /**Name to use for the game's profiler.  Made once so it doesn't need to be built every tick.**/
+        public final String profilerName;
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final long[] windowBuckets = new long[BUCKET_COUNT];
+        private long windowCount;
+        private long windowTotalNanos;
+
+        private Section(Category category, String name) {
+            this.category = category;
+            this.name = name;
+            this.profilerName = "MTS_" + name;
+        }
+
+        /**
+         * Records the time from the passed-in start time until now.  Start times of 0 are ignored.
+         */
+        public void record(long startTime) {
+            if (startTime != 0) {
+                long nanos = System.nanoTime() - startTime;
+                buckets.incrementAndGet(getBucket(nanos));
+                totalNanos.addAndGet(nanos);
+            }
+        }
+
+        private void roll() {
+            windowCount = 0;
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                windowBuckets[i] = buckets.getAndSet(i, 0);
+                windowCount += windowBuckets[i];
+            }
+            windowTotalNanos = totalNanos.getAndSet(0);
+        }
+
+        private double getPercentileMicros(double percentile) {
+            long target = (long) Math.ceil(windowCount * percentile);
+            long count = 0;
+            for (int i = 0; i < BUCKET_COUNT; ++i) {
+                count += windowBuckets[i];
+                if (count >= target) {
+                    return getBucketUpperBound(i) / 1000D;
+                }
+            }
+            return getBucketUpperBound(BUCKET_COUNT - 1) / 1000D;
+        }
+    }
+
+    /**
+     * The timings of a section over the last full window.  Percentiles are the upper bounds of their histogram bucket.
+     */
+    public static class SectionSnapshot {
+        public final String category;
+        public final String name;
+        public final long count;
+        public final double totalMillis;
+        public final double p50Micros;
+        public final double p99Micros;
+
+        private SectionSnapshot(Section section) {
+            this.category = section.category.name;
+            this.name = section.name;
+            this.count = section.windowCount;
+            this.totalMillis = section.windowTotalNanos / 1_000_000D;
+            this.p50Micros = section.getPercentileMicros(0.50);
+            this.p99Micros = section.getPercentileMicros(0.99);
+        }
+    }
+}
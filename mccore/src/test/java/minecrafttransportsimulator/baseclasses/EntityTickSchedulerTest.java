@@ -0,0 +1,152 @@
+package minecrafttransportsimulator.baseclasses;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import minecrafttransportsimulator.entities.instances.EntityVehicleF_Physics;
+import minecrafttransportsimulator.harness.ControlRecording;
+import minecrafttransportsimulator.harness.ControlScript;
+import minecrafttransportsimulator.harness.HarnessCore;
+import minecrafttransportsimulator.harness.HarnessPacket;
+import minecrafttransportsimulator.harness.HarnessWorld;
+import minecrafttransportsimulator.harness.VoxelTerrain;
+import minecrafttransportsimulator.harness.VoxelTerrain.TerrainType;
+import minecrafttransportsimulator.items.components.AItemPack;
+import minecrafttransportsimulator.items.instances.ItemVehicle;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.packloading.PackParser;
+import minecrafttransportsimulator.systems.ConfigSystem;
+
+/**
+ * Tests that parallel ticking gives the same results as serial ticking.  Vehicles are run in the harness
+ * twice, once with each, and must be in exactly the same state after every tick.  Vehicles are put in two
+ * columns that are far apart, so there is more than one island.  They are close together in each column and
+ * drive stop-and-go, so they run into each other.  One column has radar cars, which can't be put in islands,
+ * between the normal cars, so the results depend on each vehicle being ticked in its spot in the list.
+ *
+ * @author don_bruce
+ */
+public class EntityTickSchedulerTest {
+    private static final String[] PACK_FILES = {
+            "packdefinition.json",
+            "jsondefs/parts/testengine.json",
+            "jsondefs/vehicles/testcar.json",
+            "jsondefs/vehicles/testradarcar.json" };
+    private static final int TERRAIN_HEIGHT = 64;
+    private static final int TERRAIN_RADIUS = 256;
+    private static final int VEHICLES_PER_COLUMN = 6;
+    private static final int VEHICLE_SPACING = 5;
+    private static final int TICKS = 400;
+    private static ItemVehicle car;
+    private static ItemVehicle radarCar;
+
+    @BeforeAll
+    public static void loadPacks() throws IOException {
+        File gameDirectory = Files.createTempDirectory("mtsharness").toFile();
+        File packDirectory = new File(gameDirectory, "packs");
+        packDirectory.mkdirs();
+        new File(gameDirectory, "config").mkdirs();
+        writePackJar(new File(packDirectory, "testpack.jar"));
+
+        List<File> packDirectories = Collections.singletonList(packDirectory);
+        new InterfaceManager("mts", gameDirectory.getAbsolutePath(), new HarnessCore(packDirectories), new HarnessPacket(), null, null, null, null);
+        APacketBase.initPackets((byte) 0);
+        ConfigSystem.loadFromDisk(false);
+        PackParser.addDefaultItems();
+        PackParser.parsePacks(packDirectories);
+        car = getVehicleItem("testpack.testcar_red");
+        radarCar = getVehicleItem("testpack.testradarcar_red");
+        assertNotNull(car);
+        assertNotNull(radarCar);
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        List<String> serialStates = run(false);
+        List<String> parallelStates = run(true);
+        for (int tick = 0; tick < TICKS; ++tick) {
+            assertEquals(serialStates.get(tick), parallelStates.get(tick), "Vehicle states differ on tick " + tick);
+        }
+    }
+
+    /**
+     * Runs the vehicles and returns the state hash of all of them after each tick.
+     */
+    private static List<String> run(boolean parallel) {
+        ConfigSystem.settings.general.parallelEntityTicking.value = parallel;
+        HarnessWorld world = new HarnessWorld(new VoxelTerrain(TerrainType.FLAT, TERRAIN_HEIGHT, TERRAIN_RADIUS), parallel);
+
+        //Spawn a car in each column in turn, so the columns' vehicles are mixed together in the tick list.
+        List<EntityVehicleF_Physics> vehicles = new ArrayList<>();
+        for (int row = 0; row < VEHICLES_PER_COLUMN; ++row) {
+            vehicles.add(spawnVehicle(world, row % 2 == 1 ? radarCar : car, VoxelTerrain.getLaneCenter(-2), row * VEHICLE_SPACING));
+            vehicles.add(spawnVehicle(world, car, VoxelTerrain.getLaneCenter(2), row * VEHICLE_SPACING));
+        }
+
+        List<String> states = new ArrayList<>();
+        for (int tick = 0; tick < TICKS; ++tick) {
+            for (int i = 0; i < vehicles.size(); ++i) {
+                ControlScript.STOP_GO.getFrame(i, tick).apply(vehicles.get(i));
+            }
+            world.tick();
+            states.add(ControlRecording.getStateHash(vehicles));
+        }
+        for (EntityVehicleF_Physics vehicle : vehicles) {
+            vehicle.remove();
+        }
+        return states;
+    }
+
+    private static EntityVehicleF_Physics spawnVehicle(HarnessWorld world, ItemVehicle item, int x, int z) {
+        EntityVehicleF_Physics vehicle = new EntityVehicleF_Physics(world, null, item, null);
+        vehicle.isCreative = true;
+        vehicle.position.set(x + 0.5, world.terrain.getGroundHeight(x, z), z + 0.5);
+        vehicle.prevPosition.set(vehicle.position);
+        vehicle.orientation.setToAngles(new Point3D(0, 0, 0));
+        vehicle.prevOrientation.set(vehicle.orientation);
+        world.spawnEntity(vehicle);
+        vehicle.addPartsPostAddition(null, null);
+        return vehicle;
+    }
+
+    private static ItemVehicle getVehicleItem(String registrationName) {
+        for (AItemPack<?> packItem : PackParser.getAllPackItems()) {
+            if (packItem instanceof ItemVehicle && packItem.getRegistrationName().equals(registrationName)) {
+                return (ItemVehicle) packItem;
+            }
+        }
+        return null;
+    }
+
+    private static void writePackJar(File jarFile) throws IOException {
+        try (ZipOutputStream jarStream = new ZipOutputStream(new FileOutputStream(jarFile))) {
+            for (String packFile : PACK_FILES) {
+                String entryName = "assets/testpack/" + packFile;
+                jarStream.putNextEntry(new ZipEntry(entryName));
+                try (InputStream resourceStream = EntityTickSchedulerTest.class.getResourceAsStream("/testpack/" + entryName)) {
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while ((read = resourceStream.read(buffer)) != -1) {
+                        jarStream.write(buffer, 0, read);
+                    }
+                }
+                jarStream.closeEntry();
+            }
+        }
+    }
+}
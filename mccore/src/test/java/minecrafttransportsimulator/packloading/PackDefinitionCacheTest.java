@@ -0,0 +1,72 @@
+package minecrafttransportsimulator.packloading;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import minecrafttransportsimulator.jsondefs.AJSONBase;
+import minecrafttransportsimulator.jsondefs.JSONPart;
+import minecrafttransportsimulator.jsondefs.JSONVehicle;
+import minecrafttransportsimulator.packloading.PackDefinitionCache.CachedDefinition;
+import minecrafttransportsimulator.packloading.PackResourceLoader.ItemClassification;
+
+/**
+ * Tests for the pack definition cache's binary form.  Definitions from the test pack are
+ * cached and created again, and must export to exactly the same JSON as the originals.
+ *
+ * @author don_bruce
+ */
+public class PackDefinitionCacheTest {
+
+    @Test
+    public void testAllDefinitionClassesSupported() {
+        assertNull(PackDefinitionSerializer.getUnsupportedReason());
+    }
+
+    @Test
+    public void testVehicleRoundTrip() throws IOException {
+        checkRoundTrip(parseDefinition("vehicles/testcar.json", ItemClassification.VEHICLE, JSONVehicle.class));
+        checkRoundTrip(parseDefinition("vehicles/testradarcar.json", ItemClassification.VEHICLE, JSONVehicle.class));
+    }
+
+    @Test
+    public void testPartRoundTrip() throws IOException {
+        checkRoundTrip(parseDefinition("parts/testengine.json", ItemClassification.PART, JSONPart.class));
+    }
+
+    private static void checkRoundTrip(AJSONBase definition) throws IOException {
+        AJSONBase created = new CachedDefinition(definition).create(definition.packID);
+        assertNotSame(definition, created);
+        assertEquals(definition.getClass(), created.getClass());
+        assertEquals(definition.packID, created.packID);
+        assertEquals(definition.systemName, created.systemName);
+        assertEquals(definition.classification, created.classification);
+        assertEquals(definition.prefixFolders, created.prefixFolders);
+        assertEquals(export(definition), export(created));
+    }
+
+    private static AJSONBase parseDefinition(String path, ItemClassification classification, Class<? extends AJSONBase> definitionClass) throws IOException {
+        try (InputStream stream = PackDefinitionCacheTest.class.getResourceAsStream("/testpack/assets/testpack/jsondefs/" + path)) {
+            String systemName = path.substring(path.indexOf('/') + 1, path.length() - ".json".length());
+            AJSONBase definition = JSONParser.parseStream(stream, definitionClass, "testpack", systemName);
+            definition.packID = "testpack";
+            definition.systemName = systemName;
+            definition.classification = classification;
+            definition.prefixFolders = "";
+            return definition;
+        }
+    }
+
+    private static String export(AJSONBase definition) throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        JSONParser.exportStream(definition, stream);
+        return new String(stream.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package minecrafttransportsimulator.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import minecrafttransportsimulator.harness.HarnessCore;
+import minecrafttransportsimulator.harness.HarnessPacket;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+
+/**
+ * Tests for background model parsing, using a parser for a made-up format that always fails.
+ *
+ * @author don_bruce
+ */
+public class AModelParserTest {
+    private static final String FAILING_MODEL = "/assets/test/objmodels/broken.failing";
+    private static final AtomicInteger parseCount = new AtomicInteger();
+    private static final IllegalStateException PARSE_FAILURE = new IllegalStateException("Broken model.");
+
+    @BeforeAll
+    public static void setupInterfaces() {
+        //Failures are logged, so we need somewhere to log them.
+        if (InterfaceManager.coreInterface == null) {
+            new InterfaceManager("mts", System.getProperty("java.io.tmpdir"), new HarnessCore(Collections.emptyList()), new HarnessPacket(), null, null, null, null);
+        }
+        new AModelParser() {
+            @Override
+            protected String getModelSuffix() {
+                return "failing";
+            }
+
+            @Override
+            protected boolean supportsBackgroundParsing() {
+                return true;
+            }
+
+            @Override
+            protected List<RenderableVertices> parseModelInternal(String modelLocation) {
+                parseCount.incrementAndGet();
+                throw PARSE_FAILURE;
+            }
+        };
+    }
+
+    @Test
+    public void testFailedModelIsNotRequeued() throws InterruptedException {
+        //Models are parsed in the background, so we get nulls until the parse fails.
+        long timeout = System.currentTimeMillis() + 10000;
+        RuntimeException thrown = null;
+        while (thrown == null && System.currentTimeMillis() < timeout) {
+            try {
+                AModelParser.parseModelIfReady(FAILING_MODEL);
+                Thread.sleep(5);
+            } catch (RuntimeException e) {
+                thrown = e;
+            }
+        }
+        assertSame(PARSE_FAILURE, thrown);
+
+        //Later requests, such as from rendering every frame, get the same failure without parsing again.
+        for (int i = 0; i < 10; ++i) {
+            assertSame(PARSE_FAILURE, assertThrows(RuntimeException.class, () -> AModelParser.parseModelIfReady(FAILING_MODEL)));
+            AModelParser.preloadModel(FAILING_MODEL);
+        }
+        assertSame(PARSE_FAILURE, assertThrows(RuntimeException.class, () -> AModelParser.parseModel(FAILING_MODEL, true)));
+        assertEquals(1, parseCount.get());
+    }
+}
@@ -0,0 +1,115 @@
+package minecrafttransportsimulator.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the OBJ model cache.  Cached models are mapped straight from disk, so these
+ * check that the mapped buffers act like parsed ones when models change their own vertices.
+ *
+ * @author don_bruce
+ */
+public class ModelParserOBJTest {
+    private static final String WINDOW_MODEL = String.join("\n",
+            "o window_front",
+            "v -1 0 0",
+            "v 1 0 0",
+            "v 1 1 0",
+            "v -1 1 0",
+            "vt 0.25 0.25",
+            "vt 0.75 0.25",
+            "vt 0.75 0.75",
+            "vt 0.25 0.75",
+            "vn 0 0 1",
+            "f 1/1/1 2/2/1 3/3/1 4/4/1",
+            "");
+
+    @Test
+    public void testWindowFromCacheCanSetTextureBounds() throws IOException {
+        File cacheFile = getTempCacheFile();
+        ModelParserOBJ.writeCache(cacheFile, ModelParserOBJ.parseModelData("test.obj", WINDOW_MODEL.getBytes(StandardCharsets.UTF_8)));
+        byte[] cacheData = Files.readAllBytes(cacheFile.toPath());
+
+        //This is what window objects do when they are made, and would throw if the cache was mapped read-only.
+        RenderableVertices window = getOnlyObject(ModelParserOBJ.readCache(cacheFile));
+        window.setTextureBounds(0, 1, 0, 1);
+        assertEquals(0, getMinU(window));
+
+        //The change must not make it back to the file, or later loads would get the changed vertices.
+        assertArrayEquals(cacheData, Files.readAllBytes(cacheFile.toPath()));
+        assertEquals(0.25F, getMinU(getOnlyObject(ModelParserOBJ.readCache(cacheFile))));
+    }
+
+    @Test
+    public void testCacheMatchesParsedModel() throws IOException {
+        File cacheFile = getTempCacheFile();
+        RenderableVertices parsed = getOnlyObject(ModelParserOBJ.parseModelData("test.obj", WINDOW_MODEL.getBytes(StandardCharsets.UTF_8)));
+        ModelParserOBJ.writeCache(cacheFile, ModelParserOBJ.parseModelData("test.obj", WINDOW_MODEL.getBytes(StandardCharsets.UTF_8)));
+        RenderableVertices cached = getOnlyObject(ModelParserOBJ.readCache(cacheFile));
+        assertEquals(parsed.name, cached.name);
+        assertEquals(parsed.vertices.limit(), cached.vertices.limit());
+        for (int i = 0; i < parsed.vertices.limit(); ++i) {
+            assertEquals(parsed.vertices.get(i), cached.vertices.get(i));
+        }
+    }
+
+    @Test
+    public void testCleanCacheRemovesOnlyOldFiles() throws IOException {
+        File directory = Files.createTempDirectory("mtsmodelcache").toFile();
+        directory.deleteOnExit();
+        long now = System.currentTimeMillis();
+        File usedEntry = getCacheFileWithAge(directory, "used.bin", now, TimeUnit.DAYS.toMillis(2));
+        File unusedEntry = getCacheFileWithAge(directory, "unused.bin", now, TimeUnit.DAYS.toMillis(60));
+        File activeTemp = getCacheFileWithAge(directory, "active.bin.tmp", now, TimeUnit.MINUTES.toMillis(1));
+        File leftoverTemp = getCacheFileWithAge(directory, "leftover.bin.tmp", now, TimeUnit.DAYS.toMillis(1));
+        File otherFile = getCacheFileWithAge(directory, "notes.txt", now, TimeUnit.DAYS.toMillis(60));
+
+        ModelParserOBJ.cleanCache(directory, now);
+        assertTrue(usedEntry.exists());
+        assertFalse(unusedEntry.exists());
+        assertTrue(activeTemp.exists());
+        assertFalse(leftoverTemp.exists());
+        assertTrue(otherFile.exists());
+    }
+
+    private static File getCacheFileWithAge(File directory, String name, long now, long age) throws IOException {
+        File file = new File(directory, name);
+        file.deleteOnExit();
+        Files.write(file.toPath(), new byte[]{0});
+        assertTrue(file.setLastModified(now - age));
+        return file;
+    }
+
+    private static File getTempCacheFile() throws IOException {
+        File directory = Files.createTempDirectory("mtsmodelcache").toFile();
+        directory.deleteOnExit();
+        File cacheFile = new File(directory, "model.bin");
+        cacheFile.deleteOnExit();
+        return cacheFile;
+    }
+
+    private static RenderableVertices getOnlyObject(List<RenderableVertices> objects) {
+        assertEquals(1, objects.size());
+        return objects.get(0);
+    }
+
+    private static float getMinU(RenderableVertices object) {
+        //U is the fourth float of each eight-float vertex.
+        float minU = Float.MAX_VALUE;
+        for (int index = 3; index < object.vertices.limit(); index += 8) {
+            minU = Math.min(minU, object.vertices.get(index));
+        }
+        return minU;
+    }
+}
@@ -0,0 +1,123 @@
+package minecrafttransportsimulator.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import minecrafttransportsimulator.baseclasses.BoundingBox;
+import minecrafttransportsimulator.baseclasses.Point3D;
+
+/**
+ * Tests for frustum and distance culling, driven by a synthetic camera.  The camera has a 90 degree
+ * field of view and a square aspect, so at any depth in front of it the view spans from -depth to +depth
+ * on both the X and Y axis, which makes it easy to place boxes just inside and just outside of it.
+ *
+ * @author don_bruce
+ */
+public class RenderCullerTest {
+    private static final float NEAR = 0.05F;
+    private static final float FAR = 256F;
+
+    @Test
+    public void testFrustumPlanes() {
+        RenderCuller culler = new RenderCuller();
+        culler.setCamera(new Point3D(), new Point3D(), getClipMatrix(0), 0);
+
+        assertTrue(culler.isVisible(getBox(0, 0, -10, 1)));
+        //Each of the four sides, well outside the view.
+        assertFalse(culler.isVisible(getBox(20, 0, -10, 1)));
+        assertFalse(culler.isVisible(getBox(-20, 0, -10, 1)));
+        assertFalse(culler.isVisible(getBox(0, 20, -10, 1)));
+        assertFalse(culler.isVisible(getBox(0, -20, -10, 1)));
+        //Behind the camera, which is only culled by the near plane.
+        assertFalse(culler.isVisible(getBox(0, 0, 10, 1)));
+    }
+
+    @Test
+    public void testBoxesOnPlanesAreVisible() {
+        RenderCuller culler = new RenderCuller();
+        culler.setCamera(new Point3D(), new Point3D(), getClipMatrix(0), 0);
+
+        //Centers are outside the view, but the boxes reach into it, so they must be kept.
+        assertTrue(culler.isVisible(getBox(11, 0, -10, 2)));
+        assertTrue(culler.isVisible(getBox(0, -11, -10, 2)));
+        //Box around the camera itself.
+        assertTrue(culler.isVisible(getBox(0, 0, 0, 1)));
+    }
+
+    @Test
+    public void testRotatedCameraAndOrigin() {
+        RenderCuller culler = new RenderCuller();
+        //Camera at 100,64,-50 looking down -X, with the matrix relative to the camera, as the game renders.
+        Point3D cameraPosition = new Point3D(100, 64, -50);
+        culler.setCamera(cameraPosition, cameraPosition, getClipMatrix(90), 0);
+
+        assertTrue(culler.isVisible(getBox(90, 64, -50, 1)));
+        assertFalse(culler.isVisible(getBox(110, 64, -50, 1)));
+        assertFalse(culler.isVisible(getBox(100, 64, -60, 1)));
+        assertFalse(culler.isVisible(getBox(90, 84, -50, 1)));
+    }
+
+    @Test
+    public void testDistanceCulling() {
+        RenderCuller culler = new RenderCuller();
+        culler.setCamera(new Point3D(), new Point3D(), null, 64);
+
+        //No frustum, so only distance matters, and it's to the nearest point of the box.
+        assertTrue(culler.isVisible(getBox(0, 0, 60, 1)));
+        assertTrue(culler.isVisible(getBox(0, 0, -60, 1)));
+        assertFalse(culler.isVisible(getBox(0, 0, 100, 1)));
+        assertTrue(culler.isVisible(getBox(0, 0, 100, 40)));
+    }
+
+    @Test
+    public void testDegenerateMatrixDoesNotCull() {
+        RenderCuller culler = new RenderCuller();
+        culler.setCamera(new Point3D(), new Point3D(), new float[16], 0);
+
+        assertTrue(culler.isVisible(getBox(0, 0, 10, 1)));
+        assertTrue(culler.isVisible(getBox(1000, -1000, 1000, 1)));
+    }
+
+    private static BoundingBox getBox(double x, double y, double z, double radius) {
+        return new BoundingBox(new Point3D(x, y, z), radius, radius, radius);
+    }
+
+    /**
+     * Returns the column-major projection times view matrix for a camera at the origin that
+     * is turned the passed-in yaw, in degrees, to the left from looking down -Z.
+     */
+    private static float[] getClipMatrix(double yaw) {
+        //Perspective with a 90 degree field of view, so the focal length is 1.
+        float[] projection = new float[16];
+        projection[0] = 1;
+        projection[5] = 1;
+        projection[10] = (FAR + NEAR) / (NEAR - FAR);
+        projection[11] = -1;
+        projection[14] = 2 * FAR * NEAR / (NEAR - FAR);
+
+        //View is the inverse of the camera's rotation about Y.
+        double cos = Math.cos(Math.toRadians(yaw));
+        double sin = Math.sin(Math.toRadians(yaw));
+        float[] view = new float[16];
+        view[0] = (float) cos;
+        view[2] = (float) sin;
+        view[5] = 1;
+        view[8] = (float) -sin;
+        view[10] = (float) cos;
+        view[15] = 1;
+
+        float[] clip = new float[16];
+        for (int column = 0; column < 4; ++column) {
+            for (int row = 0; row < 4; ++row) {
+                float value = 0;
+                for (int i = 0; i < 4; ++i) {
+                    value += projection[i * 4 + row] * view[column * 4 + i];
+                }
+                clip[column * 4 + row] = value;
+            }
+        }
+        return clip;
+    }
+}
@@ -0,0 +1,93 @@
+package minecrafttransportsimulator.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for shared vertex buffer bookkeeping.  Buffers here are plain objects standing in for GPU
+ * buffers, with a list of created buffers to check how many times the creator was called.
+ *
+ * @author don_bruce
+ */
+public class VertexBufferCacheTest {
+    private final List<Object> createdBuffers = new ArrayList<>();
+
+    @Test
+    public void testSameVerticesShareBuffer() {
+        VertexBufferCache<Object> cache = new VertexBufferCache<>();
+        RenderableVertices vertices = getVertices("body");
+        RenderableData first = new RenderableData(vertices);
+        RenderableData second = new RenderableData(vertices, "mts:textures/other.png");
+
+        Object buffer = cache.get(first, this::createBuffer);
+        assertSame(buffer, cache.get(second, this::createBuffer));
+        assertEquals(1, createdBuffers.size());
+        assertEquals(1, cache.getBufferCount());
+        assertEquals(2, cache.getUserCount());
+    }
+
+    @Test
+    public void testDifferentVerticesGetOwnBuffers() {
+        VertexBufferCache<Object> cache = new VertexBufferCache<>();
+        //Same name and data, but a different object, such as from a different model.
+        Object buffer1 = cache.get(new RenderableData(getVertices("body")), this::createBuffer);
+        Object buffer2 = cache.get(new RenderableData(getVertices("body")), this::createBuffer);
+        assertNotSame(buffer1, buffer2);
+        assertEquals(2, cache.getBufferCount());
+    }
+
+    @Test
+    public void testRepeatedGetsCountOnce() {
+        VertexBufferCache<Object> cache = new VertexBufferCache<>();
+        RenderableData data = new RenderableData(getVertices("body"));
+        Object buffer = cache.get(data, this::createBuffer);
+        assertSame(buffer, cache.get(data, this::createBuffer));
+        assertEquals(1, cache.getUserCount());
+
+        //One get or many, a single remove frees it.
+        assertSame(buffer, cache.remove(data));
+        assertEquals(0, cache.getBufferCount());
+    }
+
+    @Test
+    public void testBufferFreedByLastUser() {
+        VertexBufferCache<Object> cache = new VertexBufferCache<>();
+        RenderableVertices vertices = getVertices("body");
+        RenderableData first = new RenderableData(vertices);
+        RenderableData second = new RenderableData(vertices);
+        Object buffer = cache.get(first, this::createBuffer);
+        cache.get(second, this::createBuffer);
+
+        assertNull(cache.remove(first));
+        assertEquals(1, cache.getBufferCount());
+        assertSame(buffer, cache.remove(second));
+        assertEquals(0, cache.getBufferCount());
+        assertEquals(0, cache.getUserCount());
+
+        //Removing again, or removing something that never had a buffer, does nothing.
+        assertNull(cache.remove(second));
+        assertNull(cache.remove(new RenderableData(vertices)));
+
+        //Getting after everything was freed makes a new buffer rather than handing back the freed one.
+        assertNotSame(buffer, cache.get(first, this::createBuffer));
+        assertEquals(2, createdBuffers.size());
+    }
+
+    private Object createBuffer(RenderableVertices vertices) {
+        Object buffer = new Object();
+        createdBuffers.add(buffer);
+        return buffer;
+    }
+
+    private static RenderableVertices getVertices(String name) {
+        return new RenderableVertices(name, FloatBuffer.allocate(24), true);
+    }
+}
@@ -0,0 +1,166 @@
+package minecrafttransportsimulator.sound;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the decoded music cache.  A fake decoder stands in for the OGG decoder, so
+ * these check what gets cached, not the decoding itself.
+ *
+ * @author don_bruce
+ */
+public class CachedPCMDecoderTest {
+    private static final int SAMPLE_RATE = 44100;
+
+    @Test
+    public void testCacheMatchesDecodedData() throws IOException {
+        File cacheFile = new File(getTempDirectory(), "song.pcm");
+        byte[] decodedData = getData(IStreamDecoder.BUFFER_SIZE * 2 + 1234);
+        IStreamDecoder writer = CachedPCMDecoder.writeCache(cacheFile, new FakeDecoder(decodedData));
+
+        //Data passes through unchanged while it's cached, and the cache only shows up once the end is reached.
+        byte[] passedData = readAll(writer, cacheFile);
+        assertArrayEquals(decodedData, passedData);
+        assertTrue(cacheFile.exists());
+        assertEquals(1, cacheFile.getParentFile().list().length);
+
+        IStreamDecoder reader = CachedPCMDecoder.readCache(cacheFile);
+        assertEquals(SAMPLE_RATE, reader.getSampleRate());
+        assertArrayEquals(decodedData, readAll(reader, null));
+    }
+
+    @Test
+    public void testOGGFromCacheMatchesDecoder() throws IOException {
+        File cacheFile = new File(getTempDirectory(), "pump_stop.pcm");
+        byte[] decodedData = readAll(new OGGDecoder(CachedPCMDecoderTest.class.getResourceAsStream("/assets/mts/sounds/pump_stop.ogg")), null);
+        assertTrue(decodedData.length > 0);
+
+        IStreamDecoder writer = CachedPCMDecoder.writeCache(cacheFile, new OGGDecoder(CachedPCMDecoderTest.class.getResourceAsStream("/assets/mts/sounds/pump_stop.ogg")));
+        int sampleRate = writer.getSampleRate();
+        assertArrayEquals(decodedData, readAll(writer, cacheFile));
+        IStreamDecoder reader = CachedPCMDecoder.readCache(cacheFile);
+        assertEquals(sampleRate, reader.getSampleRate());
+        assertArrayEquals(decodedData, readAll(reader, null));
+    }
+
+    @Test
+    public void testStoppedDecodeIsNotCached() throws IOException {
+        File cacheFile = new File(getTempDirectory(), "song.pcm");
+        IStreamDecoder writer = CachedPCMDecoder.writeCache(cacheFile, new FakeDecoder(getData(IStreamDecoder.BUFFER_SIZE * 2)));
+        writer.readBlock();
+        writer.stop();
+        assertFalse(cacheFile.exists());
+        assertEquals(0, cacheFile.getParentFile().list().length);
+        assertNull(CachedPCMDecoder.readCache(cacheFile));
+    }
+
+    @Test
+    public void testBadCacheIsIgnored() throws IOException {
+        File cacheFile = new File(getTempDirectory(), "song.pcm");
+        Files.write(cacheFile.toPath(), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16});
+        assertNull(CachedPCMDecoder.readCache(cacheFile));
+    }
+
+    @Test
+    public void testCleanCacheRemovesOldAndLeastRecentlyUsedFiles() throws IOException {
+        File directory = getTempDirectory();
+        long now = System.currentTimeMillis();
+        File newestEntry = getFileWithAge(directory, "newest.pcm", 100, now, TimeUnit.HOURS.toMillis(1));
+        File olderEntry = getFileWithAge(directory, "older.pcm", 100, now, TimeUnit.DAYS.toMillis(2));
+        File oldestEntry = getFileWithAge(directory, "oldest.pcm", 100, now, TimeUnit.DAYS.toMillis(3));
+        File unusedEntry = getFileWithAge(directory, "unused.pcm", 10, now, TimeUnit.DAYS.toMillis(60));
+        File activeTemp = getFileWithAge(directory, "active.pcm.tmp", 10, now, TimeUnit.MINUTES.toMillis(1));
+        File leftoverTemp = getFileWithAge(directory, "leftover.pcm.tmp", 10, now, TimeUnit.DAYS.toMillis(1));
+
+        CachedPCMDecoder.cleanCache(directory, now, 250);
+        assertTrue(newestEntry.exists());
+        assertTrue(olderEntry.exists());
+        assertFalse(oldestEntry.exists());
+        assertFalse(unusedEntry.exists());
+        assertTrue(activeTemp.exists());
+        assertFalse(leftoverTemp.exists());
+    }
+
+    private static byte[] readAll(IStreamDecoder decoder, File cacheFile) {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        ByteBuffer block;
+        while ((block = decoder.readBlock()) != null) {
+            if (cacheFile != null) {
+                assertFalse(cacheFile.exists());
+            }
+            byte[] blockData = new byte[block.remaining()];
+            block.get(blockData);
+            stream.write(blockData, 0, blockData.length);
+        }
+        decoder.stop();
+        return stream.toByteArray();
+    }
+
+    private static byte[] getData(int length) {
+        byte[] data = new byte[length & ~1];
+        new Random(0).nextBytes(data);
+        return data;
+    }
+
+    private static File getTempDirectory() throws IOException {
+        File directory = Files.createTempDirectory("mtsmusiccache").toFile();
+        directory.deleteOnExit();
+        return directory;
+    }
+
+    private static File getFileWithAge(File directory, String name, int size, long now, long age) throws IOException {
+        File file = new File(directory, name);
+        file.deleteOnExit();
+        Files.write(file.toPath(), new byte[size]);
+        assertTrue(file.setLastModified(now - age));
+        return file;
+    }
+
+    /**
+     * Decoder that returns the passed-in data in blocks, like a stereo OGG that's been made mono would.
+     */
+    private static class FakeDecoder implements IStreamDecoder {
+        private final ByteBuffer data;
+        private final ByteBuffer block = ByteBuffer.allocateDirect(BUFFER_SIZE / 2).order(ByteOrder.nativeOrder());
+
+        private FakeDecoder(byte[] data) {
+            this.data = ByteBuffer.wrap(data);
+        }
+
+        @Override
+        public ByteBuffer readBlock() {
+            if (!data.hasRemaining()) {
+                return null;
+            }
+            block.clear();
+            while (block.hasRemaining() && data.hasRemaining()) {
+                block.put(data.get());
+            }
+            block.flip();
+            return block;
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        @Override
+        public int getSampleRate() {
+            return SAMPLE_RATE;
+        }
+    }
+}
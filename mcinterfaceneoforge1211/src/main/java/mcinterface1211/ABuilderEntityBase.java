@@ -4,7 +4,6 @@ import net.minecraft.core.registries.Registries;
 import java.util.ArrayList;
 import java.util.List;
 
-import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import net.minecraft.nbt.CompoundTag;
@@ -99,11 +98,8 @@ public abstract class ABuilderEntityBase extends Entity {
         } else if (loadedFromSavedNBT) {
             //Send any packets to clients that requested them.
             if (!playersRequestingData.isEmpty()) {
-                for (IWrapperPlayer player : playersRequestingData) {
-                    IWrapperNBT data = InterfaceManager.coreInterface.getNewNBTWrapper();
-                    saveWithoutId(((WrapperNBT) data).tag);
-                    player.sendPacket(new PacketEntityCSHandshakeServer(this, data));
-                }
+                //The batcher saves us once for all players when it sends us out at the end of the tick.
+                WrapperWorld.getWrapperFor(level()).handshakeBatcher.queue(this, playersRequestingData);
                 playersRequestingData.clear();
             }
         }
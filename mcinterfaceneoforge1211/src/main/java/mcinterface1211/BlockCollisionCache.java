@@ -0,0 +1,143 @@
+package mcinterface1211;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.AABB;
+
+/**
+ * Per-world cache of block collision boxes, split up by chunk section.  The collision shape of a block is
+ * only requested from the world the first time it is needed; after that, its boxes are read from a flat
+ * array of doubles in the section.  Sections are dropped whenever a block in them changes, or the chunk
+ * they are in loads or unloads, which makes the next lookup go back to the world.  Blocks with block entities
+ * are never cached, as their shapes may change without their state changing.
+ *
+ * @author don_bruce
+ */
+public class BlockCollisionCache {
+    /**Set once the block has been looked up.**/
+    public static final int FLAG_KNOWN = 1;
+    /**Set if the block is leaves.**/
+    public static final int FLAG_LEAVES = 2;
+    /**Set if the block is a liquid.**/
+    public static final int FLAG_LIQUID = 4;
+    /**Set if the block can't be cached.  Callers should query the world directly for these.**/
+    public static final int FLAG_UNCACHED = 8;
+
+    private final Level world;
+    private final Map<Long, Section> sections = new ConcurrentHashMap<>();
+
+    public BlockCollisionCache(Level world) {
+        this.world = world;
+    }
+
+    /**
+     * Returns the section that contains the passed-in block position, creating it if required.
+     */
+    public Section getSection(int x, int y, int z) {
+        return sections.computeIfAbsent(SectionPos.asLong(x >> 4, y >> 4, z >> 4), k -> new Section());
+    }
+
+    /**
+     * Removes the section containing the passed-in position.  Call when a block changes.
+     */
+    public void invalidate(BlockPos pos) {
+        sections.remove(SectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+    }
+
+    /**
+     * Removes all sections in the passed-in chunk.  Call when a chunk loads or unloads.
+     */
+    public void invalidateChunk(int chunkX, int chunkZ) {
+        for (int sectionY = world.getMinSection(); sectionY < world.getMaxSection(); ++sectionY) {
+            sections.remove(SectionPos.asLong(chunkX, sectionY, chunkZ));
+        }
+    }
+
+    /**
+     * Removes all sections.
+     */
+    public void clear() {
+        sections.clear();
+    }
+
+    /**
+     * A 16x16x16 block section.  All access to a section must be synchronized on it,
+     * as collisions can be checked on multiple threads.
+     */
+    public static class Section {
+        /**Min and max coords of all boxes, relative to their block, packed in minX, minY, minZ, maxX, maxY, maxZ order.**/
+        public double[] boxes = new double[6 * 16];
+        private int boxesSize;
+        private final byte[] flags = new byte[4096];
+        private final int[] boxStarts = new int[4096];
+        private final int[] boxEnds = new int[4096];
+
+        /**
+         * Returns the index of the passed-in block in this section.
+         */
+        public static int getIndex(int x, int y, int z) {
+            return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+        }
+
+        /**
+         * Returns the flags for the block at the passed-in index, looking it up in the world if we haven't yet.
+         * The position must match the index.
+         */
+        public int load(Level world, BlockPos pos, int index) {
+            int blockFlags = flags[index];
+            if (blockFlags == 0) {
+                BlockState state = world.getBlockState(pos);
+                if (state.hasBlockEntity()) {
+                    blockFlags = FLAG_KNOWN | FLAG_UNCACHED;
+                } else {
+                    blockFlags = FLAG_KNOWN;
+                    if (state.is(BlockTags.LEAVES)) {
+                        blockFlags |= FLAG_LEAVES;
+                    }
+                    if (state.liquid()) {
+                        blockFlags |= FLAG_LIQUID;
+                    }
+                    boxStarts[index] = boxesSize;
+                    if (!state.isAir()) {
+                        for (AABB box : state.getCollisionShape(world, pos).toAabbs()) {
+                            if (boxesSize + 6 > boxes.length) {
+                                double[] newBoxes = new double[boxes.length * 2];
+                                System.arraycopy(boxes, 0, newBoxes, 0, boxesSize);
+                                boxes = newBoxes;
+                            }
+                            boxes[boxesSize++] = box.minX;
+                            boxes[boxesSize++] = box.minY;
+                            boxes[boxesSize++] = box.minZ;
+                            boxes[boxesSize++] = box.maxX;
+                            boxes[boxesSize++] = box.maxY;
+                            boxes[boxesSize++] = box.maxZ;
+                        }
+                    }
+                    boxEnds[index] = boxesSize;
+                }
+                flags[index] = (byte) blockFlags;
+            }
+            return blockFlags;
+        }
+
+        /**
+         * Returns the index in {@link #boxes} of the first box of the block at the passed-in index.
+         */
+        public int getBoxStart(int index) {
+            return boxStarts[index];
+        }
+
+        /**
+         * Returns the index in {@link #boxes} after the last box of the block at the passed-in index.
+         */
+        public int getBoxEnd(int index) {
+            return boxEnds[index];
+        }
+    }
+}
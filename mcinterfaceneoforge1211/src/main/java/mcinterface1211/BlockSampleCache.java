@@ -0,0 +1,235 @@
+package mcinterface1211;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import minecrafttransportsimulator.blocks.components.ABlockBase.BlockMaterial;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LightLayer;
+import net.minecraft.world.level.block.SlabBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.SlabType;
+
+/**
+ * Per-world cache of environment samples.  Parts and variables ask the world about the block they are at
+ * every tick, and many of them are at the same block, such as all the wheels and engines on one vehicle.
+ * Rather than each asking the world, the first one to ask about a block makes a {@link Sample} for it, and
+ * the rest read from that.  Samples only fill in what is asked for, and are all dropped at the start of the
+ * next tick, as things like light and rain may change without the block changing.
+ * <br><br>
+ * Heights above ground are cached per block column, and are kept across ticks.  Each column remembers the
+ * span of empty blocks above the ground it last found, so any height check that starts in that span doesn't
+ * need to walk down at all.  Both caches drop entries whenever a block in them changes, or the chunk they are
+ * in loads or unloads.  Samples may be made on multiple threads, as entities may tick in parallel.
+ *
+ * @author don_bruce
+ */
+public class BlockSampleCache {
+    private final Level world;
+    private final Map<Long, Sample> samples = new ConcurrentHashMap<>();
+    private final Map<Long, HeightChunk> heightChunks = new ConcurrentHashMap<>();
+    private volatile long sampleTime = -1;
+
+    public BlockSampleCache(Level world) {
+        this.world = world;
+    }
+
+    /**
+     * Returns the sample for the passed-in block position for this tick, creating it if required.
+     */
+    public Sample getSample(BlockPos pos) {
+        long time = world.getGameTime();
+        if (time != sampleTime) {
+            synchronized (this) {
+                if (time != sampleTime) {
+                    samples.clear();
+                    sampleTime = time;
+                }
+            }
+        }
+        Sample sample = samples.get(pos.asLong());
+        if (sample == null) {
+            sample = new Sample(world, pos.immutable());
+            Sample priorSample = samples.putIfAbsent(pos.asLong(), sample);
+            if (priorSample != null) {
+                sample = priorSample;
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Returns the distance from the passed-in y-coordinate down to the top of the ground in the column of the
+     * passed-in position.  The ground is the first non-empty block at or below the position.  If there is no
+     * ground, the distance to the world's min build height is returned.
+     */
+    public double getHeight(BlockPos pos, double positionY) {
+        int minY = world.getMinBuildHeight();
+        if (pos.getY() <= minY) {
+            return positionY - pos.getY();
+        }
+        HeightChunk chunk = heightChunks.computeIfAbsent(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4), k -> new HeightChunk());
+        int index = ((pos.getZ() & 15) << 4) | (pos.getX() & 15);
+        synchronized (chunk) {
+            int emptyTop = chunk.emptyTops[index];
+            int groundTop = chunk.groundTops[index];
+            boolean known = chunk.known[index];
+            if (known && pos.getY() >= groundTop && pos.getY() <= emptyTop) {
+                return getHeight(positionY, groundTop, chunk.bottomSlabs[index]);
+            }
+
+            //Walk down till we find a block.  If we get to the span we already know is empty, use the ground from that.
+            //Otherwise we start from scratch with this column.
+            int stopY = known && pos.getY() > emptyTop ? emptyTop : minY;
+            BlockPos.MutableBlockPos checkPos = pos.mutable();
+            boolean foundGround = false;
+            boolean bottomSlab = false;
+            while (checkPos.getY() > stopY) {
+                if (!world.isEmptyBlock(checkPos)) {
+                    //Check for a slab, since this affects distance.
+                    BlockState state = world.getBlockState(checkPos);
+                    bottomSlab = state.getBlock() instanceof SlabBlock && state.getValue(SlabBlock.TYPE) == SlabType.BOTTOM;
+                    foundGround = true;
+                    break;
+                }
+                checkPos.move(0, -1, 0);
+            }
+            if (foundGround) {
+                groundTop = checkPos.getY() + 1;
+            } else if (stopY == minY) {
+                groundTop = minY;
+            } else {
+                bottomSlab = chunk.bottomSlabs[index];
+            }
+            chunk.emptyTops[index] = pos.getY();
+            chunk.groundTops[index] = groundTop;
+            chunk.bottomSlabs[index] = bottomSlab;
+            chunk.known[index] = true;
+            return getHeight(positionY, groundTop, bottomSlab);
+        }
+    }
+
+    private static double getHeight(double positionY, int groundTop, boolean bottomSlab) {
+        return bottomSlab ? positionY - (groundTop - 0.5) : positionY - groundTop;
+    }
+
+    /**
+     * Removes the sample and column height for the passed-in position.  Call when a block changes.
+     */
+    public void invalidate(BlockPos pos) {
+        samples.remove(pos.asLong());
+        HeightChunk chunk = heightChunks.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (chunk != null) {
+            synchronized (chunk) {
+                chunk.known[((pos.getZ() & 15) << 4) | (pos.getX() & 15)] = false;
+            }
+        }
+    }
+
+    /**
+     * Removes all column heights in the passed-in chunk.  Call when a chunk loads or unloads.
+     * Samples are left as they will be dropped next tick anyways.
+     */
+    public void invalidateChunk(int chunkX, int chunkZ) {
+        heightChunks.remove(ChunkPos.asLong(chunkX, chunkZ));
+    }
+
+    /**
+     * Removes all samples and column heights.
+     */
+    public void clear() {
+        samples.clear();
+        heightChunks.clear();
+    }
+
+    private static class HeightChunk {
+        private final int[] emptyTops = new int[256];
+        private final int[] groundTops = new int[256];
+        private final boolean[] bottomSlabs = new boolean[256];
+        private final boolean[] known = new boolean[256];
+    }
+
+    /**
+     * Environment values for a single block for a single tick.  Values are looked up in the world
+     * the first time they are asked for.  If two threads ask at once, both may look it up, but as
+     * they'll get the same value, this does no harm.
+     */
+    public static class Sample {
+        private final Level world;
+        private final BlockPos pos;
+        private BlockState state;
+        private String blockName;
+        private BlockMaterial material;
+        private boolean materialKnown;
+        private float slipperiness = Float.NaN;
+        private float rainStrength = Float.NaN;
+        private float temperature = Float.NaN;
+        private int skyLight = -1;
+        private int blockLight = -1;
+
+        private Sample(Level world, BlockPos pos) {
+            this.world = world;
+            this.pos = pos;
+        }
+
+        public BlockState getState() {
+            if (state == null) {
+                state = world.getBlockState(pos);
+            }
+            return state;
+        }
+
+        public String getBlockName() {
+            if (blockName == null) {
+                blockName = BuiltInRegistries.BLOCK.getKey(getState().getBlock()).toString();
+            }
+            return blockName;
+        }
+
+        public BlockMaterial getMaterial() {
+            if (!materialKnown) {
+                material = WrapperWorld.getBlockMaterial(getState());
+                materialKnown = true;
+            }
+            return material;
+        }
+
+        public float getSlipperiness() {
+            if (Float.isNaN(slipperiness)) {
+                slipperiness = getState().getBlock().getFriction(getState(), world, pos, null);
+            }
+            return slipperiness;
+        }
+
+        public float getRainStrength() {
+            if (Float.isNaN(rainStrength)) {
+                rainStrength = world.isRainingAt(pos) ? world.getRainLevel(1.0F) + world.getThunderLevel(1.0F) : 0.0F;
+            }
+            return rainStrength;
+        }
+
+        public float getTemperature() {
+            if (Float.isNaN(temperature)) {
+                temperature = WrapperWorld.getTemperature(world, pos);
+            }
+            return temperature;
+        }
+
+        public int getSkyLight() {
+            if (skyLight == -1) {
+                skyLight = world.getBrightness(LightLayer.SKY, pos);
+            }
+            return skyLight;
+        }
+
+        public int getBlockLight() {
+            if (blockLight == -1) {
+                blockLight = world.getBrightness(LightLayer.BLOCK, pos);
+            }
+            return blockLight;
+        }
+    }
+}
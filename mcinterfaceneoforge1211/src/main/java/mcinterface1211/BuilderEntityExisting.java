@@ -18,6 +18,7 @@ import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import net.minecraft.core.BlockPos;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.tags.DamageTypeTags;
 import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.entity.Entity;
@@ -114,11 +115,18 @@ public class BuilderEntityExisting extends ABuilderEntityBase {
                     //on that first tick that would cause bad maths.
                     //We also do this only every second, as it prevents excess checks.
                     entity.world.beginProfiling("CollisionOverhead", true);
-                    collisionBoxes = new WrapperAABBCollective(interactable, true);
+                    //Collectives are kept between ticks, and only change if the boxes or encompassing box do.
+                    if (collisionBoxes == null) {
+                        collisionBoxes = new WrapperAABBCollective(interactable, true);
+                        interactAttackBoxes = new WrapperAABBCollective(interactable, false);
+                    } else {
+                        collisionBoxes = collisionBoxes.update();
+                        interactAttackBoxes = interactAttackBoxes.update();
+                    }
                     //Set this to make collision checks work with the multiple collision points.
                     //We use the collision boxes as a wrapper here as we need a bounding box large enough to encompass both.
+                    //This has to be done every tick, even if the collective didn't change, as setting the position resets it.
                     setBoundingBox(collisionBoxes);
-                    interactAttackBoxes = new WrapperAABBCollective(interactable, false);
                     if (entity instanceof EntityVehicleF_Physics && interactable.ticksExisted > 1 && interactable.ticksExisted % 20 == 0) {
                         mutableDims = EntityDimensions.scalable((float) Math.max(interactable.encompassingBox.widthRadius * 2F, interactable.encompassingBox.depthRadius * 2F), (float) interactable.encompassingBox.heightRadius * 2F);
                         //Make sure the collision bounds for MC are big enough to collide with this entity.
@@ -183,6 +191,15 @@ public class BuilderEntityExisting extends ABuilderEntityBase {
         }
     }
 
+    @Override
+    public void stopSeenByPlayer(ServerPlayer player) {
+        super.stopSeenByPlayer(player);
+        //Player won't get movement for us anymore, and will get a full sync if they see us again.
+        if (entity != null) {
+            WrapperWorld.getWrapperFor(level()).clearPendingMovement(entity, WrapperPlayer.getWrapperFor(player));
+        }
+    }
+
     @Override
     public boolean hurt(DamageSource source, float amount) {
         if (ConfigSystem.settings.damage.allowExternalDamage.value && !level().isClientSide && entity instanceof AEntityF_Multipart) {
@@ -130,11 +130,12 @@ public class BuilderTileEntity extends BlockEntity {
             } else {
                 //Send any packets to clients that requested them.
                 if (!playersRequestingData.isEmpty()) {
-                    for (IWrapperPlayer player : playersRequestingData) {
-                        IWrapperNBT data = InterfaceManager.coreInterface.getNewNBTWrapper();
-                        saveAdditional(((WrapperNBT) data).tag, level.registryAccess());
-                        player.sendPacket(new PacketEntityCSHandshakeServer(this, data));
-                    }
+                    //The batcher saves us once for all players when it sends us out at the end of the tick.
+                    WrapperWorld.getWrapperFor(level).handshakeBatcher.queue(this, () -> {
+                        CompoundTag data = new CompoundTag();
+                        saveAdditional(data, level.registryAccess());
+                        return data;
+                    }, playersRequestingData);
                     playersRequestingData.clear();
                 }
             }
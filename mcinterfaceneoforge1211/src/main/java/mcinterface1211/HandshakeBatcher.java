@@ -0,0 +1,224 @@
+package mcinterface1211;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import minecrafttransportsimulator.baseclasses.Point3D;
+import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
+
+/**
+ * Batches handshake data going from the server to clients.  At the end of the world tick, each player's requested
+ * builders are sent out as a few large {@link PacketEntityCSHandshakeServer} packets rather than one packet per entity.
+ * Entities closest to the player go first, and each player is only sent so many bytes per tick; anything left over
+ * waits for the next tick.  This keeps a player logging into a crowded area from getting one huge burst of data,
+ * and lets the vehicles right next to them show up first.
+ * <br><br>
+ * Builders are saved when their data is sent, not when it is requested, so what a player gets is always
+ * the current state, and matches the movement they get from then on.  Each builder is saved and encoded
+ * at most once per tick, no matter how many players it is sent to that tick.
+ *
+ * @author don_bruce
+ */
+public class HandshakeBatcher {
+    /**Max size of the data in a single packet.  Well under MC's limit for custom payloads.**/
+    private static final int MAX_PACKET_BYTES = 256 * 1024;
+    /**Max bytes sent to a single player per tick.  At least one snapshot is always sent, even if larger.**/
+    private static final int MAX_BYTES_PER_TICK = 1024 * 1024;
+
+    private final Map<String, PendingBuilder> pendingBuilders = new HashMap<>();
+    private final Map<UUID, PlayerQueue> playerQueues = new HashMap<>();
+
+    /**
+     * Queues the data of the passed-in builder to be sent to the passed-in players.
+     */
+    public void queue(ABuilderEntityBase builder, List<IWrapperPlayer> players) {
+        queue(new PendingBuilder(builder.getStringUUID(), builder, null, () -> builder.saveWithoutId(new CompoundTag())), players);
+    }
+
+    /**
+     * Queues the data of the passed-in tile builder to be sent to the passed-in players.
+     * The saver is called to get the data when it is sent.
+     */
+    public void queue(BuilderTileEntity builder, Supplier<CompoundTag> saver, List<IWrapperPlayer> players) {
+        BlockPos pos = builder.getBlockPos();
+        queue(new PendingBuilder(pos.getX() + "," + pos.getY() + "," + pos.getZ(), null, builder, saver), players);
+    }
+
+    private void queue(PendingBuilder builder, List<IWrapperPlayer> players) {
+        //All players waiting on the same builder share one entry, so it's only saved once per tick.
+        PendingBuilder pending = pendingBuilders.get(builder.builderID);
+        if (pending == null || pending.isRemoved()) {
+            pending = builder;
+            pendingBuilders.put(pending.builderID, pending);
+        }
+        for (IWrapperPlayer player : players) {
+            playerQueues.computeIfAbsent(player.getID(), k -> new PlayerQueue(player)).pending.put(pending.builderID, pending);
+        }
+    }
+
+    /**
+     * Sends out queued data.  Call at the end of every world tick, after all entities have ticked.
+     */
+    public void flush() {
+        Iterator<PlayerQueue> iterator = playerQueues.values().iterator();
+        while (iterator.hasNext()) {
+            PlayerQueue queue = iterator.next();
+            if (!queue.player.isValid()) {
+                iterator.remove();
+                continue;
+            }
+
+            //Closest entities first, so what the player can see loads in before what they can't.
+            Point3D playerPosition = queue.player.getPosition();
+            List<PendingBuilder> sortedBuilders = new ArrayList<>(queue.pending.size());
+            for (PendingBuilder pending : queue.pending.values()) {
+                if (!pending.isRemoved()) {
+                    pending.updateSortDistance(playerPosition);
+                    sortedBuilders.add(pending);
+                }
+            }
+            queue.pending.clear();
+            sortedBuilders.sort((builder1, builder2) -> Double.compare(builder1.sortDistance, builder2.sortDistance));
+
+            List<Snapshot> packetSnapshots = new ArrayList<>();
+            int packetBytes = 0;
+            int tickBytes = 0;
+            boolean outOfBytes = false;
+            for (PendingBuilder pending : sortedBuilders) {
+                Snapshot snapshot = null;
+                if (!outOfBytes) {
+                    snapshot = pending.getSnapshot();
+                    if (snapshot.data == null) {
+                        //Couldn't encode it, so there's nothing to send.
+                        continue;
+                    }
+                    outOfBytes = tickBytes != 0 && tickBytes + snapshot.data.length > MAX_BYTES_PER_TICK;
+                }
+                if (outOfBytes) {
+                    //Wait for the next tick.
+                    queue.pending.put(pending.builderID, pending);
+                    continue;
+                }
+                if (!packetSnapshots.isEmpty() && packetBytes + snapshot.data.length > MAX_PACKET_BYTES) {
+                    queue.player.sendPacket(new PacketEntityCSHandshakeServer(packetSnapshots));
+                    packetSnapshots = new ArrayList<>();
+                    packetBytes = 0;
+                }
+                packetSnapshots.add(snapshot);
+                packetBytes += snapshot.data.length;
+                tickBytes += snapshot.data.length;
+
+                //The data has all movement up to now, so the player mustn't get any movement from before it.
+                if (pending.entityBuilder instanceof BuilderEntityExisting && ((BuilderEntityExisting) pending.entityBuilder).entity != null) {
+                    WrapperWorld.getWrapperFor(pending.entityBuilder.level()).clearPendingMovement(((BuilderEntityExisting) pending.entityBuilder).entity, queue.player);
+                }
+            }
+            if (!packetSnapshots.isEmpty()) {
+                queue.player.sendPacket(new PacketEntityCSHandshakeServer(packetSnapshots));
+            }
+            if (queue.pending.isEmpty()) {
+                iterator.remove();
+            }
+        }
+
+        //Only keep builders that are still waiting on a player, and drop this tick's data so they are saved again when sent.
+        pendingBuilders.clear();
+        for (PlayerQueue queue : playerQueues.values()) {
+            for (PendingBuilder pending : queue.pending.values()) {
+                pending.snapshot = null;
+                pendingBuilders.put(pending.builderID, pending);
+            }
+        }
+    }
+
+    private static class PlayerQueue {
+        private final IWrapperPlayer player;
+        private final Map<String, PendingBuilder> pending = new LinkedHashMap<>();
+
+        private PlayerQueue(IWrapperPlayer player) {
+            this.player = player;
+        }
+    }
+
+    /**
+     * A builder that one or more players are waiting on.  Only one of the entity or tile builder is set.
+     */
+    private static class PendingBuilder {
+        private final String builderID;
+        private final ABuilderEntityBase entityBuilder;
+        private final BuilderTileEntity tileBuilder;
+        private final Supplier<CompoundTag> saver;
+        private Snapshot snapshot;
+        private double sortDistance;
+
+        private PendingBuilder(String builderID, ABuilderEntityBase entityBuilder, BuilderTileEntity tileBuilder, Supplier<CompoundTag> saver) {
+            this.builderID = builderID;
+            this.entityBuilder = entityBuilder;
+            this.tileBuilder = tileBuilder;
+            this.saver = saver;
+        }
+
+        private boolean isRemoved() {
+            return entityBuilder != null ? entityBuilder.isRemoved() : tileBuilder.isRemoved();
+        }
+
+        private void updateSortDistance(Point3D playerPosition) {
+            double deltaX;
+            double deltaY;
+            double deltaZ;
+            if (entityBuilder != null) {
+                deltaX = entityBuilder.getX() - playerPosition.x;
+                deltaY = entityBuilder.getY() - playerPosition.y;
+                deltaZ = entityBuilder.getZ() - playerPosition.z;
+            } else {
+                deltaX = tileBuilder.getBlockPos().getX() + 0.5 - playerPosition.x;
+                deltaY = tileBuilder.getBlockPos().getY() + 0.5 - playerPosition.y;
+                deltaZ = tileBuilder.getBlockPos().getZ() + 0.5 - playerPosition.z;
+            }
+            sortDistance = deltaX * deltaX + deltaY * deltaY + deltaZ * deltaZ;
+        }
+
+        /**
+         * Returns the snapshot for this tick, saving the builder if this is the first player to need it.
+         */
+        private Snapshot getSnapshot() {
+            if (snapshot == null) {
+                snapshot = new Snapshot(builderID, saver.get());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Saved data for a single builder, encoded for sending.  Shared by all players it is sent to in a tick.
+     */
+    public static class Snapshot {
+        public final String builderID;
+        public final byte[] data;
+
+        private Snapshot(String builderID, CompoundTag tag) {
+            this.builderID = builderID;
+            byte[] encodedData = null;
+            try {
+                ByteArrayOutputStream dataStream = new ByteArrayOutputStream();
+                NbtIo.write(tag, new DataOutputStream(dataStream));
+                encodedData = dataStream.toByteArray();
+            } catch (Exception e) {
+                InterfaceManager.coreInterface.logError("Could not encode data to send to clients for: " + builderID + ".  " + e.getMessage());
+            }
+            this.data = encodedData;
+        }
+    }
+}
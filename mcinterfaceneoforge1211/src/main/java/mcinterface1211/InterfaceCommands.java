@@ -0,0 +1,62 @@
+package mcinterface1211;
+
+import com.mojang.brigadier.builder.LiteralArgumentBuilder;
+import com.mojang.brigadier.context.CommandContext;
+
+import minecrafttransportsimulator.systems.ConfigSystem;
+import minecrafttransportsimulator.systems.MetricsSystem;
+import minecrafttransportsimulator.systems.MetricsSystem.Category;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+
+/**
+ * Interface for commands.  Currently this is just the metrics command, which shows the
+ * timings from {@link MetricsSystem} in chat, turns it on and off, and dumps it to disk.
+ * Only operators may use it, as it shows server performance.
+ *
+ * @author don_bruce
+ */
+@EventBusSubscriber
+public class InterfaceCommands {
+    private static final int MAX_REPORT_LINES = 15;
+
+    @SubscribeEvent
+    public static void onIVRegisterCommands(RegisterCommandsEvent event) {
+        LiteralArgumentBuilder<CommandSourceStack> metricsCommand = Commands.literal("mtsmetrics").requires(source -> source.hasPermission(2));
+        metricsCommand.executes(context -> sendReport(context, null));
+        metricsCommand.then(Commands.literal("definitions").executes(context -> sendReport(context, Category.DEFINITION)));
+        metricsCommand.then(Commands.literal("subsystems").executes(context -> sendReport(context, Category.SUBSYSTEM)));
+        metricsCommand.then(Commands.literal("packets").executes(context -> sendReport(context, Category.PACKET)));
+        metricsCommand.then(Commands.literal("start").executes(context -> setEnabled(context, true)));
+        metricsCommand.then(Commands.literal("stop").executes(context -> setEnabled(context, false)));
+        metricsCommand.then(Commands.literal("dump").executes(context -> {
+            String fileName = MetricsSystem.dump();
+            if (fileName != null) {
+                context.getSource().sendSuccess(() -> Component.literal("Wrote metrics to: " + fileName + ".csv/.json"), false);
+                return 1;
+            } else {
+                context.getSource().sendFailure(Component.literal("Could not write metrics, check the log for details."));
+                return 0;
+            }
+        }));
+        event.getDispatcher().register(metricsCommand);
+    }
+
+    private static int sendReport(CommandContext<CommandSourceStack> context, Category category) {
+        for (String line : MetricsSystem.getReport(category, MAX_REPORT_LINES)) {
+            context.getSource().sendSuccess(() -> Component.literal(line), false);
+        }
+        return 1;
+    }
+
+    private static int setEnabled(CommandContext<CommandSourceStack> context, boolean enabled) {
+        //Not saved to the config file, so this only lasts until the game is restarted.
+        ConfigSystem.settings.general.tickMetrics.value = enabled;
+        context.getSource().sendSuccess(() -> Component.literal(enabled ? "MTS metrics started, results will show after 10 seconds." : "MTS metrics stopped."), true);
+        return 1;
+    }
+}
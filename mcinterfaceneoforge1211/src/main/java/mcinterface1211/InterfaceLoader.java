@@ -29,6 +29,7 @@ import minecrafttransportsimulator.jsondefs.JSONPack;
 import minecrafttransportsimulator.mcinterface.IInterfaceCore;
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import minecrafttransportsimulator.packloading.PackParser;
+import minecrafttransportsimulator.rendering.AModelParser;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import minecrafttransportsimulator.systems.LanguageSystem;
 import net.minecraft.core.registries.Registries;
@@ -288,6 +289,11 @@ public class InterfaceLoader {
 
             //Save modified config.
             ConfigSystem.saveToDisk();
+
+            //Start loading models in the background so they're ready by the time they're seen.
+            if (ConfigSystem.client.renderingSettings.preloadModels.value) {
+                AModelParser.preloadPackModels();
+            }
         }
     }
 
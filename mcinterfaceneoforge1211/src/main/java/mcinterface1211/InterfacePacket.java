@@ -6,12 +6,14 @@ import com.google.common.collect.BiMap;
 import com.google.common.collect.HashBiMap;
 
 import io.netty.buffer.ByteBuf;
+import minecrafttransportsimulator.baseclasses.EntityTickScheduler;
 import minecrafttransportsimulator.mcinterface.AWrapperWorld;
 import minecrafttransportsimulator.mcinterface.IInterfacePacket;
 import minecrafttransportsimulator.mcinterface.IWrapperNBT;
 import minecrafttransportsimulator.mcinterface.IWrapperPlayer;
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import minecrafttransportsimulator.packets.components.APacketBase;
+import minecrafttransportsimulator.systems.MetricsSystem;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
@@ -83,11 +85,17 @@ class InterfacePacket implements IInterfacePacket {
 
     @Override
     public void sendToAllClients(APacketBase packet) {
+        if (EntityTickScheduler.deferIfParallel(() -> sendToAllClients(packet))) {
+            return;
+        }
         PacketDistributor.sendToAllPlayers(new WrapperPacket(packet));
     }
 
     @Override
     public void sendToPlayer(APacketBase packet, IWrapperPlayer player) {
+        if (EntityTickScheduler.deferIfParallel(() -> sendToPlayer(packet, player))) {
+            return;
+        }
         PacketDistributor.sendToPlayer((ServerPlayer) ((WrapperPlayer) player).player, new WrapperPacket(packet));
     }
 
@@ -189,16 +197,22 @@ class InterfacePacket implements IInterfacePacket {
                         world = InterfaceManager.clientInterface.getClientWorld();
                     }
                     if (world != null) {
-                        message.packet.handle(world);
+                        handlePacket(message.packet, world);
                     }
                 });
             } else {
                 if (ctx.flow().isServerbound()) {
-                    message.packet.handle(getServerWorld(ctx));
+                    handlePacket(message.packet, getServerWorld(ctx));
                 } else {
-                    message.packet.handle(InterfaceManager.clientInterface.getClientWorld());
+                    handlePacket(message.packet, InterfaceManager.clientInterface.getClientWorld());
                 }
             }
         }
+
+        private static void handlePacket(APacketBase packet, AWrapperWorld world) {
+            long startTime = MetricsSystem.startTimer();
+            packet.handle(world);
+            MetricsSystem.getPacketSection(packet.getClass()).record(startTime);
+        }
     }
 }
@@ -18,6 +18,8 @@ import javax.imageio.ImageIO;
 
 import org.joml.Matrix3f;
 import org.joml.Matrix4f;
+import org.lwjgl.opengl.GL20;
+import org.lwjgl.opengl.GL30;
 
 import com.mojang.blaze3d.platform.GlStateManager;
 import com.mojang.blaze3d.platform.NativeImage;
@@ -31,6 +33,7 @@ import com.mojang.blaze3d.vertex.VertexBuffer;
 import com.mojang.blaze3d.vertex.VertexConsumer;
 import com.mojang.blaze3d.vertex.VertexFormat;
 import com.mojang.blaze3d.vertex.VertexFormat.Mode;
+import com.mojang.blaze3d.vertex.VertexFormatElement;
 
 import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.baseclasses.TransformationMatrix;
@@ -42,7 +45,10 @@ import minecrafttransportsimulator.mcinterface.IInterfaceRender;
 import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import minecrafttransportsimulator.rendering.GIFParser.GIFImageFrame;
 import minecrafttransportsimulator.rendering.GIFParser.ParsedGIF;
+import minecrafttransportsimulator.rendering.RenderCuller;
 import minecrafttransportsimulator.rendering.RenderableData;
+import minecrafttransportsimulator.rendering.RenderableVertices;
+import minecrafttransportsimulator.rendering.VertexBufferCache;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
@@ -82,7 +88,7 @@ public class InterfaceRender implements IInterfaceRender {
     private static final List<GUIComponentItem> stacksToRender = new ArrayList<>();
 
     private static final ConcurrentHashMap<String, RenderType> renderTypes = new ConcurrentHashMap<>();
-    private static final ConcurrentHashMap<RenderableData, BufferData> buffers = new ConcurrentHashMap<>();
+    private static final VertexBufferCache<BufferData> buffers = new VertexBufferCache<>();
     private static final ConcurrentHashMap<RenderType, List<RenderData>> queuedRenders = new ConcurrentHashMap<>();
     private static final ConcurrentLinkedQueue<BufferData> removedRenders = new ConcurrentLinkedQueue<>();
 
@@ -95,6 +101,9 @@ public class InterfaceRender implements IInterfaceRender {
     public static Matrix4f projectionMatrix;
     public static MultiBufferSource renderBuffer;
     public static Point3D renderCameraOffset = new Point3D();
+    private static final RenderCuller culler = new RenderCuller();
+    private static final Matrix4f cullingMatrix = new Matrix4f();
+    private static final float[] cullingMatrixArray = new float[16];
     private static boolean renderingGUI;
     private static boolean projectionMatrixWarningLogged = false;
 
@@ -249,48 +258,23 @@ public class InterfaceRender implements IInterfaceRender {
             String typeID = data.texture + data.isTranslucent + data.lightingMode + data.enableBrightBlending;
             final RenderType renderType;
             if (data.vertexObject.cacheVertices && !renderingGUI && ConfigSystem.client.renderingSettings.renderingMode.value != 2) {
-            	//Get the render type and data buffer for this entity.
+            	//Get the render type, and the data buffer shared by all entities with these vertices.
                 renderType = renderTypes.computeIfAbsent(typeID, k -> CustomRenderType.create("mts_entity", DefaultVertexFormat.NEW_ENTITY, VertexFormat.Mode.TRIANGLES, 2097152, true, data.isTranslucent, CustomRenderType.createForObject(data).createCompositeState(false)));
-                BufferData bufferData = buffers.computeIfAbsent(data, k -> new BufferData(renderType, data));
-            
-                //Reset buffer if it's not ready.
-                if (changedSinceLastRender) {
-                    // clear() is no longer needed in MC 1.21.1 - BufferBuilder resets automatically
-                    bufferData.isReady = false;
-                }
+                BufferData bufferData = buffers.get(data, k -> new BufferData());
+
+                //Upload geometry if this is the first user of this buffer.
+                //Color and light are per-instance, so changes to them don't require a re-upload.
                 if (!bufferData.isReady) {
-                    // begin() is no longer used - BufferBuilder constructor handles mode and format
-                    while (data.vertexObject.vertices.hasRemaining()) {
-                        //Need to parse these out first since our order differs.
-                        float normalX = data.vertexObject.vertices.get();
-                        float normalY = data.vertexObject.vertices.get();
-                        float normalZ = data.vertexObject.vertices.get();
-                        float texU = data.vertexObject.vertices.get();
-                        float texV = data.vertexObject.vertices.get();
-                        float posX = data.vertexObject.vertices.get();
-                        float posY = data.vertexObject.vertices.get();
-                        float posZ = data.vertexObject.vertices.get();
-                        bufferData.builder.addVertex(posX, posY, posZ)
-                            .setColor(data.color.red, data.color.green, data.color.blue, data.alpha)
-                            .setUv(texU, texV)
-                            .setOverlay(OverlayTexture.NO_OVERLAY)
-                            .setLight(data.worldLightValue)
-                            .setNormal(normalX, normalY, normalZ);
-                    }
-                    bufferData.isReady = true;
-                    bufferData.buffer.bind();
-                    bufferData.buffer.upload(bufferData.builder.buildOrThrow());
-                    data.vertexObject.vertices.rewind();
-                    VertexBuffer.unbind();
+                    bufferData.upload(data.vertexObject);
                 }
-            
+
                 //Add this buffer to the list to render later.
                 List<RenderData> renders = queuedRenders.get(renderType);
                 if (renders == null) {
                     renders = new ArrayList<>();
                     queuedRenders.put(renderType, renders);
                 }
-                renders.add(new RenderData(stackEntry.pose(), bufferData));
+                renders.add(new RenderData(stackEntry.pose(), bufferData, data));
             } else {
                 stackEntry.normal().mul(matrix3f);
                 renderType = renderTypes.computeIfAbsent(typeID, k -> CustomRenderType.create("mts_entity_" + typeID, DefaultVertexFormat.NEW_ENTITY, VertexFormat.Mode.TRIANGLES, 256, true, data.isTranslucent, CustomRenderType.createForObject(data).createCompositeState(false)));
@@ -333,15 +317,32 @@ public class InterfaceRender implements IInterfaceRender {
         if (allEntities != null) {
             world.beginProfiling("MTSRendering_Setup", true);
 
+            //Set up culling.  The matrix here is the same one the shaders will use, so we cull against
+            //exactly what ends up on screen.  Its origin is the camera offset point, as that's what the stack is at.
+            float[] clipMatrix = null;
+            if (ConfigSystem.client.renderingSettings.frustumCulling.value) {
+                cullingMatrix.set(RenderSystem.getProjectionMatrix()).mul(RenderSystem.getModelViewMatrix()).mul(matrixStack.last().pose()).get(cullingMatrixArray);
+                clipMatrix = cullingMatrixArray;
+            }
+            culler.setCamera(renderCameraOffset, InterfaceManager.clientInterface.getCameraPosition(), clipMatrix, ConfigSystem.client.renderingSettings.renderDistance.value);
+
             //NOTE: this operation occurs on a ConcurrentLinkedQueue.  Therefore, updates will
             //not occur one after another.  Sanitize your inputs!
             for (AEntityC_Renderable entity : allEntities) {
-                matrixStack.pushPose();
-                matrixStack.translate(entity.position.x - renderCameraOffset.x, entity.position.y - renderCameraOffset.y, entity.position.z - renderCameraOffset.z);
-                entity.render(blendingEnabled, partialTicks);
-                matrixStack.popPose();
+                if (culler.isVisible(entity)) {
+                    matrixStack.pushPose();
+                    matrixStack.translate(entity.position.x - renderCameraOffset.x, entity.position.y - renderCameraOffset.y, entity.position.z - renderCameraOffset.z);
+                    entity.render(blendingEnabled, partialTicks);
+                    matrixStack.popPose();
+                } else {
+                    entity.updateCulled(blendingEnabled, partialTicks);
+                }
             }
 
+            //Render particles.  These aren't entities, so they handle their own camera offset.
+            world.beginProfiling("MTSRendering_Particles", false);
+            world.renderParticles(blendingEnabled, partialTicks, renderCameraOffset);
+
             //Now do the actual render.
             if (!queuedRenders.isEmpty()) {
                 world.beginProfiling("MTSRendering_Batch", false);
@@ -462,6 +463,7 @@ public class InterfaceRender implements IInterfaceRender {
 
                     shaderInstance.apply();
                     data.bufferData.buffer.bind();
+                    data.applyInstanceState();
                     data.bufferData.buffer.draw();
                 }
                 VertexBuffer.unbind();
@@ -480,6 +482,7 @@ public class InterfaceRender implements IInterfaceRender {
                 }
                 for (RenderData data : datas) {
                     data.bufferData.buffer.bind();
+                    data.applyInstanceState();
                     data.bufferData.buffer.drawWithShader(data.matrix, projectionMatrix, shader);
                 }
                 VertexBuffer.unbind();
@@ -561,6 +564,7 @@ public class InterfaceRender implements IInterfaceRender {
             //Make sure we actually bound a buffer; just because the main system asks for a bound buffer,
     	    //doesn't mean we actually can give it one.  GUI models are one such case, as they don't work right
             //with bound buffers due to matrix differences.
+            //Buffers are shared, so we only get one back once the last entity using it is gone.
             BufferData buffer = buffers.remove(data);
             if (buffer != null) {
                 removedRenders.add(buffer);
@@ -786,33 +790,84 @@ public class InterfaceRender implements IInterfaceRender {
         }
     }
 
+    /**
+     * Per-instance record for a queued render.  Holds the transform, color, and lighting for one entity's use
+     * of a shared buffer.  These are fed to the shader as constant vertex attributes at draw time, which is
+     * why the buffer itself doesn't need them.
+     */
     private static class RenderData {
         private final Matrix4f matrix;
         private final BufferData bufferData;
+        private final float red;
+        private final float green;
+        private final float blue;
+        private final float alpha;
+        private final int lightValue;
 
-        private RenderData(Matrix4f matrix, BufferData bufferData) {
+        private RenderData(Matrix4f matrix, BufferData bufferData, RenderableData data) {
             this.matrix = new Matrix4f(matrix);
             this.bufferData = bufferData;
+            this.red = data.color.red;
+            this.green = data.color.green;
+            this.blue = data.color.blue;
+            this.alpha = data.alpha;
+            this.lightValue = data.worldLightValue;
+        }
+
+        /**
+         * Sets the color and light attributes for this instance.  Must be called after the buffer is bound.
+         */
+        private void applyInstanceState() {
+            GL20.glVertexAttrib4f(BufferData.COLOR_ATTRIBUTE, red, green, blue, alpha);
+            //Light is packed block/sky, same as the vertex format splits it.
+            GL30.glVertexAttribI2i(BufferData.LIGHT_ATTRIBUTE, lightValue & 0xFFFF, lightValue >>> 16);
         }
     }
 
+    /**
+     * A vertex buffer holding only model geometry.  The color and light arrays are disabled on the buffer,
+     * so the shader reads the constant values set for each instance instead.
+     */
     private static class BufferData {
-        final BufferBuilder builder;
-        final VertexBuffer buffer;
-        boolean isReady;
+        private static final int COLOR_ATTRIBUTE = DefaultVertexFormat.NEW_ENTITY.getElements().indexOf(VertexFormatElement.COLOR);
+        private static final int LIGHT_ATTRIBUTE = DefaultVertexFormat.NEW_ENTITY.getElements().indexOf(VertexFormatElement.UV2);
 
-        private BufferData() {
-            builder = null;
-            buffer = null;
-        }
+        final VertexBuffer buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+        boolean isReady;
 
-        private BufferData(RenderType type, RenderableData data) {
-            int vertices = data.vertexObject.vertices.limit() / 8;
+        private void upload(RenderableVertices vertexObject) {
+            int vertices = vertexObject.vertices.limit() / 8;
             //Convert verts to faces, then back to quad-verts for MC rendering.
             //Add one face extra, since MC will want to increase the buffer if sees it can't handle another vert.
             vertices = ((vertices / 3) + 1) * 3;
-            this.builder = new BufferBuilder(new ByteBufferBuilder(type.format().getVertexSize() * vertices), VertexFormat.Mode.TRIANGLES, type.format());
-            this.buffer = new VertexBuffer(VertexBuffer.Usage.STATIC);
+            try (ByteBufferBuilder byteBuilder = new ByteBufferBuilder(DefaultVertexFormat.NEW_ENTITY.getVertexSize() * vertices)) {
+                BufferBuilder builder = new BufferBuilder(byteBuilder, VertexFormat.Mode.TRIANGLES, DefaultVertexFormat.NEW_ENTITY);
+                while (vertexObject.vertices.hasRemaining()) {
+                    //Need to parse these out first since our order differs.
+                    float normalX = vertexObject.vertices.get();
+                    float normalY = vertexObject.vertices.get();
+                    float normalZ = vertexObject.vertices.get();
+                    float texU = vertexObject.vertices.get();
+                    float texV = vertexObject.vertices.get();
+                    float posX = vertexObject.vertices.get();
+                    float posY = vertexObject.vertices.get();
+                    float posZ = vertexObject.vertices.get();
+                    //Color and light are placeholders here, the format needs them but the shader won't read them.
+                    builder.addVertex(posX, posY, posZ)
+                        .setColor(1.0F, 1.0F, 1.0F, 1.0F)
+                        .setUv(texU, texV)
+                        .setOverlay(OverlayTexture.NO_OVERLAY)
+                        .setLight(0)
+                        .setNormal(normalX, normalY, normalZ);
+                }
+                vertexObject.vertices.rewind();
+                buffer.bind();
+                buffer.upload(builder.buildOrThrow());
+                GL20.glDisableVertexAttribArray(COLOR_ATTRIBUTE);
+                GL20.glDisableVertexAttribArray(LIGHT_ATTRIBUTE);
+                VertexBuffer.unbind();
+            }
+            isReady = true;
         }
     }
 
@@ -2,7 +2,9 @@ package mcinterface1211;
 
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.IntBuffer;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
@@ -78,6 +80,36 @@ public class InterfaceSound implements IInterfaceSound {
     private static byte sourceGetFailures = 0;
     private static boolean postedSoundWarning;
 
+    /**
+     * Max number of sources we will use for normal sounds.  If there are more sounds than this, the quietest and
+     * furthest-away ones become virtual, and don't play until they get a source back.  Radios don't count towards this.
+     **/
+    private static final int MAX_SOURCES = 64;
+    /**
+     * Priority multiplier for looping sounds.
+     **/
+    private static final float LOOPING_PRIORITY = 0.75F;
+    /**
+     * Priority multiplier for sounds that already have a source.
+     **/
+    private static final float CURRENT_SOURCE_PRIORITY = 1.25F;
+    /**
+     * Sources not in use by any sounds.
+     **/
+    private static final ArrayDeque<Integer> freeSources = new ArrayDeque<>();
+    /**
+     * Voice states for all normal sounds, playing or virtual.
+     **/
+    private static final Map<SoundInstance, Voice> voices = new HashMap<>();
+    private static final List<Voice> sortedVoices = new ArrayList<>();
+    /**
+     * Lengths, in seconds, of all data buffers.
+     **/
+    private static final Map<Integer, Float> bufferLengths = new HashMap<>();
+    private static int sourcesCreated;
+    private static int sourceLimit = MAX_SOURCES;
+    private static long lastUpdateTime;
+
     /**
      * Main update loop.  Call every tick to update playing sounds,
      * as well as queue up sounds that aren't playing yet but need to.
@@ -92,7 +124,9 @@ public class InterfaceSound implements IInterfaceSound {
         if (InterfaceManager.clientInterface.isGamePaused()) {
             if (!isSystemPaused) {
                 for (SoundInstance sound : playingSounds) {
-                    AL10.alSourcePause(sound.sourceIndex);
+                    if (sound.sourceIndex != 0) {
+                        AL10.alSourcePause(sound.sourceIndex);
+                    }
                 }
                 isSystemPaused = true;
             } else {
@@ -107,10 +141,14 @@ public class InterfaceSound implements IInterfaceSound {
                 }
                 playingSounds.removeAll(pausedRadioSounds);
             }
+            //Don't count paused time towards virtual sound playback.
+            lastUpdateTime = 0;
             return;
         } else if (isSystemPaused) {
             for (SoundInstance sound : playingSounds) {
-                AL10.alSourcePlay(sound.sourceIndex);
+                if (sound.sourceIndex != 0) {
+                    AL10.alSourcePlay(sound.sourceIndex);
+                }
             }
             for (SoundInstance sound : pausedRadioSounds) {
                 sound.radio.currentStation.addRadio(sound.radio);
@@ -124,6 +162,7 @@ public class InterfaceSound implements IInterfaceSound {
 
         //If the client world is null, or we don't have a player we need to stop all sounds.
         if (InterfaceManager.clientInterface.getClientWorld() == null || player == null) {
+            queuedSounds.forEach(voices::remove);
             queuedSounds.clear();
             for (SoundInstance sound : playingSounds) {
                 sound.stopSound = true;
@@ -131,61 +170,81 @@ public class InterfaceSound implements IInterfaceSound {
         }
 
         //Start playing all queued sounds.
+        //Normal sounds don't have sources yet, those are handed out when we assign voices.
         if (!queuedSounds.isEmpty()) {
             for (SoundInstance sound : queuedSounds) {
-                AL10.alSourcePlay(sound.sourceIndex);
+                if (sound.radio != null) {
+                    AL10.alSourcePlay(sound.sourceIndex);
+                }
                 playingSounds.add(sound);
             }
             queuedSounds.clear();
         }
 
+        //Get time since last update for virtual sounds.
+        long currentTime = System.nanoTime();
+        float deltaSeconds = lastUpdateTime != 0 ? (currentTime - lastUpdateTime) / 1000000000F : 0;
+        lastUpdateTime = currentTime;
+
         //Update playing sounds.
         boolean soundSystemReset = false;
         Iterator<SoundInstance> iterator = playingSounds.iterator();
         while (iterator.hasNext()) {
             SoundInstance sound = iterator.next();
-            AL10.alGetError();
-            int state = AL10.alGetSourcei(sound.sourceIndex, AL10.AL_SOURCE_STATE);
-            //If we are an invalid name, it means the sound system was reset.
-            if (AL10.alGetError() == AL10.AL_INVALID_NAME) {
-                soundSystemReset = true;
-                break;
-            }
-
-            if (state == AL10.AL_PLAYING) {
-                if (sound.stopSound) {
-                    AL10.alSourceStop(sound.sourceIndex);
+            if (sound.radio == null) {
+                Voice voice = voices.get(sound);
+                //Sounds that just started weren't playing for any of the time since the last update.
+                //Advancing them would have them start part-way in, cutting off their start.
+                if (voice.started) {
+                    voice.offset += deltaSeconds * sound.pitch;
                 } else {
-                    //Update position and volume, and block rolloff.
-                    sound.updatePosition();
-                    AL10.alSource3f(sound.sourceIndex, AL10.AL_POSITION, (float) sound.position.x, (float) sound.position.y, (float) sound.position.z);
-                    if (sound.radio == null) {
-                        AL10.alSourcef(sound.sourceIndex, AL10.AL_GAIN, sound.volume * ConfigSystem.client.controlSettings.soundVolume.value);
-                    } else {
-                        AL10.alSourcef(sound.sourceIndex, AL10.AL_GAIN, sound.volume * ConfigSystem.client.controlSettings.radioVolume.value);
-                    }
-                    AL10.alSourcef(sound.sourceIndex, AL10.AL_ROLLOFF_FACTOR, 0);
-
-                    //If the sound is looping, and the player isn't riding the source, calculate doppler pitch effect.
-                    //Otherwise, set pitch as normal.
-                    if (sound.soundDef != null && sound.soundDef.looping && !sound.soundDef.blockDoppler && !sound.entity.equals(player.getEntityRiding())) {
-                        Point3D playerVelocity = player.getVelocity();
-                        playerVelocity.y = 0;
-                        double initalDelta = player.getPosition().subtract(sound.entity.position).length();
-                        double finalDelta = player.getPosition().add(playerVelocity).subtract(sound.entity.position).add(-sound.entity.motion.x, 0D, -sound.entity.motion.z).length();
-                        float dopplerFactor = (float) (initalDelta > finalDelta ? 1 + 0.25 * (initalDelta - finalDelta) / initalDelta : 1 - 0.25 * (finalDelta - initalDelta) / finalDelta);
-                        AL10.alSourcef(sound.sourceIndex, AL10.AL_PITCH, sound.pitch * dopplerFactor);
+                    voice.started = true;
+                }
+                if (!sound.stopSound) {
+                    if (sound.sourceIndex != 0) {
+                        AL10.alGetError();
+                        int state = AL10.alGetSourcei(sound.sourceIndex, AL10.AL_SOURCE_STATE);
+                        //If we are an invalid name, it means the sound system was reset.
+                        if (AL10.alGetError() == AL10.AL_INVALID_NAME) {
+                            soundSystemReset = true;
+                            break;
+                        }
+                        if (state == AL10.AL_PLAYING) {
+                            updateSourceProperties(sound, player);
+                        } else {
+                            //We just reached the end of the sound.
+                            sound.stopSound = true;
+                        }
                     } else {
-                        AL10.alSourcef(sound.sourceIndex, AL10.AL_PITCH, sound.pitch);
+                        //Virtual sound.  Keep the position up to date for priority checks, and end it if it would have finished playing.
+                        sound.updatePosition();
+                        if (!voice.looping && voice.length > 0 && voice.offset >= voice.length) {
+                            sound.stopSound = true;
+                        }
                     }
                 }
+                if (sound.stopSound) {
+                    //Sound was commanded to be stopped, or is done.  Free up the source for other sounds.
+                    releaseSource(sound);
+                    voices.remove(sound);
+                    iterator.remove();
+                    sound.entity.sounds.remove(sound);
+                }
             } else {
-                //We are a stopped sound.  Un-bind and delete any sources and buffers we are using.
-                if (sound.radio == null) {
-                    //Normal sound. Un-bind buffer and make sure we're flagged as stopped.
-                    //We could have just reached the end of the sound.
-                    AL10.alSourcei(sound.sourceIndex, AL10.AL_BUFFER, AL10.AL_NONE);
-                    sound.stopSound = true;
+                AL10.alGetError();
+                int state = AL10.alGetSourcei(sound.sourceIndex, AL10.AL_SOURCE_STATE);
+                //If we are an invalid name, it means the sound system was reset.
+                if (AL10.alGetError() == AL10.AL_INVALID_NAME) {
+                    soundSystemReset = true;
+                    break;
+                }
+
+                if (state == AL10.AL_PLAYING) {
+                    if (sound.stopSound) {
+                        AL10.alSourceStop(sound.sourceIndex);
+                    } else {
+                        updateSourceProperties(sound, player);
+                    }
                 } else if (sound.stopSound) {
                     //Radio with stop command.  Un-bind all radio buffers.
                     int boundBuffers = AL10.alGetSourcei(sound.sourceIndex, AL10.AL_BUFFERS_PROCESSED);
@@ -193,9 +252,8 @@ public class InterfaceSound implements IInterfaceSound {
                         IntBuffer buffers = BufferUtils.createIntBuffer(boundBuffers);
                         AL10.alSourceUnqueueBuffers(sound.sourceIndex, buffers);
                     }
-                }
-                if (sound.stopSound) {
-                    //Sound was commanded to be stopped.  Delete sound source to free up slot.
+
+                    //Delete sound source.  Radios have their own sources outside the pool.
                     IntBuffer sourceBuffer = BufferUtils.createIntBuffer(1);
                     sourceBuffer.put(sound.sourceIndex).flip();
                     AL10.alDeleteSources(sourceBuffer);
@@ -207,6 +265,11 @@ public class InterfaceSound implements IInterfaceSound {
             }
         }
 
+        //Give the highest-priority sounds the sources we have.
+        if (!soundSystemReset && player != null) {
+            assignVoices(player);
+        }
+
         //Now update radio stations.
         for (RadioStation station : playingStations) {
             station.update();
@@ -216,14 +279,137 @@ public class InterfaceSound implements IInterfaceSound {
         if (soundSystemReset) {
             InterfaceManager.coreInterface.logError("Had an invalid sound name.  Was the sound system reset?  Clearing all sounds, playing or not!");
             dataSourceBuffers.clear();
+            bufferLengths.clear();
             for (SoundInstance sound : playingSounds) {
                 sound.entity.sounds.remove(sound);
             }
             playingSounds.clear();
+            voices.clear();
+            freeSources.clear();
+            sourcesCreated = 0;
+            sourceLimit = MAX_SOURCES;
             sourceGetFailures = 0;
         }
     }
 
+    /**
+     * Updates position, volume, and pitch of the source for the passed-in sound.
+     */
+    private static void updateSourceProperties(SoundInstance sound, IWrapperPlayer player) {
+        //Update position and volume, and block rolloff.
+        sound.updatePosition();
+        AL10.alSource3f(sound.sourceIndex, AL10.AL_POSITION, (float) sound.position.x, (float) sound.position.y, (float) sound.position.z);
+        if (sound.radio == null) {
+            AL10.alSourcef(sound.sourceIndex, AL10.AL_GAIN, sound.volume * ConfigSystem.client.controlSettings.soundVolume.value);
+        } else {
+            AL10.alSourcef(sound.sourceIndex, AL10.AL_GAIN, sound.volume * ConfigSystem.client.controlSettings.radioVolume.value);
+        }
+        AL10.alSourcef(sound.sourceIndex, AL10.AL_ROLLOFF_FACTOR, 0);
+
+        //If the sound is looping, and the player isn't riding the source, calculate doppler pitch effect.
+        //Otherwise, set pitch as normal.
+        if (sound.soundDef != null && sound.soundDef.looping && !sound.soundDef.blockDoppler && !sound.entity.equals(player.getEntityRiding())) {
+            Point3D playerVelocity = player.getVelocity();
+            playerVelocity.y = 0;
+            double initalDelta = player.getPosition().subtract(sound.entity.position).length();
+            double finalDelta = player.getPosition().add(playerVelocity).subtract(sound.entity.position).add(-sound.entity.motion.x, 0D, -sound.entity.motion.z).length();
+            float dopplerFactor = (float) (initalDelta > finalDelta ? 1 + 0.25 * (initalDelta - finalDelta) / initalDelta : 1 - 0.25 * (finalDelta - initalDelta) / finalDelta);
+            AL10.alSourcef(sound.sourceIndex, AL10.AL_PITCH, sound.pitch * dopplerFactor);
+        } else {
+            AL10.alSourcef(sound.sourceIndex, AL10.AL_PITCH, sound.pitch);
+        }
+    }
+
+    /**
+     * Scores all normal sounds and gives sources to the highest-scoring ones.  Sounds that don't get a source
+     * become virtual: they stay in the playing list and keep their place in the sound, but don't make any noise.
+     * If they score high enough later, they get a source and pick up where they would have been.
+     */
+    private static void assignVoices(IWrapperPlayer player) {
+        Point3D playerPosition = player.getPosition();
+        sortedVoices.clear();
+        for (SoundInstance sound : playingSounds) {
+            if (sound.radio == null) {
+                Voice voice = voices.get(sound);
+                //Louder and closer sounds win.  Looping sounds lose out a bit, as they are usually steady background noise.
+                //Sounds with sources get a bonus so two sounds with close scores don't keep swapping.
+                voice.score = sound.volume / (1 + sound.position.distanceTo(playerPosition) / SoundInstance.DEFAULT_MAX_DISTANCE);
+                if (voice.looping) {
+                    voice.score *= LOOPING_PRIORITY;
+                }
+                if (sound.sourceIndex != 0) {
+                    voice.score *= CURRENT_SOURCE_PRIORITY;
+                }
+                sortedVoices.add(voice);
+            }
+        }
+        if (sortedVoices.size() > sourceLimit) {
+            sortedVoices.sort((voice1, voice2) -> Float.compare(voice2.score, voice1.score));
+            //Free sources from the losers first, so the winners can use them.
+            for (int i = sourceLimit; i < sortedVoices.size(); ++i) {
+                releaseSource(sortedVoices.get(i).sound);
+            }
+        }
+        for (int i = 0; i < sortedVoices.size() && i < sourceLimit; ++i) {
+            Voice voice = sortedVoices.get(i);
+            if (voice.sound.sourceIndex == 0 && !startSource(voice)) {
+                //Out of sources, others won't get any either.
+                break;
+            }
+        }
+        sortedVoices.clear();
+    }
+
+    /**
+     * Gets a source from the pool and starts the voice's sound on it.  Returns false if there are no sources.
+     */
+    private static boolean startSource(Voice voice) {
+        Integer sourceIndex = freeSources.poll();
+        if (sourceIndex == null) {
+            if (sourcesCreated >= sourceLimit) {
+                return false;
+            }
+            IntBuffer sourceBuffer = BufferUtils.createIntBuffer(1);
+            AL10.alGetError();
+            AL10.alGenSources(sourceBuffer);
+            if (AL10.alGetError() != AL10.AL_NO_ERROR) {
+                //Other things have taken the rest of the sources.  Don't try to make more, just share what we have.
+                sourceLimit = sourcesCreated;
+                if (!postedSoundWarning) {
+                    InterfaceManager.clientInterface.getClientPlayer().displayChatMessage(LanguageSystem.SYSTEM_SOUNDSLOT);
+                    postedSoundWarning = true;
+                }
+                return false;
+            }
+            ++sourcesCreated;
+            sourceIndex = sourceBuffer.get(0);
+        }
+
+        //Set properties and bind data buffer to source, then start at the point the sound should be at.
+        SoundInstance sound = voice.sound;
+        sound.sourceIndex = sourceIndex;
+        AL10.alSourcei(sound.sourceIndex, AL10.AL_LOOPING, voice.looping ? AL10.AL_TRUE : AL10.AL_FALSE);
+        AL10.alSourcei(sound.sourceIndex, AL10.AL_BUFFER, voice.dataBufferIndex);
+        if (voice.offset > 0 && voice.length > 0) {
+            AL10.alSourcef(sound.sourceIndex, AL10.AL_SEC_OFFSET, voice.looping ? voice.offset % voice.length : voice.offset);
+        }
+        updateSourceProperties(sound, InterfaceManager.clientInterface.getClientPlayer());
+        AL10.alSourcePlay(sound.sourceIndex);
+        return true;
+    }
+
+    /**
+     * Stops the passed-in sound's source, if it has one, and puts the source back in the pool.
+     */
+    private static void releaseSource(SoundInstance sound) {
+        if (sound.sourceIndex != 0) {
+            AL10.alSourceStop(sound.sourceIndex);
+            AL10.alSourcei(sound.sourceIndex, AL10.AL_BUFFER, AL10.AL_NONE);
+            freeSources.add(sound.sourceIndex);
+            sound.sourceIndex = 0;
+        }
+    }
+
     @Override
     public void playQuickSound(SoundInstance sound) {
         if (ALC.getFunctionProvider() != null && sourceGetFailures < 10) {
@@ -238,48 +424,10 @@ public class InterfaceSound implements IInterfaceSound {
                 dataBufferPointer = null;
             }
             if (dataBufferPointer != null) {
-                //Set the sound's source buffer index.
-                IntBuffer sourceBuffer = BufferUtils.createIntBuffer(1);
-                AL10.alGetError();
-                AL10.alGenSources(sourceBuffer);
-                if (AL10.alGetError() != AL10.AL_NO_ERROR) {
-                    AL10.alDeleteBuffers(dataBufferPointer);
-                    if (++sourceGetFailures == 10) {
-                        if (!postedSoundWarning) {
-                            InterfaceManager.clientInterface.getClientPlayer().displayChatMessage(LanguageSystem.SYSTEM_SOUNDSLOT);
-                            postedSoundWarning = true;
-                        }
-                        ///Kill off the sound that's furthest from the player to make room if we have a sound we can remove.
-                        //This keeps the sounds going, even with limited slots.
-                        if (!playingSounds.isEmpty()) {
-                            SoundInstance furthestSound = null;
-                            Point3D playerPosition = InterfaceManager.clientInterface.getClientPlayer().getPosition();
-                            for (SoundInstance testSound : playingSounds) {
-                                if (furthestSound == null || playerPosition.isFirstCloserThanSecond(testSound.position, furthestSound.position)) {
-                                    furthestSound = testSound;
-                                }
-                            }
-                            sourceGetFailures = 0;
-                            //Manually stop sound and remove from iterator.
-                            //This makes the source entity think that it's still playing and won't re-add it.
-                            AL10.alSourcei(furthestSound.sourceIndex, AL10.AL_BUFFER, AL10.AL_NONE);
-                            sourceBuffer = BufferUtils.createIntBuffer(1);
-                            sourceBuffer.put(furthestSound.sourceIndex).flip();
-                            AL10.alDeleteSources(sourceBuffer);
-                            playingSounds.remove(furthestSound);
-                        }
-                    }
-                    return;
-                }
-                sound.sourceIndex = sourceBuffer.get(0);
+                //Create the voice for the sound.  It will get a source when voices are assigned, if it's loud enough.
+                voices.put(sound, new Voice(sound, dataBufferPointer));
 
-                //Set properties and bind data buffer to source.
-                AL10.alGetError();
-                AL10.alSourcei(sound.sourceIndex, AL10.AL_LOOPING, sound.soundDef != null && sound.soundDef.looping ? AL10.AL_TRUE : AL10.AL_FALSE);
-                AL10.alSource3f(sound.sourceIndex, AL10.AL_POSITION, (float) sound.entity.position.x, (float) sound.entity.position.y, (float) sound.entity.position.z);
-                AL10.alSourcei(sound.sourceIndex, AL10.AL_BUFFER, dataBufferPointer);
-
-                //Done setting up buffer.  Queue sound to start playing.
+                //Done setting up.  Queue sound to start playing.
                 queuedSounds.add(sound);
                 sound.entity.sounds.add(sound);
             }
@@ -325,6 +473,11 @@ public class InterfaceSound implements IInterfaceSound {
         return newDataBuffer.get(0);
     }
 
+    @Override
+    public void refillBuffer(int bufferIndex, ByteBuffer buffer, IStreamDecoder decoder) {
+        AL10.alBufferData(bufferIndex, AL10.AL_FORMAT_MONO16, buffer, decoder.getSampleRate());
+    }
+
     @Override
     public void deleteBuffer(int bufferIndex) {
         AL10.alDeleteBuffers(bufferIndex);
@@ -397,12 +550,18 @@ public class InterfaceSound implements IInterfaceSound {
             if (soundStream != null) {
                 //Create decoder and decode whole file.
                 OGGDecoder decoder = new OGGDecoder(soundStream);
-                ByteBuffer decodedData = ByteBuffer.allocateDirect(0);
+                //Grow the buffer by doubling, rather than making a new one for every block.
+                ByteBuffer decodedData = ByteBuffer.allocateDirect(IStreamDecoder.BUFFER_SIZE).order(ByteOrder.nativeOrder());
                 ByteBuffer blockRead;
                 while ((blockRead = decoder.readBlock()) != null) {
-                    decodedData = ByteBuffer.allocateDirect(decodedData.capacity() + blockRead.limit()).put(decodedData).put(blockRead);
-                    decodedData.rewind();
+                    if (decodedData.remaining() < blockRead.remaining()) {
+                        ByteBuffer newData = ByteBuffer.allocateDirect(Math.max(decodedData.capacity() * 2, decodedData.position() + blockRead.remaining())).order(ByteOrder.nativeOrder());
+                        decodedData.flip();
+                        decodedData = newData.put(decodedData);
+                    }
+                    decodedData.put(blockRead);
                 }
+                decodedData.flip();
 
                 //Generate an IntBuffer to store a pointer to the data buffer.
                 IntBuffer dataBufferPointers = BufferUtils.createIntBuffer(1);
@@ -421,6 +580,7 @@ public class InterfaceSound implements IInterfaceSound {
     }
 
     public static void stopAllSounds() {
+        queuedSounds.forEach(voices::remove);
         queuedSounds.clear();
         for (SoundInstance sound : playingSounds) {
             if (sound.radio != null) {
@@ -455,7 +615,14 @@ public class InterfaceSound implements IInterfaceSound {
     @SubscribeEvent
     public static void onIVWorldUnload(LevelEvent.Unload event) {
         if (event.getLevel().isClientSide()) {
-            queuedSounds.removeIf(soundInstance -> event.getLevel() == ((WrapperWorld) soundInstance.entity.world).world);
+            queuedSounds.removeIf(soundInstance -> {
+                if (event.getLevel() == ((WrapperWorld) soundInstance.entity.world).world) {
+                    voices.remove(soundInstance);
+                    return true;
+                } else {
+                    return false;
+                }
+            });
             for (SoundInstance sound : playingSounds) {
                 if (event.getLevel() == ((WrapperWorld) sound.entity.world).world) {
                     if (sound.radio != null) {
@@ -471,4 +638,30 @@ public class InterfaceSound implements IInterfaceSound {
             update();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * State for a normal sound.  This exists whether or not the sound has a source, so the
+     * sound can be started at the right spot when it gets one.
+     */
+    private static class Voice {
+        private final SoundInstance sound;
+        private final int dataBufferIndex;
+        private final boolean looping;
+        private final float length;
+        /**Seconds into the sound we are, or would be if we had a source.**/
+        private float offset;
+        /**False until the first update this voice is in, which is when it starts playing.**/
+        private boolean started;
+        private float score;
+
+        private Voice(SoundInstance sound, int dataBufferIndex) {
+            this.sound = sound;
+            this.dataBufferIndex = dataBufferIndex;
+            this.looping = sound.soundDef != null && sound.soundDef.looping;
+            this.length = bufferLengths.computeIfAbsent(dataBufferIndex, k -> {
+                int bytesPerSecond = AL10.alGetBufferi(dataBufferIndex, AL10.AL_FREQUENCY) * AL10.alGetBufferi(dataBufferIndex, AL10.AL_CHANNELS) * AL10.alGetBufferi(dataBufferIndex, AL10.AL_BITS) / 8;
+                return bytesPerSecond > 0 ? (float) AL10.alGetBufferi(dataBufferIndex, AL10.AL_SIZE) / bytesPerSecond : 0;
+            });
+        }
+    }
+}
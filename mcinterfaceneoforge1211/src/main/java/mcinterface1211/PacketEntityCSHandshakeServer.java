@@ -1,64 +1,86 @@
 package mcinterface1211;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import io.netty.buffer.ByteBuf;
 import minecrafttransportsimulator.mcinterface.AWrapperWorld;
-import minecrafttransportsimulator.mcinterface.IWrapperNBT;
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
 import minecrafttransportsimulator.packets.components.APacketBase;
 import net.minecraft.core.BlockPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtIo;
 
 /**
  * Packet used to send NBT data to clients when requested for it.  Driven by the arrival of a
  * {@link PacketEntityCSHandshakeClient} on the server.  This is used for both normal and tile
- * entities, depending on the format of the string passed-in.
+ * entities, depending on the format of the strings passed-in.  Data for multiple builders is
+ * sent in one packet, as batched up by the {@link HandshakeBatcher}.
  *
  * @author don_bruce
  */
 public class PacketEntityCSHandshakeServer extends APacketBase {
-    private final String builderID;
-    private final IWrapperNBT data;
+    private final List<String> builderIDs = new ArrayList<>();
+    private final List<byte[]> encodedData = new ArrayList<>();
 
-    public PacketEntityCSHandshakeServer(ABuilderEntityBase builder, IWrapperNBT data) {
+    public PacketEntityCSHandshakeServer(List<HandshakeBatcher.Snapshot> snapshots) {
         super(null);
-        this.builderID = builder.getStringUUID();
-        this.data = data;
-    }
-
-    public PacketEntityCSHandshakeServer(BuilderTileEntity builder, IWrapperNBT data) {
-        super(null);
-        this.builderID = builder.getBlockPos().getX() + "," + builder.getBlockPos().getY() + "," + builder.getBlockPos().getZ();
-        this.data = data;
+        for (HandshakeBatcher.Snapshot snapshot : snapshots) {
+            builderIDs.add(snapshot.builderID);
+            encodedData.add(snapshot.data);
+        }
     }
 
     public PacketEntityCSHandshakeServer(ByteBuf buf) {
         super(buf);
-        this.builderID = readStringFromBuffer(buf);
-        this.data = readDataFromBuffer(buf);
+        int count = buf.readInt();
+        for (int i = 0; i < count; ++i) {
+            builderIDs.add(readStringFromBuffer(buf));
+            byte[] data = new byte[buf.readInt()];
+            buf.readBytes(data);
+            encodedData.add(data);
+        }
     }
 
     @Override
     public void writeToBuffer(ByteBuf buf) {
         super.writeToBuffer(buf);
-        writeStringToBuffer(builderID, buf);
-        writeDataToBuffer(data, buf);
+        buf.writeInt(builderIDs.size());
+        for (int i = 0; i < builderIDs.size(); ++i) {
+            writeStringToBuffer(builderIDs.get(i), buf);
+            buf.writeInt(encodedData.get(i).length);
+            buf.writeBytes(encodedData.get(i));
+        }
     }
 
     @Override
     public void handle(AWrapperWorld world) {
-        if (builderID.contains(",")) {
-            String[] stringPos = builderID.split(",");
-            BuilderTileEntity tile = (BuilderTileEntity) ((WrapperWorld) world).world.getBlockEntity(BlockPos.containing(Integer.parseInt(stringPos[0]), Integer.parseInt(stringPos[1]), Integer.parseInt(stringPos[2])));
-            if (tile != null) {
-                tile.lastLoadedNBT = ((WrapperNBT) data).tag;
-                tile.loadFromSavedNBT = true;
+        for (int i = 0; i < builderIDs.size(); ++i) {
+            String builderID = builderIDs.get(i);
+            CompoundTag data;
+            try {
+                data = NbtIo.read(new DataInputStream(new ByteArrayInputStream(encodedData.get(i))));
+            } catch (Exception e) {
+                InterfaceManager.coreInterface.logError("Could not decode data sent from the server for: " + builderID + ".  " + e.getMessage());
+                continue;
             }
-        } else {
-            WrapperEntity mcWrapper = ((WrapperWorld) world).getExternalEntity(UUID.fromString(builderID));
-            if (mcWrapper != null && mcWrapper.entity != null) {
-                //Set last loaded NBT.
-                ((ABuilderEntityBase) mcWrapper.entity).lastLoadedNBT = ((WrapperNBT) data).tag;
-                ((ABuilderEntityBase) mcWrapper.entity).loadFromSavedNBT = true;
+            if (builderID.contains(",")) {
+                String[] stringPos = builderID.split(",");
+                BuilderTileEntity tile = (BuilderTileEntity) ((WrapperWorld) world).world.getBlockEntity(BlockPos.containing(Integer.parseInt(stringPos[0]), Integer.parseInt(stringPos[1]), Integer.parseInt(stringPos[2])));
+                if (tile != null) {
+                    tile.lastLoadedNBT = data;
+                    tile.loadFromSavedNBT = true;
+                }
+            } else {
+                WrapperEntity mcWrapper = ((WrapperWorld) world).getExternalEntity(UUID.fromString(builderID));
+                if (mcWrapper != null && mcWrapper.entity != null) {
+                    //Set last loaded NBT.
+                    ((ABuilderEntityBase) mcWrapper.entity).lastLoadedNBT = data;
+                    ((ABuilderEntityBase) mcWrapper.entity).loadFromSavedNBT = true;
+                }
             }
         }
     }
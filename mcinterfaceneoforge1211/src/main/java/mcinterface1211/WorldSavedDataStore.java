@@ -0,0 +1,307 @@
+package mcinterface1211;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import minecrafttransportsimulator.mcinterface.InterfaceManager;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.nbt.NbtIo;
+import net.minecraft.nbt.Tag;
+
+/**
+ * Write-behind store for world saved data.  Rather than re-writing the whole data file on every change,
+ * changes are diffed against the last saved state at the entry level, one level down from the top-level
+ * names.  Only the changed entries are appended to a journal next to the data file.  Journal writes
+ * happen on a background thread, so the server thread only pays for the diff.  Once the journal gets long,
+ * the whole data tree is written out to the main file and the journal is cleared.
+ * <br><br>
+ * Each journal record is length and CRC prefixed, and holds either one entry, or a whole name if it
+ * was added or removed.  On load, the main file is read, then the journal is replayed on top of it.
+ * If the server died in the middle of a journal write, the torn record at the end fails its check;
+ * it and anything after it are dropped, and the journal is truncated to the last good record.
+ *
+ * @author don_bruce
+ */
+public class WorldSavedDataStore {
+    private static final int RECORDS_PER_COMPACTION = 1024;
+    private static final String NAME_KEY = "n";
+    private static final String ENTRY_KEY = "k";
+    private static final String VALUE_KEY = "v";
+
+    private final File dataFile;
+    private final File journalFile;
+    /**Live data.  This is what callers get and modify.**/
+    public final WrapperNBT data;
+    /**Copies of each top-level name's data as of the last save.  Used to work out what changed.**/
+    private final Map<String, CompoundTag> savedCopies = new HashMap<>();
+    private final ExecutorService ioThread;
+    private int recordsSinceCompaction;
+
+    public WorldSavedDataStore(File dataFile) {
+        this.dataFile = dataFile;
+        this.journalFile = new File(dataFile.getParentFile(), dataFile.getName() + ".journal");
+        this.ioThread = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MTS-WorldData-IO");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompoundTag loadedTag = null;
+        try {
+            if (dataFile.exists() && dataFile.length() > 0) {
+                loadedTag = NbtIo.readCompressed(dataFile.toPath(), NbtAccounter.unlimitedHeap());
+            }
+        } catch (Exception e) {
+            InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Failed to load save data from " + dataFile.getAbsolutePath() + ", starting with empty data.  " + e.getMessage());
+            e.printStackTrace();
+        }
+        if (loadedTag == null) {
+            loadedTag = new CompoundTag();
+        }
+        this.data = new WrapperNBT(loadedTag);
+        recordsSinceCompaction = replayJournal();
+        for (String name : data.tag.getAllKeys()) {
+            savedCopies.put(name, data.tag.getCompound(name).copy());
+        }
+        if (recordsSinceCompaction > 0) {
+            //Fold the journal in now so we start clean.
+            compact();
+        }
+    }
+
+    /**
+     * Sets the data for the passed-in name, and queues the change to be saved.
+     * A null value removes the name.  Returns the changes made, or null if nothing changed.
+     */
+    public Changes setData(String name, WrapperNBT value) {
+        Changes changes = new Changes();
+        List<CompoundTag> records = new ArrayList<>();
+        CompoundTag savedCopy = savedCopies.get(name);
+        if (value == null) {
+            if (savedCopy == null) {
+                return null;
+            }
+            data.tag.remove(name);
+            savedCopies.remove(name);
+            changes.removedName = true;
+            CompoundTag record = new CompoundTag();
+            record.putString(NAME_KEY, name);
+            records.add(record);
+        } else {
+            data.tag.put(name, value.tag);
+            if (savedCopy == null) {
+                //New name, save it all in one go.
+                savedCopy = value.tag.copy();
+                savedCopies.put(name, savedCopy);
+                changes.changedEntries.tag.merge(savedCopy);
+                CompoundTag record = new CompoundTag();
+                record.putString(NAME_KEY, name);
+                record.put(VALUE_KEY, savedCopy.copy());
+                records.add(record);
+            }
+            for (String entry : value.tag.getAllKeys()) {
+                Tag entryTag = value.tag.get(entry);
+                if (!entryTag.equals(savedCopy.get(entry))) {
+                    Tag entryCopy = entryTag.copy();
+                    savedCopy.put(entry, entryCopy);
+                    changes.changedEntries.tag.put(entry, entryCopy.copy());
+                    CompoundTag record = new CompoundTag();
+                    record.putString(NAME_KEY, name);
+                    record.putString(ENTRY_KEY, entry);
+                    record.put(VALUE_KEY, entryCopy.copy());
+                    records.add(record);
+                }
+            }
+            List<String> removedEntries = new ArrayList<>();
+            for (String entry : savedCopy.getAllKeys()) {
+                if (!value.tag.contains(entry)) {
+                    removedEntries.add(entry);
+                }
+            }
+            for (String entry : removedEntries) {
+                savedCopy.remove(entry);
+                changes.removedEntries.add(entry);
+                CompoundTag record = new CompoundTag();
+                record.putString(NAME_KEY, name);
+                record.putString(ENTRY_KEY, entry);
+                records.add(record);
+            }
+            if (records.isEmpty()) {
+                return null;
+            }
+        }
+
+        //Serialize here so the I/O thread never touches live tags.
+        byte[] journalData = encodeRecords(records);
+        ioThread.execute(() -> appendToJournal(journalData));
+        recordsSinceCompaction += records.size();
+        if (recordsSinceCompaction >= RECORDS_PER_COMPACTION) {
+            compact();
+        }
+        return changes;
+    }
+
+    /**
+     * Writes out all data and stops the I/O thread.  Blocks until everything is on disk.
+     */
+    public void close() {
+        compact();
+        ioThread.shutdown();
+        try {
+            if (!ioThread.awaitTermination(30, TimeUnit.SECONDS)) {
+                InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Timed out waiting for world data to save to " + dataFile.getAbsolutePath());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a write of the whole data tree to the main file, after which the journal is cleared.
+     * The tree is copied here, so later changes don't race with the write.
+     */
+    private void compact() {
+        CompoundTag dataCopy = data.tag.copy();
+        recordsSinceCompaction = 0;
+        ioThread.execute(() -> {
+            try {
+                if (dataFile.getParentFile() != null) {
+                    dataFile.getParentFile().mkdirs();
+                }
+                File tempFile = new File(dataFile.getParentFile(), dataFile.getName() + ".tmp");
+                NbtIo.writeCompressed(dataCopy, tempFile.toPath());
+                Files.move(tempFile.toPath(), dataFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                Files.deleteIfExists(journalFile.toPath());
+            } catch (Exception e) {
+                //Journal is still there, so nothing is lost.  We'll try again next compaction.
+                InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Failed to save data to " + dataFile.getAbsolutePath() + ".  " + e.getMessage());
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void appendToJournal(byte[] journalData) {
+        try (FileOutputStream stream = new FileOutputStream(journalFile, true)) {
+            stream.write(journalData);
+        } catch (Exception e) {
+            InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Failed to write data journal " + journalFile.getAbsolutePath() + ".  " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static byte[] encodeRecords(List<CompoundTag> records) {
+        try {
+            ByteArrayOutputStream journalStream = new ByteArrayOutputStream();
+            DataOutputStream journalOutput = new DataOutputStream(journalStream);
+            for (CompoundTag record : records) {
+                ByteArrayOutputStream recordStream = new ByteArrayOutputStream();
+                NbtIo.write(record, new DataOutputStream(recordStream));
+                byte[] recordData = recordStream.toByteArray();
+                CRC32 crc = new CRC32();
+                crc.update(recordData);
+                journalOutput.writeInt(recordData.length);
+                journalOutput.writeInt((int) crc.getValue());
+                journalOutput.write(recordData);
+            }
+            return journalStream.toByteArray();
+        } catch (Exception e) {
+            //Can't happen with byte streams.
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Applies all good records in the journal to the data.  Returns the number of records applied.
+     */
+    private int replayJournal() {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+        int recordCount = 0;
+        long goodLength = 0;
+        try (DataInputStream stream = new DataInputStream(new FileInputStream(journalFile))) {
+            while (true) {
+                int length;
+                try {
+                    length = stream.readInt();
+                } catch (EOFException e) {
+                    //Clean end of journal.
+                    break;
+                }
+                int expectedCRC = stream.readInt();
+                if (length < 0 || length > journalFile.length()) {
+                    throw new EOFException("Bad record length");
+                }
+                byte[] recordData = new byte[length];
+                stream.readFully(recordData);
+                CRC32 crc = new CRC32();
+                crc.update(recordData);
+                if ((int) crc.getValue() != expectedCRC) {
+                    throw new EOFException("Bad record checksum");
+                }
+                applyRecord(NbtIo.read(new DataInputStream(new ByteArrayInputStream(recordData))));
+                goodLength += 8 + length;
+                ++recordCount;
+            }
+        } catch (Exception e) {
+            InterfaceManager.coreInterface.logError("WORLD DATA: Data journal " + journalFile.getAbsolutePath() + " was cut off, likely from a crash.  Recovered " + recordCount + " changes, discarding the rest.");
+            try (RandomAccessFile file = new RandomAccessFile(journalFile, "rw")) {
+                file.setLength(goodLength);
+            } catch (Exception e2) {
+                e2.printStackTrace();
+            }
+        }
+        return recordCount;
+    }
+
+    private void applyRecord(CompoundTag record) {
+        String name = record.getString(NAME_KEY);
+        if (!record.contains(ENTRY_KEY)) {
+            if (record.contains(VALUE_KEY)) {
+                data.tag.put(name, record.get(VALUE_KEY));
+            } else {
+                data.tag.remove(name);
+            }
+        } else {
+            if (!data.tag.contains(name, Tag.TAG_COMPOUND)) {
+                data.tag.put(name, new CompoundTag());
+            }
+            CompoundTag nameTag = data.tag.getCompound(name);
+            if (record.contains(VALUE_KEY)) {
+                nameTag.put(record.getString(ENTRY_KEY), record.get(VALUE_KEY));
+            } else {
+                nameTag.remove(record.getString(ENTRY_KEY));
+            }
+        }
+    }
+
+    /**
+     * Changes made by a call to {@link WorldSavedDataStore#setData(String, WrapperNBT)}.
+     */
+    public static class Changes {
+        /**True if the whole name was removed.**/
+        public boolean removedName;
+        /**Entries that were added or changed, with their new values.**/
+        public final WrapperNBT changedEntries = new WrapperNBT();
+        /**Entries that were removed.**/
+        public final List<String> removedEntries = new ArrayList<>();
+    }
+}
@@ -1,5 +1,7 @@
 package mcinterface1211;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Optional;
 import java.util.Set;
@@ -18,35 +20,48 @@ import net.minecraft.world.phys.Vec3;
  * calls and does checks for each BoundingBox that's in the passed-in list.
  * Mostly used for entities that need complex collision mapping, because MC don't let you have more
  * than one AABB per entity, but somehow you can have more than one for something as small as a block?
+ * <br><br>
+ * Collectives are meant to be kept between ticks and refreshed via {@link #update()}.  Since MC's AABBs
+ * can't be changed, a new collective is made when the entity's encompassing box changes, but it shares
+ * its box list with the old one.  The box list itself is only rebuilt when the entity's boxes change.
  *
  * @author don_bruce
  */
 public class WrapperAABBCollective extends AABB {
     private final AEntityE_Interactable<?> interactable;
-    private final boolean collision;
-    private final Set<BoundingBox> boxes = new HashSet<>();
+    private final CollectiveBoxes boxes;
 
     public WrapperAABBCollective(AEntityE_Interactable<?> interactable, boolean collision) {
+        this(interactable, new CollectiveBoxes(collision));
+        boxes.refresh(interactable);
+    }
+
+    private WrapperAABBCollective(AEntityE_Interactable<?> interactable, CollectiveBoxes boxes) {
         super(interactable.encompassingBox.globalCenter.x - interactable.encompassingBox.widthRadius, interactable.encompassingBox.globalCenter.y - interactable.encompassingBox.heightRadius, interactable.encompassingBox.globalCenter.z - interactable.encompassingBox.depthRadius, interactable.encompassingBox.globalCenter.x + interactable.encompassingBox.widthRadius, interactable.encompassingBox.globalCenter.y + interactable.encompassingBox.heightRadius, interactable.encompassingBox.globalCenter.z + interactable.encompassingBox.depthRadius);
         this.interactable = interactable;
-        this.collision = collision;
+        this.boxes = boxes;
     }
 
-    public synchronized Set<BoundingBox> getBoxes() {
-        if (boxes.isEmpty()) {
-            (interactable instanceof AEntityF_Multipart ? ((AEntityF_Multipart<?>) interactable).allCollisionBoxes : interactable.collisionBoxes).forEach(box -> {
-                if (collision) {
-                    if (box.collisionTypes.contains(CollisionType.ENTITY)) {
-                        boxes.add(box);
-                    }
-                } else {
-                    if (box.collisionTypes.contains(CollisionType.ATTACK) || box.collisionTypes.contains(CollisionType.CLICK)) {
-                        boxes.add(box);
-                    }
-                }
-            });
+    /**
+     * Updates this collective to the current state of the entity.  Returns this collective if the
+     * encompassing box hasn't changed, or a new collective sharing this one's box list if it has.
+     * Call this once per tick from the thread that updates the entity.
+     */
+    public WrapperAABBCollective update() {
+        boxes.refresh(interactable);
+        BoundingBox encompassingBox = interactable.encompassingBox;
+        if (minX == encompassingBox.globalCenter.x - encompassingBox.widthRadius && minY == encompassingBox.globalCenter.y - encompassingBox.heightRadius && minZ == encompassingBox.globalCenter.z - encompassingBox.depthRadius && maxX == encompassingBox.globalCenter.x + encompassingBox.widthRadius && maxY == encompassingBox.globalCenter.y + encompassingBox.heightRadius && maxZ == encompassingBox.globalCenter.z + encompassingBox.depthRadius) {
+            return this;
+        } else {
+            return new WrapperAABBCollective(interactable, boxes);
         }
-        return boxes;
+    }
+
+    /**
+     * Returns the boxes in this collective.  The returned set is never modified, so it may be iterated on any thread.
+     */
+    public Set<BoundingBox> getBoxes() {
+        return boxes.current;
     }
 
     @Override
@@ -104,6 +119,55 @@ public class WrapperAABBCollective extends AABB {
         return new Vec3(x, y, z);
     }
 
+    /**
+     * The filtered box list for a collective.  Keeps a copy of the entity's box list from the last refresh
+     * so changes can be spotted without needing the entity to tell us about them.
+     */
+    private static class CollectiveBoxes {
+        private final boolean collision;
+        private volatile Set<BoundingBox> current = Collections.emptySet();
+        private BoundingBox[] lastSourceBoxes = new BoundingBox[0];
+
+        private CollectiveBoxes(boolean collision) {
+            this.collision = collision;
+        }
+
+        private void refresh(AEntityE_Interactable<?> interactable) {
+            Collection<BoundingBox> sourceBoxes = interactable instanceof AEntityF_Multipart ? ((AEntityF_Multipart<?>) interactable).allCollisionBoxes : interactable.collisionBoxes;
+
+            //Boxes are the same objects tick to tick, so an identity check in order is enough.
+            //If the order changes without the boxes changing, we just do an extra rebuild.
+            boolean changed = sourceBoxes.size() != lastSourceBoxes.length;
+            if (!changed) {
+                int index = 0;
+                for (BoundingBox box : sourceBoxes) {
+                    if (box != lastSourceBoxes[index++]) {
+                        changed = true;
+                        break;
+                    }
+                }
+            }
+
+            if (changed) {
+                lastSourceBoxes = sourceBoxes.toArray(new BoundingBox[sourceBoxes.size()]);
+                Set<BoundingBox> newBoxes = new HashSet<>();
+                for (BoundingBox box : lastSourceBoxes) {
+                    if (collision) {
+                        if (box.collisionTypes.contains(CollisionType.ENTITY)) {
+                            newBoxes.add(box);
+                        }
+                    } else {
+                        if (box.collisionTypes.contains(CollisionType.ATTACK) || box.collisionTypes.contains(CollisionType.CLICK)) {
+                            newBoxes.add(box);
+                        }
+                    }
+                }
+                //Swap in the new set rather than modifying the old one, as other threads may be checking collision with it.
+                current = newBoxes;
+            }
+        }
+    }
+
     private double calculateXOffset(AABB box, double offset) {
         for (BoundingBox testBox : getBoxes()) {
             if (box.maxY > testBox.globalCenter.y - testBox.heightRadius && box.minY < testBox.globalCenter.y + testBox.heightRadius && box.maxZ > testBox.globalCenter.z - testBox.depthRadius && box.minZ < testBox.globalCenter.z + testBox.depthRadius) {
@@ -5,6 +5,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.Damage;
@@ -47,7 +48,7 @@ import net.neoforged.fml.common.EventBusSubscriber;
 @EventBusSubscriber
 public class WrapperEntity implements IWrapperEntity {
     private static final Map<Entity, WrapperEntity> entityClientWrappers = new HashMap<>();
-    private static final Map<Entity, WrapperEntity> entityServerWrappers = new HashMap<>();
+    private static final Map<Entity, WrapperEntity> entityServerWrappers = new ConcurrentHashMap<>();
 
     protected final Entity entity;
     private AEntityB_Existing cachedEntityRiding;
@@ -227,6 +227,14 @@ class WrapperNBT implements IWrapperNBT {
         tag.remove(name);
     }
 
+    @Override
+    public void setAllEntries(IWrapperNBT source) {
+        CompoundTag sourceTag = ((WrapperNBT) source).tag;
+        for (String name : sourceTag.getAllKeys()) {
+            tag.put(name, sourceTag.get(name).copy());
+        }
+    }
+
     @Override
     public Set<String> getAllNames() {
         return tag.getAllKeys();
@@ -2,6 +2,7 @@ package mcinterface1211;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import minecrafttransportsimulator.items.components.AItemBase;
 import minecrafttransportsimulator.items.instances.ItemItem;
@@ -29,7 +30,7 @@ import net.neoforged.fml.common.EventBusSubscriber;
 
 public class WrapperPlayer extends WrapperEntity implements IWrapperPlayer {
     private static final Map<Player, WrapperPlayer> playerClientWrappers = new HashMap<>();
-    private static final Map<Player, WrapperPlayer> playerServerWrappers = new HashMap<>();
+    private static final Map<Player, WrapperPlayer> playerServerWrappers = new ConcurrentHashMap<>();
 
     protected final Player player;
 
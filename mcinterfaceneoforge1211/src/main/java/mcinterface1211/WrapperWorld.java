@@ -1,16 +1,12 @@
 package mcinterface1211;
 import net.minecraft.core.registries.Registries;
-import net.minecraft.core.registries.BuiltInRegistries;
 
 import java.io.File;
-import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 
 import com.google.common.collect.Streams;
@@ -23,6 +19,7 @@ import minecrafttransportsimulator.baseclasses.BlockHitResult;
 import minecrafttransportsimulator.baseclasses.BoundingBox;
 import minecrafttransportsimulator.baseclasses.ColorRGB;
 import minecrafttransportsimulator.baseclasses.Damage;
+import minecrafttransportsimulator.baseclasses.EntityTickScheduler;
 import minecrafttransportsimulator.baseclasses.Point3D;
 import minecrafttransportsimulator.blocks.components.ABlockBase;
 import minecrafttransportsimulator.blocks.components.ABlockBase.Axis;
@@ -50,14 +47,15 @@ import minecrafttransportsimulator.packloading.PackParser;
 import minecrafttransportsimulator.systems.ConfigSystem;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
-import net.minecraft.nbt.NbtIo;
-import net.minecraft.nbt.NbtAccounter;
+import net.minecraft.core.SectionPos;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundEvents;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.tags.BlockTags;
 import net.minecraft.tags.FluidTags;
 import net.minecraft.tags.TagKey;
+import net.minecraft.util.Mth;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.Entity;
@@ -72,9 +70,9 @@ import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.item.StandingAndWallBlockItem;
 import net.minecraft.world.item.context.UseOnContext;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.ClipContext;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.LightLayer;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.BonemealableBlock;
@@ -94,15 +92,13 @@ import net.minecraft.world.level.material.MapColor;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.HitResult;
 import net.minecraft.world.phys.Vec3;
-import net.minecraft.world.phys.shapes.BooleanOp;
-import net.minecraft.world.phys.shapes.Shapes;
-import net.minecraft.world.phys.shapes.VoxelShape;
 // IPlantable interface removed in NeoForge 1.21.1, replaced with SpecialPlantable system
 // SpecialPlantable implementation added in plantBlock() method
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.common.Tags;
 import net.neoforged.neoforge.capabilities.Capabilities;
 import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
 import net.neoforged.neoforge.event.level.LevelEvent;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.items.IItemHandler;
@@ -122,12 +118,18 @@ public class WrapperWorld extends AWrapperWorld {
     private final Map<UUID, BuilderEntityExisting> playerServerGunBuilders = new HashMap<>();
     private final Map<UUID, Integer> ticksSincePlayerJoin = new HashMap<>();
     private static Map<UUID, BuilderEntityRenderForwarder> playerFollowers = new HashMap<>();
-    private final List<AABB> mutableCollidingAABBs = new ArrayList<>();
-    private final Set<BlockPos> knownAirBlocks = new HashSet<>();
+    //These are per-thread, as collisions may be checked on multiple threads when ticking entities in parallel.
+    private final ThreadLocal<double[]> mutableCollisionBounds = ThreadLocal.withInitial(() -> new double[6]);
+    private final ThreadLocal<BlockPos.MutableBlockPos> mutableCollisionPos = ThreadLocal.withInitial(BlockPos.MutableBlockPos::new);
+    private final BlockCollisionCache collisionCache;
+    private final BlockSampleCache sampleCache;
+    /**Batches handshake data being sent to clients.  Only used on servers.**/
+    public final HandshakeBatcher handshakeBatcher = new HandshakeBatcher();
 
 
     protected final Level world;
     private final IWrapperNBT savedData;
+    private final WorldSavedDataStore savedDataStore;
 
     /**
      * Returns a wrapper instance for the passed-in world instance.
@@ -149,45 +151,17 @@ public class WrapperWorld extends AWrapperWorld {
     private WrapperWorld(Level world) {
         super();
         this.world = world;
+        this.collisionCache = new BlockCollisionCache(world);
+        this.sampleCache = new BlockSampleCache(world);
         if (world.isClientSide) {
             //Send packet to server to request data for this world.
             this.savedData = InterfaceManager.coreInterface.getNewNBTWrapper();
             InterfaceManager.packetInterface.sendToServer(new PacketWorldSavedDataRequest(InterfaceManager.clientInterface.getClientPlayer()));
+            this.savedDataStore = null;
         } else {
             //Load data from disk.
-            IWrapperNBT loadedData = null;
-            try {
-                File dataFile = getDataFile();
-                InterfaceManager.coreInterface.logError("WORLD DATA: Attempting to load save data from: " + dataFile.getAbsolutePath());
-                if (dataFile.exists()) {
-                    long fileSize = dataFile.length();
-                    InterfaceManager.coreInterface.logError("WORLD DATA: Save file exists with size: " + fileSize + " bytes, loading NBT data...");
-
-                    if (fileSize > 0) {
-                        loadedData = new WrapperNBT(NbtIo.readCompressed(Files.newInputStream(dataFile.toPath()), NbtAccounter.unlimitedHeap()));
-                        InterfaceManager.coreInterface.logError("WORLD DATA: Successfully loaded save data from disk!");
-
-                        // Log basic info about loaded data
-                        if (loadedData != null) {
-                            InterfaceManager.coreInterface.logError("WORLD DATA DEBUG: Loaded NBT contains data keys: " + ((WrapperNBT) loadedData).tag.getAllKeys().size());
-                        }
-                    } else {
-                        InterfaceManager.coreInterface.logError("WORLD DATA: Save file exists but is empty (0 bytes), creating new empty data");
-                        loadedData = InterfaceManager.coreInterface.getNewNBTWrapper();
-                    }
-                } else {
-                    InterfaceManager.coreInterface.logError("WORLD DATA: No save file found, creating new empty data (this is normal for new worlds)");
-                    loadedData = InterfaceManager.coreInterface.getNewNBTWrapper();
-                }
-            } catch (Exception e) {
-                InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Failed to load save data! Exception: " + e.getClass().getSimpleName() + ": " + e.getMessage());
-                InterfaceManager.coreInterface.logError("WORLD DATA: Data file path was: " + getDataFile().getAbsolutePath());
-                InterfaceManager.coreInterface.logError("WORLD DATA: Creating new empty data to prevent data loss");
-                e.printStackTrace();
-                // Instead of throwing exception, create new data
-                loadedData = InterfaceManager.coreInterface.getNewNBTWrapper();
-            }
-            this.savedData = loadedData;
+            this.savedDataStore = new WorldSavedDataStore(getDataFile());
+            this.savedData = savedDataStore.data;
         }
         NeoForge.EVENT_BUS.register(this);
     }
@@ -219,6 +193,10 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void beginProfiling(String name, boolean subProfile) {
+        //Profiler isn't thread-safe, so don't profile parallel ticks.
+        if (EntityTickScheduler.isParallelTickThread()) {
+            return;
+        }
         if (subProfile) {
             world.getProfiler().push(name);
         } else {
@@ -228,9 +206,22 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void endProfiling() {
+        if (EntityTickScheduler.isParallelTickThread()) {
+            return;
+        }
         world.getProfiler().pop();
     }
 
+    @Override
+    public boolean supportsParallelTicking() {
+        return true;
+    }
+
+    @Override
+    public boolean runPendingWorldTask() {
+        return world instanceof ServerLevel && ((ServerLevel) world).getChunkSource().pollTask();
+    }
+
     @Override
     public IWrapperNBT getData(String name) {
         if (name.isEmpty()) {
@@ -242,37 +233,21 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void setData(String name, IWrapperNBT value) {
-        InterfaceManager.coreInterface.logError("WORLD DATA DEBUG: setData() called for name: '" + name + "' (isClient: " + isClient() + ")");
-        savedData.setData(name, value);
-        if (!isClient()) {
-            try {
-                File dataFile = getDataFile();
-                InterfaceManager.coreInterface.logError("WORLD DATA DEBUG: Attempting to save to file: " + dataFile.getAbsolutePath());
-
-                // Ensure the parent directory exists
-                if (dataFile.getParentFile() != null && !dataFile.getParentFile().exists()) {
-                    boolean dirCreated = dataFile.getParentFile().mkdirs();
-                    InterfaceManager.coreInterface.logError("WORLD DATA DEBUG: Created parent directories: " + dirCreated);
-                }
-
-                NbtIo.writeCompressed(((WrapperNBT) savedData).tag, Files.newOutputStream(dataFile.toPath()));
-                InterfaceManager.coreInterface.logError("WORLD DATA DEBUG: Successfully saved NBT data to disk!");
-
-                // Verify file was created and has content
-                if (dataFile.exists() && dataFile.length() > 0) {
-                    InterfaceManager.coreInterface.logError("WORLD DATA DEBUG: Verified save file exists with size: " + dataFile.length() + " bytes");
+        if (isClient()) {
+            if (value != null) {
+                savedData.setData(name, value);
+            } else {
+                savedData.deleteEntry(name);
+            }
+        } else {
+            //Store handles saving in the background, we just need to tell clients what changed.
+            WorldSavedDataStore.Changes changes = savedDataStore.setData(name, (WrapperNBT) value);
+            if (changes != null) {
+                if (changes.removedName) {
+                    InterfaceManager.packetInterface.sendToAllClients(new PacketWorldSavedDataUpdate(name, null));
                 } else {
-                    InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Save file was not created or is empty!");
+                    InterfaceManager.packetInterface.sendToAllClients(new PacketWorldSavedDataUpdate(name, changes.changedEntries, changes.removedEntries));
                 }
-
-                InterfaceManager.packetInterface.sendToAllClients(new PacketWorldSavedDataUpdate(name, value));
-            } catch (Exception e) {
-                InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Failed to save data to disk! Exception: " + e.getClass().getSimpleName() + ": " + e.getMessage());
-                InterfaceManager.coreInterface.logError("WORLD DATA ERROR: Data file path was: " + getDataFile().getAbsolutePath());
-                InterfaceManager.coreInterface.logError("WORLD DATA ERROR: This will result in data loss - placed mod items will disappear on restart!");
-                e.printStackTrace();
-                // Don't throw exception to prevent crashes - log detailed error instead
-                // throw new IllegalStateException("Could not save data to disk!  This will result in data loss if we continue!");
             }
         }
     }
@@ -332,6 +307,18 @@ public class WrapperWorld extends AWrapperWorld {
         return players;
     }
 
+    @Override
+    public List<IWrapperPlayer> getPlayersTracking(Point3D position) {
+        List<IWrapperPlayer> players = new ArrayList<>();
+        if (world instanceof ServerLevel) {
+            ChunkPos chunkPos = new ChunkPos(Mth.floor(position.x) >> 4, Mth.floor(position.z) >> 4);
+            for (ServerPlayer player : ((ServerLevel) world).getChunkSource().chunkMap.getPlayers(chunkPos, false)) {
+                players.add(WrapperPlayer.getWrapperFor(player));
+            }
+        }
+        return players;
+    }
+
     @Override
     public List<IWrapperEntity> getEntitiesHostile(IWrapperEntity lookingEntity, double radius) {
         List<IWrapperEntity> entities = new ArrayList<>();
@@ -345,6 +332,9 @@ public class WrapperWorld extends AWrapperWorld {
     }
     @Override
     public void spawnEntity(AEntityB_Existing entity) {
+        if (EntityTickScheduler.deferIfParallel(() -> spawnEntityInternal(entity))) {
+            return;
+        }
         spawnEntityInternal(entity);
     }
 
@@ -420,6 +410,9 @@ public class WrapperWorld extends AWrapperWorld {
 
         if (generateList) {
             return hitEntities;
+        } else if (EntityTickScheduler.isParallelTickThread()) {
+            EntityTickScheduler.deferIfParallel(() -> hitEntities.forEach(entity -> entity.attack(damage)));
+            return null;
         } else {
             for (IWrapperEntity entity : hitEntities) {
                 entity.attack(damage);
@@ -461,6 +454,9 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void removeItemStackEntity(IWrapperEntity entity) {
+        if (EntityTickScheduler.deferIfParallel(() -> removeItemStackEntity(entity))) {
+            return;
+        }
         ((WrapperEntity) entity).entity.kill();
     }
 
@@ -482,7 +478,7 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public String getBlockName(Point3D position) {
-        return BuiltInRegistries.BLOCK.getKey(world.getBlockState(BlockPos.containing(position.x, position.y, position.z)).getBlock()).toString();
+        return sampleCache.getSample(BlockPos.containing(position.x, position.y, position.z)).getBlockName();
     }
 
     @Override
@@ -497,14 +493,20 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public float getBlockSlipperiness(Point3D position) {
-        BlockPos pos = BlockPos.containing(position.x, position.y, position.z);
-        BlockState state = world.getBlockState(pos);
-        return state.getBlock().getFriction(state, world, pos, null);
+        return sampleCache.getSample(BlockPos.containing(position.x, position.y, position.z)).getSlipperiness();
     }
 
     private static final HashMap<TagKey<?>, BlockMaterial> tagMap = new LinkedHashMap<>();
     @Override
     public BlockMaterial getBlockMaterial(Point3D position) {
+        return sampleCache.getSample(BlockPos.containing(position.x, position.y, position.z)).getMaterial();
+    }
+
+    /**
+     * Returns the material for the passed-in block, or null if it is empty.
+     * Static so {@link BlockSampleCache} can use it.
+     */
+    static BlockMaterial getBlockMaterial(BlockState state) {
         if (tagMap.isEmpty()) {
             // BlockTags.GRAVEL never existed in vanilla MC - gravel is a single block type
             // Alternative: Check for Blocks.GRAVEL directly or create custom tag
@@ -532,11 +534,9 @@ public class WrapperWorld extends AWrapperWorld {
             tagMap.put(FluidTags.LAVA, BlockMaterial.LAVA);
             tagMap.put(FluidTags.WATER, BlockMaterial.WATER);
         }
-        BlockPos pos = BlockPos.containing(position.x, position.y, position.z);
-        if (world.isEmptyBlock(pos)) {
+        if (state.isAir()) {
             return null;
         } else {
-            BlockState state = world.getBlockState(pos);
             Block block = state.getBlock();
             //Check for grass first, since it shares tags with dirt.
             if (block instanceof GrassBlock) {
@@ -606,7 +606,7 @@ public class WrapperWorld extends AWrapperWorld {
     @SuppressWarnings("deprecation")
     @Override
     public boolean isBlockLiquid(Point3D position) {
-        return world.getBlockState(BlockPos.containing(position.x, position.y, position.z)).liquid();
+        return sampleCache.getSample(BlockPos.containing(position.x, position.y, position.z)).getState().liquid();
     }
 
     @Override
@@ -623,90 +623,73 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public double getHeight(Point3D position) {
-        BlockPos pos = BlockPos.containing(position.x, position.y, position.z);
-        //Need to go down till we find a block.
-        boolean bottomSlab = false;
-        while (pos.getY() > world.getMinBuildHeight()) {
-            if (!world.isEmptyBlock(pos)) {
-                //Check for a slab, since this affects distance.
-                BlockState state = world.getBlockState(pos);
-                bottomSlab = state.getBlock() instanceof SlabBlock && state.getValue(SlabBlock.TYPE) == SlabType.BOTTOM;
-
-                //Adjust up since we need to be above the top block.
-                pos = pos.above();
-                break;
-            }
-            pos = pos.below();
-        }
-        return bottomSlab ? position.y - (pos.getY() - 0.5) : position.y - pos.getY();
+        return sampleCache.getHeight(BlockPos.containing(position.x, position.y, position.z), position.y);
     }
 
-    @SuppressWarnings("deprecation")
     @Override
     public void updateBoundingBoxCollisions(BoundingBox box, Point3D collisionMotion, boolean ignoreIfGreater) {
-        AABB mcBox = WrapperWorld.convert(box);
-        VoxelShape mcShape = Shapes.create(mcBox);
+        double[] bounds = setCollisionBounds(box, 0, 0, 0);
+        BlockPos.MutableBlockPos pos = mutableCollisionPos.get();
         box.collidingBlockPositions.clear();
-        mutableCollidingAABBs.clear();
-        for (int i = (int) Math.floor(mcBox.minX); i < Math.ceil(mcBox.maxX); ++i) {
-            for (int j = (int) Math.floor(mcBox.minY); j < Math.ceil(mcBox.maxY); ++j) {
-                for (int k = (int) Math.floor(mcBox.minZ); k < Math.ceil(mcBox.maxZ); ++k) {
-                    BlockPos pos = BlockPos.containing(i, j, k);
-                    if (!world.isEmptyBlock(pos)) {
-                        BlockState state = world.getBlockState(pos);
-                        VoxelShape collisionShape = state.getCollisionShape(world, pos).move(i, j, k);
-                        if (!collisionShape.isEmpty() && Shapes.joinIsNotEmpty(mcShape, collisionShape, BooleanOp.AND) && !state.is(BlockTags.LEAVES)) {
-                            mutableCollidingAABBs.addAll(collisionShape.toAabbs());
-                            box.collidingBlockPositions.add(new Point3D(i, j, k));
-                        }
-                        if (box.collidesWithLiquids && state.liquid()) {
-                            mutableCollidingAABBs.add(Shapes.block().bounds().move(pos));
-                            box.collidingBlockPositions.add(new Point3D(i, j, k));
+        box.currentCollisionDepth.set(0D, 0D, 0D);
+        BlockCollisionCache.Section section = null;
+        long sectionKey = 0;
+        for (int i = (int) Math.floor(bounds[0]); i < Math.ceil(bounds[3]); ++i) {
+            for (int j = (int) Math.floor(bounds[1]); j < Math.ceil(bounds[4]); ++j) {
+                for (int k = (int) Math.floor(bounds[2]); k < Math.ceil(bounds[5]); ++k) {
+                    long blockSectionKey = SectionPos.asLong(i >> 4, j >> 4, k >> 4);
+                    if (section == null || blockSectionKey != sectionKey) {
+                        section = collisionCache.getSection(i, j, k);
+                        sectionKey = blockSectionKey;
+                    }
+                    pos.set(i, j, k);
+                    synchronized (section) {
+                        int index = BlockCollisionCache.Section.getIndex(i, j, k);
+                        int flags = section.load(world, pos, index);
+                        if ((flags & BlockCollisionCache.FLAG_UNCACHED) != 0) {
+                            //Can't use the cache for this block, get the shape from the world.
+                            BlockState state = world.getBlockState(pos);
+                            if (!state.is(BlockTags.LEAVES)) {
+                                List<AABB> collisionBoxes = state.getCollisionShape(world, pos).toAabbs();
+                                for (AABB colBox : collisionBoxes) {
+                                    if (intersects(bounds, colBox.minX + i, colBox.minY + j, colBox.minZ + k, colBox.maxX + i, colBox.maxY + j, colBox.maxZ + k)) {
+                                        for (AABB colBox2 : collisionBoxes) {
+                                            addCollisionDepth(box, collisionMotion, bounds, colBox2.minX + i, colBox2.minY + j, colBox2.minZ + k, colBox2.maxX + i, colBox2.maxY + j, colBox2.maxZ + k);
+                                        }
+                                        box.addCollidingBlockPosition(i, j, k);
+                                        break;
+                                    }
+                                }
+                            }
+                            if (box.collidesWithLiquids && state.liquid()) {
+                                addCollisionDepth(box, collisionMotion, bounds, i, j, k, i + 1, j + 1, k + 1);
+                                box.addCollidingBlockPosition(i, j, k);
+                            }
+                        } else {
+                            if ((flags & BlockCollisionCache.FLAG_LEAVES) == 0) {
+                                double[] boxes = section.boxes;
+                                int boxStart = section.getBoxStart(index);
+                                int boxEnd = section.getBoxEnd(index);
+                                for (int b = boxStart; b < boxEnd; b += 6) {
+                                    if (intersects(bounds, boxes[b] + i, boxes[b + 1] + j, boxes[b + 2] + k, boxes[b + 3] + i, boxes[b + 4] + j, boxes[b + 5] + k)) {
+                                        for (int b2 = boxStart; b2 < boxEnd; b2 += 6) {
+                                            addCollisionDepth(box, collisionMotion, bounds, boxes[b2] + i, boxes[b2 + 1] + j, boxes[b2 + 2] + k, boxes[b2 + 3] + i, boxes[b2 + 4] + j, boxes[b2 + 5] + k);
+                                        }
+                                        box.addCollidingBlockPosition(i, j, k);
+                                        break;
+                                    }
+                                }
+                            }
+                            if (box.collidesWithLiquids && (flags & BlockCollisionCache.FLAG_LIQUID) != 0) {
+                                addCollisionDepth(box, collisionMotion, bounds, i, j, k, i + 1, j + 1, k + 1);
+                                box.addCollidingBlockPosition(i, j, k);
+                            }
                         }
                     }
                 }
             }
         }
 
-        //If we are in the depth bounds for this collision, set it as the collision depth.
-        box.currentCollisionDepth.set(0D, 0D, 0D);
-        double boxCollisionDepth;
-        for (AABB colBox : mutableCollidingAABBs) {
-            if (collisionMotion.x > 0) {
-                boxCollisionDepth = mcBox.maxX - colBox.minX;
-                if (box.currentCollisionDepth.x < boxCollisionDepth) {
-                    box.currentCollisionDepth.x = boxCollisionDepth;
-                }
-            } else if (collisionMotion.x < 0) {
-                boxCollisionDepth = -(colBox.maxX - mcBox.minX);
-                if (box.currentCollisionDepth.x > boxCollisionDepth) {
-                    box.currentCollisionDepth.x = boxCollisionDepth;
-                }
-            }
-            if (collisionMotion.y > 0) {
-                boxCollisionDepth = mcBox.maxY - colBox.minY;
-                if (box.currentCollisionDepth.y < boxCollisionDepth) {
-                    box.currentCollisionDepth.y = boxCollisionDepth;
-                }
-            } else if (collisionMotion.y < 0) {
-                boxCollisionDepth = -(colBox.maxY - mcBox.minY);
-                if (box.currentCollisionDepth.y > boxCollisionDepth) {
-                    box.currentCollisionDepth.y = boxCollisionDepth;
-                }
-            }
-            if (collisionMotion.z > 0) {
-                boxCollisionDepth = mcBox.maxZ - colBox.minZ;
-                if (box.currentCollisionDepth.z < boxCollisionDepth) {
-                    box.currentCollisionDepth.z = boxCollisionDepth;
-                }
-            } else if (collisionMotion.z < 0) {
-                boxCollisionDepth = -(colBox.maxZ - mcBox.minZ);
-                if (box.currentCollisionDepth.z > boxCollisionDepth) {
-                    box.currentCollisionDepth.z = boxCollisionDepth;
-                }
-            }
-        }
-
         if (ignoreIfGreater) {
             if (collisionMotion.x > 0 && box.currentCollisionDepth.x > collisionMotion.x) {
                 box.currentCollisionDepth.x = collisionMotion.x;
@@ -730,40 +713,60 @@ public class WrapperWorld extends AWrapperWorld {
         }
     }
 
-    @SuppressWarnings("deprecation")
     @Override
     public boolean checkForCollisions(BoundingBox box, Point3D offset, boolean clearCache, boolean breakLeaves) {
-        if (clearCache) {
-            knownAirBlocks.clear();
-        }
-        mutableCollidingAABBs.clear();
-        AABB mcBox = WrapperWorld.convertWithOffset(box, offset.x, offset.y, offset.z);
-        VoxelShape mcShape = Shapes.create(mcBox);
-        for (int i = (int) Math.floor(mcBox.minX); i < Math.ceil(mcBox.maxX); ++i) {
-            for (int j = (int) Math.floor(mcBox.minY); j < Math.ceil(mcBox.maxY); ++j) {
-                for (int k = (int) Math.floor(mcBox.minZ); k < Math.ceil(mcBox.maxZ); ++k) {
-                    BlockPos pos = BlockPos.containing(i, j, k);
-                    if (!knownAirBlocks.contains(pos)) {
-                        if (world.isLoaded(pos)) {
-                            BlockState state = world.getBlockState(pos);
-                            VoxelShape collisionShape = state.getCollisionShape(world, pos).move(i, j, k);
-                            if (!state.is(BlockTags.LEAVES)) {
-                                if (collisionShape != null && !collisionShape.isEmpty() && Shapes.joinIsNotEmpty(mcShape, collisionShape, BooleanOp.AND)) {
-                                    return true;
-                                } else {
-                                    knownAirBlocks.add(pos);
-                                }
-                                if (box.collidesWithLiquids && state.liquid()) {
-                                    if (mcBox.intersects(Shapes.block().bounds().move(pos))) {
+        //Cache is handled by the block collision cache, which is always up-to-date, so we don't need to clear anything here.
+        double[] bounds = setCollisionBounds(box, offset.x, offset.y, offset.z);
+        BlockPos.MutableBlockPos pos = mutableCollisionPos.get();
+        BlockCollisionCache.Section section = null;
+        long sectionKey = 0;
+        for (int i = (int) Math.floor(bounds[0]); i < Math.ceil(bounds[3]); ++i) {
+            for (int j = (int) Math.floor(bounds[1]); j < Math.ceil(bounds[4]); ++j) {
+                for (int k = (int) Math.floor(bounds[2]); k < Math.ceil(bounds[5]); ++k) {
+                    pos.set(i, j, k);
+                    if (world.isLoaded(pos)) {
+                        long blockSectionKey = SectionPos.asLong(i >> 4, j >> 4, k >> 4);
+                        if (section == null || blockSectionKey != sectionKey) {
+                            section = collisionCache.getSection(i, j, k);
+                            sectionKey = blockSectionKey;
+                        }
+                        boolean isLeaves;
+                        synchronized (section) {
+                            int index = BlockCollisionCache.Section.getIndex(i, j, k);
+                            int flags = section.load(world, pos, index);
+                            if ((flags & BlockCollisionCache.FLAG_UNCACHED) != 0) {
+                                //Can't use the cache for this block, get the shape from the world.
+                                BlockState state = world.getBlockState(pos);
+                                isLeaves = state.is(BlockTags.LEAVES);
+                                if (!isLeaves) {
+                                    for (AABB colBox : state.getCollisionShape(world, pos).toAabbs()) {
+                                        if (intersects(bounds, colBox.minX + i, colBox.minY + j, colBox.minZ + k, colBox.maxX + i, colBox.maxY + j, colBox.maxZ + k)) {
+                                            return true;
+                                        }
+                                    }
+                                    if (box.collidesWithLiquids && state.liquid() && intersects(bounds, i, j, k, i + 1, j + 1, k + 1)) {
                                         return true;
                                     }
                                 }
-                            } else if (breakLeaves) {
-                                world.destroyBlock(pos, false);
                             } else {
-                                knownAirBlocks.add(pos);
+                                isLeaves = (flags & BlockCollisionCache.FLAG_LEAVES) != 0;
+                                if (!isLeaves) {
+                                    double[] boxes = section.boxes;
+                                    int boxEnd = section.getBoxEnd(index);
+                                    for (int b = section.getBoxStart(index); b < boxEnd; b += 6) {
+                                        if (intersects(bounds, boxes[b] + i, boxes[b + 1] + j, boxes[b + 2] + k, boxes[b + 3] + i, boxes[b + 4] + j, boxes[b + 5] + k)) {
+                                            return true;
+                                        }
+                                    }
+                                    if (box.collidesWithLiquids && (flags & BlockCollisionCache.FLAG_LIQUID) != 0 && intersects(bounds, i, j, k, i + 1, j + 1, k + 1)) {
+                                        return true;
+                                    }
+                                }
                             }
                         }
+                        if (isLeaves && breakLeaves) {
+                            world.destroyBlock(pos.immutable(), false);
+                        }
                     }
                 }
             }
@@ -771,6 +774,69 @@ public class WrapperWorld extends AWrapperWorld {
         return false;
     }
 
+    /**
+     * Sets the thread's collision bounds array to the passed-in box, with the passed-in offset.
+     * Bounds are in minX, minY, minZ, maxX, maxY, maxZ order.
+     */
+    private double[] setCollisionBounds(BoundingBox box, double x, double y, double z) {
+        double[] bounds = mutableCollisionBounds.get();
+        bounds[0] = x + box.globalCenter.x - box.widthRadius;
+        bounds[1] = y + box.globalCenter.y - box.heightRadius;
+        bounds[2] = z + box.globalCenter.z - box.depthRadius;
+        bounds[3] = x + box.globalCenter.x + box.widthRadius;
+        bounds[4] = y + box.globalCenter.y + box.heightRadius;
+        bounds[5] = z + box.globalCenter.z + box.depthRadius;
+        return bounds;
+    }
+
+    /**
+     * Returns true if the passed-in bounds overlap the passed-in box.  Boxes that only touch don't count.
+     */
+    private static boolean intersects(double[] bounds, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        return bounds[0] < maxX && bounds[3] > minX && bounds[1] < maxY && bounds[4] > minY && bounds[2] < maxZ && bounds[5] > minZ;
+    }
+
+    /**
+     * Adds the depth of the collision between the bounds and the passed-in box to the box's collision depth.
+     * If we are in the depth bounds for this collision, set it as the collision depth.
+     */
+    private static void addCollisionDepth(BoundingBox box, Point3D collisionMotion, double[] bounds, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        double boxCollisionDepth;
+        if (collisionMotion.x > 0) {
+            boxCollisionDepth = bounds[3] - minX;
+            if (box.currentCollisionDepth.x < boxCollisionDepth) {
+                box.currentCollisionDepth.x = boxCollisionDepth;
+            }
+        } else if (collisionMotion.x < 0) {
+            boxCollisionDepth = -(maxX - bounds[0]);
+            if (box.currentCollisionDepth.x > boxCollisionDepth) {
+                box.currentCollisionDepth.x = boxCollisionDepth;
+            }
+        }
+        if (collisionMotion.y > 0) {
+            boxCollisionDepth = bounds[4] - minY;
+            if (box.currentCollisionDepth.y < boxCollisionDepth) {
+                box.currentCollisionDepth.y = boxCollisionDepth;
+            }
+        } else if (collisionMotion.y < 0) {
+            boxCollisionDepth = -(maxY - bounds[1]);
+            if (box.currentCollisionDepth.y > boxCollisionDepth) {
+                box.currentCollisionDepth.y = boxCollisionDepth;
+            }
+        }
+        if (collisionMotion.z > 0) {
+            boxCollisionDepth = bounds[5] - minZ;
+            if (box.currentCollisionDepth.z < boxCollisionDepth) {
+                box.currentCollisionDepth.z = boxCollisionDepth;
+            }
+        } else if (collisionMotion.z < 0) {
+            boxCollisionDepth = -(maxZ - bounds[2]);
+            if (box.currentCollisionDepth.z > boxCollisionDepth) {
+                box.currentCollisionDepth.z = boxCollisionDepth;
+            }
+        }
+    }
+
     @Override
     public int getRedstonePower(Point3D position) {
         return world.getBestNeighborSignal(BlockPos.containing(position.x, position.y, position.z));
@@ -778,12 +844,18 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public float getRainStrength(Point3D position) {
-        return world.isRainingAt(BlockPos.containing(position.x, position.y + 1, position.z)) ? world.getRainLevel(1.0F) + world.getThunderLevel(1.0F) : 0.0F;
+        return sampleCache.getSample(BlockPos.containing(position.x, position.y + 1, position.z)).getRainStrength();
     }
 
     @Override
     public float getTemperature(Point3D position) {
-        BlockPos pos = BlockPos.containing(position.x, position.y, position.z);
+        return sampleCache.getSample(BlockPos.containing(position.x, position.y, position.z)).getTemperature();
+    }
+
+    /**
+     * Returns the temperature at the passed-in position.  Static so {@link BlockSampleCache} can use it.
+     */
+    static float getTemperature(Level world, BlockPos pos) {
         return ((BiomeMixin) ((Object) world.getBiome(pos).value())).invoke_getTemperature(pos);
     }
 
@@ -838,11 +910,11 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public float getLightBrightness(Point3D position, boolean calculateBlock) {
-        BlockPos pos = BlockPos.containing(position.x, position.y, position.z);
+        BlockSampleCache.Sample sample = sampleCache.getSample(BlockPos.containing(position.x, position.y, position.z));
         //Sunlight never goes below 11 in this version, so we factor the darkening.
         float darkenFactor = 15 * world.getSkyDarken() / 11F;
-        float sunLight = (world.getBrightness(LightLayer.SKY, pos) - darkenFactor) / 15F;
-        float blockLight = calculateBlock ? world.getBrightness(LightLayer.BLOCK, pos) / 15F : 0.0F;
+        float sunLight = (sample.getSkyLight() - darkenFactor) / 15F;
+        float blockLight = calculateBlock ? sample.getBlockLight() / 15F : 0.0F;
         return Math.max(sunLight, blockLight);
     }
 
@@ -856,6 +928,11 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void destroyBlock(Point3D position, boolean spawnDrops) {
+        if (EntityTickScheduler.isParallelTickThread()) {
+            Point3D deferredPosition = position.copy();
+            EntityTickScheduler.deferIfParallel(() -> destroyBlock(deferredPosition, spawnDrops));
+            return;
+        }
         world.destroyBlock(BlockPos.containing(position.x, position.y, position.z), spawnDrops);
     }
 
@@ -872,6 +949,11 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void setToFire(Point3D position, Axis side) {
+        if (EntityTickScheduler.isParallelTickThread()) {
+            Point3D deferredPosition = position.copy();
+            EntityTickScheduler.deferIfParallel(() -> setToFire(deferredPosition, side));
+            return;
+        }
         BlockPos blockpos = BlockPos.containing(position.x, position.y, position.z).relative(Direction.valueOf(side.name()));
         if (world.isEmptyBlock(blockpos)) {
             world.setBlockAndUpdate(blockpos, Blocks.FIRE.defaultBlockState());
@@ -880,6 +962,11 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void extinguish(Point3D position) {
+        if (EntityTickScheduler.isParallelTickThread()) {
+            Point3D deferredPosition = position.copy();
+            EntityTickScheduler.deferIfParallel(() -> extinguish(deferredPosition));
+            return;
+        }
         for (Direction side : Direction.values()) {
             BlockPos blockpos = BlockPos.containing(position.x, position.y, position.z).relative(side);
             if (world.getBlockState(blockpos).is(BlockTags.FIRE)) {
@@ -1104,6 +1191,12 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void spawnItemStack(IWrapperItemStack stack, Point3D point, Point3D optionalMotion) {
+        if (EntityTickScheduler.isParallelTickThread()) {
+            Point3D deferredPoint = point.copy();
+            Point3D deferredMotion = optionalMotion != null ? optionalMotion.copy() : null;
+            EntityTickScheduler.deferIfParallel(() -> spawnItemStack(stack, deferredPoint, deferredMotion));
+            return;
+        }
         ItemEntity item;
         if (optionalMotion != null) {
             item = new ItemEntity(world, point.x, point.y, point.z, ((WrapperItemStack) stack).stack);
@@ -1117,6 +1210,11 @@ public class WrapperWorld extends AWrapperWorld {
 
     @Override
     public void spawnExplosion(Point3D location, double strength, boolean flames, boolean damageBlocks) {
+        if (EntityTickScheduler.isParallelTickThread()) {
+            Point3D deferredLocation = location.copy();
+            EntityTickScheduler.deferIfParallel(() -> spawnExplosion(deferredLocation, strength, flames, damageBlocks));
+            return;
+        }
         world.explode(null, location.x, location.y, location.z, (float) strength, flames, damageBlocks ? Level.ExplosionInteraction.BLOCK : Level.ExplosionInteraction.NONE);
     }
 
@@ -1228,6 +1326,41 @@ public class WrapperWorld extends AWrapperWorld {
         //Need to check if it's our world, because Forge is stupid like that.
         if (!event.getLevel().isClientSide() && event.getLevel().equals(world)) {
             tickAll(false);
+            handshakeBatcher.flush();
+        }
+    }
+
+    /**
+     * Called when a block changes in a world.  Removes any cached collisions for that block,
+     * and wakes any dormant vehicles near it on servers.
+     */
+    public static void onBlockChanged(Level world, BlockPos pos) {
+        WrapperWorld wrapper = worldWrappers.get(world);
+        if (wrapper != null) {
+            wrapper.collisionCache.invalidate(pos);
+            wrapper.sampleCache.invalidate(pos);
+            if (!world.isClientSide()) {
+                wrapper.wakeVehiclesNearBlock(pos.getX(), pos.getY(), pos.getZ());
+            }
+        }
+    }
+
+    /**
+     * Chunks that load or unload may not match what we have cached, so remove them from the cache.
+     */
+    @SubscribeEvent
+    public void onIVChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() == world) {
+            collisionCache.invalidateChunk(event.getChunk().getPos().x, event.getChunk().getPos().z);
+            sampleCache.invalidateChunk(event.getChunk().getPos().x, event.getChunk().getPos().z);
+        }
+    }
+
+    @SubscribeEvent
+    public void onIVChunkUnload(ChunkEvent.Unload event) {
+        if (event.getLevel() == world) {
+            collisionCache.invalidateChunk(event.getChunk().getPos().x, event.getChunk().getPos().z);
+            sampleCache.invalidateChunk(event.getChunk().getPos().x, event.getChunk().getPos().z);
         }
     }
 
@@ -1240,6 +1373,11 @@ public class WrapperWorld extends AWrapperWorld {
         //Need to check if it's our world, because Forge is stupid like that.
         if (event.getLevel() == world) {
             onUnload();
+            collisionCache.clear();
+            sampleCache.clear();
+            if (savedDataStore != null) {
+                savedDataStore.close();
+            }
             worldWrappers.remove(world);
         }
     }
@@ -0,0 +1,33 @@
+package mcinterface1211.mixin.common;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+import mcinterface1211.WrapperWorld;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+@Mixin(LevelChunk.class)
+public abstract class LevelChunkMixin {
+    @Shadow
+    @Final
+    Level level;
+
+    /**
+     * Need this to know when blocks change so we can clear cached collisions.
+     * All block changes in loaded chunks go through here, on both the client and server.
+     * A null return means the state didn't change.
+     */
+    @Inject(method = "setBlockState", at = @At(value = "RETURN"))
+    private void inject_setBlockState(BlockPos pPos, BlockState pState, boolean pIsMoving, CallbackInfoReturnable<BlockState> ci) {
+        if (ci.getReturnValue() != null) {
+            WrapperWorld.onBlockChanged(level, pPos);
+        }
+    }
+}